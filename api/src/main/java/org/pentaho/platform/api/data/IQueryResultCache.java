@@ -0,0 +1,69 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.data;
+
+import org.pentaho.commons.connection.IPentahoResultSet;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A cache of the in-memory results of queries, shared by all users, which follows the "loading cache" pattern.
+ * <p>
+ * Results are keyed by the datasource, the query, the values of its parameters, the row level security constraint
+ * which applies to the current user and the maximum number of rows. Caching is opt-in, per datasource: results of
+ * datasources for which {@link #isEnabled(String)} is {@code false} are not cached.
+ */
+public interface IQueryResultCache {
+
+  /**
+   * Indicates if the results of queries of a given datasource are cached.
+   *
+   * @param datasource The name of the datasource.
+   * @return {@code true} if the results are cached; {@code false}, otherwise.
+   */
+  boolean isEnabled( String datasource );
+
+  /**
+   * Gets the cached result of a query, loading it with the given loader and storing it in the cache, if not available.
+   * Concurrent requests for the same result wait for a single load.
+   * <p>
+   * The loader must return a result set which is not live, such as one returned by
+   * {@link IPentahoResultSet#memoryCopy()}. If the results of the datasource are not cached, the loader is always
+   * called.
+   *
+   * @param datasource         The name of the datasource.
+   * @param query              The query.
+   * @param parameters         The values of the parameters of the query, if any.
+   * @param securityConstraint The row level security constraint which applies to the query, if any.
+   * @param maxRows            The maximum number of rows of the result, or a negative value, if unlimited.
+   * @param loader             The loader of the result.
+   * @return A result set positioned before the first row, or {@code null}, if the loader returned {@code null}.
+   * @throws Exception When the loader fails.
+   */
+  IPentahoResultSet getOrLoad( String datasource, String query, List<?> parameters, String securityConstraint,
+                               int maxRows, Callable<IPentahoResultSet> loader ) throws Exception;
+
+  /**
+   * Clears the cached results of the queries of a given datasource.
+   *
+   * @param datasource The name of the datasource.
+   */
+  void invalidate( String datasource );
+
+  /**
+   * Clears all cached results.
+   */
+  void invalidateAll();
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.platform.api.engine;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -42,6 +43,19 @@ public interface IAuthorizationPolicy {
    */
   boolean isAllowed( final String actionName );
 
+  /**
+   * Returns {@code true} if all of the given actions should be allowed.
+   * <p>
+   * Implementations may evaluate the actions in a single batch, sharing any work common to them.
+   *
+   * @param actionNames
+   *          names of actions
+   * @return {@code true} to allow all
+   */
+  default boolean isAllowedAll( final Collection<String> actionNames ) {
+    return actionNames.stream().allMatch( this::isAllowed );
+  }
+
   /**
    * Returns all actions in the given namespace that are currently allowed.
    * 
@@ -249,6 +249,43 @@ public interface ICacheManager extends ILogoutListener {
 
   public void removeFromRegionCache( String region, Object key );
 
+  /**
+   * Puts an object in the cache within a specific region, tagged so that it can later be removed, together with all
+   * other entries sharing one of its tags, by {@link #invalidateByTag(String, Object)}. Tags are arbitrary objects
+   * with value semantics, such as a session id, a domain id or a tenant; tags already associated with the key are kept.
+   * <p>
+   * Implementations without a tag index ignore the tags, and {@link #invalidateByTag(String, Object)} then clears the
+   * whole region.
+   *
+   * @param region
+   *          the region to put the object in
+   * @param key
+   *          The key to store the data object with
+   * @param value
+   *          The data object to cache
+   * @param tags
+   *          The tags of the entry
+   */
+  default void putInRegionCache( String region, Object key, Object value, Object... tags ) {
+    putInRegionCache( region, key, value );
+  }
+
+  /**
+   * Removes every entry of a region tagged with <code>tag</code> by
+   * {@link #putInRegionCache(String, Object, Object, Object...)}. Unlike scanning
+   * {@link #getAllKeysFromRegionCache(String)}, this only touches the tagged entries.
+   * <p>
+   * The default implementation, for cache managers without a tag index, clears the whole region.
+   *
+   * @param region
+   *          the region where the objects were put in the cache
+   * @param tag
+   *          The tag of the entries to remove
+   */
+  default void invalidateByTag( String region, Object tag ) {
+    clearRegionCache( region );
+  }
+
   // Removing the Cache entries count methods because
   //      1. These methods not being used
   //      2. Hibernate + JCache doesn't have a straight forward way to get the number
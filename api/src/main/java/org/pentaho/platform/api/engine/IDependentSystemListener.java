@@ -0,0 +1,39 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.engine;
+
+import java.util.Collection;
+
+/**
+ * A system listener that declares which other listeners must have started before it. Listeners that do not
+ * implement this interface are started in the order they are configured, after every listener configured before
+ * them; a dependent listener only waits for the listeners it names, so independent listeners can be started
+ * concurrently.
+ */
+public interface IDependentSystemListener extends IPentahoSystemListener {
+
+  /**
+   * The id other listeners use to depend on this one. Listeners that do not implement this interface are known by
+   * their class name.
+   */
+  default String getStartupId() {
+    return getClass().getName();
+  }
+
+  /**
+   * The ids of the listeners that must have started successfully before this listener is started.
+   */
+  Collection<String> getStartupDependencies();
+
+}
@@ -17,6 +17,7 @@ import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthori
 import org.pentaho.platform.api.engine.security.authorization.exceptions.AuthorizationFailureException;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * The {@code IAuthorizationContext} interface represents a single authorization process.
@@ -81,4 +82,22 @@ public interface IAuthorizationContext {
   Optional<IAuthorizationDecision> authorizeRule( @NonNull IAuthorizationRequest request,
                                                   @NonNull IAuthorizationRule<? extends IAuthorizationRequest> rule )
     throws AuthorizationFailureException;
+
+  /**
+   * Gets a value which is shared by the evaluations of this context, computing it if it is not yet known.
+   * <p>
+   * Authorization rules may use this method to perform lookups only once for all the requests evaluated in this
+   * context, such as those of a {@link IAuthorizationService#authorizeAll batch authorization}. The key must identify
+   * all inputs of the computation, and the computed value must only depend on these.
+   * <p>
+   * The default implementation does not share values, and always computes them.
+   *
+   * @param key      The key of the value.
+   * @param supplier The supplier which computes the value.
+   * @param <T>      The type of the value.
+   * @return The value.
+   */
+  default <T> T getOrCompute( @NonNull Object key, @NonNull Supplier<T> supplier ) {
+    return supplier.get();
+  }
 }
@@ -16,6 +16,9 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthorizationDecision;
 import org.pentaho.platform.api.engine.security.authorization.exceptions.AuthorizationFailureException;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -53,6 +56,53 @@ public interface IAuthorizationService {
     return authorize( request, IAuthorizationOptions.getDefault() );
   }
 
+  /**
+   * Authorizes a batch of authorization requests, with specific options.
+   * <p>
+   * The requests are evaluated as a whole, so that implementations can share the work which is common to several of
+   * them, such as resolving the roles of a principal, looking up role bindings or authorizing the base action of
+   * derived actions. The decisions are the same as if each request was authorized on its own.
+   * <p>
+   * The default implementation authorizes each request separately.
+   *
+   * @param requests The authorization requests.
+   * @param options  The authorization options.
+   * @return A map from each distinct request to its decision, in the order of the requests, never {@code null}.
+   * @throws AuthorizationFailureException When the authorization process of any of the requests fails.
+   */
+  @NonNull
+  default Map<IAuthorizationRequest, IAuthorizationDecision> authorizeAll(
+    @NonNull Collection<? extends IAuthorizationRequest> requests,
+    @NonNull IAuthorizationOptions options )
+    throws AuthorizationFailureException {
+
+    Map<IAuthorizationRequest, IAuthorizationDecision> decisions = new LinkedHashMap<>();
+    for ( IAuthorizationRequest request : requests ) {
+      if ( !decisions.containsKey( request ) ) {
+        decisions.put( request, authorize( request, options ) );
+      }
+    }
+
+    return decisions;
+  }
+
+  /**
+   * Authorizes a batch of authorization requests, with default options.
+   * <p>
+   * This method is a convenience method equivalent to calling:
+   * {@code instance.authorizeAll( requests, AuthorizationOptions.getDefault() )}.
+   *
+   * @param requests The authorization requests.
+   * @return A map from each distinct request to its decision, in the order of the requests, never {@code null}.
+   * @throws AuthorizationFailureException When the authorization process of any of the requests fails.
+   */
+  @NonNull
+  default Map<IAuthorizationRequest, IAuthorizationDecision> authorizeAll(
+    @NonNull Collection<? extends IAuthorizationRequest> requests )
+    throws AuthorizationFailureException {
+    return authorizeAll( requests, IAuthorizationOptions.getDefault() );
+  }
+
   /**
    * Authorizes a given authorization request using a specific rule, with specific options.
    *
@@ -13,6 +13,11 @@
 
 package org.pentaho.platform.api.repository2.unified;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.pentaho.platform.api.engine.IPentahoSession;
 
 /**
@@ -41,4 +46,39 @@ public interface IRepositoryAccessVoterManager {
    */
   public boolean hasAccess( final RepositoryFile file, final RepositoryFilePermission operation,
       final RepositoryFileAcl repositoryFileAcl, final IPentahoSession session );
+
+  /**
+   * Tells whether any voter will be consulted for the given session. When this returns false, {@link #hasAccess}
+   * grants every operation and callers may skip reading ACLs altogether.
+   *
+   * @param session
+   * @return false if access is granted without voting
+   */
+  default boolean isVotingRequired( final IPentahoSession session ) {
+    return true;
+  }
+
+  /**
+   * Evaluates access for several files at once. Implementations can share work that does not depend on the file, such
+   * as resolving the caller's privileges, across the whole batch.
+   *
+   * @param files
+   *          files to check
+   * @param operation
+   * @param repositoryFileAcls
+   *          ACL of each file, keyed by file id; files without an entry are denied
+   * @param session
+   * @return the files, in their original order, for which access is granted
+   */
+  default List<RepositoryFile> hasAccess( final List<RepositoryFile> files, final RepositoryFilePermission operation,
+      final Map<Serializable, RepositoryFileAcl> repositoryFileAcls, final IPentahoSession session ) {
+    List<RepositoryFile> granted = new ArrayList<RepositoryFile>( files.size() );
+    for ( RepositoryFile file : files ) {
+      RepositoryFileAcl acl = repositoryFileAcls.get( file.getId() );
+      if ( acl != null && hasAccess( file, operation, acl, session ) ) {
+        granted.add( file );
+      }
+    }
+    return granted;
+  }
 }
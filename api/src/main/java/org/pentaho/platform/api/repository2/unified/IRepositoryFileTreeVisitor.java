@@ -0,0 +1,49 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.repository2.unified;
+
+/**
+ * Receives the nodes of a repository tree, one at a time, as it is being traversed. This is the incremental
+ * counterpart of {@link IUnifiedRepository#getTree(RepositoryRequest)}: instead of materializing a
+ * {@link RepositoryFileTree}, the repository calls {@link #startNode} for each node in pre-order and
+ * {@link #endNode} once all of the node's descendants have been reported.
+ * <p>
+ * A node is always started after its parent and ended before its next sibling is started. Implementations must not
+ * hold on to the traversal beyond the call; they are typically invoked while the repository session is open.
+ *
+ * @see IUnifiedRepository#walkTree(RepositoryRequest, IRepositoryFileTreeVisitor)
+ */
+public interface IRepositoryFileTreeVisitor {
+
+  /**
+   * Called when a node is reached.
+   *
+   * @param file
+   *          the file or folder at this node
+   * @param level
+   *          distance from the root of the traversal; the root is at level 0
+   */
+  void startNode( final RepositoryFile file, final int level );
+
+  /**
+   * Called once all reported descendants of a node have been visited.
+   *
+   * @param file
+   *          the file or folder previously passed to {@link #startNode}
+   * @param level
+   *          distance from the root of the traversal
+   */
+  void endNode( final RepositoryFile file, final int level );
+
+}
@@ -14,6 +14,8 @@
 package org.pentaho.platform.api.repository2.unified;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
@@ -71,6 +73,26 @@ public interface IUnifiedRepository {
    */
   RepositoryFileTree getTree( final RepositoryRequest repositoryRequest );
 
+  /**
+   * Traverses the tree rooted at the request path and reports each node to the visitor as it is reached, without
+   * building a {@link RepositoryFileTree}. Siblings are reported in name order. When
+   * {@link RepositoryRequest#getMaxNodes()} is positive, at most that many nodes are reported and the returned page
+   * carries a token to continue the traversal with {@link RepositoryRequest#setPageToken(String)}.
+   * <p>
+   * The default implementation materializes the tree with {@link #getTree(RepositoryRequest)} and replays it as a
+   * single page.
+   *
+   * @param repositoryRequest
+   *          Contains the information necessary to process the request.  See the {@link RepositoryRequest} class.
+   * @param visitor
+   *          receives the nodes of the tree
+   * @return page information; the visitor receives no nodes if the root does not exist or access is denied
+   */
+  default RepositoryFileTreePage walkTree( final RepositoryRequest repositoryRequest,
+                                           final IRepositoryFileTreeVisitor visitor ) {
+    return RepositoryFileTreePage.replay( getTree( repositoryRequest ), visitor );
+  }
+
   /**
    * Gets file as it was at the given version.
    * 
@@ -667,6 +689,42 @@ public interface IUnifiedRepository {
    */
   Map<String, Serializable> getFileMetadata( final Serializable fileId );
 
+  /**
+   * Gets the files directly under a folder whose metadata entry <code>metadataKey</code> equals
+   * <code>metadataValue</code>. Folders and hidden files are excluded and the files are sorted in their natural
+   * order, i.e. by title.
+   * <p>
+   * The default implementation reads the metadata of every child of the folder. Repositories that can look files up
+   * by their metadata override it.
+   *
+   * @param folderId
+   *          id of folder whose children to search
+   * @param metadataKey
+   *          metadata key, as in {@link #getFileMetadata(Serializable)}
+   * @param metadataValue
+   *          value the metadata entry must have
+   * @param offset
+   *          index of the first matching file to return
+   * @param limit
+   *          maximum number of files to return; a negative value returns all of them
+   * @return list of matching files (never {@code null})
+   */
+  default List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+                                                      final String metadataValue, final int offset,
+                                                      final int limit ) {
+    List<RepositoryFile> matches = new ArrayList<RepositoryFile>();
+    for ( RepositoryFile child : getChildren( folderId ) ) {
+      if ( !child.isFolder() && !child.isHidden()
+          && metadataValue.equals( getFileMetadata( child.getId() ).get( metadataKey ) ) ) {
+        matches.add( child );
+      }
+    }
+    Collections.sort( matches );
+    int from = Math.min( Math.max( offset, 0 ), matches.size() );
+    int to = limit < 0 ? matches.size() : (int) Math.min( (long) from + limit, matches.size() );
+    return new ArrayList<RepositoryFile>( matches.subList( from, to ) );
+  }
+
   /**
    * Returns a list of characters which cannot be used in file/folder names. These characters must be escaped using
    * percent-encoding. Callers may safely cache this value. Note that it is the responsibility of the
@@ -0,0 +1,88 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.repository2.unified;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of a single {@link IUnifiedRepository#walkTree(RepositoryRequest, IRepositoryFileTreeVisitor)} call.
+ * When the node budget of the request ({@link RepositoryRequest#getMaxNodes()}) was exhausted before the traversal
+ * finished, {@link #getNextPageToken()} returns the token to pass in {@link RepositoryRequest#setPageToken(String)}
+ * to continue where this page stopped.
+ */
+public class RepositoryFileTreePage implements Serializable {
+
+  private static final long serialVersionUID = 2213796370561640245L;
+
+  private final int nodeCount;
+
+  private final String nextPageToken;
+
+  public RepositoryFileTreePage( final int nodeCount, final String nextPageToken ) {
+    this.nodeCount = nodeCount;
+    this.nextPageToken = nextPageToken;
+  }
+
+  /**
+   * @return number of nodes passed to {@link IRepositoryFileTreeVisitor#startNode} in this page
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * @return opaque token to request the next page, or {@code null} if the traversal is complete
+   */
+  public String getNextPageToken() {
+    return nextPageToken;
+  }
+
+  public boolean isComplete() {
+    return nextPageToken == null;
+  }
+
+  /**
+   * Replays an already materialized tree to a visitor. Used by repositories that cannot traverse incrementally; the
+   * whole tree is reported as a single page.
+   *
+   * @param tree
+   *          tree to replay; may be {@code null}
+   * @param visitor
+   *          receiver of the nodes
+   * @return a complete page
+   */
+  public static RepositoryFileTreePage replay( final RepositoryFileTree tree,
+                                               final IRepositoryFileTreeVisitor visitor ) {
+    return new RepositoryFileTreePage( tree == null ? 0 : replay( tree, visitor, 0 ), null );
+  }
+
+  private static int replay( final RepositoryFileTree tree, final IRepositoryFileTreeVisitor visitor,
+                             final int level ) {
+    int count = 1;
+    visitor.startNode( tree.getFile(), level );
+    if ( tree.getChildren() != null ) {
+      for ( RepositoryFileTree child : tree.getChildren() ) {
+        count += replay( child, visitor, level + 1 );
+      }
+    }
+    visitor.endNode( tree.getFile(), level );
+    return count;
+  }
+
+  @SuppressWarnings( "nls" )
+  @Override
+  public String toString() {
+    return "RepositoryFileTreePage [nodeCount=" + nodeCount + ", nextPageToken=" + nextPageToken + "]";
+  }
+}
@@ -39,6 +39,8 @@ public class RepositoryRequest {
 
   private transient String workingFilter; // temporary storage of remaining filter text as it is parsed.
   private String childNodeFilter;
+  private String pageToken;
+  private int maxNodes = -1;
 
   /**
    * This class encapsulates the parameters received by the "children" and "tree" REST calls. It provides default values
@@ -248,4 +250,30 @@ public class RepositoryRequest {
     this.includeAcls = includeAcls;
   }
 
+  public String getPageToken() {
+    return pageToken;
+  }
+
+  /**
+   * @param pageToken
+   *          Token returned by a previous, incomplete tree traversal. The traversal resumes right after the last node
+   *          reported by that page. Default is null, which starts at the root.
+   */
+  public void setPageToken( String pageToken ) {
+    this.pageToken = pageToken;
+  }
+
+  public int getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * @param maxNodes
+   *          Maximum number of nodes reported by one incremental tree traversal. Zero or a negative value means no
+   *          limit. Default is -1.
+   */
+  public void setMaxNodes( int maxNodes ) {
+    this.maxNodes = maxNodes;
+  }
+
 }
@@ -17,6 +17,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.StringLayout;
 
 import java.io.OutputStream;
+import java.util.function.UnaryOperator;
 
 public interface IRepositoryExportLogger extends Log {
 
@@ -77,4 +78,13 @@ public interface IRepositoryExportLogger extends Log {
    * @return true if the logger is present.
    */
   boolean hasLogger();
+
+  /**
+   * Captures the job started on the calling thread, so that threads working for it log to the same job.
+   *
+   * @return wraps a task so that it runs as part of the captured job
+   */
+  default UnaryOperator<Runnable> captureJob() {
+    return UnaryOperator.identity();
+  }
 }
@@ -0,0 +1,55 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.repository2.unified;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class IUnifiedRepositoryTest {
+
+  @Test
+  public void testDefaultGetChildrenByMetadataSkipsFoldersAndHiddenFilesAndSorts() {
+    IUnifiedRepository repository = mock( IUnifiedRepository.class, CALLS_REAL_METHODS );
+    RepositoryFile c = file( "c.prpt", false );
+    RepositoryFile a = file( "a.prpt", false );
+    RepositoryFile hidden = file( "hidden.prpt", true );
+    RepositoryFile other = file( "other.prpt", false );
+    RepositoryFile b = file( "b.prpt", false );
+    RepositoryFile folder = new RepositoryFile.Builder( "folder", "folder" ).folder( true ).build();
+    doReturn( Arrays.asList( c, folder, hidden, other, b, a ) ).when( repository ).getChildren( "home" );
+    for ( RepositoryFile file : Arrays.asList( a, b, c, hidden, folder ) ) {
+      doReturn( Collections.<String, Serializable>singletonMap( "creator", "report" ) ).when( repository )
+        .getFileMetadata( file.getId() );
+    }
+    doReturn( Collections.<String, Serializable>singletonMap( "creator", "other" ) ).when( repository )
+      .getFileMetadata( other.getId() );
+
+    assertEquals( Arrays.asList( a, b, c ), repository.getChildrenByMetadata( "home", "creator", "report", 0, -1 ) );
+    List<RepositoryFile> page = repository.getChildrenByMetadata( "home", "creator", "report", 1, 1 );
+    assertEquals( Collections.singletonList( b ), page );
+  }
+
+  private static RepositoryFile file( final String name, final boolean hidden ) {
+    return new RepositoryFile.Builder( name, name ).hidden( hidden ).build();
+  }
+}
@@ -0,0 +1,72 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.api.repository2.unified;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class RepositoryFileTreePageTest {
+
+  @Test
+  public void testReplayVisitsInPreOrder() {
+    RepositoryFile root = new RepositoryFile.Builder( "root" ).path( "/root" ).folder( true ).build();
+    RepositoryFile folder = new RepositoryFile.Builder( "a" ).path( "/root/a" ).folder( true ).build();
+    RepositoryFile file = new RepositoryFile.Builder( "b.txt" ).path( "/root/a/b.txt" ).build();
+    RepositoryFileTree tree = new RepositoryFileTree( root, Arrays.asList(
+      new RepositoryFileTree( folder, Collections.singletonList(
+        new RepositoryFileTree( file, null ) ) ) ) );
+
+    final List<String> events = new ArrayList<>();
+    RepositoryFileTreePage page = RepositoryFileTreePage.replay( tree, new IRepositoryFileTreeVisitor() {
+      @Override
+      public void startNode( RepositoryFile f, int level ) {
+        events.add( "start " + f.getPath() + " " + level );
+      }
+
+      @Override
+      public void endNode( RepositoryFile f, int level ) {
+        events.add( "end " + f.getPath() + " " + level );
+      }
+    } );
+
+    assertEquals( Arrays.asList( "start /root 0", "start /root/a 1", "start /root/a/b.txt 2", "end /root/a/b.txt 2",
+      "end /root/a 1", "end /root 0" ), events );
+    assertEquals( 3, page.getNodeCount() );
+    assertTrue( page.isComplete() );
+    assertNull( page.getNextPageToken() );
+  }
+
+  @Test
+  public void testReplayNullTree() {
+    RepositoryFileTreePage page = RepositoryFileTreePage.replay( null, null );
+    assertEquals( 0, page.getNodeCount() );
+    assertTrue( page.isComplete() );
+  }
+
+  @Test
+  public void testIncompletePage() {
+    RepositoryFileTreePage page = new RepositoryFileTreePage( 10, "/public/a" );
+    assertFalse( page.isComplete() );
+    assertEquals( "/public/a", page.getNextPageToken() );
+  }
+}
@@ -13,18 +13,28 @@
 
 package org.pentaho.commons.system;
 
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 
 import java.sql.Driver;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.ServiceLoader;
 
 /**
  * This listener makes sure that all available JDBC Drivers are loaded so that we do not
  * need to call Class.forName on PentahoSystemDriver for example.
  */
-public class LoadDriversListener implements IPentahoSystemListener {
+public class LoadDriversListener implements IDependentSystemListener {
   @SuppressWarnings( "StatementWithEmptyBody" )
+  /**
+   * Loading the JDBC drivers does not need any other listener.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Collections.emptyList();
+  }
+
   @Override
   public boolean startup( IPentahoSession session ) {
     for ( Driver driver : ServiceLoader.load( Driver.class ) ) {
@@ -0,0 +1,174 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A secondary index from tags to the cache keys tagged with them, used to invalidate every entry sharing a tag
+ * without scanning the keys of the cache. A key may have any number of tags; the index keeps both directions so that
+ * removing a key or a tag costs in proportion to the entries involved, not to the size of the cache.
+ * <p>
+ * The index does not hold values and is not aware of the cache it indexes: callers tag a key when they put it, and
+ * remove it when the cache drops it. A key that is left behind in the index after its entry expired is harmless; it is
+ * simply removed again when one of its tags is invalidated. Caches that do not report expiry and eviction call
+ * {@link #pruneIfGrown(Predicate)} as they tag keys, so that such keys do not accumulate.
+ * <p>
+ * All operations are thread-safe. They synchronize on the index, so a caller can synchronize on it as well to update
+ * the cache and the index atomically, e.g. so that an entry put concurrently with the invalidation of its tag is
+ * either tagged before the invalidation or put after it.
+ *
+ * @param <K> the type of the cache keys
+ * @param <T> the type of the tags
+ */
+public class CacheTagIndex<K, T> {
+
+  private final Map<T, Set<K>> keysByTag = new HashMap<>();
+
+  private final Map<K, Set<T>> tagsByKey = new HashMap<>();
+
+  /**
+   * Number of keys above which {@link #pruneIfGrown(Predicate)} next scans the index
+   */
+  private int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+  private static final int MIN_PRUNE_THRESHOLD = 1024;
+
+  /**
+   * Adds tags to a key, keeping any tags it already has.
+   */
+  public synchronized void tag( K key, Collection<? extends T> tags ) {
+    if ( key == null || tags == null || tags.isEmpty() ) {
+      return;
+    }
+    Set<T> keyTags = tagsByKey.computeIfAbsent( key, k -> new HashSet<>() );
+    for ( T tag : tags ) {
+      if ( tag != null && keyTags.add( tag ) ) {
+        keysByTag.computeIfAbsent( tag, t -> new HashSet<>() ).add( key );
+      }
+    }
+    if ( keyTags.isEmpty() ) {
+      tagsByKey.remove( key );
+    }
+  }
+
+  /**
+   * Removes a key and all its tags from the index.
+   */
+  public synchronized void remove( K key ) {
+    Set<T> keyTags = tagsByKey.remove( key );
+    if ( keyTags != null ) {
+      for ( T tag : keyTags ) {
+        unlink( tag, key );
+      }
+    }
+  }
+
+  /**
+   * Removes a tag from the index, together with every key tagged with it.
+   *
+   * @return the keys that were tagged with <code>tag</code>; the caller removes them from the cache
+   */
+  public synchronized Set<K> removeTag( T tag ) {
+    Set<K> keys = keysByTag.remove( tag );
+    if ( keys == null ) {
+      return Collections.emptySet();
+    }
+    for ( K key : keys ) {
+      Set<T> keyTags = tagsByKey.remove( key );
+      if ( keyTags != null ) {
+        for ( T other : keyTags ) {
+          if ( !other.equals( tag ) ) {
+            unlink( other, key );
+          }
+        }
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * @return a copy of the keys currently tagged with <code>tag</code>
+   */
+  public synchronized Set<K> getKeys( T tag ) {
+    Set<K> keys = keysByTag.get( tag );
+    return keys != null ? new HashSet<>( keys ) : Collections.emptySet();
+  }
+
+  /**
+   * @return true if the key has at least one tag
+   */
+  public synchronized boolean isTagged( K key ) {
+    return tagsByKey.containsKey( key );
+  }
+
+  /**
+   * Removes the keys whose entries the cache no longer holds, once the number of keys has doubled since the last
+   * prune; scanning the index thus costs a constant amortized time per tagged key.
+   *
+   * @param isGone
+   *          true for a key that is no longer in the cache
+   * @return the number of keys removed
+   */
+  public synchronized int pruneIfGrown( Predicate<? super K> isGone ) {
+    if ( tagsByKey.size() < pruneThreshold ) {
+      return 0;
+    }
+    List<K> goneKeys = new ArrayList<>();
+    for ( K key : tagsByKey.keySet() ) {
+      if ( isGone.test( key ) ) {
+        goneKeys.add( key );
+      }
+    }
+    for ( K key : goneKeys ) {
+      remove( key );
+    }
+    pruneThreshold = Math.max( MIN_PRUNE_THRESHOLD, 2 * tagsByKey.size() );
+    return goneKeys.size();
+  }
+
+  /**
+   * @return the number of tagged keys
+   */
+  public synchronized int size() {
+    return tagsByKey.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return tagsByKey.isEmpty();
+  }
+
+  public synchronized void clear() {
+    keysByTag.clear();
+    tagsByKey.clear();
+  }
+
+  private void unlink( T tag, K key ) {
+    Set<K> keys = keysByTag.get( tag );
+    if ( keys != null ) {
+      keys.remove( key );
+      if ( keys.isEmpty() ) {
+        keysByTag.remove( tag );
+      }
+    }
+  }
+}
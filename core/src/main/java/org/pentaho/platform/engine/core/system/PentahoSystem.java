@@ -25,6 +25,7 @@ import org.pentaho.platform.api.engine.IApplicationContext;
 import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IConfiguration;
 import org.pentaho.platform.api.engine.IContentOutputHandler;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.ILogger;
 import org.pentaho.platform.api.engine.ILogoutListener;
 import org.pentaho.platform.api.engine.IParameterProvider;
@@ -64,6 +65,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -73,6 +75,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 @SuppressWarnings( { "rawtypes", "unchecked" } )
 public class PentahoSystem {
@@ -141,6 +144,8 @@ public class PentahoSystem {
 
   private static List<IPentahoSystemListener> listeners = new ArrayList<>();
 
+  private static StartupScheduler.Timeline startupTimeline;
+
   private static List<ISessionStartupAction> sessionStartupActions = new ArrayList<>();
 
   private static AggregateObjectFactory aggObjectFactory = new AggregateObjectFactory();
@@ -508,8 +513,14 @@ public class PentahoSystem {
   private static void notifySystemListenersOfStartup( final IPentahoSession session ) throws PentahoSystemException {
     if ( listeners != null && listeners.size() > 0 ) {
 
+      StartupScheduler scheduler = new StartupScheduler( "System listener", StartupScheduler.getDefaultParallelism() ); //$NON-NLS-1$
+      List<String> ids = new ArrayList<>( listeners.size() );
       for ( final IPentahoSystemListener systemListener : listeners ) {
-        try {
+        String id = getStartupId( systemListener );
+        for ( int i = 2; scheduler.hasTask( id ); i++ ) {
+          id = getStartupId( systemListener ) + "#" + i; //$NON-NLS-1$
+        }
+        scheduler.addTask( id, getStartupDependencies( systemListener, ids ), () -> {
           // ensure that the Authentication/IPentahoSession is correct between ISystemListeners
           runAsSystem( new Callable<Void>() {
             @Override
@@ -537,16 +548,62 @@ public class PentahoSystem {
               return null;
             }
           } );
-        } catch ( Exception e ) {
-          if ( e instanceof PentahoSystemException ) {
-            throw (PentahoSystemException) e;
-          } else {
-            throw new PentahoSystemException( e );
-          }
+        } );
+        ids.add( id );
+      }
+
+      try {
+        startupTimeline = scheduler.run();
+        Logger.info( PentahoSystem.class.getName(), startupTimeline.toString() );
+      } catch ( ExecutionException e ) {
+        if ( e.getCause() instanceof PentahoSystemException ) {
+          throw (PentahoSystemException) e.getCause();
+        } else {
+          throw new PentahoSystemException( e.getCause() );
         }
+      } catch ( IllegalStateException e ) {
+        throw new PentahoSystemException( e );
+      }
+    }
+  }
+
+  private static String getStartupId( IPentahoSystemListener systemListener ) {
+    if ( systemListener instanceof IDependentSystemListener ) {
+      return ( (IDependentSystemListener) systemListener ).getStartupId();
+    }
+    return systemListener.getClass().getName();
+  }
 
+  /**
+   * Listeners that do not declare their dependencies keep the configured order and wait for every listener before
+   * them.
+   */
+  private static Collection<String> getStartupDependencies( IPentahoSystemListener systemListener,
+                                                            List<String> previousIds ) {
+    if ( !( systemListener instanceof IDependentSystemListener ) ) {
+      return new ArrayList<>( previousIds );
+    }
+    Collection<String> declared = ( (IDependentSystemListener) systemListener ).getStartupDependencies();
+    List<String> dependencies = new ArrayList<>();
+    if ( declared != null ) {
+      for ( String dependency : declared ) {
+        if ( listeners.stream().anyMatch( listener -> getStartupId( listener ).equals( dependency ) ) ) {
+          dependencies.add( dependency );
+        } else {
+          Logger.debug( PentahoSystem.class.getName(), "Ignoring unknown startup dependency " + dependency //$NON-NLS-1$
+              + " of " + getStartupId( systemListener ) ); //$NON-NLS-1$
+        }
       }
     }
+    return dependencies;
+  }
+
+  /**
+   * The per-listener durations and critical path of the last system listener startup, or <code>null</code> if the
+   * listeners have not been started.
+   */
+  public static StartupScheduler.Timeline getStartupTimeline() {
+    return startupTimeline;
   }
 
   /**
@@ -19,6 +19,7 @@ import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IPentahoSession;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,6 +27,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 /**
@@ -38,6 +41,7 @@ public class SimpleMapCacheManager implements ICacheManager {
 
   protected static final Log logger = LogFactory.getLog( SimpleMapCacheManager.class );
   private final Map simpleMap;
+  private final ConcurrentMap<String, CacheTagIndex<Object, Object>> tagIndexes = new ConcurrentHashMap<>();
   private static SimpleMapCacheManager _instance = new SimpleMapCacheManager();
 
   public static SimpleMapCacheManager getInstance() {
@@ -69,17 +73,57 @@ public class SimpleMapCacheManager implements ICacheManager {
   }
 
   public void clearRegionCache( String region ) {
-    removeFromMap( region );
+    synchronized ( simpleMap ) {
+      removeFromMap( region );
+      if ( region != null ) {
+        tagIndexes.remove( region );
+      }
+    }
   }
 
   public void removeRegionCache( String region ) {
-    removeFromMap( region );
+    clearRegionCache( region );
   }
 
   public void putInRegionCache( String region, Object key, Object value ) {
     simpleMap.put( getCorrectedKey( region, key ), value );
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The entry is put and tagged while holding the lock of the map, which {@link #invalidateByTag(String, Object)} also
+   * holds.
+   */
+  @Override
+  public void putInRegionCache( String region, Object key, Object value, Object... tags ) {
+    if ( tags == null || tags.length == 0 ) {
+      putInRegionCache( region, key, value );
+      return;
+    }
+    String correctedKey = getCorrectedKey( region, key );
+    synchronized ( simpleMap ) {
+      simpleMap.put( correctedKey, value );
+      tagIndexes.computeIfAbsent( region, r -> new CacheTagIndex<>() ).tag( correctedKey, Arrays.asList( tags ) );
+    }
+  }
+
+  /**
+   * Removes the entries of the region tagged with <code>tag</code>, leaving the rest of the region alone.
+   */
+  @Override
+  public void invalidateByTag( String region, Object tag ) {
+    CacheTagIndex<Object, Object> tagIndex = region != null ? tagIndexes.get( region ) : null;
+    if ( tagIndex == null || tag == null ) {
+      return;
+    }
+    synchronized ( simpleMap ) {
+      for ( Object key : tagIndex.removeTag( tag ) ) {
+        simpleMap.remove( key );
+      }
+    }
+  }
+
   public Object getFromRegionCache( String region, Object key ) {
     return simpleMap.get( getCorrectedKey( region, key ) );
   }
@@ -124,7 +168,14 @@ public class SimpleMapCacheManager implements ICacheManager {
   }
 
   public void removeFromRegionCache( String region, Object key ) {
-    simpleMap.remove( getCorrectedKey( region, key ) );
+    String correctedKey = getCorrectedKey( region, key );
+    CacheTagIndex<Object, Object> tagIndex = region != null ? tagIndexes.get( region ) : null;
+    synchronized ( simpleMap ) {
+      if ( tagIndex != null ) {
+        tagIndex.remove( correctedKey );
+      }
+      simpleMap.remove( correctedKey );
+    }
   }
 
   public boolean cacheEnabled() {
@@ -132,7 +183,10 @@ public class SimpleMapCacheManager implements ICacheManager {
   }
 
   public void clearCache() {
-    simpleMap.clear();
+    synchronized ( simpleMap ) {
+      simpleMap.clear();
+      tagIndexes.clear();
+    }
   }
 
   public Object getFromGlobalCache( Object key ) {
@@ -143,8 +197,13 @@ public class SimpleMapCacheManager implements ICacheManager {
     return getFromRegionCache( SESSION, getCorrectedKey( session, key ) );
   }
 
+  /**
+   * Removes the entries put by {@link #putInSessionCache(IPentahoSession, String, Object)} for the session, which are
+   * tagged with its id.
+   */
   public void killSessionCache( IPentahoSession session ) {
     removeFromMap( session.getId() );
+    invalidateByTag( SESSION, session.getId() );
   }
 
   public void killSessionCaches() {
@@ -156,7 +215,7 @@ public class SimpleMapCacheManager implements ICacheManager {
   }
 
   public void putInSessionCache( IPentahoSession session, String key, Object value ) {
-    putInRegionCache( SESSION, getCorrectedKey( session, key ), value );
+    putInRegionCache( SESSION, getCorrectedKey( session, key ), value, session.getId() );
   }
 
   public void removeFromGlobalCache( Object key ) {
@@ -0,0 +1,431 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Runs startup tasks that declare dependencies on each other. A task starts once all of its dependencies have
+ * completed, and tasks that do not depend on each other run concurrently on a bounded pool. With a parallelism of one
+ * the tasks run on the calling thread, in dependency order and otherwise in the order they were added; the same
+ * happens when every task depends on the one added before it, since nothing could run concurrently anyway.
+ * <p>
+ * Pool threads run the tasks with the Pentaho session, authentication and context class loader of the thread that
+ * called {@link #run()}.
+ * <p>
+ * The first failing task stops the scheduling of further tasks; tasks already running are allowed to finish. Every
+ * run produces a {@link Timeline} with the duration of each task and the critical path through the graph.
+ */
+public class StartupScheduler {
+
+  /**
+   * System property with the number of threads used to start independent components concurrently.
+   */
+  public static final String PARALLELISM_PROPERTY = "pentaho.startup.threads"; //$NON-NLS-1$
+
+  private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+  public interface Task {
+    void run() throws Exception;
+  }
+
+  public enum Status {
+    COMPLETED, FAILED, SKIPPED
+  }
+
+  private final String name;
+  private final int parallelism;
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+  private final Object lock = new Object();
+  private int running;
+  private Throwable failure;
+  private ExecutorService executor;
+  private IPentahoSession session;
+  private Authentication authentication;
+  private ClassLoader contextClassLoader;
+
+  public StartupScheduler( String name, int parallelism ) {
+    this.name = name;
+    this.parallelism = Math.max( 1, parallelism );
+  }
+
+  /**
+   * The number of startup threads configured with {@link #PARALLELISM_PROPERTY}, by default the number of processors
+   * up to four.
+   */
+  public static int getDefaultParallelism() {
+    return Integer.getInteger( PARALLELISM_PROPERTY, Math.min( 4, Runtime.getRuntime().availableProcessors() ) );
+  }
+
+  public void addTask( String id, Collection<String> dependencies, Task task ) {
+    if ( nodes.containsKey( id ) ) {
+      throw new IllegalArgumentException( "Duplicate startup task " + id ); //$NON-NLS-1$
+    }
+    nodes.put( id, new Node( id, dependencies == null ? Collections.emptySet() : new LinkedHashSet<>( dependencies ),
+        task ) );
+  }
+
+  public boolean hasTask( String id ) {
+    return nodes.containsKey( id );
+  }
+
+  /**
+   * Runs all tasks and returns their timeline.
+   *
+   * @throws ExecutionException
+   *           wrapping the failure of the first task that failed
+   * @throws IllegalStateException
+   *           if a dependency is unknown or the dependencies contain a cycle
+   */
+  public Timeline run() throws ExecutionException {
+    List<Node> order = sort();
+    long started = System.nanoTime();
+    if ( parallelism == 1 || isChain( order ) ) {
+      for ( Node node : order ) {
+        execute( node );
+        if ( failure != null ) {
+          break;
+        }
+      }
+    } else {
+      runConcurrently();
+    }
+    Timeline timeline = new Timeline( name, started, System.nanoTime(), nodes.values() );
+    if ( failure != null ) {
+      throw new ExecutionException( failure );
+    }
+    return timeline;
+  }
+
+  private void runConcurrently() throws ExecutionException {
+    session = PentahoSessionHolder.getSession();
+    authentication = SecurityContextHolder.getContext().getAuthentication();
+    contextClassLoader = Thread.currentThread().getContextClassLoader();
+    executor = Executors.newFixedThreadPool( Math.min( parallelism, nodes.size() ), newThreadFactory() );
+    try {
+      synchronized ( lock ) {
+        for ( Node node : nodes.values() ) {
+          if ( node.remaining == 0 ) {
+            submit( node );
+          }
+        }
+        while ( running > 0 ) {
+          lock.wait();
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new ExecutionException( e );
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private ThreadFactory newThreadFactory() {
+    final int pool = POOL_COUNT.incrementAndGet();
+    final AtomicInteger threads = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread( runnable, "pentaho-startup-" + pool + "-" + threads.incrementAndGet() ); //$NON-NLS-1$
+      thread.setDaemon( true );
+      return thread;
+    };
+  }
+
+  private void submit( Node node ) {
+    // called while holding the lock
+    running++;
+    executor.execute( () -> {
+      Thread thread = Thread.currentThread();
+      ClassLoader poolClassLoader = thread.getContextClassLoader();
+      PentahoSessionHolder.setSession( session );
+      // each thread gets its own context, so that a task changing its authentication does not affect the others
+      SecurityContextHolder.clearContext();
+      SecurityContextHolder.getContext().setAuthentication( authentication );
+      thread.setContextClassLoader( contextClassLoader );
+      try {
+        execute( node );
+      } finally {
+        thread.setContextClassLoader( poolClassLoader );
+        SecurityContextHolder.clearContext();
+        PentahoSessionHolder.removeSession();
+      }
+    } );
+  }
+
+  private void execute( Node node ) {
+    Throwable taskFailure = null;
+    node.thread = Thread.currentThread().getName();
+    node.start = System.nanoTime();
+    try {
+      node.task.run();
+    } catch ( Throwable t ) {
+      taskFailure = t;
+    }
+    node.end = System.nanoTime();
+    synchronized ( lock ) {
+      if ( taskFailure != null ) {
+        node.status = Status.FAILED;
+        if ( failure == null ) {
+          failure = taskFailure;
+        }
+      } else {
+        node.status = Status.COMPLETED;
+        if ( failure == null && executor != null ) {
+          for ( Node dependent : node.dependents ) {
+            if ( --dependent.remaining == 0 ) {
+              submit( dependent );
+            }
+          }
+        }
+      }
+      if ( executor != null ) {
+        running--;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Links the nodes to their dependents and returns them in a dependency order that otherwise keeps the order in
+   * which they were added.
+   */
+  private List<Node> sort() {
+    for ( Node node : nodes.values() ) {
+      node.dependents.clear();
+      node.remaining = node.dependencies.size();
+      node.status = Status.SKIPPED;
+    }
+    for ( Node node : nodes.values() ) {
+      for ( String dependency : node.dependencies ) {
+        Node required = nodes.get( dependency );
+        if ( required == null ) {
+          throw new IllegalStateException( "Startup task " + node.id + " depends on unknown task " //$NON-NLS-1$ //$NON-NLS-2$
+              + dependency );
+        }
+        required.dependents.add( node );
+      }
+    }
+    List<Node> order = new ArrayList<>( nodes.size() );
+    Map<Node, Integer> remaining = new LinkedHashMap<>();
+    for ( Node node : nodes.values() ) {
+      remaining.put( node, node.remaining );
+    }
+    while ( !remaining.isEmpty() ) {
+      Node next = null;
+      for ( Map.Entry<Node, Integer> entry : remaining.entrySet() ) {
+        if ( entry.getValue() == 0 ) {
+          next = entry.getKey();
+          break;
+        }
+      }
+      if ( next == null ) {
+        throw new IllegalStateException( "Startup dependencies contain a cycle between " //$NON-NLS-1$
+            + ids( remaining.keySet() ) );
+      }
+      remaining.remove( next );
+      order.add( next );
+      for ( Node dependent : next.dependents ) {
+        remaining.computeIfPresent( dependent, ( key, count ) -> count - 1 );
+      }
+    }
+    return order;
+  }
+
+  private static boolean isChain( List<Node> order ) {
+    for ( int i = 1; i < order.size(); i++ ) {
+      if ( !order.get( i ).dependencies.contains( order.get( i - 1 ).id ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<String> ids( Collection<Node> nodes ) {
+    List<String> ids = new ArrayList<>( nodes.size() );
+    for ( Node node : nodes ) {
+      ids.add( node.id );
+    }
+    return ids;
+  }
+
+  private static class Node {
+    private final String id;
+    private final Collection<String> dependencies;
+    private final Task task;
+    private final List<Node> dependents = new ArrayList<>();
+    private int remaining;
+    private volatile Status status = Status.SKIPPED;
+    private volatile String thread;
+    private volatile long start;
+    private volatile long end;
+
+    Node( String id, Collection<String> dependencies, Task task ) {
+      this.id = id;
+      this.dependencies = dependencies;
+      this.task = task;
+    }
+  }
+
+  /**
+   * The outcome of one task in a {@link Timeline}. Offsets and durations are in milliseconds.
+   */
+  public static class Entry {
+    private final String id;
+    private final Collection<String> dependencies;
+    private final Status status;
+    private final String thread;
+    private final long startOffset;
+    private final long duration;
+
+    Entry( String id, Collection<String> dependencies, Status status, String thread, long startOffset,
+           long duration ) {
+      this.id = id;
+      this.dependencies = Collections.unmodifiableCollection( dependencies );
+      this.status = status;
+      this.thread = thread;
+      this.startOffset = startOffset;
+      this.duration = duration;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public Collection<String> getDependencies() {
+      return dependencies;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public String getThread() {
+      return thread;
+    }
+
+    public long getStartOffset() {
+      return startOffset;
+    }
+
+    public long getDuration() {
+      return duration;
+    }
+
+    public long getEndOffset() {
+      return startOffset + duration;
+    }
+  }
+
+  /**
+   * The per-task durations of a run and its critical path: the chain of dependencies that ended last, which bounds
+   * the duration of the run however many threads are used.
+   */
+  public static class Timeline {
+    private final String name;
+    private final long wallTime;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    Timeline( String name, long started, long finished, Collection<Node> nodes ) {
+      this.name = name;
+      this.wallTime = TimeUnit.NANOSECONDS.toMillis( finished - started );
+      for ( Node node : nodes ) {
+        boolean ran = node.status != Status.SKIPPED;
+        entries.put( node.id, new Entry( node.id, node.dependencies, node.status, node.thread,
+            ran ? TimeUnit.NANOSECONDS.toMillis( node.start - started ) : 0,
+            ran ? TimeUnit.NANOSECONDS.toMillis( node.end - node.start ) : 0 ) );
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getWallTime() {
+      return wallTime;
+    }
+
+    public List<Entry> getEntries() {
+      return new ArrayList<>( entries.values() );
+    }
+
+    public Entry getEntry( String id ) {
+      return entries.get( id );
+    }
+
+    /**
+     * @return the ids of the tasks on the critical path, first to last
+     */
+    public List<String> getCriticalPath() {
+      List<String> path = new ArrayList<>();
+      Entry current = null;
+      for ( Entry entry : entries.values() ) {
+        if ( entry.getStatus() != Status.SKIPPED
+            && ( current == null || entry.getEndOffset() >= current.getEndOffset() ) ) {
+          current = entry;
+        }
+      }
+      while ( current != null ) {
+        path.add( 0, current.getId() );
+        Entry previous = null;
+        for ( String dependency : current.getDependencies() ) {
+          Entry entry = entries.get( dependency );
+          if ( entry != null && ( previous == null || entry.getEndOffset() >= previous.getEndOffset() ) ) {
+            previous = entry;
+          }
+        }
+        current = previous;
+      }
+      return path;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder report = new StringBuilder();
+      report.append( name ).append( " startup took " ).append( wallTime ).append( " ms" ); //$NON-NLS-1$ //$NON-NLS-2$
+      for ( Entry entry : entries.values() ) {
+        report.append( System.lineSeparator() ).append( String.format( "  %6d ms +%6d ms  %-9s %s", //$NON-NLS-1$
+            entry.getStartOffset(), entry.getDuration(), entry.getStatus(), entry.getId() ) );
+        if ( entry.getThread() != null ) {
+          report.append( " [" ).append( entry.getThread() ).append( ']' ); //$NON-NLS-1$
+        }
+      }
+      List<String> criticalPath = getCriticalPath();
+      long criticalTime = 0;
+      for ( String id : criticalPath ) {
+        criticalTime += entries.get( id ).getDuration();
+      }
+      report.append( System.lineSeparator() ).append( "  critical path (" ).append( criticalTime ) //$NON-NLS-1$
+          .append( " ms): " ).append( String.join( " -> ", criticalPath ) ); //$NON-NLS-1$ //$NON-NLS-2$
+      return report.toString();
+    }
+  }
+}
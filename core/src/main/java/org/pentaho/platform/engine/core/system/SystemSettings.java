@@ -17,7 +17,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
-import org.dom4j.Node;
 import org.pentaho.platform.api.engine.ISystemSettings;
 import org.pentaho.platform.engine.core.messages.Messages;
 import org.pentaho.platform.util.xml.dom4j.XmlDom4JHelper;
@@ -28,16 +27,21 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides system settings data for system configuration files located in the system folder of the repository.
  * System settings for </code>PentahoSystem</code> are hardcoded to exist in <repository>/system/pentaho.xml.
- * Provides a settings cache so that settings are read from the file once, and the associated DOM document is
- * cached in memory for future lookups.
+ * Provides a settings cache so that settings are read from the file once, and compiled into an index of the DOM
+ * document so that plain setting names are answered without evaluating XPath. Cached files are watched and the index
+ * is replaced atomically when a file changes on disk; set the system property
+ * <code>pentaho.systemSettings.watchFiles</code> to <code>false</code> to disable watching.
  *
  * @author unknown
  *
@@ -57,7 +61,11 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
 
   private static final Log logger = LogFactory.getLog( SystemSettings.class );
 
-  private final Map settingsDocumentMap = new ConcurrentHashMap();
+  public static final String WATCH_FILES_PROPERTY = "pentaho.systemSettings.watchFiles"; //$NON-NLS-1$
+
+  private final Map<String, SystemSettingsIndex> settingsIndexMap = new ConcurrentHashMap<>();
+
+  private final Set<String> watchedPaths = ConcurrentHashMap.newKeySet();
 
   String logId;
 
@@ -73,8 +81,8 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
 
   public String getSystemSetting( final String path, final String settingName, final String defaultValue ) {
     debug( Messages.getInstance().getString( "SYSTEMSETTINGS.DEBUG_GET_SYSTEM_SETTING_PATH", File.separator + path ) ); //$NON-NLS-1$
-    Document doc = getSystemSettingsDocument( path );
-    if ( doc == null ) {
+    SystemSettingsIndex index = getSettingsIndex( path );
+    if ( index == null ) {
       return defaultValue;
     }
 
@@ -83,11 +91,11 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
       return defaultValue;
     }
 
-    Node node = doc.selectSingleNode( "//" + settingName ); //$NON-NLS-1$
-    if ( node == null ) {
+    String value = index.getValue( settingName );
+    if ( value == null ) {
       return defaultValue;
     }
-    return node.getText();
+    return value;
   }
 
   public String getSystemSetting( final String settingName, final String defaultValue ) {
@@ -95,21 +103,15 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
   }
 
   public List getSystemSettings( final String path, final String settingName ) {
-    List settings = (List) settingsDocumentMap.get( path + settingName );
-    if ( settings != null ) {
-      return settings;
-    }
-    Document doc = getSystemSettingsDocument( path );
-    if ( doc == null ) {
+    SystemSettingsIndex index = getSettingsIndex( path );
+    if ( index == null ) {
       return null;
     }
     if ( isXPathUnSafe( settingName ) ) {
       error( Messages.getInstance().getString( "SYSTEMSETTINGS.XPATH_VIOLATION", settingName ) );
       return null;
     }
-    settings = doc.selectNodes( "//" + settingName ); //$NON-NLS-1$
-    settingsDocumentMap.put( path + settingName, settings );
-    return settings;
+    return index.getNodes( settingName );
   }
 
   public List getSystemSettings( final String settingName ) {
@@ -128,24 +130,96 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
   public Document getSystemSettingsDocument( final String actionPath ) {
     // S logId =
     // runtimeContext.getInstanceId()+":"+LOG_NAME+":"+runtimeContext.getActionName(); //$NON-NLS-1$ //$NON-NLS-2$
-    Document systemSettingsDocument = (Document) settingsDocumentMap.get( actionPath );
-    if ( systemSettingsDocument == null ) {
+    SystemSettingsIndex index = getSettingsIndex( actionPath );
+    return index == null ? null : index.getDocument();
+  }
+
+  private SystemSettingsIndex getSettingsIndex( final String actionPath ) {
+    SystemSettingsIndex index = settingsIndexMap.get( actionPath );
+    if ( index == null ) {
       File f = getFile( actionPath );
       if ( f == null ) {
         return null;
       }
-      try {
-        systemSettingsDocument = getSettingsDocumentFromFile( f );
-        settingsDocumentMap.put( actionPath, systemSettingsDocument );
-      } catch ( DocumentException e ) {
-        // todo log this
-        e.printStackTrace();
-      } catch ( IOException e ) {
-        // todo log this
-        e.printStackTrace();
+      index = loadSettingsIndex( actionPath, f );
+      if ( index == null ) {
+        return null;
+      }
+      SystemSettingsIndex existing = settingsIndexMap.putIfAbsent( actionPath, index );
+      if ( existing != null ) {
+        return existing;
+      }
+      watchFile( actionPath, f );
+    }
+    return index;
+  }
+
+  private SystemSettingsIndex loadSettingsIndex( final String actionPath, final File f ) {
+    try {
+      return new SystemSettingsIndex( getSettingsDocumentFromFile( f ) );
+    } catch ( DocumentException | IOException e ) {
+      logger.error( Messages.getInstance().getErrorString(
+          "SystemSettings.ERROR_0003_FAILED_INITIALIZE", actionPath ), e ); //$NON-NLS-1$
+      return null;
+    }
+  }
+
+  private void watchFile( final String actionPath, final File f ) {
+    if ( !Boolean.parseBoolean( System.getProperty( WATCH_FILES_PROPERTY, "true" ) ) //$NON-NLS-1$
+        || !watchedPaths.add( actionPath ) ) {
+      return;
+    }
+    try {
+      SystemSettingsFileWatcher.getInstance().watch( f.toPath(), new ReloadListener( this, actionPath ) );
+    } catch ( IOException | RuntimeException e ) {
+      watchedPaths.remove( actionPath );
+      logger.warn( "Unable to watch " + f.getAbsolutePath() + " for changes", e ); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
+  /**
+   * Re-reads the settings file for <code>actionPath</code> if it is cached and swaps in the new index. A file that
+   * cannot be parsed, for instance because it is still being written, leaves the current settings in place.
+   */
+  void reloadSettings( final String actionPath ) {
+    if ( !settingsIndexMap.containsKey( actionPath ) ) {
+      return;
+    }
+    File f = new File( getAbsolutePath( actionPath ) );
+    if ( !f.exists() ) {
+      settingsIndexMap.remove( actionPath );
+      return;
+    }
+    try {
+      settingsIndexMap.put( actionPath, new SystemSettingsIndex( getSettingsDocumentFromFile( f ) ) );
+      debug( "Reloaded system settings " + f.getAbsolutePath() ); //$NON-NLS-1$
+    } catch ( DocumentException | IOException e ) {
+      logger.warn( "Keeping previous system settings, unable to reload " + f.getAbsolutePath(), e ); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Only weakly references the settings so a discarded instance stops listening instead of being kept alive by the
+   * shared watcher.
+   */
+  private static class ReloadListener implements SystemSettingsFileWatcher.Listener {
+    private final WeakReference<SystemSettings> settings;
+    private final String actionPath;
+
+    ReloadListener( SystemSettings settings, String actionPath ) {
+      this.settings = new WeakReference<>( settings );
+      this.actionPath = actionPath;
+    }
+
+    @Override
+    public boolean fileChanged( Path file ) {
+      SystemSettings systemSettings = settings.get();
+      if ( systemSettings == null ) {
+        return false;
       }
+      systemSettings.reloadSettings( actionPath );
+      return true;
     }
-    return systemSettingsDocument;
   }
 
   /**
@@ -198,7 +272,7 @@ public class SystemSettings extends PentahoBase implements ISystemSettings {
   }
 
   public void resetSettingsCache() {
-    settingsDocumentMap.clear();
+    settingsIndexMap.clear();
   }
 
   // TODO sbarkdull, this props could be cached in a map similar to how the xml docs are cached
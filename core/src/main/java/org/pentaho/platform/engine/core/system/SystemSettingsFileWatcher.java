@@ -0,0 +1,140 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches system settings files for changes with a single {@link WatchService} shared by all {@link SystemSettings}
+ * instances. Listeners are called on the watcher thread, which runs until {@link SystemSettingsSystemListener} shuts
+ * the watcher down.
+ */
+class SystemSettingsFileWatcher {
+
+  interface Listener {
+    /**
+     * Called after the watched file was created, modified or deleted.
+     *
+     * @return false to stop listening
+     */
+    boolean fileChanged( Path file );
+  }
+
+  private static final Log logger = LogFactory.getLog( SystemSettingsFileWatcher.class );
+
+  private static SystemSettingsFileWatcher instance;
+
+  private final WatchService watchService;
+  private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+  private final Map<Path, List<Listener>> listeners = new ConcurrentHashMap<>();
+
+  private SystemSettingsFileWatcher() throws IOException {
+    watchService = FileSystems.getDefault().newWatchService();
+    Thread thread = new Thread( this::processEvents, "pentaho-system-settings-watcher" ); //$NON-NLS-1$
+    thread.setDaemon( true );
+    thread.start();
+  }
+
+  static synchronized SystemSettingsFileWatcher getInstance() throws IOException {
+    if ( instance == null ) {
+      instance = new SystemSettingsFileWatcher();
+    }
+    return instance;
+  }
+
+  /**
+   * Closes the shared {@link WatchService}, which ends the watcher thread. The next {@link #getInstance()} starts a new
+   * watcher.
+   */
+  static synchronized void shutdown() {
+    if ( instance == null ) {
+      return;
+    }
+    try {
+      instance.watchService.close();
+    } catch ( IOException e ) {
+      logger.warn( "Failed to close the system settings watcher", e ); //$NON-NLS-1$
+    }
+    instance = null;
+  }
+
+  void watch( Path file, Listener listener ) throws IOException {
+    Path path = file.toAbsolutePath().normalize();
+    Path directory = path.getParent();
+    synchronized ( watchedDirectories ) {
+      if ( !watchedDirectories.containsKey( directory ) ) {
+        watchedDirectories.put( directory, directory.register( watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE ) );
+      }
+    }
+    listeners.computeIfAbsent( path, key -> new CopyOnWriteArrayList<>() ).add( listener );
+  }
+
+  private void processEvents() {
+    while ( true ) {
+      WatchKey key;
+      try {
+        key = watchService.take();
+      } catch ( InterruptedException | ClosedWatchServiceException e ) {
+        return;
+      }
+      Path directory = (Path) key.watchable();
+      for ( WatchEvent<?> event : key.pollEvents() ) {
+        if ( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+          // events were lost, treat every file of the directory as changed
+          for ( Path file : listeners.keySet() ) {
+            if ( directory.equals( file.getParent() ) ) {
+              notifyListeners( file );
+            }
+          }
+        } else {
+          notifyListeners( directory.resolve( (Path) event.context() ) );
+        }
+      }
+      if ( !key.reset() ) {
+        watchedDirectories.remove( directory );
+      }
+    }
+  }
+
+  private void notifyListeners( Path file ) {
+    List<Listener> fileListeners = listeners.get( file );
+    if ( fileListeners == null ) {
+      return;
+    }
+    for ( Listener listener : fileListeners ) {
+      try {
+        if ( !listener.fileChanged( file ) ) {
+          fileListeners.remove( listener );
+        }
+      } catch ( RuntimeException e ) {
+        logger.warn( "Failed to handle change of " + file, e ); //$NON-NLS-1$
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable, pre-compiled view of one system settings file. Every element is indexed under each trailing part of
+ * its element path, so a setting name such as <code>audit/auditLogFile</code> is answered by a hash lookup with the
+ * same result as the XPath <code>//audit/auditLogFile</code>. Names that use XPath features beyond plain element
+ * paths are still evaluated against the document, and their results are remembered.
+ */
+class SystemSettingsIndex {
+
+  private static final Pattern PLAIN_PATH = Pattern.compile( "[A-Za-z_][\\w.\\-]*(/[A-Za-z_][\\w.\\-]*)*" ); //$NON-NLS-1$
+
+  private final Document document;
+  private final boolean indexed;
+  private final Map<String, List<Node>> nodesByPath;
+  private final Map<String, String> valuesByPath;
+  private final Map<String, List> xpathResults = new ConcurrentHashMap<>();
+
+  SystemSettingsIndex( Document document ) {
+    this.document = document;
+    Map<String, List<Node>> nodes = new HashMap<>();
+    Element root = document.getRootElement();
+    // namespaced elements would not match an unprefixed XPath name test, leave those documents to XPath
+    indexed = root != null && !usesNamespaces( root );
+    if ( indexed ) {
+      index( root, new ArrayList<>(), nodes );
+    }
+    Map<String, String> values = new HashMap<>( nodes.size() * 2 );
+    for ( Map.Entry<String, List<Node>> entry : nodes.entrySet() ) {
+      entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
+      values.put( entry.getKey(), entry.getValue().get( 0 ).getText() );
+    }
+    this.nodesByPath = nodes;
+    this.valuesByPath = values;
+  }
+
+  Document getDocument() {
+    return document;
+  }
+
+  /**
+   * @return whether <code>settingName</code> is a plain element path that is answered from the index
+   */
+  boolean isIndexed( String settingName ) {
+    return indexed && PLAIN_PATH.matcher( settingName ).matches();
+  }
+
+  /**
+   * @return the text of the first element matching <code>//settingName</code>, or <code>null</code>
+   */
+  String getValue( String settingName ) {
+    if ( isIndexed( settingName ) ) {
+      return valuesByPath.get( settingName );
+    }
+    Node node = document.selectSingleNode( "//" + settingName ); //$NON-NLS-1$
+    return node == null ? null : node.getText();
+  }
+
+  /**
+   * @return all nodes matching <code>//settingName</code>, in document order
+   */
+  List getNodes( String settingName ) {
+    if ( isIndexed( settingName ) ) {
+      List<Node> nodes = nodesByPath.get( settingName );
+      return nodes == null ? Collections.emptyList() : nodes;
+    }
+    return xpathResults.computeIfAbsent( settingName,
+        name -> Collections.unmodifiableList( document.selectNodes( "//" + name ) ) ); //$NON-NLS-1$
+  }
+
+  private static void index( Element element, List<String> path, Map<String, List<Node>> nodes ) {
+    path.add( element.getName() );
+    // register the element under every trailing part of its path: "c", "b/c", "a/b/c"
+    StringBuilder suffix = new StringBuilder();
+    for ( int i = path.size() - 1; i >= 0; i-- ) {
+      if ( suffix.length() > 0 ) {
+        suffix.insert( 0, '/' );
+      }
+      suffix.insert( 0, path.get( i ) );
+      nodes.computeIfAbsent( suffix.toString(), key -> new ArrayList<>() ).add( element );
+    }
+    for ( Iterator<Element> children = element.elementIterator(); children.hasNext(); ) {
+      index( children.next(), path, nodes );
+    }
+    path.remove( path.size() - 1 );
+  }
+
+  private static boolean usesNamespaces( Element element ) {
+    if ( !element.getNamespaceURI().isEmpty() ) {
+      return true;
+    }
+    for ( Iterator<Element> children = element.elementIterator(); children.hasNext(); ) {
+      if ( usesNamespaces( children.next() ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
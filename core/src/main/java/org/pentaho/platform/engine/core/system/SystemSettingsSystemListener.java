@@ -0,0 +1,35 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.engine.IPentahoSystemListener;
+
+/**
+ * Stops watching the system settings files for changes when the platform shuts down. It should be the first system
+ * listener so that settings keep reloading until every other listener has shut down.
+ */
+public class SystemSettingsSystemListener implements IPentahoSystemListener {
+
+  @Override
+  public boolean startup( IPentahoSession session ) {
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    SystemSettingsFileWatcher.shutdown();
+  }
+
+}
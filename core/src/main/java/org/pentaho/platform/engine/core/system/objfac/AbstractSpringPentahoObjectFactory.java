@@ -48,13 +48,14 @@ import java.util.Map;
  * @author Aaron Phillips
  * @see IPentahoObjectFactory
  */
-public abstract class AbstractSpringPentahoObjectFactory implements IPentahoObjectFactory {
+public abstract class AbstractSpringPentahoObjectFactory implements IStampedObjectFactory {
 
   protected ConfigurableApplicationContext beanFactory;
   protected static final Log logger = LogFactory.getLog( AbstractSpringPentahoObjectFactory.class );
   protected static final String PRIORITY = "priority";
   private BeanDefinitionPriorityComparitor priorityComparitor = new BeanDefinitionPriorityComparitor();
   private String name;
+  private volatile long modificationStamp;
 
   protected AbstractSpringPentahoObjectFactory() {
   }
@@ -307,6 +308,15 @@ public abstract class AbstractSpringPentahoObjectFactory implements IPentahoObje
 
   protected void setBeanFactory( ConfigurableApplicationContext context ) {
     beanFactory = context;
+    modificationStamp++;
+  }
+
+  /**
+   * The bean definitions are fixed once the application context is set, so the stamp only changes with the context.
+   */
+  @Override
+  public long getModificationStamp() {
+    return modificationStamp;
   }
 
   @Override
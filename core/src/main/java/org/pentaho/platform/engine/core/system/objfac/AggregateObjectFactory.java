@@ -25,10 +25,15 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -38,6 +43,10 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * collecting the results. Results are ordered by "priority" attribute if present, with the highest priority object
  * returned in the calls to retrieve a single object.
  * <p/>
+ * While every registered factory is an {@link IStampedObjectFactory}, which factory defines a class or key and which
+ * references it resolves to are cached, and repeated lookups are answered without taking the factory lock. The cache
+ * is dropped whenever a factory is registered or deregistered, or one of the factories reports a change.
+ * <p/>
  * {@inheritDoc}
  * <p/>
  * User: nbaker Date: 1/15/13
@@ -52,6 +61,13 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
   private Lock writeLock = factoryLock.writeLock();
   private Lock readLock = factoryLock.readLock();
 
+  private static final int MAX_CACHED_RESOLUTIONS = 4096;
+  private static final Object NO_RESOLUTION = new Object();
+
+  private final AtomicLong generation = new AtomicLong();
+  private volatile IPentahoObjectFactory[] factorySnapshot = new IPentahoObjectFactory[ 0 ];
+  private volatile ResolutionCache resolutionCache = new ResolutionCache( -1, -1 );
+
   public AggregateObjectFactory() {
 
   }
@@ -60,6 +76,7 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
     writeLock.lock();
     try {
       factories.add( fact );
+      factoriesChanged();
     } finally {
       writeLock.unlock();
     }
@@ -82,7 +99,9 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
   public boolean deregisterObjectFactory( IPentahoObjectFactory factory ) {
     writeLock.lock();
     try {
-      return factories.remove( factory );
+      boolean removed = factories.remove( factory );
+      factoriesChanged();
+      return removed;
     } finally {
       writeLock.unlock();
     }
@@ -100,17 +119,12 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
   public <T> T get( Class<T> interfaceClass, String key, IPentahoSession session ) throws ObjectFactoryException {
     // if they want it by id, check for that first
     if ( key != null ) {
-      readLock.lock();
-      try {
-        for ( IPentahoObjectFactory fact : factories ) {
-          if ( fact.objectDefined( key ) ) {
-            T object = fact.get( interfaceClass, key, session );
-            logger.debug( MessageFormat.format( "Found object for key: {0} in factory: {1}", key, fact.getName() ) );
-            return object;
-          }
-        }
-      } finally {
-        readLock.unlock();
+      IPentahoObjectFactory fact = cached( new ResolutionKey( ResolutionKind.KEY_FACTORY, null, key, null ),
+          () -> findFactoryDefining( key ) );
+      if ( fact != null ) {
+        T object = fact.get( interfaceClass, key, session );
+        logger.debug( MessageFormat.format( "Found object for key: {0} in factory: {1}", key, fact.getName() ) );
+        return object;
       }
     }
 
@@ -139,19 +153,27 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
 
   @Override
   public boolean objectDefined( String key ) {
+    IPentahoObjectFactory fact = cached( new ResolutionKey( ResolutionKind.KEY_FACTORY, null, key, null ),
+        () -> findFactoryDefining( key ) );
+    if ( fact != null ) {
+      logger.debug( MessageFormat.format( "Object defined for key: {0} in factory: {1}", key, fact.getName() ) );
+      return true;
+    }
+    return false;
+  }
+
+  private IPentahoObjectFactory findFactoryDefining( String key ) {
     readLock.lock();
     try {
       for ( IPentahoObjectFactory fact : factories ) {
         if ( fact.objectDefined( key ) ) {
-          logger.debug( MessageFormat.format( "Object defined for key: {0} in factory: {1}", key, fact.getName() ) );
-          return true;
+          return fact;
         }
       }
-
     } finally {
       readLock.unlock();
     }
-    return false;
+    return null;
   }
 
   /**
@@ -190,6 +212,26 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
   public <T> List<T> getAll( Class<T> interfaceClass, IPentahoSession curSession, Map<String, String> properties )
       throws ObjectFactoryException {
 
+    List<IPentahoObjectReference<T>> referenceList =
+        cached( new ResolutionKey( ResolutionKind.ALL_REFERENCES, interfaceClass, null, properties ),
+            () -> collectAllReferences( interfaceClass, curSession, properties ) );
+
+    // create final list of impls
+    List<T> entryList = new ArrayList<T>();
+    for ( IPentahoObjectReference<T> ref : referenceList ) {
+      if ( !entryList.contains( ref.getObject() ) ) {
+        entryList.add( ref.getObject() );
+      }
+    }
+
+    return entryList;
+  }
+
+  private <T> List<IPentahoObjectReference<T>> collectAllReferences( Class<T> interfaceClass,
+                                                                    IPentahoSession curSession,
+                                                                    Map<String, String> properties )
+      throws ObjectFactoryException {
+
     List<IPentahoObjectReference<T>> referenceList = new ArrayList<IPentahoObjectReference<T>>();
 
     readLock.lock();
@@ -207,21 +249,18 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
     }
 
     Collections.sort( referenceList, referencePriorityComparitor );
-
-    // create final list of impls
-    List<T> entryList = new ArrayList<T>();
-    for ( IPentahoObjectReference<T> ref : referenceList ) {
-      if ( !entryList.contains( ref.getObject() ) ) {
-        entryList.add( ref.getObject() );
-      }
-    }
-
-    return entryList;
+    return Collections.unmodifiableList( referenceList );
   }
 
   @Override
   public <T> IPentahoObjectReference<T> getObjectReference( Class<T> clazz, IPentahoSession curSession )
       throws ObjectFactoryException {
+    return cached( new ResolutionKey( ResolutionKind.FACTORY_REFERENCE, clazz, null, null ),
+        () -> findObjectReference( clazz, curSession ) );
+  }
+
+  private <T> IPentahoObjectReference<T> findObjectReference( Class<T> clazz, IPentahoSession curSession )
+      throws ObjectFactoryException {
 
     Set<IPentahoObjectReference<T>> references = new HashSet<IPentahoObjectReference<T>>();
 
@@ -261,16 +300,11 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
     if ( highestRef != null ) {
       return highestRef.getObject();
     }
-    readLock.lock();
-    try {
-      for ( IPentahoObjectFactory fact : factories ) {
-        if ( fact.objectDefined( clazz.getSimpleName() ) ) {
-          T object = fact.get( clazz, clazz.getSimpleName(), session );
-          return object;
-        }
-      }
-    } finally {
-      readLock.unlock();
+    IPentahoObjectFactory fact =
+        cached( new ResolutionKey( ResolutionKind.KEY_FACTORY, null, clazz.getSimpleName(), null ),
+            () -> findFactoryDefining( clazz.getSimpleName() ) );
+    if ( fact != null ) {
+      return fact.get( clazz, clazz.getSimpleName(), session );
     }
     String msg =
         Messages.getInstance().getString( "AbstractSpringPentahoObjectFactory.WARN_FAILED_TO_RETRIEVE_OBJECT",
@@ -281,26 +315,41 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
 
   @Override
   public boolean objectDefined( Class<?> clazz ) {
+    IPentahoObjectFactory fact = cached( new ResolutionKey( ResolutionKind.CLASS_FACTORY, clazz, null, null ),
+        () -> findFactoryDefining( clazz ) );
+    if ( fact != null ) {
+      logger.debug( MessageFormat.format( "Found object for class: {0} in factory: {1}", clazz.getName(), fact
+          .getName() ) );
+      return true;
+    }
+    return false;
+  }
+
+  private IPentahoObjectFactory findFactoryDefining( Class<?> clazz ) {
     readLock.lock();
     try {
       for ( IPentahoObjectFactory fact : factories ) {
         if ( fact.objectDefined( clazz ) ) {
-
-          logger.debug( MessageFormat.format( "Found object for class: {0} in factory: {1}", clazz.getName(), fact
-              .getName() ) );
-          return true;
+          return fact;
         }
       }
     } finally {
       readLock.unlock();
     }
-    return false;
+    return null;
   }
 
   @Override
   public <T> IPentahoObjectReference<T> getObjectReference( Class<T> interfaceClass, IPentahoSession curSession,
                                                             Map<String, String> properties )
       throws ObjectFactoryException {
+    return cached( new ResolutionKey( ResolutionKind.REFERENCE, interfaceClass, null, properties ),
+        () -> findObjectReference( interfaceClass, curSession, properties ) );
+  }
+
+  private <T> IPentahoObjectReference<T> findObjectReference( Class<T> interfaceClass, IPentahoSession curSession,
+                                                              Map<String, String> properties )
+      throws ObjectFactoryException {
 
     Set<IPentahoObjectReference<T>> references = new HashSet<IPentahoObjectReference<T>>();
     readLock.lock();
@@ -333,6 +382,7 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
     writeLock.lock();
     try {
       this.factories.clear();
+      factoriesChanged();
     } finally {
       writeLock.unlock();
     }
@@ -383,6 +433,16 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
   public <T> List<IPentahoObjectReference<T>> getObjectReferences( Class<T> interfaceClass, IPentahoSession curSession,
                                                                    Map<String, String> properties )
       throws ObjectFactoryException {
+    List<IPentahoObjectReference<T>> references =
+        cached( new ResolutionKey( ResolutionKind.SORTED_REFERENCES, interfaceClass, null, properties ),
+            () -> collectSortedReferences( interfaceClass, curSession, properties ) );
+    return new ArrayList<IPentahoObjectReference<T>>( references );
+  }
+
+  private <T> List<IPentahoObjectReference<T>> collectSortedReferences( Class<T> interfaceClass,
+                                                                       IPentahoSession curSession,
+                                                                       Map<String, String> properties )
+      throws ObjectFactoryException {
     // Use a set to avoid duplicates
     Set<IPentahoObjectReference<T>> referenceSet = new HashSet<IPentahoObjectReference<T>>();
 
@@ -404,11 +464,131 @@ public class AggregateObjectFactory implements IPentahoObjectFactory {
     List<IPentahoObjectReference<T>> referenceList = new ArrayList<IPentahoObjectReference<T>>();
     referenceList.addAll( referenceSet );
     Collections.sort( referenceList, referencePriorityComparitor );
-    return referenceList;
+    return Collections.unmodifiableList( referenceList );
   }
 
   @Override
   public String getName() {
     return getClass().getSimpleName();
   }
+
+  /**
+   * Drops all cached resolutions. Only needed when a factory changes its definitions without reporting it through
+   * {@link IStampedObjectFactory#getModificationStamp()}.
+   */
+  public void invalidateResolutionCache() {
+    writeLock.lock();
+    try {
+      factoriesChanged();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Called with the write lock held after the set of factories has changed.
+   */
+  private void factoriesChanged() {
+    factorySnapshot = factories.toArray( new IPentahoObjectFactory[ 0 ] );
+    // bumped after the snapshot so a reader that sees the new generation also sees the new factories
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Returns the resolution cache matching the current factories, or <code>null</code> when one of them cannot report
+   * its changes.
+   */
+  private ResolutionCache currentResolutionCache() {
+    long gen = generation.get();
+    long stamp = 0;
+    for ( IPentahoObjectFactory fact : factorySnapshot ) {
+      if ( !( fact instanceof IStampedObjectFactory ) ) {
+        return null;
+      }
+      stamp += ( (IStampedObjectFactory) fact ).getModificationStamp();
+    }
+    ResolutionCache cache = resolutionCache;
+    if ( cache.generation != gen || cache.stamp != stamp ) {
+      cache = new ResolutionCache( gen, stamp );
+      resolutionCache = cache;
+    }
+    return cache;
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private <V> V cached( ResolutionKey key, Resolver<V> resolver ) throws ObjectFactoryException {
+    // the stamps are read before resolving, so a change made while resolving only ever invalidates the result
+    ResolutionCache cache = currentResolutionCache();
+    if ( cache == null ) {
+      return resolver.resolve();
+    }
+    Object value = cache.resolutions.get( key );
+    if ( value != null ) {
+      return value == NO_RESOLUTION ? null : (V) value;
+    }
+    V resolved = resolver.resolve();
+    if ( cache.resolutions.size() < MAX_CACHED_RESOLUTIONS ) {
+      cache.resolutions.put( key.copy(), resolved == null ? NO_RESOLUTION : resolved );
+    }
+    return resolved;
+  }
+
+  private interface Resolver<V> {
+    V resolve() throws ObjectFactoryException;
+  }
+
+  private enum ResolutionKind {
+    KEY_FACTORY, CLASS_FACTORY, FACTORY_REFERENCE, REFERENCE, SORTED_REFERENCES, ALL_REFERENCES
+  }
+
+  private static final class ResolutionCache {
+    private final long generation;
+    private final long stamp;
+    private final ConcurrentMap<ResolutionKey, Object> resolutions = new ConcurrentHashMap<ResolutionKey, Object>();
+
+    private ResolutionCache( long generation, long stamp ) {
+      this.generation = generation;
+      this.stamp = stamp;
+    }
+  }
+
+  private static final class ResolutionKey {
+    private final ResolutionKind kind;
+    private final Class<?> clazz;
+    private final String key;
+    private final Map<String, String> properties;
+
+    private ResolutionKey( ResolutionKind kind, Class<?> clazz, String key, Map<String, String> properties ) {
+      this.kind = kind;
+      this.clazz = clazz;
+      this.key = key;
+      this.properties = properties;
+    }
+
+    /**
+     * Detaches the key from a properties map the caller may still change.
+     */
+    private ResolutionKey copy() {
+      return properties == null ? this
+          : new ResolutionKey( kind, clazz, key, new HashMap<String, String>( properties ) );
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof ResolutionKey ) ) {
+        return false;
+      }
+      ResolutionKey other = (ResolutionKey) o;
+      return kind == other.kind && clazz == other.clazz && Objects.equals( key, other.key )
+          && Objects.equals( properties, other.properties );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( kind, clazz, key, properties );
+    }
+  }
 }
@@ -0,0 +1,32 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system.objfac;
+
+import org.pentaho.platform.api.engine.IPentahoObjectFactory;
+
+/**
+ * An object factory that can tell when what it defines has changed. {@link AggregateObjectFactory} only caches
+ * resolutions while every registered factory implements this interface.
+ * <p/>
+ * Implementations must increase the stamp <em>after</em> every change that can affect the results of
+ * <code>objectDefined</code>, <code>getObjectReference</code> or <code>getObjectReferences</code>, and those results
+ * must not depend on the session passed in.
+ */
+public interface IStampedObjectFactory extends IPentahoObjectFactory {
+
+  /**
+   * @return a value that increases every time the definitions of this factory change
+   */
+  long getModificationStamp();
+}
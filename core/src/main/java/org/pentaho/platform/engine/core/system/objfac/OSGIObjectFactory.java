@@ -17,9 +17,10 @@ import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 import org.pentaho.platform.api.engine.IPentahoInitializer;
-import org.pentaho.platform.api.engine.IPentahoObjectFactory;
 import org.pentaho.platform.api.engine.IPentahoObjectReference;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.ObjectFactoryException;
@@ -36,6 +37,9 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This IPentahoObjectFactory implementation looks up objects in a configured OSGI BundleContext.
@@ -46,15 +50,41 @@ import java.util.Map;
  * User: nbaker Date: 10/31/13 Time: 11:43 AM
  */
 @SuppressWarnings( "unchecked" )
-public class OSGIObjectFactory implements IPentahoObjectFactory {
+public class OSGIObjectFactory implements IStampedObjectFactory {
 
   private BundleContext context;
   Logger log = LoggerFactory.getLogger( OSGIObjectFactory.class );
   public static final String REFERENCE_CLASS = "reference_class";
+  private final AtomicLong modificationStamp = new AtomicLong();
+  private final Set<ServiceReference<?>> unregistering = ConcurrentHashMap.newKeySet();
+  private final ServiceListener serviceListener = event -> {
+    if ( event.getType() == ServiceEvent.UNREGISTERING ) {
+      unregistering.add( event.getServiceReference() );
+    }
+    modificationStamp.incrementAndGet();
+  };
 
   public OSGIObjectFactory( final BundleContext context ) {
     this.context = context;
+    if ( context != null ) {
+      // any service coming or going may change what this factory resolves
+      context.addServiceListener( serviceListener );
+    }
+  }
 
+  /**
+   * Stops listening to the services of the bundle context. Called once the factory is deregistered, so that a
+   * discarded factory is not kept alive, and notified, by the context.
+   */
+  public void dispose() {
+    if ( context != null ) {
+      try {
+        context.removeServiceListener( serviceListener );
+      } catch ( IllegalStateException e ) {
+        // the bundle context is no longer valid, and its listeners are gone with it
+        log.debug( "Bundle context already invalid when removing the service listener", e );
+      }
+    }
   }
 
   public <T> T get( Class<T> tClass, IPentahoSession session ) throws ObjectFactoryException {
@@ -323,6 +353,16 @@ public class OSGIObjectFactory implements IPentahoObjectFactory {
     return getClass().getSimpleName();
   }
 
+  @Override
+  public long getModificationStamp() {
+    if ( !unregistering.isEmpty() ) {
+      // UNREGISTERING is delivered before the service goes away, so nothing resolved until then may be reused
+      unregistering.removeIf( ref -> ref.getBundle() == null );
+      return modificationStamp.incrementAndGet();
+    }
+    return modificationStamp.get();
+  }
+
   /**
    * Occasionally the Bundle Context will be invalidated before the OSGIObjectFactory wrapping it is de-registered. This
    * method checks for this inconsistency and deregisters the OSGIObjectFactory. Callers should handle a false condition
@@ -38,6 +38,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by nbaker on 4/27/15.
+ * <p/>
+ * Once the bundle context is set, registrations are published as OSGI services and looked up there. The modification
+ * stamp is increased when the context is set and when this factory registers or unregisters a service; services
+ * registered by other bundles are tracked by the {@link OSGIObjectFactory} listening to the same context.
  */
 public class OSGIRuntimeObjectFactory extends RuntimeObjectFactory {
   public static final String REFERENCE_CLASS = "reference_class";
@@ -66,7 +70,8 @@ public class OSGIRuntimeObjectFactory extends RuntimeObjectFactory {
       }
     }
     osgiInitialized.set( true );
-
+    // lookups now go to OSGI instead of the registry
+    incrementModificationStamp();
 
   }
 
@@ -125,6 +130,7 @@ public class OSGIRuntimeObjectFactory extends RuntimeObjectFactory {
         logger.error( "Error Retriving object from OSGI, Class is not as expected", e );
       }
     }
+    incrementModificationStamp();
     if ( existingRegistration != null ) {
       existingRegistration.setRegistrations( registrations );
       return existingRegistration;
@@ -196,7 +202,7 @@ public class OSGIRuntimeObjectFactory extends RuntimeObjectFactory {
           logger.debug( "Error on Unregistering the service, it seems already be unregistered", e );
         }
       }
-
+      incrementModificationStamp();
     }
 
     public void setRegistrations( List<ServiceRegistration<?>> registrations ) {
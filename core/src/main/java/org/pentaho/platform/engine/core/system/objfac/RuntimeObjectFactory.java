@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class supports the registration of Object implementations as well as {@link IPentahoObjectReference }s at
@@ -42,13 +43,15 @@ import java.util.concurrent.Callable;
  * <p/>
  * Created by nbaker on 2/19/14.
  */
-public class RuntimeObjectFactory implements IPentahoRegistrableObjectFactory {
+public class RuntimeObjectFactory implements IPentahoRegistrableObjectFactory, IStampedObjectFactory {
 
 
   private final Multimap<Class, IPentahoObjectReference<?>> registry =
       Multimaps.synchronizedSetMultimap( HashMultimap
           .<Class, IPentahoObjectReference<?>>create() );
 
+  private final AtomicLong modificationStamp = new AtomicLong();
+
 
   public RuntimeObjectFactory() {
 
@@ -132,6 +135,7 @@ public class RuntimeObjectFactory implements IPentahoRegistrableObjectFactory {
     for ( Class<?> aClass : classes ) {
       registry.get( aClass ).add( reference );
     }
+    modificationStamp.incrementAndGet();
     return new ObjectRegistration( reference, Arrays.asList( classes ) );
 
   }
@@ -326,6 +330,18 @@ public class RuntimeObjectFactory implements IPentahoRegistrableObjectFactory {
     return "Runtime Object Factory";
   }
 
+  @Override
+  public long getModificationStamp() {
+    return modificationStamp.get();
+  }
+
+  /**
+   * Records a change to the definitions of this factory, for subclasses that define objects outside of the registry.
+   */
+  protected void incrementModificationStamp() {
+    modificationStamp.incrementAndGet();
+  }
+
 
   protected <T> List<IPentahoObjectReference<?>> getReferencesByQuery( Class<T> type,
                                                                        Map<String, String> query ) {
@@ -426,6 +442,7 @@ public class RuntimeObjectFactory implements IPentahoRegistrableObjectFactory {
       for ( Class<?> aClass : publishedClasses ) {
         registry.get( aClass ).remove( reference );
       }
+      modificationStamp.incrementAndGet();
 
     }
   }
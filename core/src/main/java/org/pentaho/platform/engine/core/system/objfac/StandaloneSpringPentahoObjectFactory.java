@@ -126,7 +126,7 @@ public class StandaloneSpringPentahoObjectFactory extends AbstractSpringPentahoO
       configureScope( appCtx.getBeanFactory(), SCOPE_REQUEST );
       configureScope( appCtx.getBeanFactory(), SCOPE_SESSION );
 
-      beanFactory = appCtx;
+      setBeanFactory( appCtx );
     } else {
       if ( !( context instanceof ConfigurableApplicationContext configAppCtx ) ) {
         String msg =
@@ -17,11 +17,18 @@ import org.pentaho.platform.api.engine.IAuthorizationAction;
 import org.pentaho.platform.api.engine.IAuthorizationPolicy;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationActionService;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationPrincipal;
+import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRequest;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationService;
+import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthorizationDecision;
 import org.pentaho.platform.engine.security.authorization.core.AuthorizationRequest;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -80,11 +87,57 @@ public class AuthorizationServiceAuthorizationPolicy implements IAuthorizationPo
       .isGranted();
   }
 
+  @Override
+  public boolean isAllowedAll( Collection<String> actionNames ) {
+    List<IAuthorizationAction> actions = new ArrayList<>( actionNames.size() );
+    for ( String actionName : actionNames ) {
+      Optional<IAuthorizationAction> actionOptional = authorizationActionService.getAction( actionName );
+      if ( actionOptional.isEmpty() ) {
+        // Orphan actions are not allowed!
+        return false;
+      }
+
+      actions.add( actionOptional.get() );
+    }
+
+    return getAllowedActions( actions ).size() == actions.size();
+  }
+
   @Override
   public List<String> getAllowedActions( String actionNamespace ) {
-    return authorizationActionService.getActions( actionNamespace )
-      .filter( this::isAllowed )
+    return getAllowedActions( authorizationActionService.getActions( actionNamespace ).collect( Collectors.toList() ) )
+      .stream()
       .map( IAuthorizationAction::getName )
       .collect( Collectors.toList() );
   }
+
+  /**
+   * Gets the given actions which are allowed to the current principal, evaluating all of them in a single batch.
+   *
+   * @param actions The actions.
+   * @return The allowed actions, in the given order.
+   */
+  @NonNull
+  private List<IAuthorizationAction> getAllowedActions( @NonNull List<IAuthorizationAction> actions ) {
+    if ( actions.isEmpty() ) {
+      return Collections.emptyList();
+    }
+
+    IAuthorizationPrincipal principal = getCurrentPrincipal();
+
+    Map<IAuthorizationAction, IAuthorizationRequest> requestsByAction = new LinkedHashMap<>();
+    for ( IAuthorizationAction action : actions ) {
+      requestsByAction.put( action, new AuthorizationRequest( principal, action ) );
+    }
+
+    Map<IAuthorizationRequest, IAuthorizationDecision> decisions =
+      authorizationService.authorizeAll( requestsByAction.values() );
+
+    return actions.stream()
+      .filter( action -> {
+        IAuthorizationDecision decision = decisions.get( requestsByAction.get( action ) );
+        return decision != null && decision.isGranted();
+      } )
+      .collect( Collectors.toList() );
+  }
 }
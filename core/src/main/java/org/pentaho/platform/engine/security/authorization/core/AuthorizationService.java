@@ -15,6 +15,7 @@ package org.pentaho.platform.engine.security.authorization.core;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IAuthorizationAction;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationActionService;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationContext;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationOptions;
@@ -31,9 +32,14 @@ import org.pentaho.platform.engine.security.authorization.core.rules.AbstractAut
 import org.springframework.util.Assert;
 
 import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * The {@code AuthorizationService} class is the default implementation of the {@link IAuthorizationService} interface.
@@ -63,12 +69,22 @@ public class AuthorizationService implements IAuthorizationService {
    * decisions on the results of the evaluation for other users/actions.
    * <p>
    * The context design also allows for the service itself to be thread-safe, as each evaluation context is independent.
+   * <p>
+   * A context remembers the decisions of the requests it evaluated, as well as the values shared via
+   * {@link #getOrCompute(Object, Supplier)}, so that requests evaluated more than once, such as the base action request
+   * of several derived actions, or the requests of a batch, are only evaluated once. A context is not thread-safe.
    */
   protected class AuthorizationContext implements IAuthorizationContext {
 
     @NonNull
     private final Deque<IAuthorizationRequest> pendingRequests = new ArrayDeque<>();
 
+    @NonNull
+    private final Map<IAuthorizationRequest, IAuthorizationDecision> decisions = new HashMap<>();
+
+    @NonNull
+    private final Map<Object, Object> sharedValues = new HashMap<>();
+
     @NonNull
     private final IAuthorizationOptions options;
 
@@ -142,12 +158,36 @@ public class AuthorizationService implements IAuthorizationService {
         throw new AuthorizationRequestCycleException( pendingRequests, request );
       }
 
+      var decision = decisions.get( request );
+      if ( decision != null ) {
+        return decision;
+      }
+
       pendingRequests.push( request );
       try {
-        return authorizeCore( request );
+        decision = authorizeCore( request );
       } finally {
         pendingRequests.pop();
       }
+
+      decisions.put( request, decision );
+      return decision;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public <T> T getOrCompute( @NonNull Object key, @NonNull Supplier<T> supplier ) {
+      Assert.notNull( key, "Argument 'key' is required" );
+      Assert.notNull( supplier, "Argument 'supplier' is required" );
+
+      // Not using computeIfAbsent, as the supplier may itself use this context.
+      if ( sharedValues.containsKey( key ) ) {
+        return (T) sharedValues.get( key );
+      }
+
+      T value = supplier.get();
+      sharedValues.put( key, value );
+      return value;
     }
 
     @NonNull
@@ -245,7 +285,10 @@ public class AuthorizationService implements IAuthorizationService {
     protected IAuthorizationRequest resolveRequestAction( @NonNull IAuthorizationRequest request )
       throws AuthorizationRequestUndefinedActionException {
       // Resolve the action by name.
-      var resolvedActionOptional = getActionService().getAction( request.getAction().getName() );
+      var actionName = request.getAction().getName();
+      Optional<IAuthorizationAction> resolvedActionOptional = getOrCompute(
+        new ResolvedActionKey( actionName ),
+        () -> getActionService().getAction( actionName ) );
       if ( resolvedActionOptional.isEmpty() ) {
         throw new AuthorizationRequestUndefinedActionException( request );
       }
@@ -271,6 +314,28 @@ public class AuthorizationService implements IAuthorizationService {
     }
   }
 
+  /**
+   * The key of the shared value holding the registered action of a given name.
+   */
+  private static final class ResolvedActionKey {
+    @NonNull
+    private final String actionName;
+
+    ResolvedActionKey( @NonNull String actionName ) {
+      this.actionName = actionName;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      return o instanceof ResolvedActionKey that && actionName.equals( that.actionName );
+    }
+
+    @Override
+    public int hashCode() {
+      return actionName.hashCode();
+    }
+  }
+
   /**
    * An authorization rule that always abstains. Used as a default root rule if none is provided.
    */
@@ -328,6 +393,32 @@ public class AuthorizationService implements IAuthorizationService {
     return createContext( options ).authorize( request );
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * All requests are evaluated in a single {@link AuthorizationContext}, so that requests and lookups which are common
+   * to several of them are only evaluated once.
+   */
+  @NonNull
+  @Override
+  public Map<IAuthorizationRequest, IAuthorizationDecision> authorizeAll(
+    @NonNull Collection<? extends IAuthorizationRequest> requests,
+    @NonNull IAuthorizationOptions options )
+    throws AuthorizationFailureException {
+
+    Assert.notNull( requests, "Argument 'requests' is required" );
+
+    var context = createContext( options );
+    Map<IAuthorizationRequest, IAuthorizationDecision> decisions = new LinkedHashMap<>();
+    for ( var request : requests ) {
+      if ( !decisions.containsKey( request ) ) {
+        decisions.put( request, context.authorize( request ) );
+      }
+    }
+
+    return decisions;
+  }
+
   @NonNull
   @Override
   public Optional<IAuthorizationDecision> authorizeRule(
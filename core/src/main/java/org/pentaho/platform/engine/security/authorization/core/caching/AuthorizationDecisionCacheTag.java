@@ -0,0 +1,125 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.security.authorization.core.caching;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRequest;
+import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRole;
+import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCache;
+import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCacheKey;
+import org.springframework.util.Assert;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A tag of authorization decision cache entries, identifying the user or a role that a cached request concerns.
+ * <p>
+ * A tag is also a predicate matching the cache keys that carry it, so it can be passed to
+ * {@link IAuthorizationDecisionCache#invalidateAll(Predicate)} by any cache. {@link MemoryAuthorizationDecisionCache}
+ * indexes the tags of its entries, and invalidates the entries of a tag without testing every key of the cache.
+ */
+public final class AuthorizationDecisionCacheTag implements Predicate<IAuthorizationDecisionCacheKey> {
+
+  private enum Kind {
+    USER,
+    ROLE
+  }
+
+  @NonNull
+  private final Kind kind;
+
+  @NonNull
+  private final String name;
+
+  private AuthorizationDecisionCacheTag( @NonNull Kind kind, @NonNull String name ) {
+    this.kind = kind;
+    this.name = name;
+  }
+
+  /**
+   * Gets the tag of the requests whose principal is the user with the given name.
+   *
+   * @param userName The user name.
+   * @return The tag.
+   */
+  @NonNull
+  public static AuthorizationDecisionCacheTag forUser( @NonNull String userName ) {
+    Assert.notNull( userName, "Argument 'userName' must not be null." );
+    return new AuthorizationDecisionCacheTag( Kind.USER, userName );
+  }
+
+  /**
+   * Gets the tag of the requests which have the given role among {@link IAuthorizationRequest#getAllRoles()}.
+   *
+   * @param role The role.
+   * @return The tag.
+   */
+  @NonNull
+  public static AuthorizationDecisionCacheTag forRole( @NonNull IAuthorizationRole role ) {
+    Assert.notNull( role, "Argument 'role' must not be null." );
+    return new AuthorizationDecisionCacheTag( Kind.ROLE, role.getName() );
+  }
+
+  /**
+   * Gets the tags of a cache key: the tag of its user principal, if any, and the tags of all its roles.
+   *
+   * @param key The cache key.
+   * @return The tags of the key.
+   */
+  @NonNull
+  public static Set<AuthorizationDecisionCacheTag> of( @NonNull IAuthorizationDecisionCacheKey key ) {
+    var request = key.getRequest();
+    var tags = new HashSet<AuthorizationDecisionCacheTag>();
+    request.getPrincipalAsUser().ifPresent( user -> tags.add( forUser( user.getName() ) ) );
+    for ( var role : request.getAllRoles() ) {
+      tags.add( forRole( role ) );
+    }
+
+    return tags;
+  }
+
+  @Override
+  public boolean test( @NonNull IAuthorizationDecisionCacheKey key ) {
+    var request = key.getRequest();
+    if ( kind == Kind.USER ) {
+      return request.getPrincipalAsUser()
+        .map( user -> user.getName().equals( name ) )
+        .orElse( false );
+    }
+
+    return request.getAllRoles()
+      .stream()
+      .anyMatch( role -> role.getName().equals( name ) );
+  }
+
+  @Override
+  public boolean equals( Object o ) {
+    return o instanceof AuthorizationDecisionCacheTag that
+      && kind == that.kind
+      && name.equals( that.name );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash( kind, name );
+  }
+
+  @Override
+  public String toString() {
+    return String.format( "AuthorizationDecisionCacheTag[%s=%s]", kind, name );
+  }
+}
@@ -16,6 +16,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -29,31 +31,45 @@ import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRequ
 import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCache;
 import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCacheKey;
 import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthorizationDecision;
+import org.pentaho.platform.api.engine.security.authorization.decisions.ICompositeAuthorizationDecision;
+import org.pentaho.platform.engine.core.system.CacheTagIndex;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.core.system.StandaloneSession;
 import org.springframework.util.Assert;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
  * An in-memory implementation of {@link IAuthorizationDecisionCache}, that associates cache entries to the current
  * Pentaho session.
+ * <p>
+ * The entries of all sessions are held by a single cache, bounded by the total weight of the cached decisions, and keyed
+ * by session and request. Each session keeps a secondary index of its entries, so that invalidating a session only
+ * visits its own entries, and limits its number of entries to a maximum size.
+ * <p>
+ * Entries are indexed by their {@link AuthorizationDecisionCacheTag tags}, so that invalidating by an
+ * {@link AuthorizationDecisionCacheTag} predicate only visits the entries of the affected user or role.
  */
 public class MemoryAuthorizationDecisionCache implements
   IAuthorizationDecisionCache,
@@ -65,64 +81,64 @@ public class MemoryAuthorizationDecisionCache implements
   // region Helper classes
 
   /**
-   * Holds a session cache and manages the set of Pentaho sessions associated with it.
+   * Holds the set of Pentaho sessions associated with a session key, and a secondary index of the entries of the
+   * session key in the shared decision cache.
    * <p>
    * The sessions associated with this session cache data are expected to share the same session key, as defined by
    * {@link MemoryAuthorizationDecisionCache#getSessionKey(IPentahoSession)}.
+   * <p>
+   * No locks are taken on the read path: checking whether a session is already associated, and looking up the shared
+   * cache, only read concurrent maps.
    */
   private class SessionCacheData {
 
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-
     @NonNull
     private final String sessionKey;
 
     /**
      * Stores the set of sessions associated with this session cache data.
      * <p>
-     * A weak set is used, so that sessions can be garbage collected if there are no other strong references to them.
-     * This is only a fallback mechanism, for badly behaved used of sessions, such as direct uses of
+     * Sessions are weakly referenced, so that they can be garbage collected if there are no other strong references to
+     * them. This is only a fallback mechanism, for badly behaved used of sessions, such as direct uses of
      * {@link org.pentaho.platform.api.engine.ISecurityHelper#becomeUser(String)} without a corresponding destruction of
      * the created session. Sessions are expected to be explicitly disassociated from this session cache data, either
      * via a logout listener (for {@code PentahoHttpSession} sessions), or via explicit destruction
      * (for {@link StandaloneSession} sessions).
      * <p>
-     * Hiding and cleaning up stale (GC'd) sessions is handled by the {@link WeakHashMap} implementation.
+     * A weak keyed Guava cache is used as a concurrent, identity based, weak set.
      */
-    private final Set<IPentahoSession> sessions = Collections.newSetFromMap( new WeakHashMap<>() );
+    private final Cache<IPentahoSession, Boolean> sessions = CacheBuilder.newBuilder().weakKeys().build();
 
-    @NonNull
-    private final Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision> cache;
-
-    public SessionCacheData( @NonNull String sessionKey,
-                             @NonNull Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision> cache,
-                             @NonNull IPentahoSession session ) {
-      this.sessionKey = sessionKey;
-      this.cache = cache;
+    /**
+     * The keys of the entries of this session key in the shared decision cache. Keys are added when their decision is
+     * stored, and removed when the shared cache drops them.
+     */
+    private final Set<SessionDecisionKey> keys = ConcurrentHashMap.newKeySet();
 
-      addSessionCore( session );
-    }
+    /**
+     * The order in which {@link #keys} were added, used to enforce the per-session maximum size. It may contain keys
+     * which were meanwhile removed; these are skipped, and periodically compacted away.
+     */
+    private final Queue<SessionDecisionKey> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger insertionOrderSize = new AtomicInteger();
 
+    /**
+     * The tags of {@link #keys}.
+     */
     @NonNull
-    public Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision> getCache(
-      @NonNull IPentahoSession forSession ) {
-      lock.readLock().lock();
-      try {
-        if ( sessions.contains( forSession ) ) {
-          return cache;
-        }
-      } finally {
-        lock.readLock().unlock();
-      }
+    private final CacheTagIndex<SessionDecisionKey, AuthorizationDecisionCacheTag> tags = new CacheTagIndex<>();
 
-      lock.writeLock().lock();
-      try {
-        addSessionCore( forSession );
-      } finally {
-        lock.writeLock().unlock();
-      }
+    /**
+     * The number of invalidations of this session key's entries which are running, and the number which completed. A
+     * decision stored while an invalidation ran may have been missed by it, and is dropped.
+     */
+    private final AtomicInteger runningInvalidations = new AtomicInteger();
+    private final AtomicLong completedInvalidations = new AtomicLong();
 
-      return cache;
+    private volatile boolean disposed;
+
+    public SessionCacheData( @NonNull String sessionKey ) {
+      this.sessionKey = sessionKey;
     }
 
     /**
@@ -142,31 +158,110 @@ public class MemoryAuthorizationDecisionCache implements
      * logout listener}.
      *
      * @param session The session to associate.
+     * @return {@code true} if the session is associated; {@code false} if this session cache data has been disposed
+     * meanwhile, and a new one must be used instead.
      */
-    private void addSessionCore( @NonNull IPentahoSession session ) {
-      if ( sessions.add( session )
-        && ( session instanceof StandaloneSession standaloneSession ) ) {
+    public boolean associate( @NonNull IPentahoSession session ) {
+      if ( sessions.getIfPresent( session ) == null
+        && sessions.asMap().putIfAbsent( session, Boolean.TRUE ) == null
+        && session instanceof StandaloneSession standaloneSession ) {
 
         session.setAttribute(
           StandaloneSessionContainer.class.getName(),
           new StandaloneSessionContainer( standaloneSession ) );
       }
+
+      return !disposed;
+    }
+
+    @NonNull
+    public SessionDecisionKey keyOf( @NonNull IAuthorizationDecisionCacheKey key ) {
+      return new SessionDecisionKey( this, key );
+    }
+
+    /**
+     * Indexes a key whose decision was stored in the shared cache, and evicts the oldest keys of this session key if it
+     * is now over the per-session maximum size.
+     */
+    public void add( @NonNull SessionDecisionKey entryKey ) {
+      tags.tag( entryKey, AuthorizationDecisionCacheTag.of( entryKey.key ) );
+
+      if ( keys.add( entryKey ) ) {
+        insertionOrder.add( entryKey );
+        if ( insertionOrderSize.incrementAndGet() > 2 * ( keys.size() + 8 ) ) {
+          compactInsertionOrder();
+        }
+
+        while ( keys.size() > maximumSize ) {
+          var oldestKey = insertionOrder.poll();
+          if ( oldestKey == null ) {
+            break;
+          }
+
+          insertionOrderSize.decrementAndGet();
+          if ( oldestKey != entryKey && keys.contains( oldestKey ) ) {
+            evict( oldestKey );
+          }
+        }
+      }
+    }
+
+    /**
+     * Removes a key, which the shared cache dropped, from the index.
+     */
+    public void remove( @NonNull SessionDecisionKey entryKey ) {
+      keys.remove( entryKey );
+      tags.remove( entryKey );
+    }
+
+    @NonNull
+    public Set<SessionDecisionKey> removeTag( @NonNull AuthorizationDecisionCacheTag tag ) {
+      var taggedKeys = tags.removeTag( tag );
+      keys.removeAll( taggedKeys );
+      return taggedKeys;
+    }
+
+    /**
+     * @return a stamp to later check, with {@link #isInvalidatedSince(long)}, whether an invalidation ran meanwhile
+     */
+    public long getInvalidationStamp() {
+      return completedInvalidations.get();
+    }
+
+    public void beginInvalidation() {
+      runningInvalidations.incrementAndGet();
+    }
+
+    public void endInvalidation() {
+      // completed before no longer running, so that a check never misses both
+      completedInvalidations.incrementAndGet();
+      runningInvalidations.decrementAndGet();
+    }
+
+    /**
+     * Indicates whether an invalidation ran since a stamp was taken, or this session cache data was disposed.
+     *
+     * @param stamp The stamp returned by {@link #getInvalidationStamp()}.
+     * @return {@code true} if an invalidation ran, or is running; {@code false} otherwise.
+     */
+    public boolean isInvalidatedSince( long stamp ) {
+      return disposed || runningInvalidations.get() > 0 || completedInvalidations.get() != stamp;
+    }
+
+    private void compactInsertionOrder() {
+      insertionOrder.removeIf( entryKey -> !keys.contains( entryKey ) );
+      insertionOrderSize.set( insertionOrder.size() );
     }
 
     /**
      * Disassociates a session from this session cache data.
      *
      * @param session The session to disassociate.
-     * @return {@code true} if the session was disassociated and there are no more associated sessions;
-     * {@code false} otherwise.
+     * @return {@code true} if there are no more associated sessions; {@code false} otherwise.
      */
     public boolean removeSession( @NonNull IPentahoSession session ) {
-      lock.writeLock().lock();
-      try {
-        return sessions.remove( session ) && isStale();
-      } finally {
-        lock.writeLock().unlock();
-      }
+      sessions.invalidate( session );
+      return isStale();
     }
 
     /**
@@ -175,66 +270,93 @@ public class MemoryAuthorizationDecisionCache implements
      * @return {@code true} if there are no associated sessions; {@code false} otherwise.
      */
     public boolean isStale() {
-      return sessions.isEmpty();
+      // Purge garbage collected sessions, which are otherwise still counted.
+      sessions.cleanUp();
+      return sessions.size() == 0;
     }
 
-    public void invalidate( @NonNull IAuthorizationDecisionCacheKey key ) {
-      if ( logger.isTraceEnabled() ) {
-        logger.trace(
-          String.format(
-            "Invalidating cache entry for key '%s' in session cache for '%s'",
-            key, sessionKey ) );
-      }
-
-      cache.invalidate( key );
-    }
-
-    public void invalidateAll( @NonNull Predicate<IAuthorizationDecisionCacheKey> predicate ) {
-      // There doesn't seem to be a "safer" way to iterate the cache keys using the Guava Cache API.
-      // The asMap() and its keySet() are both views, backed by the real objects, so they "suffer" from concurrent
-      // modification issues. The `asMap()` documentation says:
-      // > Iterators from the returned map are at least <i>weakly consistent</i>: they are safe for
-      // > concurrent use, but if the cache is modified (including by eviction) after the iterator is
-      // > created, it is undefined which of the changes (if any) will be reflected in that iterator.
-      // So, it seems that only _changes_ to the cache would possibly not be visible, not the original values at the
-      // time
-      // when the iterator was created. This is consistent with the general goals described for the main class's
-      // invalidate* methods.
-      var invalidateRequests = cache
-        .asMap()
-        .keySet()
-        .stream()
-        .filter( predicate )
-        .toList();
-
-      if ( logger.isTraceEnabled() ) {
-        for ( var key : invalidateRequests ) {
-          logger.trace(
-            String.format(
-              "Invalidating cache entry for key '%s' in session cache for '%s'",
-              key, sessionKey ) );
-        }
-      }
-
-      cache.invalidateAll( invalidateRequests );
+    public boolean isDisposed() {
+      return disposed;
     }
 
     /**
-     * Disposes this session cache data, by clearing all associated sessions and disposing the shared cache.
+     * Disposes this session cache data, by clearing all associated sessions and the index.
+     *
+     * @return The keys of the entries which the caller must remove from the shared cache.
      */
-    public void dispose() {
-      lock.writeLock().lock();
-      try {
-        sessions.clear();
-        cache.invalidateAll();
-        cache.cleanUp();
-      } finally {
-        lock.writeLock().unlock();
-      }
+    @NonNull
+    public List<SessionDecisionKey> dispose() {
+      disposed = true;
+      sessions.invalidateAll();
+
+      var disposedKeys = List.copyOf( keys );
+      keys.clear();
+      tags.clear();
+      insertionOrder.clear();
+      insertionOrderSize.set( 0 );
 
       if ( logger.isTraceEnabled() ) {
         logger.trace( String.format( "Session cache disposed for '%s'", sessionKey ) );
       }
+
+      return disposedKeys;
+    }
+  }
+
+  /**
+   * The key of an entry in the shared decision cache: the session cache data it belongs to, and the key of the cached
+   * authorization request.
+   * <p>
+   * The session cache data is compared by identity, so that entries which were stored for a disposed session cache
+   * data are never found through its replacement.
+   */
+  private static final class SessionDecisionKey {
+    @NonNull
+    private final SessionCacheData owner;
+
+    @NonNull
+    private final IAuthorizationDecisionCacheKey key;
+
+    private final int hashCode;
+
+    SessionDecisionKey( @NonNull SessionCacheData owner, @NonNull IAuthorizationDecisionCacheKey key ) {
+      this.owner = owner;
+      this.key = key;
+      this.hashCode = 31 * System.identityHashCode( owner ) + key.hashCode();
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      return o instanceof SessionDecisionKey that
+        && owner == that.owner
+        && key.equals( that.key );
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return String.format( "SessionDecisionKey[session=%s, key=%s]", owner.sessionKey, key );
+    }
+  }
+
+  /**
+   * Statistics of the cached decisions of a type, which identifies the authorization rule that made them.
+   * Misses without a loader cannot be attributed to a type and are only reflected in the overall statistics.
+   */
+  private static final class DecisionTypeStats {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    @NonNull
+    CacheStats snapshot() {
+      long loads = loadCount.sum();
+      return new CacheStats( hitCount.sum(), loads, loads, 0, totalLoadTime.sum(), evictionCount.sum() );
     }
   }
 
@@ -341,53 +463,29 @@ public class MemoryAuthorizationDecisionCache implements
         logger.trace( "Sweeping for stale session caches..." );
       }
 
-      // Happy path: no dead session caches.
-      boolean hasStaleSessionCaches;
-      sessionsLock.readLock().lock();
-      try {
-        hasStaleSessionCaches = cacheBySessionKey
-          .values()
-          .stream()
-          .anyMatch( SessionCacheData::isStale );
-      } finally {
-        sessionsLock.readLock().unlock();
-      }
-
-      if ( hasStaleSessionCaches ) {
-        // Slow path: remove dead session caches.
-        List<String> staleSessionKeys;
-        sessionsLock.writeLock().lock();
-        try {
-          // Collect keys of stale sessions, to avoid copying the whole map to be able to remove during loop.
-          // Then invalidate those.
-          staleSessionKeys = cacheBySessionKey
-            .entrySet()
-            .stream()
-            .filter( entry -> entry.getValue().isStale() )
-            .map( Map.Entry::getKey )
-            .toList();
-
-          for ( String staleSessionKey : staleSessionKeys ) {
-            invalidateSessionCache( staleSessionKey, cacheBySessionKey.get( staleSessionKey ) );
-          }
-        } finally {
-          sessionsLock.writeLock().unlock();
-        }
-
-        hasStaleSessionCaches = !staleSessionKeys.isEmpty();
-
-        if ( hasStaleSessionCaches && logger.isWarnEnabled() ) {
-          // Log, for monitoring purposes.
-          // This is expected to be a rare occurrence, so logging at warning level should be acceptable.
-          // If it happens often, it may indicate a problem in the application code, such as
-          // StandaloneSessions not being properly destroyed.
-          // Note that this log may be noisy in testing environments, where StandaloneSessions are more common.
-          // In production, PentahoHttpSessions are more common, which are properly handled via logout listeners.
-          logger.warn(
-            String.format( "Cleaned up %d stale session caches: %s", staleSessionKeys.size(), staleSessionKeys )
-          );
+      // Session cache data is only removed when it is still the one mapped to its session key, so that a session cache
+      // data which was replaced meanwhile isn't disposed twice.
+      List<String> staleSessionKeys = new ArrayList<>();
+      for ( var entry : cacheBySessionKey.entrySet() ) {
+        var cacheData = entry.getValue();
+        if ( cacheData.isStale() && cacheBySessionKey.remove( entry.getKey(), cacheData ) ) {
+          invalidateSessionCache( cacheData );
+          staleSessionKeys.add( entry.getKey() );
         }
+      }
 
+      boolean hasStaleSessionCaches = !staleSessionKeys.isEmpty();
+
+      if ( hasStaleSessionCaches && logger.isWarnEnabled() ) {
+        // Log, for monitoring purposes.
+        // This is expected to be a rare occurrence, so logging at warning level should be acceptable.
+        // If it happens often, it may indicate a problem in the application code, such as
+        // StandaloneSessions not being properly destroyed.
+        // Note that this log may be noisy in testing environments, where StandaloneSessions are more common.
+        // In production, PentahoHttpSessions are more common, which are properly handled via logout listeners.
+        logger.warn(
+          String.format( "Cleaned up %d stale session caches: %s", staleSessionKeys.size(), staleSessionKeys )
+        );
       }
 
       if ( logger.isTraceEnabled() ) {
@@ -408,34 +506,65 @@ public class MemoryAuthorizationDecisionCache implements
   }
   // endregion Helper classes
 
-  // Settings for each session's internal authorization cache, a Guava cache.
-  // Used by createSessionCache().
+  /**
+   * The default maximum total weight of the decisions held by the cache, across all sessions, used when it is not
+   * specified. The weight of a decision is the number of decisions it is composed of.
+   */
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 250_000;
+
+  // Settings of the shared authorization cache, a Guava cache.
+  // Used by createDecisionCache().
   private final long expireAfterWrite;
   private final long maximumSize;
+  private final long maximumWeight;
   private final boolean recordStats;
 
-  // Global lock for the sessions map, cacheBySessionKey.
-  // Also guards the pastCacheStats field.
   @NonNull
-  private final ReentrantReadWriteLock sessionsLock;
+  private final ConcurrentMap<String, SessionCacheData> cacheBySessionKey = new ConcurrentHashMap<>();
 
-  @NonNull
-  private final Map<String, SessionCacheData> cacheBySessionKey;
+  // Created on first use, so that subclasses can customize the cache builder.
+  @Nullable
+  private volatile Cache<SessionDecisionKey, IAuthorizationDecision> decisionCache;
 
-  // Accumulates stats of removed session caches.
-  private CacheStats pastCacheStats = new CacheStats( 0, 0, 0, 0, 0, 0 );
+  @NonNull
+  private final ConcurrentMap<String, DecisionTypeStats> statsByDecisionType = new ConcurrentHashMap<>();
 
   @Nullable
   private final AutoCloseable sessionCacheSweeper;
 
+  /**
+   * Creates a new memory-based authorization decision cache, bounded by {@link #DEFAULT_MAXIMUM_WEIGHT}.
+   *
+   * @param expireAfterWrite           The number of seconds after which an authorization entry should be automatically
+   *                                   removed from the cache.
+   * @param maximumSize                The maximum number of entries that the cache may contain per-session. When the
+   *                                   size is exceeded, the cache will evict the entries of the session which were
+   *                                   stored first.
+   * @param recordStats                Whether to record cache statistics, which may be retrieved informally via
+   *                                   {@link #toString()}.
+   * @param staleSessionsSweepInterval The number of seconds between sweeps to remove stale session caches.
+   *                                   A value of 0 or less disables this feature.
+   */
+  public MemoryAuthorizationDecisionCache(
+    long expireAfterWrite,
+    long maximumSize,
+    boolean recordStats,
+    long staleSessionsSweepInterval ) {
+
+    this( expireAfterWrite, maximumSize, DEFAULT_MAXIMUM_WEIGHT, recordStats, staleSessionsSweepInterval );
+  }
+
   /**
    * Creates a new memory-based authorization decision cache.
    *
    * @param expireAfterWrite           The number of seconds after which an authorization entry should be automatically
    *                                   removed from the cache.
    * @param maximumSize                The maximum number of entries that the cache may contain per-session. When the
-   *                                   size is exceeded, the cache will evict entries that are less likely to be used
-   *                                   again.
+   *                                   size is exceeded, the cache will evict the entries of the session which were
+   *                                   stored first.
+   * @param maximumWeight              The maximum total weight of the entries of all sessions. When the weight is
+   *                                   exceeded, the cache will evict entries that are less likely to be used again,
+   *                                   regardless of their session.
    * @param recordStats                Whether to record cache statistics, which may be retrieved informally via
    *                                   {@link #toString()}.
    * @param staleSessionsSweepInterval The number of seconds between sweeps to remove stale session caches.
@@ -444,16 +573,15 @@ public class MemoryAuthorizationDecisionCache implements
   public MemoryAuthorizationDecisionCache(
     long expireAfterWrite,
     long maximumSize,
+    long maximumWeight,
     boolean recordStats,
     long staleSessionsSweepInterval ) {
 
     this.expireAfterWrite = expireAfterWrite;
     this.maximumSize = maximumSize;
+    this.maximumWeight = maximumWeight;
     this.recordStats = recordStats;
 
-    this.sessionsLock = new ReentrantReadWriteLock();
-    this.cacheBySessionKey = new HashMap<>();
-
     this.sessionCacheSweeper = createSessionCacheSweeper( staleSessionsSweepInterval );
 
     registerLogoutListener();
@@ -467,18 +595,54 @@ public class MemoryAuthorizationDecisionCache implements
       : null;
   }
 
-  // region Per-session cache management
+  // region Shared and per-session cache management
   @NonNull
-  protected Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision> createSessionCache() {
-    return createSessionCacheBuilder().build();
+  private Cache<SessionDecisionKey, IAuthorizationDecision> getDecisionCache() {
+    var cache = decisionCache;
+    if ( cache == null ) {
+      synchronized ( cacheBySessionKey ) {
+        cache = decisionCache;
+        if ( cache == null ) {
+          cache = createDecisionCache();
+          decisionCache = cache;
+        }
+      }
+    }
+
+    return cache;
+  }
+
+  @NonNull
+  private Cache<SessionDecisionKey, IAuthorizationDecision> createDecisionCache() {
+    // Keep the session indexes from retaining keys which the cache evicted, expired or invalidated.
+    RemovalListener<SessionDecisionKey, IAuthorizationDecision> unindexRemoved = notification -> {
+      if ( notification.getCause() == RemovalCause.REPLACED ) {
+        return;
+      }
+
+      var entryKey = notification.getKey();
+      if ( entryKey != null ) {
+        entryKey.owner.remove( entryKey );
+      }
+
+      var evictedDecision = notification.getValue();
+      if ( recordStats && notification.wasEvicted() && evictedDecision != null ) {
+        getDecisionTypeStats( evictedDecision ).evictionCount.increment();
+      }
+    };
+
+    return createSessionCacheBuilder()
+      .maximumWeight( maximumWeight )
+      .weigher( ( SessionDecisionKey key, IAuthorizationDecision decision ) -> getWeight( decision ) )
+      .removalListener( unindexRemoved )
+      .build();
   }
 
   @VisibleForTesting
   @NonNull
   protected CacheBuilder<Object, Object> createSessionCacheBuilder() {
     final var cacheBuilder = CacheBuilder.newBuilder()
-      .expireAfterWrite( expireAfterWrite, TimeUnit.SECONDS )
-      .maximumSize( maximumSize );
+      .expireAfterWrite( expireAfterWrite, TimeUnit.SECONDS );
 
     if ( recordStats ) {
       cacheBuilder.recordStats();
@@ -487,6 +651,23 @@ public class MemoryAuthorizationDecisionCache implements
     return cacheBuilder;
   }
 
+  /**
+   * Gets the weight of a cached decision, as the number of decisions it is composed of.
+   *
+   * @param decision The decision.
+   * @return The weight, at least 1.
+   */
+  protected int getWeight( @NonNull IAuthorizationDecision decision ) {
+    int weight = 1;
+    if ( decision instanceof ICompositeAuthorizationDecision compositeDecision ) {
+      for ( var childDecision : compositeDecision.getDecisions() ) {
+        weight += getWeight( childDecision );
+      }
+    }
+
+    return weight;
+  }
+
   @NonNull
   protected String getSessionKey( @NonNull IPentahoSession session ) {
     // Using session name so that different sessions of same user (e.g. one StandaloneSession and one
@@ -502,99 +683,96 @@ public class MemoryAuthorizationDecisionCache implements
   }
 
   @NonNull
-  protected Optional<Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision>> getSessionCacheOptional() {
+  private Optional<SessionCacheData> getSessionCacheDataOptional() {
     var session = getSession();
     var sessionKey = getSessionKey( session );
 
-    sessionsLock.readLock().lock();
-    try {
-      return Optional
-        .ofNullable( cacheBySessionKey.get( sessionKey ) )
-        .map( cacheData -> cacheData.getCache( session ) );
-    } finally {
-      sessionsLock.readLock().unlock();
-    }
+    var cacheData = cacheBySessionKey.get( sessionKey );
+    return cacheData != null && cacheData.associate( session )
+      ? Optional.of( cacheData )
+      : Optional.empty();
   }
 
   @NonNull
-  protected Cache<IAuthorizationDecisionCacheKey, IAuthorizationDecision> getSessionCache() {
+  private SessionCacheData getSessionCacheData() {
     var session = getSession();
     var sessionKey = getSessionKey( session );
 
-    SessionCacheData cacheData;
-
-    // Happy path: a cache already exists for this session (key).
-    sessionsLock.readLock().lock();
-    try {
-      cacheData = cacheBySessionKey.get( sessionKey );
-      if ( cacheData != null ) {
-        return cacheData.getCache( session );
-      }
-    } finally {
-      sessionsLock.readLock().unlock();
-    }
-
-    // Slow path: create a cache for this session (key), if it's not there yet.
-    sessionsLock.writeLock().lock();
-    try {
-      // Recheck, after acquiring write lock.
-      cacheData = cacheBySessionKey.get( sessionKey );
-      if ( cacheData != null ) {
-        return cacheData.getCache( session );
+    while ( true ) {
+      var cacheData = cacheBySessionKey.computeIfAbsent( sessionKey, SessionCacheData::new );
+      if ( cacheData.associate( session ) ) {
+        return cacheData;
       }
 
-      var cache = createSessionCache();
-      cacheData = new SessionCacheData( sessionKey, cache, session );
-      cacheBySessionKey.put( sessionKey, cacheData );
-      return cache;
-    } finally {
-      sessionsLock.writeLock().unlock();
+      // Disposed meanwhile, by the logout of its last session. Replace it.
+      cacheBySessionKey.remove( sessionKey, cacheData );
     }
   }
 
   protected void invalidateSession( @NonNull IPentahoSession session ) {
     var sessionKey = getSessionKey( session );
 
-    // Assume it likely has a corresponding cache, and enter write lock directly.
-    sessionsLock.writeLock().lock();
-    try {
-      // Recheck, after acquiring write lock.
-      var cacheData = cacheBySessionKey.get( sessionKey );
-      if ( cacheData != null && cacheData.removeSession( session ) ) {
-        // Last session, so dispose and remove session cache data from the map.
-        invalidateSessionCache( sessionKey, cacheData );
-      }
-    } finally {
-      sessionsLock.writeLock().unlock();
+    var cacheData = cacheBySessionKey.get( sessionKey );
+    if ( cacheData != null
+      && cacheData.removeSession( session )
+      && cacheBySessionKey.remove( sessionKey, cacheData ) ) {
+      // Last session, so dispose the session cache data and remove its entries.
+      invalidateSessionCache( cacheData );
     }
   }
 
-  private void invalidateSessionCache( @NonNull String sessionKey, @NonNull SessionCacheData cacheData ) {
-    sessionsLock.writeLock().lock();
-    try {
-      // Store stats of removed cache.
-      if ( recordStats ) {
-        updatePastCacheStats( cacheData );
-      }
+  private void invalidateSessionCache( @NonNull SessionCacheData cacheData ) {
+    getDecisionCache().invalidateAll( cacheData.dispose() );
+  }
 
-      cacheData.dispose();
-      cacheBySessionKey.remove( sessionKey );
-    } finally {
-      sessionsLock.writeLock().unlock();
+  private void evict( @NonNull SessionDecisionKey entryKey ) {
+    var evictedDecision = getDecisionCache().asMap().remove( entryKey );
+    if ( recordStats && evictedDecision != null ) {
+      getDecisionTypeStats( evictedDecision ).evictionCount.increment();
     }
   }
 
-  private void updatePastCacheStats( @NonNull SessionCacheData expiredCacheData ) {
-    // Must adjust the eviction count, given that all items in the expired cache can now be considered evicted.
+  /**
+   * Stores a decision in the shared cache.
+   */
+  private void store( @NonNull SessionCacheData cacheData,
+                      @NonNull SessionDecisionKey entryKey,
+                      @NonNull IAuthorizationDecision decision ) {
+    long invalidationStamp = cacheData.getInvalidationStamp();
+    getDecisionCache().put( entryKey, decision );
+    indexStored( cacheData, entryKey, invalidationStamp );
+  }
+
+  /**
+   * Indexes an entry after it was put in the shared cache. Indexing only after the put ensures that an invalidation
+   * which does not see the key in the index runs, at least partly, after the put; when one ran since the stamp was
+   * taken, or the session cache data was disposed meanwhile, the entry is removed, as it could have been missed.
+   */
+  private void indexStored( @NonNull SessionCacheData cacheData,
+                            @NonNull SessionDecisionKey entryKey,
+                            long invalidationStamp ) {
+    cacheData.add( entryKey );
+
+    var cache = getDecisionCache();
+    if ( cacheData.isInvalidatedSince( invalidationStamp ) ) {
+      cache.invalidate( entryKey );
+    } else if ( !cache.asMap().containsKey( entryKey ) ) {
+      // Evicted or expired before being indexed.
+      cacheData.remove( entryKey );
+    }
+  }
 
-    var expiredCacheStats = expiredCacheData.cache.stats();
-    var additionalEvictionCount = expiredCacheStats.loadSuccessCount();
+  @NonNull
+  private DecisionTypeStats getDecisionTypeStats( @NonNull IAuthorizationDecision decision ) {
+    var decisionType = decision.getClass().getSimpleName();
+    if ( decisionType.isEmpty() ) {
+      // Anonymous class.
+      decisionType = decision.getClass().getName();
+    }
 
-    pastCacheStats = pastCacheStats
-      .plus( expiredCacheStats )
-      .plus( new CacheStats( 0, 0, 0, 0, 0, additionalEvictionCount ) );
+    return statsByDecisionType.computeIfAbsent( decisionType, type -> new DecisionTypeStats() );
   }
-  // endregion Global and Per-session cache management
+  // endregion Shared and per-session cache management
 
   // region Pentaho Integration
   // Associate cache entries to the current session.
@@ -642,8 +820,15 @@ public class MemoryAuthorizationDecisionCache implements
 
     var key = createAuthorizationKey( request, options );
 
-    return getSessionCacheOptional()
-      .map( cache -> cache.getIfPresent( key ) );
+    return getSessionCacheDataOptional()
+      .map( cacheData -> {
+        var decision = getDecisionCache().getIfPresent( cacheData.keyOf( key ) );
+        if ( recordStats && decision != null ) {
+          getDecisionTypeStats( decision ).hitCount.increment();
+        }
+
+        return decision;
+      } );
   }
 
   @NonNull
@@ -654,8 +839,26 @@ public class MemoryAuthorizationDecisionCache implements
     @NonNull Function<IAuthorizationDecisionCacheKey, IAuthorizationDecision> loader ) {
 
     var key = createAuthorizationKey( request, options );
+    var cacheData = getSessionCacheData();
+    var entryKey = cacheData.keyOf( key );
+    var loaded = new boolean[ 1 ];
+    // Taken before loading, so that the loaded decision is also dropped if an invalidation runs while it is loaded.
+    long invalidationStamp = cacheData.getInvalidationStamp();
+
+    IAuthorizationDecision decision;
     try {
-      return Objects.requireNonNull( getSessionCache().get( key, () -> loader.apply( key ) ) );
+      decision = getDecisionCache().get( entryKey, () -> {
+        long loadStart = System.nanoTime();
+        var loadedDecision = loader.apply( key );
+        if ( recordStats && loadedDecision != null ) {
+          var typeStats = getDecisionTypeStats( loadedDecision );
+          typeStats.loadCount.increment();
+          typeStats.totalLoadTime.add( System.nanoTime() - loadStart );
+        }
+
+        loaded[ 0 ] = true;
+        return loadedDecision;
+      } );
     } catch ( ExecutionException e ) {
       throw new IllegalStateException( "Loader does not throw checked exception", e );
     } catch ( UncheckedExecutionException e ) {
@@ -674,6 +877,14 @@ public class MemoryAuthorizationDecisionCache implements
       // Unwrap and rethrow runtime exceptions.
       throw runtimeException;
     }
+
+    if ( loaded[ 0 ] ) {
+      indexStored( cacheData, entryKey, invalidationStamp );
+    } else if ( recordStats ) {
+      getDecisionTypeStats( decision ).hitCount.increment();
+    }
+
+    return Objects.requireNonNull( decision );
   }
 
   @Override
@@ -681,7 +892,8 @@ public class MemoryAuthorizationDecisionCache implements
                    @NonNull IAuthorizationOptions options,
                    @NonNull IAuthorizationDecision decision ) {
     var key = createAuthorizationKey( request, options );
-    getSessionCache().put( key, decision );
+    var cacheData = getSessionCacheData();
+    store( cacheData, cacheData.keyOf( key ), decision );
   }
 
   @NonNull
@@ -695,110 +907,158 @@ public class MemoryAuthorizationDecisionCache implements
 
   // NOTE: Regarding all the invalidate* methods below:
   //
-  // It is possible that, after the session map is copied and the end of the call, a new session cache is created and
-  // added to the original session map.
-  // This is acceptable, as the new cache will be empty, so there is nothing to invalidate.
+  // The session cache data map is iterated without locking. It is possible that a new session cache data is added
+  // during the iteration. This is acceptable, as the new session cache data will be empty, so there is nothing to
+  // invalidate. It is also possible that a session cache data is disposed during the iteration. This is also
+  // acceptable, as its entries are removed from the shared cache by whoever disposes it.
   //
-  // It is also possible that a session cache is removed from the original map, remaining present in the copied map.
-  // This is also acceptable, as the session cache will simply be invalidated again.
-  //
-  // Finally, it is also possible that authorization decision(s) are added to the captured session caches, during the
-  // per-session invalidation process. For example:
+  // Finally, it is also possible that authorization decision(s) are added to the shared cache, during the invalidation
+  // process. For example:
   // 1. invalidate session A
-  // 2. new auth added to session C cache (not yet invalidated)
+  // 2. new auth added for session C (not yet invalidated)
   // 3. invalidate session B
   // 4. invalidate session C
-  // 5. new auth added to session A cache (already invalidated)
+  // 5. new auth added for session A (already invalidated)
   //
   // In case 2, above, the new auth will be invalidated in step 4, even though it was likely added to the cache after
-  // the invalidation process started. If a write lock were used, the entry would end up in the cache, which could be
-  // worse.
+  // the invalidation process started.
   // In case 5, above, the new auth will not be invalidated, but this is acceptable, as the invalidation process
   // started before the new auth was added to the cache.
   //
+  // What is not acceptable is a decision escaping an invalidation of its own session cache data which runs while it is
+  // stored, such as a decision put in the shared cache after the invalidation looked up the tag index, but indexed only
+  // after that. Each session cache data counts its running and completed invalidations, and a decision stored while
+  // one ran is removed again, once indexed.
+  //
   // All this appears to be a good compromise between consistency, performance and implementation complexity, especially
   // given the main use cases for these methods, of being able to invalidate authorization decisions when domain objects
   // change, such as when a user's roles change, or a role's permissions change.
   // One point in favor is that these changes are expected to be relatively infrequent, compared to authorization
   // checks.
-  //
-  // If stronger consistency is required in the future, a more complex approach would be needed, such as read-locking
-  // the _entire_ cache (including contained per-session caches) when doing these operations.
 
   @Override
   public void invalidate( @NonNull IAuthorizationRequest request, @NonNull IAuthorizationOptions options ) {
     var key = createAuthorizationKey( request, options );
-    copyCacheBySessionKey()
-      .forEach( ( sessionKey, cacheData ) -> cacheData.invalidate( key ) );
+    var cache = getDecisionCache();
+    for ( var cacheData : cacheBySessionKey.values() ) {
+      var entryKey = cacheData.keyOf( key );
+      if ( logger.isTraceEnabled() ) {
+        logger.trace(
+          String.format(
+            "Invalidating cache entry for key '%s' in session cache for '%s'",
+            key, cacheData.sessionKey ) );
+      }
+
+      cacheData.beginInvalidation();
+      try {
+        cache.invalidate( entryKey );
+      } finally {
+        cacheData.endInvalidation();
+      }
+    }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * When the predicate is an {@link AuthorizationDecisionCacheTag}, only the entries indexed under that tag are
+   * visited; otherwise, every entry of the cache is tested.
+   */
   @Override
   public void invalidateAll( @NonNull Predicate<IAuthorizationDecisionCacheKey> predicate ) {
-    copyCacheBySessionKey()
-      .forEach( ( sessionKey, cacheData ) -> cacheData.invalidateAll( predicate ) );
+    var cache = getDecisionCache();
+
+    if ( predicate instanceof AuthorizationDecisionCacheTag tag ) {
+      for ( var cacheData : cacheBySessionKey.values() ) {
+        cacheData.beginInvalidation();
+        try {
+          var invalidateKeys = cacheData.removeTag( tag );
+
+          if ( logger.isTraceEnabled() ) {
+            logger.trace(
+              String.format(
+                "Invalidating %d cache entries tagged '%s' in session cache for '%s'",
+                invalidateKeys.size(), tag, cacheData.sessionKey ) );
+          }
+
+          cache.invalidateAll( invalidateKeys );
+        } finally {
+          cacheData.endInvalidation();
+        }
+      }
+      return;
+    }
+
+    var invalidatedCacheData = List.copyOf( cacheBySessionKey.values() );
+    invalidatedCacheData.forEach( SessionCacheData::beginInvalidation );
+    try {
+      invalidateAllMatching( cache, predicate );
+    } finally {
+      invalidatedCacheData.forEach( SessionCacheData::endInvalidation );
+    }
+  }
+
+  private void invalidateAllMatching( @NonNull Cache<SessionDecisionKey, IAuthorizationDecision> cache,
+                                      @NonNull Predicate<IAuthorizationDecisionCacheKey> predicate ) {
+    // The key set of asMap() is a view, whose iterators are weakly consistent: they are safe for concurrent use, but
+    // changes to the cache after the iterator is created may or may not be reflected. This is consistent with the
+    // general goals described above.
+    var invalidateKeys = cache
+      .asMap()
+      .keySet()
+      .stream()
+      .filter( entryKey -> predicate.test( entryKey.key ) )
+      .toList();
+
+    if ( logger.isTraceEnabled() ) {
+      for ( var entryKey : invalidateKeys ) {
+        logger.trace( String.format( "Invalidating cache entry '%s'", entryKey ) );
+      }
+    }
+
+    cache.invalidateAll( invalidateKeys );
   }
 
   @Override
   public void invalidateAll() {
-    sessionsLock.writeLock().lock();
-    try {
-      cacheBySessionKey.forEach( ( sessionId, cacheData ) -> cacheData.dispose() );
-      cacheBySessionKey.clear();
-    } finally {
-      sessionsLock.writeLock().unlock();
+    for ( var cacheData : cacheBySessionKey.values() ) {
+      cacheData.dispose();
     }
+
+    cacheBySessionKey.clear();
+    getDecisionCache().invalidateAll();
   }
   // endregion Authorization Request Invalidation
 
   /**
-   * Creates a copy of the sessions cache.
-   * <p>
-   * The main use case is to avoid concurrent modification of the cache while iterating it.
+   * Gets the statistics of the cache, across all sessions.
    *
-   * @return A copy of the sessions cache.
+   * @return The stats.
    */
   @NonNull
-  private Map<String, SessionCacheData> copyCacheBySessionKey() {
-    sessionsLock.readLock().lock();
-    try {
-      return new HashMap<>( cacheBySessionKey );
-    } finally {
-      sessionsLock.readLock().unlock();
-    }
+  protected CacheStats getStats() {
+    var cache = decisionCache;
+    return cache != null ? cache.stats() : new CacheStats( 0, 0, 0, 0, 0, 0 );
   }
 
   /**
-   * Builds a consolidated {@link CacheStats} reflecting all session caches.
-   * <p>
-   * This builds collects stats of each session in a way that is safe for concurrent access, however, the stats may be
-   * inconsistent with respect to each other, as they may be collected at different times without locking each session's
-   * internal workings. This appears to be a good compromise given the rough requirement of being able to log stats for
-   * monitoring and configuration fine-tuning purposes.
+   * Gets the statistics of the cache per type of cached decision, which identifies the authorization rule that made
+   * it. Only hits, loads and evictions are attributed to a type. Statistics are only recorded if enabled.
    *
-   * @return The consolidated stats.
+   * @return The stats, by the simple class name of the decisions.
    */
-  protected CacheStats getStats() {
-    // Create safe copies of the session cache map and past session stats.
-    Map<String, SessionCacheData> sessionCacheMapCopy;
-    CacheStats pastCacheStatsCopy;
-
-    sessionsLock.readLock().lock();
-    try {
-      sessionCacheMapCopy = new HashMap<>( cacheBySessionKey );
-      pastCacheStatsCopy = pastCacheStats;
-    } finally {
-      sessionsLock.readLock().unlock();
-    }
-
-    return sessionCacheMapCopy
-      .values()
-      .stream()
-      .map( cacheData -> cacheData.cache.stats() )
-      .reduce( pastCacheStatsCopy, CacheStats::plus );
+  @NonNull
+  public Map<String, CacheStats> getStatsByDecisionType() {
+    var stats = new TreeMap<String, CacheStats>();
+    statsByDecisionType.forEach( ( type, typeStats ) -> stats.put( type, typeStats.snapshot() ) );
+    return stats;
   }
 
   @Override
   public String toString() {
-    return String.format( "MemoryAuthorizationDecisionCache[stats=%s]", getStats() );
+    return String.format(
+      "MemoryAuthorizationDecisionCache[stats=%s, statsByDecisionType=%s]",
+      getStats(),
+      getStatsByDecisionType() );
   }
 }
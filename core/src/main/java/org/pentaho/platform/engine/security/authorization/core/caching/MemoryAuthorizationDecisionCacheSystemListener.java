@@ -15,15 +15,17 @@ package org.pentaho.platform.engine.security.authorization.core.caching;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 
 /**
  * System listener that closes a {@link MemoryAuthorizationDecisionCache} when the Pentaho system is shutting down.
  */
-public class MemoryAuthorizationDecisionCacheSystemListener implements IPentahoSystemListener {
+public class MemoryAuthorizationDecisionCacheSystemListener implements IDependentSystemListener {
   private static final Log logger = LogFactory.getLog( MemoryAuthorizationDecisionCacheSystemListener.class );
 
   @NonNull
@@ -33,6 +35,14 @@ public class MemoryAuthorizationDecisionCacheSystemListener implements IPentahoS
     this.cache = Objects.requireNonNull( cache );
   }
 
+  /**
+   * The cache does not need any other listener to start.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Collections.emptyList();
+  }
+
   @Override
   public boolean startup( IPentahoSession session ) {
     if ( logger.isTraceEnabled() ) {
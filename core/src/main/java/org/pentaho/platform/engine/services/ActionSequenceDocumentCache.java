@@ -0,0 +1,246 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.dom4j.Document;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Shares parsed and localized action sequence documents between executions.
+ * <p>
+ * Entries are keyed by repository file id and locale, so files of different tenants never share an entry, and remember the version id and modification date of the file
+ * they were built from, so a new revision of the file replaces the cached document on its next lookup. Because the
+ * localization bundles can change independently of the action sequence itself, entries also expire a fixed time
+ * after they were loaded. The repository also drops the entries of a file when it updates, moves, restores or deletes
+ * it, through {@link #fileChanged(Serializable)}.
+ * <p>
+ * The cached documents are never handed out; every lookup returns a deep copy, so callers are free to mutate the
+ * result and to build a fresh {@link org.pentaho.platform.api.engine.IActionSequence} from it.
+ * <p>
+ * The shared instance is sized by the <code>action-sequence-document-cache/max-entries</code> and
+ * <code>action-sequence-document-cache/expire-after-write-seconds</code> settings of <code>pentaho.xml</code>, read
+ * when it is first used.
+ */
+public class ActionSequenceDocumentCache {
+
+  public static final String MAX_ENTRIES_SETTING = "action-sequence-document-cache/max-entries"; //$NON-NLS-1$
+  public static final String EXPIRE_AFTER_WRITE_SECONDS_SETTING =
+      "action-sequence-document-cache/expire-after-write-seconds"; //$NON-NLS-1$
+
+  private static final long DEFAULT_MAX_ENTRIES = 500;
+  private static final long DEFAULT_EXPIRE_AFTER_WRITE_SECONDS = 300;
+
+  private static final Log logger = LogFactory.getLog( ActionSequenceDocumentCache.class );
+
+  private static volatile ActionSequenceDocumentCache instance;
+
+  private final Cache<Key, Entry> cache;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+  public ActionSequenceDocumentCache( long maxEntries, long expireAfterWriteSeconds ) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize( Math.max( 0, maxEntries ) );
+    if ( expireAfterWriteSeconds > 0 ) {
+      builder.expireAfterWrite( expireAfterWriteSeconds, TimeUnit.SECONDS );
+    }
+    cache = builder.build();
+  }
+
+  /**
+   * Gets the shared instance, creating it from the system settings on first use, once the system is initialized.
+   */
+  public static ActionSequenceDocumentCache getInstance() {
+    ActionSequenceDocumentCache result = instance;
+    if ( result == null ) {
+      synchronized ( ActionSequenceDocumentCache.class ) {
+        result = instance;
+        if ( result == null ) {
+          result = new ActionSequenceDocumentCache( getLongSetting( MAX_ENTRIES_SETTING, DEFAULT_MAX_ENTRIES ),
+              getLongSetting( EXPIRE_AFTER_WRITE_SECONDS_SETTING, DEFAULT_EXPIRE_AFTER_WRITE_SECONDS ) );
+          instance = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static long getLongSetting( String settingName, long defaultValue ) {
+    String value = PentahoSystem.getSystemSetting( settingName, null );
+    if ( value == null || value.trim().isEmpty() ) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong( value.trim() );
+    } catch ( NumberFormatException e ) {
+      logger.warn( "Invalid value for setting " + settingName + ": " + value ); //$NON-NLS-1$ //$NON-NLS-2$
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Returns a private copy of the document for the given file and locale, calling <code>loader</code> to parse and
+   * localize it when no document for the current revision of the file is cached. Documents the loader cannot produce
+   * (<code>null</code>) and files that carry no id, or neither a version id nor a modification date, are not cached.
+   */
+  public Document getDocument( RepositoryFile file, Locale locale, Function<RepositoryFile, Document> loader ) {
+    if ( file.getId() == null ) {
+      return loader.apply( file );
+    }
+    Key key = new Key( file.getId(), locale );
+    Serializable versionId = file.getVersionId();
+    long lastModified = file.getLastModifiedDate() != null ? file.getLastModifiedDate().getTime() : 0L;
+
+    Entry entry = cache.getIfPresent( key );
+    if ( entry != null && entry.matches( versionId, lastModified ) ) {
+      hitCount.increment();
+      return (Document) entry.document.clone();
+    }
+    missCount.increment();
+
+    long start = System.nanoTime();
+    Document document = loader.apply( file );
+    long elapsed = System.nanoTime() - start;
+    loadCount.increment();
+    totalLoadTimeNanos.add( elapsed );
+    if ( logger.isDebugEnabled() ) {
+      logger.debug( "Loaded action sequence " + file.getPath() + " in " + TimeUnit.NANOSECONDS.toMillis( elapsed ) //$NON-NLS-1$ //$NON-NLS-2$
+          + " ms (hit rate " + getHitRate() + ")" ); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    if ( document == null ) {
+      return null;
+    }
+    if ( versionId == null && lastModified == 0L ) {
+      // without a revision there is no way to tell when the cached copy goes stale
+      return document;
+    }
+    cache.put( key, new Entry( versionId, lastModified, document ) );
+    return (Document) document.clone();
+  }
+
+  /**
+   * Drops the cached documents of the given file for every locale.
+   *
+   * @param fileId the id of the repository file
+   */
+  public void invalidate( Serializable fileId ) {
+    cache.asMap().keySet().removeIf( key -> key.fileId.equals( fileId ) );
+  }
+
+  /**
+   * Drops the cached documents of a file whose content, location or revision was changed through the repository, so
+   * the memory is released right away instead of on the next lookup. Does nothing until the shared instance is
+   * created.
+   *
+   * @param fileId the id of the repository file
+   */
+  public static void fileChanged( Serializable fileId ) {
+    ActionSequenceDocumentCache result = instance;
+    if ( result != null && fileId != null ) {
+      result.invalidate( fileId );
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public double getHitRate() {
+    long hits = hitCount.sum();
+    long requests = hits + missCount.sum();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  public long getLoadCount() {
+    return loadCount.sum();
+  }
+
+  public double getAverageLoadTimeMillis() {
+    long loads = loadCount.sum();
+    return loads == 0 ? 0.0 : totalLoadTimeNanos.sum() / ( loads * 1000000.0 );
+  }
+
+  private static final class Key {
+    private final Serializable fileId;
+    private final Locale locale;
+
+    Key( Serializable fileId, Locale locale ) {
+      this.fileId = fileId;
+      this.locale = locale;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof Key ) ) {
+        return false;
+      }
+      Key other = (Key) o;
+      return fileId.equals( other.fileId ) && Objects.equals( locale, other.locale );
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * fileId.hashCode() + Objects.hashCode( locale );
+    }
+
+    @Override
+    public String toString() {
+      return fileId + " [" + locale + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
+  private static final class Entry {
+    private final Serializable versionId;
+    private final long lastModified;
+    private final Document document;
+
+    Entry( Serializable versionId, long lastModified, Document document ) {
+      this.versionId = versionId;
+      this.lastModified = lastModified;
+      this.document = document;
+    }
+
+    boolean matches( Serializable versionId, long lastModified ) {
+      return Objects.equals( this.versionId, versionId ) && this.lastModified == lastModified;
+    }
+  }
+}
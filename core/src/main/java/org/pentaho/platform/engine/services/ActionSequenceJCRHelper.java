@@ -100,33 +100,40 @@ public class ActionSequenceJCRHelper {
   public Document getSolutionDocument( final String documentPath, final RepositoryFilePermission actionOperation ) {
 
     RepositoryFile file = repository.getFile( documentPath );
+    if ( file == null ) {
+      return null;
+    }
+    // the lookup above enforces the caller's access, so only parsing and localization are shared
+    return getDocumentCache().getDocument( file, getLocale(), f -> loadSolutionDocument( documentPath, f ) );
+  }
+
+  protected ActionSequenceDocumentCache getDocumentCache() {
+    return ActionSequenceDocumentCache.getInstance();
+  }
 
+  protected Document loadSolutionDocument( final String documentPath, final RepositoryFile file ) {
     Document document = null;
-    SimpleRepositoryFileData data = null;
-    if ( file != null ) {
-      data = repository.getDataForRead( file.getId(), SimpleRepositoryFileData.class );
-      if ( data != null ) {
-        try {
-          document = XmlDom4JHelper.getDocFromStream( data.getStream() );
-        } catch ( Throwable t ) {
-          logger.error( Messages.getInstance().getErrorString(
-              "ActionSequenceJCRHelper.ERROR_0017_INVALID_XML_DOCUMENT", documentPath ), t ); //$NON-NLS-1$
-          return null;
-        }
-      } else {
+    SimpleRepositoryFileData data = repository.getDataForRead( file.getId(), SimpleRepositoryFileData.class );
+    if ( data != null ) {
+      try {
+        document = XmlDom4JHelper.getDocFromStream( data.getStream() );
+      } catch ( Throwable t ) {
         logger.error( Messages.getInstance().getErrorString(
-            "ActionSequenceJCRHelper.ERROR_0019_NO_DATA_IN_FILE", file.getName() ) ); //$NON-NLS-1$
+            "ActionSequenceJCRHelper.ERROR_0017_INVALID_XML_DOCUMENT", documentPath ), t ); //$NON-NLS-1$
         return null;
       }
-      if ( ( document == null ) && ( file != null ) && ( data != null ) ) {
-        // the document exists but cannot be parsed
-        logger.error( Messages.getInstance().getErrorString(
-            "ActionSequenceJCRHelper.ERROR_0009_INVALID_DOCUMENT", documentPath ) ); //$NON-NLS-1$
-        return null;
-      }
-      localizeDoc( document, file );
+    } else {
+      logger.error( Messages.getInstance().getErrorString(
+          "ActionSequenceJCRHelper.ERROR_0019_NO_DATA_IN_FILE", file.getName() ) ); //$NON-NLS-1$
+      return null;
     }
-
+    if ( document == null ) {
+      // the document exists but cannot be parsed
+      logger.error( Messages.getInstance().getErrorString(
+          "ActionSequenceJCRHelper.ERROR_0009_INVALID_DOCUMENT", documentPath ) ); //$NON-NLS-1$
+      return null;
+    }
+    localizeDoc( document, file );
     return document;
   }
 
@@ -0,0 +1,306 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.audit;
+
+import org.pentaho.platform.api.engine.AuditException;
+import org.pentaho.platform.api.engine.IAuditEntry;
+import org.pentaho.platform.util.logging.Logger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes audit records off the request thread. Records are put into a bounded, lock-free buffer and written to the
+ * wrapped entry by a single background thread, in batches that are flushed when they reach {@link #setBatchSize
+ * batchSize} records or when the oldest pending record is {@link #setFlushIntervalMillis flushIntervalMillis} old.
+ * When the wrapped entry implements {@link AuditBatchWriter} each batch is written in one operation.
+ * <p>
+ * What happens when the buffer is full is decided by the {@link OverflowPolicy}.
+ * <p>
+ * Configure it in place of the wrapped entry:
+ *
+ * <pre>
+ * &lt;bean id="IAuditEntry" class="org.pentaho.platform.engine.services.audit.AsyncAuditEntry"
+ *     destroy-method="shutdown"&gt;
+ *   &lt;constructor-arg&gt;
+ *     &lt;bean class="org.pentaho.platform.engine.services.audit.AuditFileEntry"/&gt;
+ *   &lt;/constructor-arg&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ */
+public class AsyncAuditEntry implements IAuditEntry {
+
+  public enum OverflowPolicy {
+    /** The caller waits until the writer has made room. Nothing is lost. */
+    BLOCK,
+    /** The record is discarded. */
+    DROP,
+    /** One overflowing record out of every <code>sampleRate</code> waits like BLOCK, the others are dropped. */
+    SAMPLE
+  }
+
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+  private final IAuditEntry delegate;
+
+  private int capacity = 8192;
+  private int batchSize = 200;
+  private long flushIntervalMillis = 1000;
+  private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+  private int sampleRate = 10;
+
+  private final Queue<AuditRecord> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicLong overflowCount = new AtomicLong();
+
+  private final LongAdder enqueuedCount = new LongAdder();
+  private final LongAdder droppedCount = new LongAdder();
+  private final LongAdder flushedCount = new LongAdder();
+  private final LongAdder failedCount = new LongAdder();
+  private final LongAdder batchCount = new LongAdder();
+
+  private volatile Thread writerThread;
+  private volatile boolean running;
+  private volatile boolean stopped;
+
+  public AsyncAuditEntry( final IAuditEntry delegate ) {
+    this.delegate = delegate;
+  }
+
+  public void auditAll( final String jobId, final String instId, final String objId, final String objType,
+      final String actor, final String messageType, final String messageName, final String messageTxtValue,
+      final BigDecimal messageNumValue, final double duration ) throws AuditException {
+    AuditRecord record = new AuditRecord( jobId, instId, objId, objType, actor, messageType, messageName,
+        messageTxtValue, messageNumValue, duration, System.currentTimeMillis() );
+    if ( stopped ) {
+      // late records after shutdown are written directly
+      write( Collections.singletonList( record ) );
+      return;
+    }
+    ensureStarted();
+    if ( tryEnqueue( record ) ) {
+      if ( stopped ) {
+        // shutdown raced with this call, make sure the record is not left behind
+        flushRemaining();
+      }
+      return;
+    }
+    switch ( overflowPolicy ) {
+      case DROP:
+        droppedCount.increment();
+        return;
+      case SAMPLE:
+        if ( overflowCount.incrementAndGet() % sampleRate != 0 ) {
+          droppedCount.increment();
+          return;
+        }
+        enqueueBlocking( record );
+        return;
+      default:
+        enqueueBlocking( record );
+    }
+  }
+
+  private boolean tryEnqueue( final AuditRecord record ) {
+    int newSize = size.incrementAndGet();
+    if ( newSize > capacity ) {
+      size.decrementAndGet();
+      wakeWriter();
+      return false;
+    }
+    buffer.offer( record );
+    enqueuedCount.increment();
+    if ( newSize >= batchSize ) {
+      wakeWriter();
+    }
+    return true;
+  }
+
+  private void enqueueBlocking( final AuditRecord record ) throws AuditException {
+    while ( !tryEnqueue( record ) ) {
+      if ( stopped || Thread.currentThread().isInterrupted() ) {
+        write( Collections.singletonList( record ) );
+        return;
+      }
+      LockSupport.parkNanos( this, BLOCK_PARK_NANOS );
+    }
+  }
+
+  private void wakeWriter() {
+    Thread thread = writerThread;
+    if ( thread != null ) {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  private void ensureStarted() {
+    if ( writerThread == null ) {
+      synchronized ( this ) {
+        if ( writerThread == null && !stopped ) {
+          running = true;
+          Thread thread = new Thread( this::drain, "pentaho-audit-writer" ); //$NON-NLS-1$
+          thread.setDaemon( true );
+          writerThread = thread;
+          thread.start();
+        }
+      }
+    }
+  }
+
+  private void drain() {
+    List<AuditRecord> batch = new ArrayList<>( batchSize );
+    long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos( flushIntervalMillis );
+    long deadline = 0;
+    while ( running || size.get() > 0 ) {
+      AuditRecord record;
+      while ( batch.size() < batchSize && ( record = buffer.poll() ) != null ) {
+        size.decrementAndGet();
+        if ( batch.isEmpty() ) {
+          deadline = System.nanoTime() + flushIntervalNanos;
+        }
+        batch.add( record );
+      }
+      long remaining = deadline - System.nanoTime();
+      if ( !batch.isEmpty() && ( batch.size() >= batchSize || remaining <= 0 || !running ) ) {
+        flush( batch );
+        batch.clear();
+      } else if ( running ) {
+        LockSupport.parkNanos( this, batch.isEmpty() ? flushIntervalNanos : remaining );
+      }
+    }
+    if ( !batch.isEmpty() ) {
+      flush( batch );
+    }
+  }
+
+  private void flush( final List<AuditRecord> batch ) {
+    try {
+      write( batch );
+      flushedCount.add( batch.size() );
+      batchCount.increment();
+    } catch ( Exception ex ) {
+      failedCount.add( batch.size() );
+      Logger.error( this, ex.getMessage(), ex );
+    }
+  }
+
+  private void write( final List<AuditRecord> records ) throws AuditException {
+    if ( delegate instanceof AuditBatchWriter ) {
+      ( (AuditBatchWriter) delegate ).write( records );
+      return;
+    }
+    for ( AuditRecord record : records ) {
+      delegate.auditAll( record.getJobId(), record.getInstId(), record.getObjId(), record.getObjType(),
+          record.getActor(), record.getMessageType(), record.getMessageName(), record.getMessageTxtValue(),
+          record.getMessageNumValue(), record.getDuration() );
+    }
+  }
+
+  /**
+   * Writes the pending records, stops the background thread and closes the wrapped entry. Records audited afterwards
+   * are written synchronously.
+   */
+  public void shutdown() {
+    Thread thread;
+    synchronized ( this ) {
+      stopped = true;
+      running = false;
+      thread = writerThread;
+    }
+    if ( thread != null ) {
+      LockSupport.unpark( thread );
+      try {
+        thread.join( SHUTDOWN_TIMEOUT_MILLIS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flushRemaining();
+    if ( delegate instanceof AuditBatchWriter ) {
+      ( (AuditBatchWriter) delegate ).close();
+    }
+  }
+
+  private synchronized void flushRemaining() {
+    List<AuditRecord> batch = new ArrayList<>();
+    AuditRecord record;
+    while ( ( record = buffer.poll() ) != null ) {
+      size.decrementAndGet();
+      batch.add( record );
+    }
+    if ( !batch.isEmpty() ) {
+      flush( batch );
+    }
+  }
+
+  public IAuditEntry getDelegate() {
+    return delegate;
+  }
+
+  public void setCapacity( final int capacity ) {
+    this.capacity = Math.max( 1, capacity );
+  }
+
+  public void setBatchSize( final int batchSize ) {
+    this.batchSize = Math.max( 1, batchSize );
+  }
+
+  public void setFlushIntervalMillis( final long flushIntervalMillis ) {
+    this.flushIntervalMillis = Math.max( 1, flushIntervalMillis );
+  }
+
+  public void setOverflowPolicy( final OverflowPolicy overflowPolicy ) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public void setSampleRate( final int sampleRate ) {
+    this.sampleRate = Math.max( 1, sampleRate );
+  }
+
+  /** Number of records currently waiting in the buffer. */
+  public int getPendingCount() {
+    return size.get();
+  }
+
+  public long getEnqueuedCount() {
+    return enqueuedCount.sum();
+  }
+
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  public long getFlushedCount() {
+    return flushedCount.sum();
+  }
+
+  /** Number of records lost because the wrapped entry failed to write their batch. */
+  public long getFailedCount() {
+    return failedCount.sum();
+  }
+
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+}
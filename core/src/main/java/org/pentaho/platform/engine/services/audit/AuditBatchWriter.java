@@ -0,0 +1,35 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.audit;
+
+import org.pentaho.platform.api.engine.AuditException;
+
+import java.util.List;
+
+/**
+ * Implemented by audit entries that can store several records in one operation. {@link AsyncAuditEntry} hands its
+ * batches to such an entry instead of calling <code>auditAll</code> once per record.
+ */
+public interface AuditBatchWriter {
+
+  /**
+   * Stores the given records, in order.
+   */
+  void write( List<AuditRecord> records ) throws AuditException;
+
+  /**
+   * Releases any resource kept open between batches.
+   */
+  void close();
+}
@@ -26,7 +26,9 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author mbatchel
@@ -34,7 +36,7 @@ import java.util.Date;
  *         TODO To change the template for this generated type comment go to Window - Preferences - Java - Code
  *         Style - Code Templates
  */
-public class AuditFileEntry implements IAuditEntry {
+public class AuditFileEntry implements IAuditEntry, AuditBatchWriter {
   private static final String auditDirPath = "system/logs/audit"; //$NON-NLS-1$
 
   private static final String auditFileName = PentahoSystem.getSystemSetting(
@@ -62,48 +64,58 @@ public class AuditFileEntry implements IAuditEntry {
     }
   }
 
-  public synchronized void auditAll( final String jobId, final String instId, final String objId, final String objType,
+  public void auditAll( final String jobId, final String instId, final String objId, final String objType,
       final String actor, final String messageType, final String messageName, final String messageTxtValue,
       final BigDecimal messageNumValue, final double duration ) throws AuditException {
+    write( Collections.singletonList( new AuditRecord( jobId, instId, objId, objType, actor, messageType, messageName,
+        messageTxtValue, messageNumValue, duration, System.currentTimeMillis() ) ) );
+  }
+
+  /**
+   * Appends the records to the audit file. The file is opened for each batch rather than kept open, so that records
+   * follow the file when an external tool moves or truncates it to rotate the log.
+   */
+  public synchronized void write( final List<AuditRecord> records ) throws AuditException {
 
     if ( AuditFileEntry.auditFile == null ) {
       return;
     }
-    try {
-      BufferedWriter fw = new BufferedWriter( new FileWriter( AuditFileEntry.auditFile, true ) );
-      try {
-        Date dt = new Date();
-        fw.write( AuditFileEntry.auditDateFormat.format( dt ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( jobId ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( instId ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( objId ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( objType ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( actor ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( messageType ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( messageName ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( messageTxtValue ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( messageNumValue ) );
-        fw.write( AuditFileEntry.ID_SEPARATOR );
-        fw.write( getWritable( duration ) );
-        fw.newLine();
-      } finally {
-        fw.flush();
-        fw.close();
+    try ( BufferedWriter writer = new BufferedWriter( new FileWriter( AuditFileEntry.auditFile, true ) ) ) {
+      for ( AuditRecord record : records ) {
+        writer.write( AuditFileEntry.auditDateFormat.format( new Date( record.getTimestamp() ) ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getJobId() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getInstId() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getObjId() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getObjType() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getActor() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getMessageType() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getMessageName() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getMessageTxtValue() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getMessageNumValue() ) );
+        writer.write( AuditFileEntry.ID_SEPARATOR );
+        writer.write( getWritable( record.getDuration() ) );
+        writer.newLine();
       }
     } catch ( IOException ex ) {
       throw new AuditException( ex );
     }
   }
 
+  /**
+   * Nothing is kept open between batches.
+   */
+  public void close() {
+  }
+
   private String getWritable( final Object obj ) {
     if ( obj instanceof BigDecimal ) {
       DecimalFormat format = new DecimalFormat( "#.###" ); //$NON-NLS-1$
@@ -0,0 +1,94 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.audit;
+
+import java.math.BigDecimal;
+
+/**
+ * One audit entry as passed to {@link org.pentaho.platform.api.engine.IAuditEntry#auditAll}, together with the time
+ * it was recorded. Instances are immutable so they can be handed from request threads to a background writer.
+ */
+public final class AuditRecord {
+  private final String jobId;
+  private final String instId;
+  private final String objId;
+  private final String objType;
+  private final String actor;
+  private final String messageType;
+  private final String messageName;
+  private final String messageTxtValue;
+  private final BigDecimal messageNumValue;
+  private final double duration;
+  private final long timestamp;
+
+  public AuditRecord( final String jobId, final String instId, final String objId, final String objType,
+      final String actor, final String messageType, final String messageName, final String messageTxtValue,
+      final BigDecimal messageNumValue, final double duration, final long timestamp ) {
+    this.jobId = jobId;
+    this.instId = instId;
+    this.objId = objId;
+    this.objType = objType;
+    this.actor = actor;
+    this.messageType = messageType;
+    this.messageName = messageName;
+    this.messageTxtValue = messageTxtValue;
+    this.messageNumValue = messageNumValue;
+    this.duration = duration;
+    this.timestamp = timestamp;
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public String getInstId() {
+    return instId;
+  }
+
+  public String getObjId() {
+    return objId;
+  }
+
+  public String getObjType() {
+    return objType;
+  }
+
+  public String getActor() {
+    return actor;
+  }
+
+  public String getMessageType() {
+    return messageType;
+  }
+
+  public String getMessageName() {
+    return messageName;
+  }
+
+  public String getMessageTxtValue() {
+    return messageTxtValue;
+  }
+
+  public BigDecimal getMessageNumValue() {
+    return messageNumValue;
+  }
+
+  public double getDuration() {
+    return duration;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+}
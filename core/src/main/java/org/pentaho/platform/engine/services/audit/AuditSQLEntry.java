@@ -28,14 +28,16 @@ import java.sql.Types;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * @author mbatchel
  * 
  */
-public class AuditSQLEntry implements IAuditEntry {
+public class AuditSQLEntry implements IAuditEntry, AuditBatchWriter {
   private static AuditConnection audc;
 
   private Map<String, String> columnsSizeMap;
@@ -127,25 +129,41 @@ public class AuditSQLEntry implements IAuditEntry {
   public void auditAll( final String jobId, final String instId, final String objId, final String objType,
       final String actor, final String messageType, final String messageName, final String messageTxtValue,
       final BigDecimal messageNumValue, final double duration ) throws AuditException {
+    write( Collections.singletonList( new AuditRecord( jobId, instId, objId, objType, actor, messageType, messageName,
+        messageTxtValue, messageNumValue, duration, System.currentTimeMillis() ) ) );
+  }
 
+  public void write( final List<AuditRecord> records ) throws AuditException {
+    if ( records.isEmpty() ) {
+      return;
+    }
     Connection con = null;
     try {
       con = AuditSQLEntry.audc.getAuditConnection();
       try {
         PreparedStatement stmt = con.prepareStatement( AuditSQLEntry.INSERT_STMT );
         try {
-          setString( stmt, 1, jobId );
-          setString( stmt, 2, instId );
-          setString( stmt, 3, objId );
-          setString( stmt, 4, objType );
-          setString( stmt, 5, actor );
-          setString( stmt, 6, messageType );
-          setString( stmt, 7, messageName );
-          setObject( stmt, 8, messageTxtValue );
-          setBigDec( stmt, 9, messageNumValue );
-          setBigDec( stmt, 10, BigDecimal.valueOf( duration ) );
-          stmt.setTimestamp( 11, new Timestamp( System.currentTimeMillis() ) );
-          stmt.executeUpdate();
+          for ( AuditRecord record : records ) {
+            setString( stmt, 1, record.getJobId() );
+            setString( stmt, 2, record.getInstId() );
+            setString( stmt, 3, record.getObjId() );
+            setString( stmt, 4, record.getObjType() );
+            setString( stmt, 5, record.getActor() );
+            setString( stmt, 6, record.getMessageType() );
+            setString( stmt, 7, record.getMessageName() );
+            setObject( stmt, 8, record.getMessageTxtValue() );
+            setBigDec( stmt, 9, record.getMessageNumValue() );
+            setBigDec( stmt, 10, BigDecimal.valueOf( record.getDuration() ) );
+            stmt.setTimestamp( 11, new Timestamp( record.getTimestamp() ) );
+            if ( records.size() == 1 ) {
+              stmt.executeUpdate();
+            } else {
+              stmt.addBatch();
+            }
+          }
+          if ( records.size() > 1 ) {
+            stmt.executeBatch();
+          }
         } catch ( SQLException ex ) {
           Logger.error( this.getClass().getName(), ex.getMessage(), ex );
           try {
@@ -165,6 +183,10 @@ public class AuditSQLEntry implements IAuditEntry {
     }
   }
 
+  public void close() {
+    // connections are borrowed per batch, nothing is kept open
+  }
+
   private Map<String, String> getColumnsSizeMap() {
     if ( columnsSizeMap == null && TABLE_NAME != null ) {
       Connection con = null;
@@ -0,0 +1,160 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.connection.datasource.dbcp;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link ConnectionPoolStatistics} of the connection pools of the platform, publishes them through JMX, and
+ * periodically resizes the pools which are adaptive.
+ * <p>
+ * The interval between resizes, in seconds, is read from the <code>dbcp-defaults/adaptive-interval</code> system
+ * setting.
+ */
+public class ConnectionPoolMonitor {
+
+  private static final ConnectionPoolMonitor INSTANCE = new ConnectionPoolMonitor();
+
+  private static final long DEFAULT_ADAPTIVE_INTERVAL_SECONDS = 60;
+
+  private final ConcurrentMap<String, ConnectionPoolStatistics> pools = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService adaptiveExecutor;
+
+  public static ConnectionPoolMonitor getInstance() {
+    return INSTANCE;
+  }
+
+  ConnectionPoolMonitor() {
+  }
+
+  /**
+   * Starts monitoring a pool, replacing any other pool of the same name. The replaced pool is unregistered as if its
+   * datasource had been closed, so it is neither published nor resized any more.
+   */
+  public void register( ConnectionPoolStatistics statistics ) {
+    ConnectionPoolStatistics previous = pools.put( statistics.getName(), statistics );
+    if ( previous != null && previous != statistics ) {
+      release( previous );
+    }
+    registerMBean( statistics );
+
+    if ( statistics.isAdaptive() ) {
+      startAdaptiveSizing();
+    }
+  }
+
+  /**
+   * Stops monitoring a pool, unless it was replaced by another one of the same name.
+   */
+  public void unregister( ConnectionPoolStatistics statistics ) {
+    if ( pools.remove( statistics.getName(), statistics ) ) {
+      release( statistics );
+    }
+  }
+
+  public ConnectionPoolStatistics getPool( String name ) {
+    return name != null ? pools.get( name ) : null;
+  }
+
+  /**
+   * @return the statistics of all the monitored pools, sorted by name
+   */
+  public List<ConnectionPoolStatistics> getPools() {
+    List<ConnectionPoolStatistics> result = new ArrayList<>( pools.values() );
+    result.sort( Comparator.comparing( ConnectionPoolStatistics::getName ) );
+    return result;
+  }
+
+  /**
+   * Resizes all the adaptive pools.
+   */
+  void adjustPools() {
+    for ( ConnectionPoolStatistics statistics : pools.values() ) {
+      try {
+        statistics.adjust();
+      } catch ( RuntimeException e ) {
+        Logger.warn( this, "Failed to resize pool " + statistics.getName(), e ); //$NON-NLS-1$
+      }
+    }
+  }
+
+  private synchronized void startAdaptiveSizing() {
+    if ( adaptiveExecutor != null ) {
+      return;
+    }
+
+    String intervalSetting = PentahoSystem.getSystemSetting( "dbcp-defaults/adaptive-interval", null ); //$NON-NLS-1$
+    long interval = NumberUtils.toLong( intervalSetting, DEFAULT_ADAPTIVE_INTERVAL_SECONDS );
+    if ( interval <= 0 ) {
+      interval = DEFAULT_ADAPTIVE_INTERVAL_SECONDS;
+    }
+
+    adaptiveExecutor = Executors.newSingleThreadScheduledExecutor( runnable -> {
+      Thread thread = new Thread( runnable, "connection-pool-sizing" ); //$NON-NLS-1$
+      thread.setDaemon( true );
+      return thread;
+    } );
+    adaptiveExecutor.scheduleWithFixedDelay( this::adjustPools, interval, interval, TimeUnit.SECONDS );
+  }
+
+  private void release( ConnectionPoolStatistics statistics ) {
+    unregisterMBean( statistics );
+    statistics.setPool( null );
+  }
+
+  private void registerMBean( ConnectionPoolStatistics statistics ) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = getObjectName( statistics );
+      if ( server.isRegistered( objectName ) ) {
+        server.unregisterMBean( objectName );
+      }
+      server.registerMBean( statistics, objectName );
+    } catch ( Exception e ) {
+      Logger.warn( this, "Failed to register the JMX statistics of pool " + statistics.getName(), e ); //$NON-NLS-1$
+    }
+  }
+
+  private void unregisterMBean( ConnectionPoolStatistics statistics ) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = getObjectName( statistics );
+      if ( server.isRegistered( objectName ) ) {
+        server.unregisterMBean( objectName );
+      }
+    } catch ( Exception e ) {
+      Logger.warn( this, "Failed to unregister the JMX statistics of pool " + statistics.getName(), e ); //$NON-NLS-1$
+    }
+  }
+
+  static ObjectName getObjectName( ConnectionPoolStatistics statistics ) throws Exception {
+    return new ObjectName( "pentaho:type=ConnectionPool,name=" //$NON-NLS-1$
+        + ObjectName.quote( statistics.getName() ) );
+  }
+}
@@ -0,0 +1,286 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.connection.datasource.dbcp;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.pentaho.platform.util.logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statistics of the connection pool of a datasource, as connections are borrowed, created and validated,
+ * and optionally sizes its idle connections according to the observed demand.
+ * <p>
+ * In adaptive mode, the maximum number of idle connections follows the peak number of connections in use or waited
+ * for since the last adjustment, within the configured bounds. It grows at once, and shrinks by half of the difference
+ * on each adjustment, so that short lulls don't close connections which are soon needed again. The minimum number of
+ * idle connections is kept at half of the maximum.
+ */
+public class ConnectionPoolStatistics implements ConnectionPoolStatisticsMXBean {
+
+  private static final long[] BORROW_HISTOGRAM_BOUNDS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+  private final String name;
+
+  private volatile GenericObjectPool<?> pool;
+
+  private final LongAdder borrowCount = new LongAdder();
+  private final LongAdder borrowNanos = new LongAdder();
+  private final AtomicLong maxBorrowNanos = new AtomicLong();
+  private final LongAdder borrowFailureCount = new LongAdder();
+  private final AtomicLongArray borrowHistogram = new AtomicLongArray( BORROW_HISTOGRAM_BOUNDS.length + 1 );
+
+  private final LongAdder creationCount = new LongAdder();
+  private final LongAdder creationNanos = new LongAdder();
+  private final LongAdder creationFailureCount = new LongAdder();
+
+  private final LongAdder validationCount = new LongAdder();
+  private final LongAdder validationNanos = new LongAdder();
+
+  private volatile boolean adaptive;
+  private volatile int adaptiveLowerBound;
+  private volatile int adaptiveUpperBound;
+  private final AtomicLong peakDemand = new AtomicLong();
+
+  public ConnectionPoolStatistics( String name ) {
+    this.name = name != null ? name : "";
+  }
+
+  void setPool( GenericObjectPool<?> pool ) {
+    this.pool = pool;
+  }
+
+  /**
+   * Sizes the idle connections of the pool according to the observed demand.
+   *
+   * @param lowerBound the lowest minimum and maximum number of idle connections
+   * @param upperBound the highest maximum number of idle connections
+   */
+  void setAdaptive( int lowerBound, int upperBound ) {
+    this.adaptiveLowerBound = Math.max( 0, lowerBound );
+    this.adaptiveUpperBound = Math.max( this.adaptiveLowerBound, upperBound );
+    this.adaptive = true;
+  }
+
+  /**
+   * Records an attempt to borrow a connection from the pool.
+   *
+   * @param nanos   time spent, in nanoseconds
+   * @param success false if no connection was borrowed
+   */
+  public void recordBorrow( long nanos, boolean success ) {
+    if ( !success ) {
+      borrowFailureCount.increment();
+      return;
+    }
+
+    borrowCount.increment();
+    borrowNanos.add( nanos );
+    maxBorrowNanos.accumulateAndGet( nanos, Math::max );
+
+    long millis = TimeUnit.NANOSECONDS.toMillis( nanos );
+    int bucket = 0;
+    while ( bucket < BORROW_HISTOGRAM_BOUNDS.length && millis > BORROW_HISTOGRAM_BOUNDS[bucket] ) {
+      bucket++;
+    }
+    borrowHistogram.incrementAndGet( bucket );
+
+    GenericObjectPool<?> currentPool = pool;
+    if ( adaptive && currentPool != null ) {
+      peakDemand.accumulateAndGet( currentPool.getNumActive() + currentPool.getNumWaiters(), Math::max );
+    }
+  }
+
+  void recordCreation( long nanos, boolean success ) {
+    if ( success ) {
+      creationCount.increment();
+      creationNanos.add( nanos );
+    } else {
+      creationFailureCount.increment();
+    }
+  }
+
+  void recordValidation( long nanos ) {
+    validationCount.increment();
+    validationNanos.add( nanos );
+  }
+
+  /**
+   * Adjusts the idle connections of the pool to the demand observed since the last adjustment, if adaptive.
+   */
+  void adjust() {
+    GenericObjectPool<?> currentPool = pool;
+    if ( !adaptive || currentPool == null || currentPool.isClosed() ) {
+      return;
+    }
+
+    long demand = peakDemand.getAndSet( currentPool.getNumActive() + currentPool.getNumWaiters() );
+    int target = (int) Math.max( adaptiveLowerBound, Math.min( adaptiveUpperBound, demand ) );
+
+    int maxIdle = currentPool.getMaxIdle();
+    int newMaxIdle = target >= maxIdle ? target : maxIdle - Math.max( 1, ( maxIdle - target ) / 2 );
+    newMaxIdle = Math.max( adaptiveLowerBound, Math.min( adaptiveUpperBound, newMaxIdle ) );
+    int newMinIdle = Math.max( adaptiveLowerBound, Math.min( newMaxIdle, newMaxIdle / 2 ) );
+
+    if ( newMaxIdle == maxIdle && newMinIdle == currentPool.getMinIdle() ) {
+      return;
+    }
+
+    Logger.debug( this, "Resizing pool " + name + " to " + newMinIdle //$NON-NLS-1$ //$NON-NLS-2$
+        + " min idle/" + newMaxIdle + " max idle connections, for a demand of " + demand ); //$NON-NLS-1$ //$NON-NLS-2$
+
+    boolean minIdleGrew = newMinIdle > currentPool.getMinIdle();
+    currentPool.setMaxIdle( newMaxIdle );
+    currentPool.setMinIdle( newMinIdle );
+    if ( minIdleGrew ) {
+      try {
+        currentPool.preparePool();
+      } catch ( Exception e ) {
+        Logger.warn( this, "Failed to open idle connections of pool " + name, e ); //$NON-NLS-1$
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getNumActive() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getNumActive() : 0;
+  }
+
+  @Override
+  public int getNumIdle() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getNumIdle() : 0;
+  }
+
+  @Override
+  public int getNumWaiters() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getNumWaiters() : 0;
+  }
+
+  @Override
+  public int getMaxTotal() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getMaxTotal() : 0;
+  }
+
+  @Override
+  public int getMaxIdle() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getMaxIdle() : 0;
+  }
+
+  @Override
+  public int getMinIdle() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getMinIdle() : 0;
+  }
+
+  @Override
+  public long getBorrowedCount() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getBorrowedCount() : 0;
+  }
+
+  @Override
+  public long getReturnedCount() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getReturnedCount() : 0;
+  }
+
+  @Override
+  public long getCreatedCount() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getCreatedCount() : 0;
+  }
+
+  @Override
+  public long getDestroyedCount() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getDestroyedCount() : 0;
+  }
+
+  @Override
+  public long getDestroyedByBorrowValidationCount() {
+    GenericObjectPool<?> currentPool = pool;
+    return currentPool != null ? currentPool.getDestroyedByBorrowValidationCount() : 0;
+  }
+
+  @Override
+  public long getBorrowFailureCount() {
+    return borrowFailureCount.sum();
+  }
+
+  @Override
+  public long getCreationFailureCount() {
+    return creationFailureCount.sum();
+  }
+
+  @Override
+  public double getMeanCreationMillis() {
+    return meanMillis( creationNanos.sum(), creationCount.sum() );
+  }
+
+  @Override
+  public long getValidationCount() {
+    return validationCount.sum();
+  }
+
+  @Override
+  public double getMeanValidationMillis() {
+    return meanMillis( validationNanos.sum(), validationCount.sum() );
+  }
+
+  @Override
+  public double getMeanBorrowMillis() {
+    return meanMillis( borrowNanos.sum(), borrowCount.sum() );
+  }
+
+  @Override
+  public long getMaxBorrowMillis() {
+    return TimeUnit.NANOSECONDS.toMillis( maxBorrowNanos.get() );
+  }
+
+  @Override
+  public long[] getBorrowHistogramBounds() {
+    return BORROW_HISTOGRAM_BOUNDS.clone();
+  }
+
+  @Override
+  public long[] getBorrowHistogram() {
+    long[] histogram = new long[borrowHistogram.length()];
+    for ( int i = 0; i < histogram.length; i++ ) {
+      histogram[i] = borrowHistogram.get( i );
+    }
+    return histogram;
+  }
+
+  @Override
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  private static double meanMillis( long nanos, long count ) {
+    return count == 0 ? 0 : nanos / 1e6 / count;
+  }
+}
@@ -0,0 +1,96 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.connection.datasource.dbcp;
+
+/**
+ * Statistics of the connection pool of a single datasource, published through JMX as
+ * <code>pentaho:type=ConnectionPool,name=&lt;datasource&gt;</code>.
+ */
+public interface ConnectionPoolStatisticsMXBean {
+
+  String getName();
+
+  int getNumActive();
+
+  int getNumIdle();
+
+  /**
+   * @return number of threads waiting to borrow a connection
+   */
+  int getNumWaiters();
+
+  int getMaxTotal();
+
+  int getMaxIdle();
+
+  int getMinIdle();
+
+  long getBorrowedCount();
+
+  long getReturnedCount();
+
+  long getCreatedCount();
+
+  long getDestroyedCount();
+
+  long getDestroyedByBorrowValidationCount();
+
+  /**
+   * @return number of attempts to borrow a connection which failed, such as on timeout
+   */
+  long getBorrowFailureCount();
+
+  /**
+   * @return number of attempts to open a new connection to the database which failed
+   */
+  long getCreationFailureCount();
+
+  /**
+   * @return average time spent opening a new connection to the database, in milliseconds
+   */
+  double getMeanCreationMillis();
+
+  long getValidationCount();
+
+  /**
+   * @return average time spent validating a connection, in milliseconds
+   */
+  double getMeanValidationMillis();
+
+  /**
+   * @return average time spent borrowing a connection, in milliseconds
+   */
+  double getMeanBorrowMillis();
+
+  /**
+   * @return longest time spent borrowing a connection, in milliseconds
+   */
+  long getMaxBorrowMillis();
+
+  /**
+   * @return upper bounds, in milliseconds, of the buckets of {@link #getBorrowHistogram()}, but for the last one,
+   *         which is unbounded
+   */
+  long[] getBorrowHistogramBounds();
+
+  /**
+   * @return number of borrows per bucket of time spent
+   */
+  long[] getBorrowHistogram();
+
+  /**
+   * @return true if the idle connections are sized according to the observed demand
+   */
+  boolean isAdaptive();
+}
@@ -0,0 +1,56 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.connection.datasource.dbcp;
+
+import org.apache.commons.dbcp2.ConnectionFactory;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.dbcp2.PoolableConnectionFactory;
+import org.apache.commons.pool2.PooledObject;
+
+/**
+ * A {@link PoolableConnectionFactory} which records the time spent opening and validating connections, and the failures
+ * to open them, in the {@link ConnectionPoolStatistics} of its pool.
+ */
+class InstrumentedPoolableConnectionFactory extends PoolableConnectionFactory {
+
+  private final ConnectionPoolStatistics statistics;
+
+  InstrumentedPoolableConnectionFactory( ConnectionFactory connectionFactory, ConnectionPoolStatistics statistics ) {
+    super( connectionFactory, null );
+    this.statistics = statistics;
+  }
+
+  @Override
+  public PooledObject<PoolableConnection> makeObject() throws Exception {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      PooledObject<PoolableConnection> pooledObject = super.makeObject();
+      success = true;
+      return pooledObject;
+    } finally {
+      statistics.recordCreation( System.nanoTime() - start, success );
+    }
+  }
+
+  @Override
+  public boolean validateObject( PooledObject<PoolableConnection> pooledObject ) {
+    long start = System.nanoTime();
+    try {
+      return super.validateObject( pooledObject );
+    } finally {
+      statistics.recordValidation( System.nanoTime() - start );
+    }
+  }
+}
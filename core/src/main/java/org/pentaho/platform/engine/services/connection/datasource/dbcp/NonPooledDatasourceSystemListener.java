@@ -17,7 +17,10 @@ import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.sql.DataSource;
 
@@ -26,18 +29,29 @@ import org.pentaho.database.model.IDatabaseConnection;
 import org.pentaho.platform.api.data.DBDatasourceServiceException;
 import org.pentaho.platform.api.data.IDBDatasourceService;
 import org.pentaho.platform.api.engine.ICacheManager;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.engine.ObjectFactoryException;
 import org.pentaho.platform.api.repository.datasource.DatasourceMgmtServiceException;
 import org.pentaho.platform.api.repository.datasource.IDatasourceMgmtService;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.engine.core.system.StartupScheduler;
 import org.pentaho.platform.engine.services.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 
-public class NonPooledDatasourceSystemListener implements IPentahoSystemListener {
+public class NonPooledDatasourceSystemListener implements IDependentSystemListener {
+
+  /**
+   * The datasources are read from the repository.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.repository2.unified.BackingRepositoryLifecycleManagerSystemListener",
+        "org.pentaho.platform.plugin.services.security.userrole.SecuritySystemListener" );
+  }
 
   public boolean startup( final IPentahoSession session ) {
     try {
@@ -48,34 +62,56 @@ public class NonPooledDatasourceSystemListener implements IPentahoSystemListener
 
       List<IDatabaseConnection> databaseConnections = getListOfDatabaseConnections( session );
 
-      String dsName = "";
-      DataSource ds = null;
+      // Set up the datasources concurrently, as opening the connections of their pools may take a while.
+      final DataSource[] dataSources = new DataSource[databaseConnections.size()];
+      StartupScheduler scheduler =
+        new StartupScheduler( "datasources", StartupScheduler.getDefaultParallelism() ); //$NON-NLS-1$
 
-      for ( IDatabaseConnection databaseConnection : databaseConnections ) {
+      for ( int i = 0; i < databaseConnections.size(); i++ ) {
+        final IDatabaseConnection databaseConnection = databaseConnections.get( i );
 
         if ( databaseConnection != null ) {
 
           Logger.debug( this, "  Setting up datasource - " + databaseConnection ); //$NON-NLS-1$
 
-          dsName = databaseConnection.getName();
-
           //isPortUsedByServer should NOT be called on a JNDI data source
           //http://jira.pentaho.com/browse/BISERVER-12244
           if ( !databaseConnection.getAccessType().equals( DatabaseAccessType.JNDI ) ) {
-            // if connection's port used by server there is no sense to get DataSource for this
-            ds = isPortUsedByServer( databaseConnection ) ? null : setupDataSourceForConnection( databaseConnection );
+            final int index = i;
+            scheduler.addTask( "datasource-" + i, null, () -> { //$NON-NLS-1$
+              try {
+                // if connection's port used by server there is no sense to get DataSource for this
+                dataSources[index] =
+                  isPortUsedByServer( databaseConnection ) ? null : setupDataSourceForConnection( databaseConnection );
+              } catch ( RuntimeException e ) {
+                Logger.error( this, "Error setting up datasource " + databaseConnection.getName(), e ); //$NON-NLS-1$
+              }
+            } );
           } else {
             Logger.debug( this, "(Datasource \"" + IDBDatasourceService.JDBC_DATASOURCE //$NON-NLS-1$
-                + dsName + "\" not cached)" ); //$NON-NLS-1$
-            continue;
+                + databaseConnection.getName() + "\" not cached)" ); //$NON-NLS-1$
           }
+        }
 
-          cacheManager.putInRegionCache( IDBDatasourceService.JDBC_DATASOURCE, dsName, ds );
+      }
+
+      try {
+        scheduler.run();
+      } catch ( ExecutionException e ) {
+        Logger.error( this, "Error setting up datasources", e.getCause() ); //$NON-NLS-1$
+      }
 
-          Logger.debug( this, "(Storing datasource under key \"" + IDBDatasourceService.JDBC_DATASOURCE //$NON-NLS-1$
-              + dsName + "\")" ); //$NON-NLS-1$
+      // Cache them in their original order.
+      for ( int i = 0; i < databaseConnections.size(); i++ ) {
+        if ( !scheduler.hasTask( "datasource-" + i ) ) { //$NON-NLS-1$
+          continue;
         }
 
+        String dsName = databaseConnections.get( i ).getName();
+        cacheManager.putInRegionCache( IDBDatasourceService.JDBC_DATASOURCE, dsName, dataSources[i] );
+
+        Logger.debug( this, "(Storing datasource under key \"" + IDBDatasourceService.JDBC_DATASOURCE //$NON-NLS-1$
+            + dsName + "\")" ); //$NON-NLS-1$
       }
 
       Logger.debug( this, "DatasourceSystemListener: Completed startup." ); //$NON-NLS-1$
@@ -93,13 +93,44 @@ public class PooledDatasourceHelper {
   }
 
   public static GenericObjectPool createGenericPool( IDatabaseConnection databaseConnection, IDatabaseDialect dialect, Map<String, String> attributes ) throws Exception {
+    return createGenericPool( databaseConnection, dialect, attributes, null );
+  }
+
+  /**
+   * Creates the pool of a connection, recording its statistics, if any, and sizing its idle connections adaptively if
+   * the <code>dbcp-defaults/adaptive-sizing</code> system setting is true.
+   */
+  public static GenericObjectPool createGenericPool( IDatabaseConnection databaseConnection, IDatabaseDialect dialect,
+                                                     Map<String, String> attributes,
+                                                     ConnectionPoolStatistics statistics ) throws Exception {
     // As the name says, this is a generic pool; it returns basic Object-class objects.
-    GenericObjectPool pool = initializeObjectPool( attributes, databaseConnection, dialect );
+    GenericObjectPool pool = initializeObjectPool( attributes, databaseConnection, dialect, statistics );
+    if ( statistics != null ) {
+      statistics.setPool( pool );
+    }
     configurePool( databaseConnection, dialect, attributes, pool );
+    if ( statistics != null ) {
+      configureAdaptiveSizing( pool, statistics );
+    }
 
     return pool;
   }
 
+  private static void configureAdaptiveSizing( GenericObjectPool pool, ConnectionPoolStatistics statistics ) {
+    if ( !Boolean.parseBoolean( PentahoSystem.getSystemSetting( "dbcp-defaults/adaptive-sizing", null ) ) ) { //$NON-NLS-1$
+      return;
+    }
+
+    // Never go below the configured minimum, nor above the maximum number of connections.
+    int lowerBound = Math.max( pool.getMinIdle(), 0 );
+    int upperBound = NumberUtils.toInt( PentahoSystem.getSystemSetting( "dbcp-defaults/adaptive-max-idle-conn", null ), //$NON-NLS-1$
+      pool.getMaxTotal() > 0 ? pool.getMaxTotal() : pool.getMaxIdle() );
+    if ( pool.getMaxTotal() > 0 ) {
+      upperBound = Math.min( upperBound, pool.getMaxTotal() );
+    }
+    statistics.setAdaptive( lowerBound, upperBound );
+  }
+
   private static void configurePool( IDatabaseConnection databaseConnection, IDatabaseDialect dialect, Map<String, String> attributes, GenericObjectPool pool ) throws Exception {
     // Configure Max Connections
     pool.setMaxTotal( databaseConnection.getMaximumPoolSize() );
@@ -183,7 +214,8 @@ public class PooledDatasourceHelper {
 
   private static GenericObjectPool initializeObjectPool( Map<String, String> attributes,
                                                          IDatabaseConnection databaseConnection,
-                                                         IDatabaseDialect dialect ) {
+                                                         IDatabaseDialect dialect,
+                                                         ConnectionPoolStatistics statistics ) {
     String url = getUrl( databaseConnection, dialect );
     String validQuery = getValidQuery( attributes );
     /*
@@ -195,7 +227,9 @@ public class PooledDatasourceHelper {
      * Puts pool-specific wrappers on factory connections. For clarification: "[PoolableConnection]Factory," not
      * "Poolable[ConnectionFactory]."
      */
-    PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory( factory, null );
+    PoolableConnectionFactory poolableConnectionFactory = statistics != null
+      ? new InstrumentedPoolableConnectionFactory( factory, statistics )
+      : new PoolableConnectionFactory( factory, null );
     GenericObjectPool<PoolableConnection> genericObjectPool = new GenericObjectPool( poolableConnectionFactory );
     poolableConnectionFactory.setPool( genericObjectPool );
 
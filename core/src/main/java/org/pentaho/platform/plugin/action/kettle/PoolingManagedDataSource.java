@@ -19,8 +19,12 @@ import org.pentaho.database.IDatabaseDialect;
 import org.pentaho.database.model.IDatabaseConnection;
 import org.pentaho.di.core.database.CachedManagedDataSourceInterface;
 import org.pentaho.platform.api.data.IDBDatasourceService;
+import org.pentaho.platform.engine.services.connection.datasource.dbcp.ConnectionPoolMonitor;
+import org.pentaho.platform.engine.services.connection.datasource.dbcp.ConnectionPoolStatistics;
 import org.pentaho.platform.engine.services.connection.datasource.dbcp.PooledDatasourceHelper;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.ArrayList;
 import java.util.List;
@@ -32,12 +36,19 @@ public class PoolingManagedDataSource extends PoolingDataSource implements Cache
     private boolean isExpired;
     private String poolConfigHash;
     private List<String> usedBy;
+    private final ConnectionPoolStatistics statistics;
 
     public PoolingManagedDataSource( IDatabaseConnection databaseConnection, IDatabaseDialect dialect )
       throws Exception {
+        this( databaseConnection, dialect, new ConnectionPoolStatistics( databaseConnection.getName() ) );
+    }
+
+    private PoolingManagedDataSource( IDatabaseConnection databaseConnection, IDatabaseDialect dialect,
+                                      ConnectionPoolStatistics statistics ) throws Exception {
         super( PooledDatasourceHelper.createGenericPool( databaseConnection, dialect,
-            databaseConnection.getConnectionPoolingProperties() ) );
+            databaseConnection.getConnectionPoolingProperties(), statistics ) );
 
+        this.statistics = statistics;
         isExpired = false;
         poolConfigHash = "";
         usedBy = new ArrayList<>();
@@ -53,6 +64,31 @@ public class PoolingManagedDataSource extends PoolingDataSource implements Cache
             setAccessToUnderlyingConnectionAllowed( Boolean.parseBoolean( attributes
                     .get( IDBDatasourceService.ACCESS_TO_UNDERLYING_CONNECTION_ALLOWED ) ) );
         }
+
+        ConnectionPoolMonitor.getInstance().register( statistics );
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Connection connection = super.getConnection();
+            success = true;
+            return connection;
+        } finally {
+            statistics.recordBorrow( System.nanoTime() - start, success );
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        ConnectionPoolMonitor.getInstance().unregister( statistics );
+        super.close();
+    }
+
+    public ConnectionPoolStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
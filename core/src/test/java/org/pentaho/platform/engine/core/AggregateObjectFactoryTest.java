@@ -14,7 +14,17 @@
 package org.pentaho.platform.engine.core;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
@@ -23,11 +33,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.pentaho.platform.api.engine.IMimeTypeListener;
 import org.pentaho.platform.api.engine.IPentahoDefinableObjectFactory;
+import org.pentaho.platform.api.engine.IPentahoObjectFactory;
+import org.pentaho.platform.api.engine.IPentahoObjectRegistration;
+import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.core.system.StandaloneSession;
 import org.pentaho.platform.engine.core.system.objfac.AggregateObjectFactory;
+import org.pentaho.platform.engine.core.system.objfac.RuntimeObjectFactory;
 import org.pentaho.platform.engine.core.system.objfac.StandaloneObjectFactory;
 import org.pentaho.platform.engine.core.system.objfac.StandaloneSpringPentahoObjectFactory;
+import org.pentaho.platform.engine.core.system.objfac.references.SingletonPentahoObjectReference;
 import org.pentaho.platform.engine.core.system.objfac.spring.PublishedBeanRegistry;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.support.FileSystemXmlApplicationContext;
@@ -192,4 +207,69 @@ public class AggregateObjectFactoryTest {
     assertEquals( 0, PublishedBeanRegistry.getRegisteredFactories().size() );
 
   }
+
+  @Test
+  public void testRepeatedLookupsAreResolvedOnce() throws Exception {
+    StandaloneSession session = new StandaloneSession();
+    RuntimeObjectFactory runtime = spy( new RuntimeObjectFactory() );
+    runtime.registerObject( "hello", String.class );
+
+    AggregateObjectFactory aggFactory = new AggregateObjectFactory();
+    aggFactory.registerObjectFactory( runtime );
+
+    for ( int i = 0; i < 10; i++ ) {
+      assertTrue( aggFactory.objectDefined( String.class ) );
+      assertEquals( "hello", aggFactory.get( String.class, session ) );
+    }
+
+    verify( runtime, times( 2 ) ).objectDefined( String.class );
+    verify( runtime, times( 1 ) ).getObjectReferences( eq( String.class ), any( IPentahoSession.class ), isNull() );
+  }
+
+  @Test
+  public void testRuntimeRegistrationInvalidatesResolutions() throws Exception {
+    StandaloneSession session = new StandaloneSession();
+    RuntimeObjectFactory runtime = new RuntimeObjectFactory();
+    IPentahoObjectRegistration registration = runtime.registerObject( "hello", String.class );
+
+    AggregateObjectFactory aggFactory = new AggregateObjectFactory();
+    aggFactory.registerObjectFactory( runtime );
+    assertEquals( "hello", aggFactory.get( String.class, session ) );
+
+    runtime.registerReference( new SingletonPentahoObjectReference<String>( String.class, "world",
+        Collections.<String, Object>emptyMap(), 10 ), String.class );
+    assertEquals( "world", aggFactory.get( String.class, session ) );
+    assertEquals( 2, aggFactory.getAll( String.class, session ).size() );
+
+    registration.remove();
+    assertEquals( 1, aggFactory.getAll( String.class, session ).size() );
+  }
+
+  @Test
+  public void testFactoryRegistrationInvalidatesResolutions() throws Exception {
+    AggregateObjectFactory aggFactory = new AggregateObjectFactory();
+    aggFactory.registerObjectFactory( new RuntimeObjectFactory() );
+    assertFalse( aggFactory.objectDefined( Integer.class ) );
+
+    RuntimeObjectFactory integers = new RuntimeObjectFactory();
+    integers.registerObject( 1, Integer.class );
+    aggFactory.registerObjectFactory( integers );
+    assertTrue( aggFactory.objectDefined( Integer.class ) );
+
+    aggFactory.deregisterObjectFactory( integers );
+    assertFalse( aggFactory.objectDefined( Integer.class ) );
+  }
+
+  @Test
+  public void testUnstampedFactoryIsNotCached() throws Exception {
+    IPentahoObjectFactory factory = mock( IPentahoObjectFactory.class );
+    when( factory.objectDefined( "key" ) ).thenReturn( true );
+
+    AggregateObjectFactory aggFactory = new AggregateObjectFactory();
+    aggFactory.registerObjectFactory( factory );
+    assertTrue( aggFactory.objectDefined( "key" ) );
+
+    when( factory.objectDefined( "key" ) ).thenReturn( false );
+    assertFalse( aggFactory.objectDefined( "key" ) );
+  }
 }
@@ -0,0 +1,80 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheTagIndexTest {
+
+  @Test
+  public void testRemoveTagReturnsTaggedKeysAndUnlinksThem() {
+    CacheTagIndex<String, String> index = new CacheTagIndex<>();
+    index.tag( "k1", Arrays.asList( "session:1", "domain:a" ) );
+    index.tag( "k2", Arrays.asList( "session:1", "domain:b" ) );
+    index.tag( "k3", Arrays.asList( "session:2", "domain:a" ) );
+
+    assertEquals( Set.of( "k1", "k3" ), index.removeTag( "domain:a" ) );
+
+    // k1 is gone from its other tags too
+    assertEquals( Set.of( "k2" ), index.getKeys( "session:1" ) );
+    assertEquals( Collections.emptySet(), index.getKeys( "session:2" ) );
+    assertEquals( Collections.emptySet(), index.removeTag( "domain:a" ) );
+  }
+
+  @Test
+  public void testTagAddsToExistingTagsAndRemoveDropsKey() {
+    CacheTagIndex<String, String> index = new CacheTagIndex<>();
+    index.tag( "k1", Collections.singletonList( "a" ) );
+    index.tag( "k1", Collections.singletonList( "b" ) );
+
+    assertEquals( Set.of( "k1" ), index.getKeys( "a" ) );
+    assertEquals( Set.of( "k1" ), index.getKeys( "b" ) );
+
+    assertTrue( index.isTagged( "k1" ) );
+
+    index.remove( "k1" );
+
+    assertTrue( index.getKeys( "a" ).isEmpty() );
+    assertTrue( index.getKeys( "b" ).isEmpty() );
+    assertFalse( index.isTagged( "k1" ) );
+    assertTrue( index.isEmpty() );
+  }
+
+  @Test
+  public void testPruneIfGrownDropsGoneKeysOnceTheIndexDoubled() {
+    CacheTagIndex<Integer, String> index = new CacheTagIndex<>();
+    for ( int i = 0; i < 1023; i++ ) {
+      index.tag( i, Collections.singletonList( "t" ) );
+    }
+    // below the threshold nothing is scanned
+    assertEquals( 0, index.pruneIfGrown( key -> true ) );
+
+    index.tag( 1023, Collections.singletonList( "t" ) );
+    assertEquals( 512, index.pruneIfGrown( key -> key % 2 == 0 ) );
+    assertEquals( 512, index.size() );
+    assertEquals( 512, index.getKeys( "t" ).size() );
+
+    // the next scan waits for the index to double again
+    index.tag( 2000, Collections.singletonList( "t" ) );
+    assertEquals( 0, index.pruneIfGrown( key -> true ) );
+  }
+}
@@ -0,0 +1,61 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.junit.Test;
+import org.pentaho.platform.api.engine.IPentahoSession;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimpleMapCacheManagerTest {
+
+  @Test
+  public void testInvalidateByTagKeepsTheRestOfTheRegion() {
+    SimpleMapCacheManager cacheManager = new SimpleMapCacheManager();
+    cacheManager.putInRegionCache( "region", "k1", "v1", "domain:a" );
+    cacheManager.putInRegionCache( "region", "k2", "v2", "domain:b" );
+    cacheManager.putInRegionCache( "region", "k3", "v3" );
+    cacheManager.putInRegionCache( "other", "k1", "v1", "domain:a" );
+
+    cacheManager.invalidateByTag( "region", "domain:a" );
+
+    assertNull( cacheManager.getFromRegionCache( "region", "k1" ) );
+    assertEquals( "v2", cacheManager.getFromRegionCache( "region", "k2" ) );
+    assertEquals( "v3", cacheManager.getFromRegionCache( "region", "k3" ) );
+    assertEquals( "v1", cacheManager.getFromRegionCache( "other", "k1" ) );
+  }
+
+  @Test
+  public void testKillSessionCacheRemovesTheEntriesOfTheSession() {
+    SimpleMapCacheManager cacheManager = new SimpleMapCacheManager();
+    IPentahoSession session1 = mockSession( "1" );
+    IPentahoSession session2 = mockSession( "2" );
+    cacheManager.putInSessionCache( session1, "key", "value1" );
+    cacheManager.putInSessionCache( session2, "key", "value2" );
+
+    cacheManager.killSessionCache( session1 );
+
+    assertNull( cacheManager.getFromSessionCache( session1, "key" ) );
+    assertEquals( "value2", cacheManager.getFromSessionCache( session2, "key" ) );
+  }
+
+  private static IPentahoSession mockSession( String id ) {
+    IPentahoSession session = mock( IPentahoSession.class );
+    when( session.getId() ).thenReturn( id );
+    return session;
+  }
+}
@@ -0,0 +1,152 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.junit.Test;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class StartupSchedulerTest {
+
+  @Test
+  public void testDependenciesRunFirstAndIndependentTasksOverlap() throws Exception {
+    final CountDownLatch bothStarted = new CountDownLatch( 2 );
+    final List<String> completed = new CopyOnWriteArrayList<>();
+    StartupScheduler scheduler = new StartupScheduler( "test", 4 );
+    // a and b can only both pass the latch if they run at the same time
+    scheduler.addTask( "a", null, () -> {
+      bothStarted.countDown();
+      assertTrue( bothStarted.await( 5, TimeUnit.SECONDS ) );
+      completed.add( "a" );
+    } );
+    scheduler.addTask( "b", null, () -> {
+      bothStarted.countDown();
+      assertTrue( bothStarted.await( 5, TimeUnit.SECONDS ) );
+      completed.add( "b" );
+    } );
+    scheduler.addTask( "c", Arrays.asList( "a", "b" ), () -> completed.add( "c" ) );
+
+    StartupScheduler.Timeline timeline = scheduler.run();
+
+    assertEquals( 3, completed.size() );
+    assertEquals( "c", completed.get( 2 ) );
+    for ( StartupScheduler.Entry entry : timeline.getEntries() ) {
+      assertEquals( StartupScheduler.Status.COMPLETED, entry.getStatus() );
+    }
+    assertEquals( "c", timeline.getCriticalPath().get( timeline.getCriticalPath().size() - 1 ) );
+  }
+
+  @Test
+  public void testPoolThreadsRunWithTheSessionAndAuthenticationOfTheCaller() throws Exception {
+    IPentahoSession session = mock( IPentahoSession.class );
+    Authentication authentication = new UsernamePasswordAuthenticationToken( "admin", "password" );
+    PentahoSessionHolder.setSession( session );
+    SecurityContextHolder.getContext().setAuthentication( authentication );
+    final CountDownLatch bothStarted = new CountDownLatch( 2 );
+    final List<Object> seen = new CopyOnWriteArrayList<>();
+    final String caller = Thread.currentThread().getName();
+    StartupScheduler scheduler = new StartupScheduler( "test", 2 );
+    for ( String id : Arrays.asList( "a", "b" ) ) {
+      scheduler.addTask( id, null, () -> {
+        bothStarted.countDown();
+        assertTrue( bothStarted.await( 5, TimeUnit.SECONDS ) );
+        assertNotEquals( caller, Thread.currentThread().getName() );
+        seen.add( Arrays.asList( PentahoSessionHolder.getSession(),
+          SecurityContextHolder.getContext().getAuthentication() ) );
+      } );
+    }
+    try {
+      scheduler.run();
+    } finally {
+      PentahoSessionHolder.removeSession();
+      SecurityContextHolder.clearContext();
+    }
+
+    assertEquals( Arrays.asList( Arrays.asList( session, authentication ), Arrays.asList( session, authentication ) ),
+      seen );
+  }
+
+  @Test
+  public void testChainRunsOnCallingThreadInOrder() throws Exception {
+    final List<String> threads = new CopyOnWriteArrayList<>();
+    final List<String> order = new CopyOnWriteArrayList<>();
+    StartupScheduler scheduler = new StartupScheduler( "test", 4 );
+    scheduler.addTask( "first", null, () -> {
+      order.add( "first" );
+      threads.add( Thread.currentThread().getName() );
+    } );
+    scheduler.addTask( "second", Collections.singletonList( "first" ), () -> {
+      order.add( "second" );
+      threads.add( Thread.currentThread().getName() );
+    } );
+
+    StartupScheduler.Timeline timeline = scheduler.run();
+
+    assertEquals( Arrays.asList( "first", "second" ), order );
+    assertEquals( Arrays.asList( Thread.currentThread().getName(), Thread.currentThread().getName() ), threads );
+    assertEquals( Arrays.asList( "first", "second" ), timeline.getCriticalPath() );
+  }
+
+  @Test
+  public void testFailureSkipsDependentTasks() throws Exception {
+    final Exception failure = new Exception( "boom" );
+    final List<String> completed = new CopyOnWriteArrayList<>();
+    StartupScheduler scheduler = new StartupScheduler( "test", 2 );
+    scheduler.addTask( "fails", null, () -> {
+      throw failure;
+    } );
+    scheduler.addTask( "dependent", Collections.singletonList( "fails" ), () -> completed.add( "dependent" ) );
+    scheduler.addTask( "other", null, () -> completed.add( "other" ) );
+
+    try {
+      scheduler.run();
+      fail();
+    } catch ( ExecutionException e ) {
+      assertSame( failure, e.getCause() );
+    }
+    assertTrue( !completed.contains( "dependent" ) );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testCycleIsRejected() throws Exception {
+    StartupScheduler scheduler = new StartupScheduler( "test", 2 );
+    scheduler.addTask( "a", Collections.singletonList( "b" ), () -> { } );
+    scheduler.addTask( "b", Collections.singletonList( "a" ), () -> { } );
+    scheduler.run();
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testUnknownDependencyIsRejected() throws Exception {
+    StartupScheduler scheduler = new StartupScheduler( "test", 2 );
+    scheduler.addTask( "a", Collections.singletonList( "missing" ), () -> { } );
+    scheduler.run();
+  }
+}
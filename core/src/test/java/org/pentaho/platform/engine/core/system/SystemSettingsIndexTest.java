@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.core.system;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Node;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SystemSettingsIndexTest {
+
+  private static final String SETTINGS = "<pentaho-system>"
+      + "<log-level>DEBUG</log-level>"
+      + "<audit><auditLogFile>/logs/audit.log</auditLogFile><id_separator>\t</id_separator></audit>"
+      + "<objects><object>a</object><object>b</object><group><object>c</object></group></objects>"
+      + "</pentaho-system>";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private String watchFiles;
+
+  @Before
+  public void setUp() {
+    watchFiles = System.getProperty( SystemSettings.WATCH_FILES_PROPERTY );
+    System.setProperty( SystemSettings.WATCH_FILES_PROPERTY, "false" );
+  }
+
+  @After
+  public void tearDown() {
+    if ( watchFiles == null ) {
+      System.clearProperty( SystemSettings.WATCH_FILES_PROPERTY );
+    } else {
+      System.setProperty( SystemSettings.WATCH_FILES_PROPERTY, watchFiles );
+    }
+  }
+
+  @Test
+  public void testIndexedLookupsMatchXPath() throws Exception {
+    Document document = DocumentHelper.parseText( SETTINGS );
+    SystemSettingsIndex index = new SystemSettingsIndex( document );
+
+    String[] names = { "log-level", "audit/auditLogFile", "pentaho-system/audit/auditLogFile", "object",
+      "objects/object", "group/object", "missing", "audit/missing" };
+    for ( String name : names ) {
+      assertTrue( name, index.isIndexed( name ) );
+      Node node = document.selectSingleNode( "//" + name );
+      assertEquals( name, node == null ? null : node.getText(), index.getValue( name ) );
+      assertEquals( name, document.selectNodes( "//" + name ), index.getNodes( name ) );
+    }
+  }
+
+  @Test
+  public void testOtherExpressionsFallBackToXPath() throws Exception {
+    Document document = DocumentHelper.parseText( SETTINGS );
+    SystemSettingsIndex index = new SystemSettingsIndex( document );
+
+    assertFalse( index.isIndexed( "objects/*" ) );
+    assertFalse( index.isIndexed( "objects//object" ) );
+    assertEquals( 3, index.getNodes( "objects/*" ).size() );
+    assertEquals( 3, index.getNodes( "objects//object" ).size() );
+    assertSame( index.getNodes( "objects/*" ), index.getNodes( "objects/*" ) );
+    assertEquals( "/logs/audit.log", index.getValue( "audit/*" ) );
+  }
+
+  @Test
+  public void testNamespacedDocumentsAreNotIndexed() throws Exception {
+    Document document = DocumentHelper.parseText( "<settings xmlns=\"urn:test\"><value>1</value></settings>" );
+    SystemSettingsIndex index = new SystemSettingsIndex( document );
+
+    assertFalse( index.isIndexed( "value" ) );
+    assertNull( index.getValue( "value" ) );
+    assertTrue( index.getNodes( "value" ).isEmpty() );
+  }
+
+  @Test
+  public void testReloadReplacesSettingsAndKeepsThemOnParseFailure() throws Exception {
+    final File systemFolder = folder.newFolder( "system" );
+    File settingsFile = new File( systemFolder, "settings.xml" );
+    write( settingsFile, "<settings><value>1</value></settings>" );
+    SystemSettings settings = new SystemSettings() {
+      @Override
+      protected String getAbsolutePath( String path ) {
+        return systemFolder.getAbsolutePath() + File.separator + path;
+      }
+    };
+
+    assertEquals( "1", settings.getSystemSetting( "settings.xml", "value", null ) );
+
+    write( settingsFile, "<settings><value>2</value><value>3</value></settings>" );
+    assertEquals( "1", settings.getSystemSetting( "settings.xml", "value", null ) );
+    settings.reloadSettings( "settings.xml" );
+    assertEquals( "2", settings.getSystemSetting( "settings.xml", "value", null ) );
+    List values = settings.getSystemSettings( "settings.xml", "value" );
+    assertEquals( 2, values.size() );
+
+    write( settingsFile, "<settings><value>4" );
+    settings.reloadSettings( "settings.xml" );
+    assertEquals( "2", settings.getSystemSetting( "settings.xml", "value", null ) );
+
+    assertTrue( settingsFile.delete() );
+    settings.reloadSettings( "settings.xml" );
+    assertEquals( "default", settings.getSystemSetting( "settings.xml", "value", "default" ) );
+  }
+
+  private static void write( File file, String content ) throws Exception {
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+  }
+}
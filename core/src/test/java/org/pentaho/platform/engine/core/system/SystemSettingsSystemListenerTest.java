@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+package org.pentaho.platform.engine.core.system;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SystemSettingsSystemListenerTest {
+
+  @Test
+  public void testShutdownClosesTheWatcher() throws Exception {
+    SystemSettingsSystemListener listener = new SystemSettingsSystemListener();
+    assertTrue( listener.startup( null ) );
+
+    SystemSettingsFileWatcher watcher = SystemSettingsFileWatcher.getInstance();
+    assertSame( watcher, SystemSettingsFileWatcher.getInstance() );
+
+    listener.shutdown();
+    SystemSettingsFileWatcher restarted = SystemSettingsFileWatcher.getInstance();
+    try {
+      assertNotSame( watcher, restarted );
+    } finally {
+      listener.shutdown();
+    }
+  }
+}
@@ -34,11 +34,13 @@ import java.util.stream.Stream;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 import org.pentaho.platform.api.engine.IPentahoInitializer;
 import org.pentaho.platform.api.engine.IPentahoObjectReference;
@@ -69,6 +71,16 @@ public class OSGIObjectFactoryTest {
     factory = new OSGIObjectFactory( mockContext );
   }
 
+  @Test
+  public void testDisposeRemovesTheServiceListener() {
+    ArgumentCaptor<ServiceListener> listener = ArgumentCaptor.forClass( ServiceListener.class );
+    verify( mockContext ).addServiceListener( listener.capture() );
+
+    factory.dispose();
+
+    verify( mockContext ).removeServiceListener( listener.getValue() );
+  }
+
   @Test
   public void testGet() throws Exception {
 
@@ -116,4 +116,24 @@ public class OSGIRuntimeObjectFactoryTest {
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testOSGIChangesIncreaseTheModificationStamp() {
+    long stamp = objectFactory.getModificationStamp();
+    objectFactory.setBundleContext( bundleContext );
+    assertTrue( objectFactory.getModificationStamp() > stamp );
+
+    ServiceRegistration registration = mock( ServiceRegistration.class );
+    when( bundleContext.registerService( eq( String.class.getName() ), any(), any( Dictionary.class ) ) ).thenReturn(
+      registration );
+    stamp = objectFactory.getModificationStamp();
+    IPentahoObjectRegistration objectRegistration = objectFactory.registerReference(
+      new SingletonPentahoObjectReference<>( String.class, "Testing" ), String.class );
+    assertTrue( objectFactory.getModificationStamp() > stamp );
+
+    stamp = objectFactory.getModificationStamp();
+    objectRegistration.remove();
+    verify( registration ).unregister();
+    assertTrue( objectFactory.getModificationStamp() > stamp );
+  }
+
+}
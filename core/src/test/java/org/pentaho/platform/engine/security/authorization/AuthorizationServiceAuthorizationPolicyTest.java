@@ -23,7 +23,10 @@ import org.pentaho.platform.api.engine.security.authorization.IAuthorizationUser
 import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthorizationDecision;
 import org.pentaho.platform.engine.security.authorization.core.AuthorizationRequest;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -77,6 +80,16 @@ public class AuthorizationServiceAuthorizationPolicyTest {
     var mockRequest = mock( IAuthorizationRequest.class );
     mockGrantedDecision = createMockDecision( mockRequest, true );
     mockDeniedDecision = createMockDecision( mockRequest, false );
+
+    // Batches are evaluated as the individual requests
+    when( mockAuthorizationService.authorizeAll( any() ) ).thenAnswer( invocation -> {
+      Map<IAuthorizationRequest, IAuthorizationDecision> decisions = new LinkedHashMap<>();
+      for ( IAuthorizationRequest request : invocation.<Collection<IAuthorizationRequest>>getArgument( 0 ) ) {
+        decisions.put( request, mockAuthorizationService.authorize( request ) );
+      }
+
+      return decisions;
+    } );
   }
 
   // region Constructor Tests
@@ -208,6 +221,64 @@ public class AuthorizationServiceAuthorizationPolicyTest {
   }
   // endregion
 
+  // region isAllowedAll(.) Tests
+
+  @Test
+  public void testIsAllowedAllWithAllGrantedActionsReturnsTrue() {
+    when( mockActionService.getAction( "action1" ) ).thenReturn( Optional.of( mockAction1 ) );
+    when( mockActionService.getAction( "action2" ) ).thenReturn( Optional.of( mockAction2 ) );
+    when( mockAuthorizationService.authorize( any( AuthorizationRequest.class ) ) )
+      .thenReturn( mockGrantedDecision );
+
+    var policy = new AuthorizationServiceAuthorizationPolicy(
+      mockActionService,
+      mockAuthorizationService,
+      mockCurrentPrincipalSupplier
+    );
+
+    assertTrue( policy.isAllowedAll( List.of( "action1", "action2" ) ) );
+
+    // Verify that a single batch was evaluated for the current principal
+    verify( mockAuthorizationService, times( 1 ) ).authorizeAll( any() );
+    verify( mockCurrentPrincipalSupplier, times( 1 ) ).get();
+  }
+
+  @Test
+  public void testIsAllowedAllWithOneDeniedActionReturnsFalse() {
+    when( mockActionService.getAction( "action1" ) ).thenReturn( Optional.of( mockAction1 ) );
+    when( mockActionService.getAction( "action2" ) ).thenReturn( Optional.of( mockAction2 ) );
+    when( mockAuthorizationService.authorize( any( AuthorizationRequest.class ) ) )
+      .thenAnswer( invocation -> invocation.<AuthorizationRequest>getArgument( 0 ).getAction() == mockAction1
+        ? mockGrantedDecision
+        : mockDeniedDecision );
+
+    var policy = new AuthorizationServiceAuthorizationPolicy(
+      mockActionService,
+      mockAuthorizationService,
+      mockCurrentPrincipalSupplier
+    );
+
+    assertFalse( policy.isAllowedAll( List.of( "action1", "action2" ) ) );
+  }
+
+  @Test
+  public void testIsAllowedAllWithUnknownActionReturnsFalse() {
+    when( mockActionService.getAction( "action1" ) ).thenReturn( Optional.of( mockAction1 ) );
+    when( mockActionService.getAction( "unknown-action" ) ).thenReturn( Optional.empty() );
+
+    var policy = new AuthorizationServiceAuthorizationPolicy(
+      mockActionService,
+      mockAuthorizationService,
+      mockCurrentPrincipalSupplier
+    );
+
+    assertFalse( policy.isAllowedAll( List.of( "action1", "unknown-action" ) ) );
+
+    // Verify that authorization service was never called when some action is unknown
+    verify( mockAuthorizationService, never() ).authorizeAll( any() );
+  }
+  // endregion
+
   // region getAllowedActions Tests
   @Test
   public void testGetAllowedActionsWithEmptyNamespaceReturnsEmptyList() {
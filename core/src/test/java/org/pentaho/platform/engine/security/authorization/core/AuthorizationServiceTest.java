@@ -34,6 +34,8 @@ import org.pentaho.platform.engine.security.authorization.core.exceptions.Author
 import org.pentaho.platform.engine.security.authorization.core.exceptions.AuthorizationRequestUndefinedActionException;
 import org.pentaho.platform.engine.security.authorization.core.exceptions.AuthorizationRuleException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 
@@ -48,6 +50,8 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.pentaho.platform.engine.security.authorization.core.AuthorizationTestHelpers.createMockRule;
 import static org.pentaho.platform.engine.security.authorization.core.AuthorizationTestHelpers.createTestAction;
@@ -311,6 +315,57 @@ public class AuthorizationServiceTest {
   }
   // endregion
 
+  // region authorizeAll tests
+  @Test
+  public void testAuthorizeAllReturnsDecisionOfEachRequestInOrder() {
+    var action2 = createTestAction( "action2" );
+    when( actionService.getAction( "action2" ) ).thenReturn( Optional.of( action2 ) );
+    var request2 = request.withAction( action2 );
+
+    var decision1 = mock( IAuthorizationDecision.class );
+    var decision2 = mock( IAuthorizationDecision.class );
+    when( rootRule.authorize( eq( request ), any( IAuthorizationContext.class ) ) )
+      .thenReturn( Optional.of( decision1 ) );
+    when( rootRule.authorize( eq( request2 ), any( IAuthorizationContext.class ) ) )
+      .thenReturn( Optional.of( decision2 ) );
+
+    var decisions = service.authorizeAll( List.of( request2, request, request2 ), options );
+
+    assertEquals( List.of( request2, request ), new ArrayList<>( decisions.keySet() ) );
+    assertSame( decision1, decisions.get( request ) );
+    assertSame( decision2, decisions.get( request2 ) );
+  }
+
+  @Test
+  public void testAuthorizeAllEvaluatesCommonRequestsOnce() {
+    var baseAction = createTestAction( "base" );
+    when( actionService.getAction( "base" ) ).thenReturn( Optional.of( baseAction ) );
+    var baseRequest = request.withAction( baseAction );
+
+    var action2 = createTestAction( "action2" );
+    when( actionService.getAction( "action2" ) ).thenReturn( Optional.of( action2 ) );
+    var request2 = request.withAction( action2 );
+
+    // Both actions derive from the base action.
+    var baseDecision = mock( IAuthorizationDecision.class );
+    var rule = createMockRuleWithAnswer( ( req, context ) -> {
+      if ( req.equals( baseRequest ) ) {
+        return Optional.of( baseDecision );
+      }
+
+      return Optional.of( new DerivedAuthorizationDecision( req, context.authorize( baseRequest ) ) );
+    } );
+
+    var testService = new AuthorizationService( actionService, rule );
+
+    var decisions = testService.authorizeAll( List.of( request, request2 ), options );
+
+    assertEquals( 2, decisions.size() );
+    verify( rule, times( 1 ) ).authorize( eq( baseRequest ), any( IAuthorizationContext.class ) );
+    verify( actionService, times( 1 ) ).getAction( "base" );
+  }
+  // endregion
+
   // region Helper methods
 
   /**
@@ -14,6 +14,7 @@ package org.pentaho.platform.engine.security.authorization.core.caching;
 
 import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import org.junit.After;
@@ -22,13 +23,16 @@ import org.junit.Test;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationOptions;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRequest;
+import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRole;
 import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCacheKey;
 import org.pentaho.platform.api.engine.security.authorization.decisions.IAuthorizationDecision;
 import org.pentaho.platform.engine.core.system.StandaloneSession;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -69,6 +73,15 @@ public class MemoryAuthorizationDecisionCacheTest {
       super( expireAfterWrite, maximumSize, recordStats, staleSessionsSweepInterval );
     }
 
+    public TestableMemoryAuthorizationDecisionCache(
+      long expireAfterWrite,
+      long maximumSize,
+      long maximumWeight,
+      boolean recordStats,
+      long staleSessionsSweepInterval ) {
+      super( expireAfterWrite, maximumSize, maximumWeight, recordStats, staleSessionsSweepInterval );
+    }
+
     @Override
     protected void registerLogoutListener() {
       // No-op: avoid PentahoSystem interaction
@@ -485,6 +498,39 @@ public class MemoryAuthorizationDecisionCacheTest {
     assertTrue( result2.isPresent() );
   }
 
+  @Test
+  public void testInvalidateAll_WithTag_RemovesTaggedEntriesAcrossSessions() {
+    IAuthorizationRole role = mock( IAuthorizationRole.class );
+    when( role.getName() ).thenReturn( "Business User" );
+    IAuthorizationRole otherRole = mock( IAuthorizationRole.class );
+    when( otherRole.getName() ).thenReturn( "Power User" );
+
+    IAuthorizationRequest requestWithRole = mock( IAuthorizationRequest.class );
+    when( requestWithRole.getAllRoles() ).thenReturn( Set.of( role, otherRole ) );
+    IAuthorizationRequest requestWithoutRole = mock( IAuthorizationRequest.class );
+    when( requestWithoutRole.getAllRoles() ).thenReturn( Set.of( otherRole ) );
+
+    cache.put( requestWithRole, options, decision );
+    cache.put( requestWithoutRole, options, decision );
+
+    IPentahoSession session2 = createTestSession( "other-user" );
+    cache.setCurrentSession( session2 );
+    cache.get( requestWithRole, options, key -> decision );
+
+    cache.invalidateAll( AuthorizationDecisionCacheTag.forRole( role ) );
+
+    assertFalse( cache.get( requestWithRole, options ).isPresent() );
+    cache.setCurrentSession( session );
+    assertFalse( cache.get( requestWithRole, options ).isPresent() );
+    assertTrue( cache.get( requestWithoutRole, options ).isPresent() );
+
+    // The tag is also a predicate with the same meaning.
+    IAuthorizationDecisionCacheKey key = mock( IAuthorizationDecisionCacheKey.class );
+    when( key.getRequest() ).thenReturn( requestWithoutRole );
+    assertTrue( AuthorizationDecisionCacheTag.forRole( otherRole ).test( key ) );
+    assertFalse( AuthorizationDecisionCacheTag.forRole( role ).test( key ) );
+  }
+
   @Test
   public void testInvalidateAll_ClearsAllEntries() {
     cache.put( request, options, decision );
@@ -581,6 +627,36 @@ public class MemoryAuthorizationDecisionCacheTest {
     assertTrue( "Expected at most 2 entries", presentCount <= 2 );
   }
 
+  @Test
+  public void testMaximumWeight_BoundsEntriesOfAllSessions() {
+    // Per-session maximum size is not reached, but the total weight is.
+    cache = new TestableMemoryAuthorizationDecisionCache( 60, 1000, 4, false, 0 );
+
+    IAuthorizationRequest[] requests = new IAuthorizationRequest[ 3 ];
+    for ( int i = 0; i < requests.length; i++ ) {
+      requests[ i ] = mock( IAuthorizationRequest.class );
+    }
+
+    for ( int s = 0; s < 3; s++ ) {
+      cache.setCurrentSession( createTestSession( "user" + s ) );
+      for ( IAuthorizationRequest req : requests ) {
+        cache.put( req, options, mock( IAuthorizationDecision.class ) );
+      }
+    }
+
+    int presentCount = 0;
+    for ( int s = 0; s < 3; s++ ) {
+      cache.setCurrentSession( createTestSession( "user" + s ) );
+      for ( IAuthorizationRequest req : requests ) {
+        if ( cache.get( req, options ).isPresent() ) {
+          presentCount++;
+        }
+      }
+    }
+
+    assertTrue( "Expected at most 4 entries", presentCount <= 4 );
+  }
+
   // endregion
 
   // region Concurrency Tests
@@ -731,6 +807,117 @@ public class MemoryAuthorizationDecisionCacheTest {
     assertNull( "No exception should occur during concurrent access", exception.get() );
   }
 
+  @Test
+  public void testConcurrentInvalidateByTagWhileLoading_DropsLoadedDecision() throws InterruptedException {
+    IAuthorizationRole role = mock( IAuthorizationRole.class );
+    when( role.getName() ).thenReturn( "Business User" );
+    IAuthorizationRequest requestWithRole = mock( IAuthorizationRequest.class );
+    when( requestWithRole.getAllRoles() ).thenReturn( Set.of( role ) );
+
+    CountDownLatch loadingLatch = new CountDownLatch( 1 );
+    CountDownLatch invalidatedLatch = new CountDownLatch( 1 );
+    CountDownLatch doneLatch = new CountDownLatch( 1 );
+    AtomicReference<Exception> exception = new AtomicReference<>();
+
+    new Thread( () -> {
+      try {
+        cache.setCurrentSession( session );
+        cache.get( requestWithRole, options, key -> {
+          loadingLatch.countDown();
+          try {
+            if ( !invalidatedLatch.await( 5, TimeUnit.SECONDS ) ) {
+              throw new IllegalStateException( "Not invalidated" );
+            }
+          } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+          }
+          return decision;
+        } );
+      } catch ( Exception e ) {
+        exception.set( e );
+      } finally {
+        doneLatch.countDown();
+      }
+    } ).start();
+
+    // Invalidate while the decision is being loaded, so before it is put in the cache and indexed.
+    assertTrue( loadingLatch.await( 5, TimeUnit.SECONDS ) );
+    cache.invalidateAll( AuthorizationDecisionCacheTag.forRole( role ) );
+    invalidatedLatch.countDown();
+
+    assertTrue( doneLatch.await( 5, TimeUnit.SECONDS ) );
+    assertNull( exception.get() );
+
+    // The loaded decision may be based on what the invalidation was about, so it is not kept.
+    assertFalse( cache.get( requestWithRole, options ).isPresent() );
+
+    // A decision stored after the invalidation is kept.
+    cache.put( requestWithRole, options, decision );
+    assertTrue( cache.get( requestWithRole, options ).isPresent() );
+  }
+
+  @Test
+  public void testConcurrentPutAndInvalidateByTag_KeepsEntriesIndexed() throws InterruptedException {
+    IAuthorizationRole role = mock( IAuthorizationRole.class );
+    when( role.getName() ).thenReturn( "Business User" );
+    IAuthorizationRequest requestWithRole = mock( IAuthorizationRequest.class );
+    when( requestWithRole.getAllRoles() ).thenReturn( Set.of( role ) );
+    AuthorizationDecisionCacheTag tag = AuthorizationDecisionCacheTag.forRole( role );
+
+    int writerCount = 4;
+    int iterations = 2000;
+    CountDownLatch startLatch = new CountDownLatch( 1 );
+    CountDownLatch doneLatch = new CountDownLatch( writerCount + 1 );
+    AtomicReference<Exception> exception = new AtomicReference<>();
+
+    for ( int i = 0; i < writerCount; i++ ) {
+      new Thread( () -> {
+        try {
+          cache.setCurrentSession( session );
+          startLatch.await();
+
+          for ( int j = 0; j < iterations; j++ ) {
+            if ( j % 2 == 0 ) {
+              cache.put( requestWithRole, options, decision );
+            } else {
+              cache.get( requestWithRole, options, key -> decision );
+            }
+          }
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        } catch ( Exception e ) {
+          exception.set( e );
+        } finally {
+          doneLatch.countDown();
+        }
+      } ).start();
+    }
+
+    new Thread( () -> {
+      try {
+        startLatch.await();
+
+        for ( int j = 0; j < iterations; j++ ) {
+          cache.invalidateAll( tag );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      } catch ( Exception e ) {
+        exception.set( e );
+      } finally {
+        doneLatch.countDown();
+      }
+    } ).start();
+
+    startLatch.countDown();
+    assertTrue( doneLatch.await( 30, TimeUnit.SECONDS ) );
+    assertNull( exception.get() );
+
+    // Whatever survived the races is still indexed under its tag.
+    cache.invalidateAll( tag );
+    assertFalse( cache.get( requestWithRole, options ).isPresent() );
+  }
+
   // endregion
 
   // region Statistics Tests
@@ -767,6 +954,25 @@ public class MemoryAuthorizationDecisionCacheTest {
     assertTrue( stats.contains( "missCount=" ) );
   }
 
+  @Test
+  public void testStatsByDecisionType_TracksHitsAndLoads() {
+    cache = new TestableMemoryAuthorizationDecisionCache( 60, 1000, true, 0 );
+    cache.setCurrentSession( session );
+
+    // Load, then hit twice.
+    cache.get( request, options, key -> decision );
+    cache.get( request, options, key -> decision );
+    cache.get( request, options );
+
+    Map<String, CacheStats> statsByType = cache.getStatsByDecisionType();
+    assertEquals( 1, statsByType.size() );
+
+    CacheStats stats = statsByType.values().iterator().next();
+    assertEquals( 2, stats.hitCount() );
+    assertEquals( 1, stats.loadSuccessCount() );
+    assertTrue( cache.toString().contains( "statsByDecisionType=" ) );
+  }
+
   // endregion
 
   // region Session Stack Tests
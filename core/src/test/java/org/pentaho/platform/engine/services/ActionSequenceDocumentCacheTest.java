@@ -0,0 +1,168 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class ActionSequenceDocumentCacheTest {
+
+  private static final String PATH = "/public/test.xaction";
+
+  private ActionSequenceDocumentCache cache;
+  private AtomicInteger loads;
+  private Function<RepositoryFile, Document> loader;
+
+  @Before
+  public void setUp() {
+    cache = new ActionSequenceDocumentCache( 10, 0 );
+    loads = new AtomicInteger();
+    loader = file -> {
+      loads.incrementAndGet();
+      Document document = DocumentHelper.createDocument();
+      document.addElement( "action-sequence" ).addElement( "title" ).setText( file.getVersionId().toString() );
+      return document;
+    };
+  }
+
+  @Test
+  public void testSameVersionIsLoadedOnce() {
+    RepositoryFile file = file( "1.0" );
+
+    Document first = cache.getDocument( file, Locale.US, loader );
+    Document second = cache.getDocument( file, Locale.US, loader );
+
+    assertEquals( 1, loads.get() );
+    assertEquals( 1, cache.getHitCount() );
+    assertEquals( 1, cache.getMissCount() );
+    assertEquals( 0.5, cache.getHitRate(), 0.0 );
+    assertEquals( 1, cache.getLoadCount() );
+    assertNotSame( first, second );
+    assertEquals( first.asXML(), second.asXML() );
+  }
+
+  @Test
+  public void testReturnedDocumentsAreIndependentCopies() {
+    RepositoryFile file = file( "1.0" );
+
+    cache.getDocument( file, Locale.US, loader ).getRootElement().element( "title" ).setText( "changed" );
+
+    assertEquals( "1.0", cache.getDocument( file, Locale.US, loader ).valueOf( "/action-sequence/title" ) );
+  }
+
+  @Test
+  public void testNewVersionReplacesCachedDocument() {
+    cache.getDocument( file( "1.0" ), Locale.US, loader );
+    Document updated = cache.getDocument( file( "1.1" ), Locale.US, loader );
+
+    assertEquals( 2, loads.get() );
+    assertEquals( 1, cache.size() );
+    assertEquals( "1.1", updated.valueOf( "/action-sequence/title" ) );
+  }
+
+  @Test
+  public void testLocalesAreCachedSeparately() {
+    RepositoryFile file = file( "1.0" );
+
+    cache.getDocument( file, Locale.US, loader );
+    cache.getDocument( file, Locale.GERMANY, loader );
+
+    assertEquals( 2, loads.get() );
+    assertEquals( 2, cache.size() );
+  }
+
+  @Test
+  public void testInvalidateDropsAllLocalesOfFile() {
+    RepositoryFile file = file( "1.0" );
+    cache.getDocument( file, Locale.US, loader );
+    cache.getDocument( file, Locale.GERMANY, loader );
+
+    cache.invalidate( "id" );
+    cache.getDocument( file, Locale.US, loader );
+
+    assertEquals( 3, loads.get() );
+    assertEquals( 1, cache.size() );
+  }
+
+  @Test
+  public void testFileChangedDropsEntriesOfTheSharedInstance() {
+    ActionSequenceDocumentCache shared = ActionSequenceDocumentCache.getInstance();
+    RepositoryFile file = new RepositoryFile.Builder( "changedId", "test.xaction" ).path( PATH ).versionId( "1.0" )
+        .lastModificationDate( new Date( 1000L ) ).build();
+    shared.getDocument( file, Locale.US, loader );
+
+    ActionSequenceDocumentCache.fileChanged( "changedId" );
+    shared.getDocument( file, Locale.US, loader );
+
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testFilesWithTheSamePathAreCachedByTheirId() {
+    // e.g. the same tenant-relative path in two tenants
+    RepositoryFile tenant1File = new RepositoryFile.Builder( "id1", "test.xaction" ).path( PATH ).versionId( "1.0" )
+        .lastModificationDate( new Date( 1000L ) ).build();
+    RepositoryFile tenant2File = new RepositoryFile.Builder( "id2", "test.xaction" ).path( PATH ).versionId( "1.0" )
+        .lastModificationDate( new Date( 1000L ) ).build();
+
+    cache.getDocument( tenant1File, Locale.US, loader );
+    cache.getDocument( tenant2File, Locale.US, loader );
+
+    assertEquals( 2, loads.get() );
+    assertEquals( 2, cache.size() );
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() {
+    RepositoryFile file = file( "1.0" );
+
+    assertNull( cache.getDocument( file, Locale.US, f -> null ) );
+    cache.getDocument( file, Locale.US, loader );
+
+    assertEquals( 1, loads.get() );
+    assertEquals( 2, cache.getMissCount() );
+  }
+
+  @Test
+  public void testFileWithoutRevisionIsNotCached() {
+    RepositoryFile file = new RepositoryFile.Builder( "id", "test.xaction" ).path( PATH ).build();
+    Function<RepositoryFile, Document> unversionedLoader = f -> {
+      loads.incrementAndGet();
+      return DocumentHelper.createDocument( DocumentHelper.createElement( "action-sequence" ) );
+    };
+
+    cache.getDocument( file, Locale.US, unversionedLoader );
+    cache.getDocument( file, Locale.US, unversionedLoader );
+
+    assertEquals( 2, loads.get() );
+    assertEquals( 0, cache.size() );
+  }
+
+  private static RepositoryFile file( String versionId ) {
+    return new RepositoryFile.Builder( "id", "test.xaction" ).path( PATH ).versionId( versionId )
+        .lastModificationDate( new Date( 1000L ) ).build();
+  }
+}
@@ -0,0 +1,224 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pentaho.platform.api.engine.AuditException;
+import org.pentaho.platform.api.engine.IAuditEntry;
+import org.pentaho.platform.engine.services.audit.AsyncAuditEntry;
+import org.pentaho.platform.engine.services.audit.AuditBatchWriter;
+import org.pentaho.platform.engine.services.audit.AuditRecord;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings( "nls" )
+public class AsyncAuditEntryTest {
+
+  private AsyncAuditEntry entry;
+
+  @After
+  public void tearDown() {
+    if ( entry != null ) {
+      entry.shutdown();
+    }
+  }
+
+  @Test
+  public void testRecordsAreWrittenInBatches() throws Exception {
+    RecordingWriter writer = new RecordingWriter();
+    entry = new AsyncAuditEntry( writer );
+    entry.setBatchSize( 5 );
+    entry.setFlushIntervalMillis( 60000 );
+
+    for ( int i = 0; i < 10; i++ ) {
+      audit( entry, i );
+    }
+    entry.shutdown();
+
+    assertEquals( 10, writer.records.size() );
+    assertEquals( 10, entry.getEnqueuedCount() );
+    assertEquals( 10, entry.getFlushedCount() );
+    assertEquals( 0, entry.getDroppedCount() );
+    assertTrue( writer.batchSizes.stream().allMatch( size -> size <= 5 ) );
+    for ( int i = 0; i < 10; i++ ) {
+      assertEquals( String.valueOf( i ), writer.records.get( i ).getJobId() );
+    }
+    assertTrue( writer.closed );
+  }
+
+  @Test
+  public void testPartialBatchIsFlushedAfterInterval() throws Exception {
+    RecordingWriter writer = new RecordingWriter();
+    entry = new AsyncAuditEntry( writer );
+    entry.setBatchSize( 100 );
+    entry.setFlushIntervalMillis( 20 );
+
+    audit( entry, 1 );
+
+    assertTrue( writer.written.await( 5, TimeUnit.SECONDS ) );
+    assertEquals( 1, writer.records.size() );
+  }
+
+  @Test
+  public void testDropPolicyDiscardsOverflow() throws Exception {
+    BlockingWriter writer = new BlockingWriter();
+    entry = new AsyncAuditEntry( writer );
+    entry.setCapacity( 2 );
+    entry.setBatchSize( 1 );
+    entry.setOverflowPolicy( AsyncAuditEntry.OverflowPolicy.DROP );
+
+    // the first record is taken by the writer thread, which then blocks
+    audit( entry, 0 );
+    assertTrue( writer.entered.await( 5, TimeUnit.SECONDS ) );
+    for ( int i = 1; i <= 5; i++ ) {
+      audit( entry, i );
+    }
+
+    assertEquals( 3, entry.getEnqueuedCount() );
+    assertEquals( 3, entry.getDroppedCount() );
+    writer.release.countDown();
+  }
+
+  @Test
+  public void testSamplePolicyKeepsOneInEveryRate() throws Exception {
+    BlockingWriter writer = new BlockingWriter();
+    entry = new AsyncAuditEntry( writer );
+    entry.setCapacity( 1 );
+    entry.setBatchSize( 1 );
+    entry.setOverflowPolicy( AsyncAuditEntry.OverflowPolicy.SAMPLE );
+    entry.setSampleRate( 3 );
+
+    audit( entry, 0 );
+    assertTrue( writer.entered.await( 5, TimeUnit.SECONDS ) );
+    audit( entry, 1 );
+    // the buffer is full, the first two overflowing records are dropped and the third waits for room
+    audit( entry, 2 );
+    audit( entry, 3 );
+    new Thread( () -> {
+      try {
+        Thread.sleep( 100 );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      writer.release.countDown();
+    } ).start();
+    audit( entry, 4 );
+    entry.shutdown();
+
+    assertEquals( 2, entry.getDroppedCount() );
+    assertEquals( 3, entry.getFlushedCount() );
+    assertEquals( "4", writer.records.get( 2 ).getJobId() );
+  }
+
+  @Test
+  public void testFailedBatchIsCounted() throws Exception {
+    entry = new AsyncAuditEntry( new FailingWriter() );
+    entry.setBatchSize( 2 );
+
+    audit( entry, 1 );
+    audit( entry, 2 );
+    entry.shutdown();
+
+    assertEquals( 2, entry.getFailedCount() );
+    assertEquals( 0, entry.getFlushedCount() );
+  }
+
+  @Test
+  public void testPlainEntryReceivesOneCallPerRecord() throws Exception {
+    List<String> jobIds = Collections.synchronizedList( new ArrayList<>() );
+    IAuditEntry plain = ( jobId, instId, objId, objType, actor, messageType, messageName, messageTxtValue,
+        messageNumValue, duration ) -> jobIds.add( jobId );
+    entry = new AsyncAuditEntry( plain );
+
+    audit( entry, 1 );
+    audit( entry, 2 );
+    entry.shutdown();
+
+    assertEquals( 2, jobIds.size() );
+  }
+
+  @Test
+  public void testRecordsAfterShutdownAreWrittenDirectly() throws Exception {
+    RecordingWriter writer = new RecordingWriter();
+    entry = new AsyncAuditEntry( writer );
+    entry.shutdown();
+
+    audit( entry, 1 );
+
+    assertEquals( 1, writer.records.size() );
+  }
+
+  private static void audit( IAuditEntry entry, int id ) throws AuditException {
+    entry.auditAll( String.valueOf( id ), "inst", "obj", "type", "actor", "messageType", "messageName", "text",
+        BigDecimal.ONE, 1.0 );
+  }
+
+  private static class RecordingWriter implements IAuditEntry, AuditBatchWriter {
+    final List<AuditRecord> records = Collections.synchronizedList( new ArrayList<>() );
+    final List<Integer> batchSizes = Collections.synchronizedList( new ArrayList<>() );
+    final CountDownLatch written = new CountDownLatch( 1 );
+    volatile boolean closed;
+
+    @Override
+    public void auditAll( String jobId, String instId, String objId, String objType, String actor,
+        String messageType, String messageName, String messageTxtValue, BigDecimal messageNumValue,
+        double duration ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write( List<AuditRecord> batch ) {
+      records.addAll( batch );
+      batchSizes.add( batch.size() );
+      written.countDown();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static class BlockingWriter extends RecordingWriter {
+    final CountDownLatch entered = new CountDownLatch( 1 );
+    final CountDownLatch release = new CountDownLatch( 1 );
+
+    @Override
+    public void write( List<AuditRecord> batch ) {
+      entered.countDown();
+      try {
+        release.await( 5, TimeUnit.SECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      super.write( batch );
+    }
+  }
+
+  private static class FailingWriter extends RecordingWriter {
+    @Override
+    public void write( List<AuditRecord> batch ) {
+      throw new AuditException( "failed" );
+    }
+  }
+}
@@ -13,27 +13,71 @@
 
 package org.pentaho.platform.engine.services;
 
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.platform.api.engine.IApplicationContext;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.engine.services.audit.AuditFileEntry;
+import org.pentaho.platform.engine.services.audit.AuditRecord;
+
+import java.io.File;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
 
-import org.pentaho.platform.engine.services.audit.AuditFileEntry;
-import org.pentaho.test.platform.engine.core.BaseTest;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @SuppressWarnings( "nls" )
-public class AuditFileEntryTest extends BaseTest {
-  private static final String SOLUTION_PATH = "src/test/resources/solution";
+public class AuditFileEntryTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private IApplicationContext previousContext;
 
-  public String getSolutionPath() {
-    return SOLUTION_PATH;
+  @Before
+  public void setUp() {
+    previousContext = PentahoSystem.getApplicationContext();
+    IApplicationContext applicationContext = mock( IApplicationContext.class );
+    when( applicationContext.getFileOutputPath( anyString() ) ).thenReturn( folder.getRoot().getAbsolutePath() );
+    PentahoSystem.setApplicationContext( applicationContext );
   }
 
-  public void testAuditFileEntry() {
-    startTest();
-    AuditFileEntry auditFileEntry = new AuditFileEntry();
-    auditFileEntry.auditAll( "234234", "2342342342", "234234234", "String", "actor", "messageType", "messageName", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
-        "messageTxtValue", new BigDecimal( 2324323.23 ), 23 ); //$NON-NLS-1$
+  @After
+  public void tearDown() {
+    PentahoSystem.setApplicationContext( previousContext );
+  }
+
+  @Test
+  public void testRecordsFollowTheFileWhenItIsRotated() throws Exception {
+    AuditFileEntry entry = new AuditFileEntry();
+    File auditFile = new File( folder.getRoot(), "PentahoAuditLog.log" );
 
-    assertTrue( true );
-    finishTest();
+    entry.write( Collections.singletonList( record( "before" ) ) );
+    File rotated = new File( folder.getRoot(), "PentahoAuditLog.log.1" );
+    assertTrue( auditFile.renameTo( rotated ) );
+    entry.write( Collections.singletonList( record( "after" ) ) );
+    entry.close();
+
+    List<String> rotatedLines = Files.readAllLines( rotated.toPath(), Charset.defaultCharset() );
+    List<String> lines = Files.readAllLines( auditFile.toPath(), Charset.defaultCharset() );
+    assertEquals( 1, rotatedLines.size() );
+    assertTrue( rotatedLines.get( 0 ).contains( "before" ) );
+    assertEquals( 1, lines.size() );
+    assertTrue( lines.get( 0 ).contains( "after" ) );
   }
 
+  private static AuditRecord record( String jobId ) {
+    return new AuditRecord( jobId, "inst", "obj", "type", "actor", "message", "name", "text", BigDecimal.ONE, 1.0,
+        System.currentTimeMillis() );
+  }
 }
@@ -0,0 +1,199 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.engine.services.connection.datasource.dbcp;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConnectionPoolStatisticsTest {
+
+  private GenericObjectPool<Object> pool;
+
+  @Before
+  public void setUp() {
+    pool = new GenericObjectPool<>( new BasePooledObjectFactory<Object>() {
+      @Override
+      public Object create() {
+        return new Object();
+      }
+
+      @Override
+      public PooledObject<Object> wrap( Object obj ) {
+        return new DefaultPooledObject<>( obj );
+      }
+    } );
+    pool.setMaxTotal( 20 );
+    pool.setMaxIdle( 2 );
+    pool.setMinIdle( 1 );
+  }
+
+  @After
+  public void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  public void testBorrowHistogram() {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+
+    statistics.recordBorrow( TimeUnit.MICROSECONDS.toNanos( 500 ), true );
+    statistics.recordBorrow( TimeUnit.MILLISECONDS.toNanos( 7 ), true );
+    statistics.recordBorrow( TimeUnit.MILLISECONDS.toNanos( 60000 ), true );
+    statistics.recordBorrow( TimeUnit.MILLISECONDS.toNanos( 100 ), false );
+
+    assertArrayEquals( new long[] { 1, 0, 1, 0, 0, 0, 0, 0, 1 }, statistics.getBorrowHistogram() );
+    assertEquals( statistics.getBorrowHistogramBounds().length + 1, statistics.getBorrowHistogram().length );
+    assertEquals( 60000, statistics.getMaxBorrowMillis() );
+    assertEquals( ( 0.5 + 7 + 60000 ) / 3, statistics.getMeanBorrowMillis(), 0.001 );
+    assertEquals( 1, statistics.getBorrowFailureCount() );
+  }
+
+  @Test
+  public void testCreationAndValidation() {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+
+    statistics.recordCreation( TimeUnit.MILLISECONDS.toNanos( 10 ), true );
+    statistics.recordCreation( TimeUnit.MILLISECONDS.toNanos( 30 ), true );
+    statistics.recordCreation( TimeUnit.MILLISECONDS.toNanos( 1000 ), false );
+    statistics.recordValidation( TimeUnit.MILLISECONDS.toNanos( 4 ) );
+
+    assertEquals( 20, statistics.getMeanCreationMillis(), 0.001 );
+    assertEquals( 1, statistics.getCreationFailureCount() );
+    assertEquals( 1, statistics.getValidationCount() );
+    assertEquals( 4, statistics.getMeanValidationMillis(), 0.001 );
+  }
+
+  @Test
+  public void testPoolCounts() throws Exception {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+    assertEquals( 0, statistics.getNumActive() );
+
+    statistics.setPool( pool );
+    Object borrowed = pool.borrowObject();
+    pool.addObject();
+
+    assertEquals( 1, statistics.getNumActive() );
+    assertEquals( 1, statistics.getNumIdle() );
+    assertEquals( 2, statistics.getCreatedCount() );
+    assertEquals( 20, statistics.getMaxTotal() );
+
+    pool.returnObject( borrowed );
+    assertEquals( 1, statistics.getReturnedCount() );
+  }
+
+  @Test
+  public void testAdjustIgnoredUnlessAdaptive() throws Exception {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+    statistics.setPool( pool );
+    pool.borrowObject();
+    pool.borrowObject();
+    pool.borrowObject();
+    statistics.recordBorrow( 0, true );
+
+    statistics.adjust();
+
+    assertFalse( statistics.isAdaptive() );
+    assertEquals( 2, pool.getMaxIdle() );
+    assertEquals( 1, pool.getMinIdle() );
+  }
+
+  @Test
+  public void testAdjustGrowsAtOnceAndShrinksGradually() throws Exception {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+    statistics.setPool( pool );
+    statistics.setAdaptive( 1, 10 );
+
+    Object[] borrowed = new Object[8];
+    for ( int i = 0; i < borrowed.length; i++ ) {
+      borrowed[i] = pool.borrowObject();
+      statistics.recordBorrow( 0, true );
+    }
+
+    statistics.adjust();
+    assertEquals( 8, pool.getMaxIdle() );
+    assertEquals( 4, pool.getMinIdle() );
+
+    for ( Object object : borrowed ) {
+      pool.returnObject( object );
+    }
+
+    // The demand is sampled at each adjustment, so the next one still sees the connections in use at this one.
+    statistics.adjust();
+    assertEquals( 8, pool.getMaxIdle() );
+
+    statistics.adjust();
+    assertEquals( 5, pool.getMaxIdle() );
+    assertEquals( 2, pool.getMinIdle() );
+
+    statistics.adjust();
+    statistics.adjust();
+    statistics.adjust();
+    assertEquals( 1, pool.getMaxIdle() );
+    assertEquals( 1, pool.getMinIdle() );
+  }
+
+  @Test
+  public void testAdjustStaysWithinBounds() throws Exception {
+    ConnectionPoolStatistics statistics = new ConnectionPoolStatistics( "test" );
+    statistics.setPool( pool );
+    statistics.setAdaptive( 1, 3 );
+
+    for ( int i = 0; i < 6; i++ ) {
+      pool.borrowObject();
+      statistics.recordBorrow( 0, true );
+    }
+
+    statistics.adjust();
+    assertEquals( 3, pool.getMaxIdle() );
+    assertEquals( 1, pool.getMinIdle() );
+  }
+
+  @Test
+  public void testMonitorReplacesPoolsOfTheSameName() {
+    ConnectionPoolMonitor monitor = new ConnectionPoolMonitor();
+    ConnectionPoolStatistics first = new ConnectionPoolStatistics( "test" );
+    ConnectionPoolStatistics second = new ConnectionPoolStatistics( "test" );
+    first.setPool( pool );
+    second.setPool( pool );
+
+    monitor.register( first );
+    monitor.register( second );
+    // the replaced pool is released
+    assertEquals( 0, first.getMaxTotal() );
+    assertEquals( pool.getMaxTotal(), second.getMaxTotal() );
+
+    monitor.unregister( first );
+    assertSame( second, monitor.getPool( "test" ) );
+    assertEquals( pool.getMaxTotal(), second.getMaxTotal() );
+    assertEquals( 1, monitor.getPools().size() );
+
+    monitor.unregister( second );
+    assertNull( monitor.getPool( "test" ) );
+    assertTrue( monitor.getPools().isEmpty() );
+  }
+}
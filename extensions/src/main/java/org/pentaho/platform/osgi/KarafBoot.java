@@ -20,8 +20,8 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.karaf.main.Main;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +41,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
@@ -49,7 +51,7 @@ import java.util.UUID;
 /**
  * This Pentaho SystemListener starts the Embedded Karaf framework to support OSGI in the platform.
  */
-public class KarafBoot implements IPentahoSystemListener {
+public class KarafBoot implements IDependentSystemListener {
   public static final String CLEAN_KARAF_CACHE = "org.pentaho.clean.karaf.cache";
 
   private Main main;
@@ -89,6 +91,14 @@ public class KarafBoot implements IPentahoSystemListener {
     }
   };
 
+  /**
+   * Starting the OSGi container does not need any other listener.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Collections.emptyList();
+  }
+
   @Override
   public boolean startup( IPentahoSession session ) {
 
@@ -34,6 +34,7 @@ public class PentahoOSGIActivator {
     if ( objectFactory != null ) {
       logger.debug( "De-Registering Previous OSGIObjectFactory" );
       PentahoSystem.deregisterObjectFactory( objectFactory );
+      objectFactory.dispose();
     }
 
     objectFactory = new OSGIObjectFactory( bundleContext );
@@ -46,6 +47,8 @@ public class PentahoOSGIActivator {
   public void shutdown() {
     if ( objectFactory != null ) {
       PentahoSystem.deregisterObjectFactory( objectFactory );
+      objectFactory.dispose();
+      objectFactory = null;
     }
   }
 
@@ -16,8 +16,8 @@ package org.pentaho.platform.plugin.action.chartbeans;
 import org.dom4j.Element;
 import org.pentaho.chart.ChartBeanFactory;
 import org.pentaho.chart.plugin.IChartPlugin;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.engine.IPluginManager;
 import org.pentaho.platform.api.engine.PluginBeanException;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
@@ -25,16 +25,26 @@ import org.pentaho.platform.plugin.action.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 
-public class ChartBeansSystemListener implements IPentahoSystemListener {
+public class ChartBeansSystemListener implements IDependentSystemListener {
 
   private String configFile = "chartbeans/chartbeans_config.xml"; //$NON-NLS-1$
 
   public ChartBeansSystemListener() {
   }
 
+  /**
+   * Loading the chart plugins only reads the system settings.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Collections.emptyList();
+  }
+
   public boolean startup( final IPentahoSession session ) {
     try {
       ChartBeanFactory.loadDefaultChartPlugins( initPlugins() );
@@ -13,8 +13,8 @@
 
 package org.pentaho.platform.plugin.action.defaultcontent;
 
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.engine.ISystemConfig;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.security.SecurityHelper;
@@ -23,9 +23,11 @@ import org.pentaho.platform.plugin.services.importer.IPlatformImporter;
 import org.pentaho.platform.util.logging.Logger;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.concurrent.Callable;
 
-public class DefaultContentSystemListener implements IPentahoSystemListener {
+public class DefaultContentSystemListener implements IDependentSystemListener {
 
   private static final String DEFAULT_CONTENT_FOLDER = "system/default-content";
 
@@ -33,6 +35,19 @@ public class DefaultContentSystemListener implements IPentahoSystemListener {
   public void shutdown() {
   }
 
+  /**
+   * Default content is imported into the repository by handlers that may come from plugins, and can contain
+   * datasources and analysis schemas.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.plugin.services.pluginmgr.PluginAdapter",
+        "org.pentaho.platform.repository2.unified.BackingRepositoryLifecycleManagerSystemListener",
+        "org.pentaho.platform.engine.services.connection.datasource.dbcp.DynamicallyPooledDatasourceSystemListener",
+        "org.pentaho.platform.plugin.action.olap.Olap4jSystemListener" );
+  }
+
   @Override
   public boolean startup( IPentahoSession arg0 ) {
 
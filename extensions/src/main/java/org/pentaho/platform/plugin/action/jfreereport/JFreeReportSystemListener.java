@@ -13,17 +13,33 @@
 
 package org.pentaho.platform.plugin.action.jfreereport;
 
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.plugin.action.jfreereport.helper.PentahoReportConfiguration;
 import org.pentaho.platform.plugin.action.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
 import org.pentaho.reporting.engine.classic.core.ClassicEngineBoot;
 
-public class JFreeReportSystemListener implements IPentahoSystemListener {
+import java.util.Arrays;
+import java.util.Collection;
+
+public class JFreeReportSystemListener implements IDependentSystemListener {
   public JFreeReportSystemListener() {
   }
 
+  /**
+   * The reporting engine boots its OSGi, Kettle and plugin provided modules, and reads the report configuration as
+   * the secured system user.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.osgi.OSGIBoot",
+        "org.pentaho.platform.plugin.action.kettle.KettleSystemListener",
+        "org.pentaho.platform.plugin.services.pluginmgr.PluginAdapter",
+        "org.pentaho.platform.plugin.services.security.userrole.SecuritySystemListener" );
+  }
+
   public boolean startup( final IPentahoSession session ) {
     try {
       synchronized ( ClassicEngineBoot.class ) {
@@ -27,8 +27,8 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.www.CarteSingleton;
 import org.pentaho.di.www.SlaveServerConfig;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.action.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
@@ -42,10 +42,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Properties;
 
-public class KettleSystemListener implements IPentahoSystemListener {
+public class KettleSystemListener implements IDependentSystemListener {
 
   /**
    * If {@code true}, send Kettle output to the platform log file (e.g. pentaho.log) in addition to its normal
@@ -55,6 +57,14 @@ public class KettleSystemListener implements IPentahoSystemListener {
 
   private org.apache.logging.log4j.Logger logger = LogManager.getLogger( getClass() );
 
+  /**
+   * The Kettle environment loads plugins that are provided by the OSGi container.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList( "org.pentaho.platform.osgi.OSGIBoot" ); //$NON-NLS-1$
+  }
+
   public boolean startup( final IPentahoSession session ) {
 
     // Default DI_HOME System Property if not set
@@ -14,8 +14,8 @@
 package org.pentaho.platform.plugin.action.mondrian;
 
 import mondrian.olap.MondrianProperties;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.action.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
@@ -24,8 +24,18 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
 
-public class MondrianSystemListener implements IPentahoSystemListener {
+public class MondrianSystemListener implements IDependentSystemListener {
+
+  /**
+   * Loading the Mondrian properties only reads the solution folder.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Collections.emptyList();
+  }
 
   public boolean startup( final IPentahoSession session ) {
     loadMondrianProperties( session );
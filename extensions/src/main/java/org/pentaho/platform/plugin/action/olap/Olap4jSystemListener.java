@@ -14,8 +14,8 @@
 package org.pentaho.platform.plugin.action.olap;
 
 import mondrian.olap.Util;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.engine.IUserRoleListService;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
@@ -24,16 +24,29 @@ import org.pentaho.platform.engine.services.messages.Messages;
 import org.pentaho.platform.util.PasswordHelper;
 import org.pentaho.platform.util.logging.Logger;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 
-public class Olap4jSystemListener implements IPentahoSystemListener {
+public class Olap4jSystemListener implements IDependentSystemListener {
   private static final String PASSWORD = "password";
   private List<Properties> olap4jConnectionList;
   private List<String> removeList;
   private boolean isSecured = false;
 
+  /**
+   * The olap4j catalogs are registered with the OLAP service, which stores them in the repository.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.plugin.action.mondrian.MondrianSystemListener",
+        "org.pentaho.platform.repository2.unified.BackingRepositoryLifecycleManagerSystemListener",
+        "org.pentaho.platform.plugin.services.security.userrole.SecuritySystemListener" );
+  }
+
   @Override public boolean startup( IPentahoSession session ) {
     try {
       if ( PentahoSystem.get( IUserRoleListService.class ) != null ) {
@@ -21,10 +21,12 @@ import org.pentaho.metadata.query.model.Parameter;
 import org.pentaho.metadata.query.model.Query;
 import org.pentaho.metadata.query.model.util.QueryXmlHelper;
 import org.pentaho.metadata.repository.IMetadataDomainRepository;
+import org.pentaho.platform.api.data.IQueryResultCache;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.services.runtime.TemplateUtil;
 import org.pentaho.platform.plugin.action.messages.Messages;
+import org.pentaho.platform.plugin.services.connections.metadata.sql.SqlMetadataQueryExec;
 
 import java.util.Map;
 import java.util.Properties;
@@ -246,6 +248,10 @@ public class MetadataQueryComponent {
       if ( this.inputs != null ) {
         executor.setInputs( this.inputs );
       }
+      if ( !live && executor instanceof SqlMetadataQueryExec ) {
+        // results read in memory can be shared by queries with the same SQL, parameters and security constraint
+        ( (SqlMetadataQueryExec) executor ).setQueryResultCache( PentahoSystem.get( IQueryResultCache.class ) );
+      }
 
       resultSet = executor.executeQuery( queryObject );
       if ( resultSet != null && !live && executor.isLive() ) {
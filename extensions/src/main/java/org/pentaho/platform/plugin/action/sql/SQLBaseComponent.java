@@ -27,7 +27,9 @@ import org.pentaho.commons.connection.PentahoDataTransmuter;
 import org.pentaho.commons.connection.memory.MemoryMetaData;
 import org.pentaho.platform.api.data.IDataComponent;
 import org.pentaho.platform.api.data.IPreparedComponent;
+import org.pentaho.platform.api.data.IQueryResultCache;
 import org.pentaho.platform.api.engine.IParameterResolver;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.services.connection.PentahoConnectionFactory;
 import org.pentaho.platform.engine.services.runtime.TemplateUtil;
 import org.pentaho.platform.engine.services.solution.ComponentBase;
@@ -563,6 +565,14 @@ public abstract class SQLBaseComponent extends ComponentBase implements IDataCom
       IPentahoResultSet resultSet = null;
       boolean isForwardOnly = relationalDbAction.getUseForwardOnlyResultSet().getBooleanValue( false );
 
+      if ( !live && isQueryResultCacheable() ) {
+        IQueryResultCache queryResultCache = PentahoSystem.get( IQueryResultCache.class );
+        String datasource = getQueryResultCacheDatasource( relationalDbAction );
+        if ( queryResultCache != null && queryResultCache.isEnabled( datasource ) ) {
+          return runCachedQuery( queryResultCache, datasource, sqlConnection, query, isForwardOnly );
+        }
+      }
+
       resultSet = doQuery( sqlConnection, query, isForwardOnly );
 
       if ( sqlConnection.isForcedForwardOnly() ) {
@@ -626,6 +636,68 @@ public abstract class SQLBaseComponent extends ComponentBase implements IDataCom
     return false;
   }
 
+  /**
+   * executes the specified query through the shared query result cache, reading the result in memory when it is not
+   * cached yet. The connection is closed, if owned, whether the result was cached or not.
+   */
+  private boolean runCachedQuery( final IQueryResultCache queryResultCache, final String datasource,
+                                  final SQLConnection sqlConnection, final String query, final boolean isForwardOnly )
+    throws Exception {
+    try {
+      IPentahoResultSet cachedResultSet =
+          queryResultCache.getOrLoad( datasource, query, new ArrayList<Object>( preparedParameters ), null,
+            getMaxRows(), () -> {
+              IPentahoResultSet resultSet = doQuery( sqlConnection, query, isForwardOnly );
+              return resultSet != null ? resultSet.memoryCopy() : null;
+            } );
+      if ( cachedResultSet == null ) {
+        error( Messages.getInstance().getErrorString( "SQLBaseComponent.ERROR_0006_EXECUTE_FAILED",
+          getActionName() ) ); //$NON-NLS-1$
+        return false;
+      }
+
+      rSet = cachedResultSet;
+
+      IActionOutput actionOutput = ( (AbstractRelationalDbAction) getActionDefinition() ).getOutputResultSet();
+      if ( actionOutput != null ) {
+        actionOutput.setValue( cachedResultSet );
+      }
+      return true;
+    } finally {
+      // After preparation and execution, we need to clear out the
+      // prepared parameters.
+      preparedParameters.clear();
+      // close the connection if owner
+      if ( connectionOwner ) {
+        connection.close();
+        connection = null;
+      }
+    }
+  }
+
+  /**
+   * indicates if the results of the queries of this component may be shared through the query result cache. Components
+   * whose queries modify the database must return false.
+   *
+   * @return true if the results may be cached
+   */
+  protected boolean isQueryResultCacheable() {
+    return true;
+  }
+
+  /**
+   * gets the name of the datasource under which the results of the queries are cached. Only results of connections
+   * which are owned by this component and looked up by JNDI name are cached, as these are the same for all users.
+   *
+   * @return the JNDI name, or null if the results can't be cached
+   */
+  protected String getQueryResultCacheDatasource( final AbstractRelationalDbAction relationalDbAction ) {
+    if ( !connectionOwner ) {
+      return null;
+    }
+    return relationalDbAction.getJndi().getStringValue();
+  }
+
   public IPentahoResultSet doQuery( final SQLConnection sqlConnection, final String query, boolean forwardOnlyResultset ) throws Exception {
     //
     // At this point, 'connection' and 'sqlConnection' should be pointers to
@@ -38,6 +38,11 @@ public class SQLDdlComponent extends SQLLookupRule {
     return action;
   }
 
+  @Override
+  protected boolean isQueryResultCacheable() {
+    return false;
+  }
+
   @Override
   public IPentahoResultSet doQuery( final SQLConnection sqlConnection, final String query, boolean forwardOnlyResultset ) throws Exception {
 
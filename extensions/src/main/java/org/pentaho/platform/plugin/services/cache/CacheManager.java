@@ -30,6 +30,7 @@ import org.pentaho.platform.api.cache.ICacheExpirationRegistry;
 import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.ISystemSettings;
+import org.pentaho.platform.engine.core.system.CacheTagIndex;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.services.messages.Messages;
 import org.pentaho.platform.repository.hibernate.HibernateLoadEventListener;
@@ -37,6 +38,7 @@ import org.pentaho.platform.repository.hibernate.HibernateUtil;
 import org.pentaho.platform.util.xml.dom4j.XmlDom4JHelper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -141,6 +143,8 @@ public class CacheManager implements ICacheManager {
 
   private final ThreadLocal<Set<CacheCreationKey>> threadOwnedCreations = ThreadLocal.withInitial( HashSet::new );
 
+  private final ConcurrentMap<String, CacheTagIndex<Object, Object>> tagIndexes = new ConcurrentHashMap<>();
+
   // ~ Constructors =========================================================
 
   /**
@@ -336,8 +340,14 @@ public class CacheManager implements ICacheManager {
        HvCache cache = (HvCache) regionCache.get( region );
       if ( cache != null ) {
         try {
-          try ( SessionImpl session = ( SessionImpl ) cache.getSessionFactory().openSession() ) {
-            cache.getStorageAccess().clearCache( session );
+          CacheTagIndex<Object, Object> tagIndex = tagIndexes.get( region );
+          if ( tagIndex != null ) {
+            synchronized ( tagIndex ) {
+              tagIndex.clear();
+              clearStorage( cache );
+            }
+          } else {
+            clearStorage( cache );
           }
         } catch ( CacheException e ) {
           CacheManager.logger.error( Messages.getInstance().getString(
@@ -350,6 +360,12 @@ public class CacheManager implements ICacheManager {
     }
   }
 
+  private void clearStorage( HvCache cache ) {
+    try ( SessionImpl session = ( SessionImpl ) cache.getSessionFactory().openSession() ) {
+      cache.getStorageAccess().clearCache( session );
+    }
+  }
+
   public void removeRegionCache( String region ) {
     if ( checkRegionEnabled( region ) ) {
       clearRegionCache( region );
@@ -368,6 +384,51 @@ public class CacheManager implements ICacheManager {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The entry is put and tagged while holding the lock of the region's tag index, which
+   * {@link #invalidateByTag(String, Object)} also holds, so an entry cannot be put after the invalidation of its tag
+   * yet miss it. The cache does not report the entries it expires or evicts, so the index is pruned of the keys the
+   * cache no longer holds whenever it has doubled in size.
+   */
+  @Override
+  public void putInRegionCache( String region, Object key, Object value, Object... tags ) {
+    if ( tags == null || tags.length == 0 ) {
+      putInRegionCache( region, key, value );
+      return;
+    }
+    if ( checkRegionEnabled( region ) ) {
+      if ( key == null || value == null ) {
+        return;
+      }
+      HvCache hvcache = ( HvCache ) regionCache.get( region );
+      if ( null != hvcache ) {
+        CacheTagIndex<Object, Object> tagIndex = tagIndexes.computeIfAbsent( region, r -> new CacheTagIndex<>() );
+        synchronized ( tagIndex ) {
+          hvcache.getDirectAccessRegion().putIntoCache( key, value, null );
+          tagIndex.tag( key, Arrays.asList( tags ) );
+          tagIndex.pruneIfGrown( tagged -> !hvcache.getStorageAccess().contains( tagged ) );
+        }
+      }
+    }
+  }
+
+  @Override
+  public void invalidateByTag( String region, Object tag ) {
+    if ( checkRegionEnabled( region ) ) {
+      HvCache hvcache = (HvCache) regionCache.get( region );
+      CacheTagIndex<Object, Object> tagIndex = tagIndexes.get( region );
+      if ( null != hvcache && tagIndex != null && tag != null ) {
+        synchronized ( tagIndex ) {
+          for ( Object key : tagIndex.removeTag( tag ) ) {
+            hvcache.getStorageAccess().evictData( key );
+          }
+        }
+      }
+    }
+  }
+
   public Object getFromRegionCache( String region, Object key ) {
     if ( checkRegionEnabled( region ) ) {
       HvCache hvcache = (HvCache) regionCache.get( region );  //This is our LastModifiedCache or CarteStatusCache
@@ -491,7 +552,15 @@ public class CacheManager implements ICacheManager {
     if ( checkRegionEnabled( region ) ) {
       HvCache hvcache = (HvCache) regionCache.get( region );
       if ( null != hvcache ) {
-        hvcache.getStorageAccess().evictData( key );
+        CacheTagIndex<Object, Object> tagIndex = tagIndexes.get( region );
+        if ( tagIndex != null ) {
+          synchronized ( tagIndex ) {
+            tagIndex.remove( key );
+            hvcache.getStorageAccess().evictData( key );
+          }
+        } else {
+          hvcache.getStorageAccess().evictData( key );
+        }
       }
     } else {
       CacheManager.logger.warn( Messages.getInstance().getString(
@@ -524,19 +593,22 @@ public class CacheManager implements ICacheManager {
     return getFromRegionCache( SESSION, getCorrectedKey( session, key ) );
   }
 
+  /**
+   * Removes the entries put by {@link #putInSessionCache(IPentahoSession, String, Object)} for the session, which are
+   * tagged with its id, and the untagged entries of the session region whose key contains the id.
+   */
   public void killSessionCache( IPentahoSession session ) {
-    if ( cacheEnabled ) {
-      HvCache hvcache = (HvCache) regionCache.get( SESSION );
-      if ( hvcache != null ) {
-        javax.cache.Cache<Object, Object> cache = ( ( JCacheAccessImpl ) hvcache.getStorageAccess() ).getUnderlyingCache();
-        if ( cache != null ) {
-          Iterator<javax.cache.Cache.Entry<Object, Object>> cacheIterator = cache.iterator();
-          while ( cacheIterator.hasNext() ) {
-            javax.cache.Cache.Entry<Object, Object> entry = cacheIterator.next();
-            String key = ( String ) entry.getKey();
-            if ( key.contains( session.getId() ) ) {
-              hvcache.getStorageAccess().evictData( key );
-            }
+    if ( cacheEnabled && session.getId() != null && regionCache.containsKey( SESSION ) ) {
+      invalidateByTag( SESSION, session.getId() );
+      // entries put directly in the session region are not tagged; the tagged entries of other sessions are kept even
+      // if their key contains the id
+      CacheTagIndex<Object, Object> tagIndex = tagIndexes.get( SESSION );
+      Set<?> keys = getAllKeysFromRegionCache( SESSION );
+      if ( keys != null ) {
+        for ( Object key : keys ) {
+          if ( key instanceof String && ( (String) key ).contains( session.getId() )
+            && ( tagIndex == null || !tagIndex.isTagged( key ) ) ) {
+            removeFromRegionCache( SESSION, key );
           }
         }
       }
@@ -552,7 +624,7 @@ public class CacheManager implements ICacheManager {
   }
 
   public void putInSessionCache( IPentahoSession session, String key, Object value ) {
-    putInRegionCache( SESSION, getCorrectedKey( session, key ), value );
+    putInRegionCache( SESSION, getCorrectedKey( session, key ), value, session.getId() );
   }
 
   public void removeFromGlobalCache( Object key ) {
@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Snapshot-on-read view of the statistics of a Guava backed cache region.
+ */
+public class CacheRegionStatistics implements CacheRegionStatisticsMXBean {
+
+  private final String region;
+  private final Cache<?, ?> cache;
+
+  CacheRegionStatistics( String region, Cache<?, ?> cache ) {
+    this.region = region;
+    this.cache = cache;
+  }
+
+  @Override
+  public String getRegion() {
+    return region;
+  }
+
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return stats().hitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return stats().missCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return stats().hitRate();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return stats().evictionCount();
+  }
+
+  @Override
+  public long getLoadSuccessCount() {
+    return stats().loadSuccessCount();
+  }
+
+  @Override
+  public long getLoadFailureCount() {
+    return stats().loadExceptionCount();
+  }
+
+  @Override
+  public double getAverageLoadPenalty() {
+    return stats().averageLoadPenalty();
+  }
+
+  @Override
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  private CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public String toString() {
+    return "CacheRegionStatistics [region=" + region + ", size=" + getSize() + ", " + stats() + "]";
+  }
+}
@@ -0,0 +1,50 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+/**
+ * Statistics of a single region of a {@link GuavaCacheManager}, published through JMX as
+ * <code>pentaho:type=CacheRegion,name=&lt;region&gt;</code>.
+ */
+public interface CacheRegionStatisticsMXBean {
+
+  String getRegion();
+
+  /**
+   * @return approximate number of entries in the region
+   */
+  long getSize();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  double getHitRate();
+
+  long getEvictionCount();
+
+  long getLoadSuccessCount();
+
+  long getLoadFailureCount();
+
+  /**
+   * @return average time spent creating or refreshing a value, in nanoseconds
+   */
+  double getAverageLoadPenalty();
+
+  /**
+   * Discards all entries of the region.
+   */
+  void clear();
+}
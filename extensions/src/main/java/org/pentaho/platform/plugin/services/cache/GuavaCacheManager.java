@@ -0,0 +1,631 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.cache.CacheException;
+import org.pentaho.platform.api.engine.ICacheManager;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.engine.core.system.CacheTagIndex;
+import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.engine.services.messages.Messages;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * An {@link ICacheManager} that keeps every region in an in-memory Guava cache instead of a Hibernate/JCache region.
+ * It needs no <code>cache-provider</code> configuration and is selected by replacing the class of the
+ * <code>ICacheManager</code> bean in <code>pentahoObjects.spring.xml</code>.
+ * <p>
+ * Each region is bounded and expired according to its properties, which are looked up, in order of precedence, in
+ * the properties passed to {@link #addCacheRegion(String, Properties)}, in {@link #setRegionProperties(Map)} for that
+ * region and in {@link #setDefaultRegionProperties(Properties)}:
+ * <ul>
+ * <li><code>maxWeight</code> - maximum total weight of the entries of the region, as computed by
+ * {@link #setWeigher(Weigher)}; the maximum number of entries when there is no weigher</li>
+ * <li><code>expireAfterWriteSeconds</code> - time to live of an entry</li>
+ * <li><code>expireAfterAccessSeconds</code> - time to idle of an entry</li>
+ * <li><code>refreshAfterWriteSeconds</code> - age after which an entry created by
+ * {@link #getOrCreateFromRegionCache(String, Object, Supplier)} is recreated in the background, with the same creator,
+ * on its next access through {@link #getOrCreateFromRegionCache(String, Object, Supplier)} or
+ * {@link #getFromRegionCache(String, Object)}; the current value is returned until the new one is available. The
+ * creator runs without the caller's Pentaho session, so only regions whose values do not depend on it should use
+ * this.</li>
+ * </ul>
+ * Values that are not positive leave the corresponding limit off.
+ * <p>
+ * Hit, miss, load and eviction counts are recorded for every region. They are available from
+ * {@link #getRegionStatistics(String)} and, unless {@link #setJmxEnabled(boolean)} turns it off, as a
+ * {@link CacheRegionStatisticsMXBean} named <code>pentaho:type=CacheRegion,name=&lt;region&gt;</code>.
+ * <p>
+ * Tags given to {@link #putInRegionCache(String, Object, Object, Object...)} are kept in a per-region
+ * {@link CacheTagIndex}, which drops entries as the cache evicts or expires them.
+ */
+public class GuavaCacheManager implements ICacheManager {
+
+  protected static final Log logger = LogFactory.getLog( GuavaCacheManager.class );
+
+  public static final String MAX_WEIGHT = "maxWeight";
+  public static final String EXPIRE_AFTER_WRITE_SECONDS = "expireAfterWriteSeconds";
+  public static final String EXPIRE_AFTER_ACCESS_SECONDS = "expireAfterAccessSeconds";
+  public static final String REFRESH_AFTER_WRITE_SECONDS = "refreshAfterWriteSeconds";
+
+  private static final String SESSION_KEY_SEPARATOR = "\t";
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<>();
+
+  private Properties defaultRegionProperties = new Properties();
+
+  private Map<String, Properties> regionProperties = Collections.emptyMap();
+
+  private Weigher<Object, Object> weigher;
+
+  private boolean jmxEnabled = true;
+
+  private ExecutorService refreshExecutor;
+
+  /**
+   * Regions that were used without being added, so that the warning is only logged once per region
+   */
+  private final Set<String> missingRegions = ConcurrentHashMap.newKeySet();
+
+  public GuavaCacheManager() {
+    PentahoSystem.addLogoutListener( this );
+  }
+
+  // ~ Configuration ========================================================
+
+  public void setDefaultRegionProperties( Properties defaultRegionProperties ) {
+    this.defaultRegionProperties = defaultRegionProperties != null ? defaultRegionProperties : new Properties();
+  }
+
+  /**
+   * @param regionProperties
+   *          properties of individual regions, keyed by region name
+   */
+  public void setRegionProperties( Map<String, Properties> regionProperties ) {
+    this.regionProperties = regionProperties != null ? regionProperties : Collections.emptyMap();
+  }
+
+  /**
+   * @param weigher
+   *          computes the weight of a cached value, which counts against the <code>maxWeight</code> of its region
+   */
+  public void setWeigher( Weigher<Object, Object> weigher ) {
+    this.weigher = weigher;
+  }
+
+  public void setJmxEnabled( boolean jmxEnabled ) {
+    this.jmxEnabled = jmxEnabled;
+  }
+
+  // ~ Statistics ===========================================================
+
+  /**
+   * @return the statistics of the region, or null if it does not exist
+   */
+  public CacheRegionStatistics getRegionStatistics( String region ) {
+    Region cacheRegion = region != null ? regions.get( region ) : null;
+    return cacheRegion != null ? cacheRegion.statistics : null;
+  }
+
+  /**
+   * @return the statistics of every region, keyed by region name
+   */
+  public Map<String, CacheRegionStatistics> getRegionStatistics() {
+    Map<String, CacheRegionStatistics> statistics = new HashMap<>();
+    for ( Region region : regions.values() ) {
+      statistics.put( region.name, region.statistics );
+    }
+    return statistics;
+  }
+
+  // ~ Regions ==============================================================
+
+  public void cacheStop() {
+    for ( Region region : regions.values() ) {
+      region.cache.invalidateAll();
+      unregister( region );
+    }
+    regions.clear();
+    synchronized ( this ) {
+      if ( refreshExecutor != null ) {
+        refreshExecutor.shutdownNow();
+        refreshExecutor = null;
+      }
+    }
+  }
+
+  public boolean cacheEnabled() {
+    return true;
+  }
+
+  public boolean cacheEnabled( String region ) {
+    return region != null && ( regions.containsKey( region ) || isBuiltInRegion( region ) );
+  }
+
+  public boolean addCacheRegion( String region ) {
+    return addCacheRegion( region, null );
+  }
+
+  public boolean addCacheRegion( String region, Properties cacheProperties ) {
+    if ( region == null ) {
+      return false;
+    }
+    if ( regions.containsKey( region ) ) {
+      logger.warn( Messages.getInstance().getString( "CacheManager.WARN_0002_REGION_ALREADY_EXIST", region ) ); //$NON-NLS-1$
+      return true;
+    }
+    regions.computeIfAbsent( region, name -> createRegion( name, cacheProperties ) );
+    missingRegions.remove( region );
+    return true;
+  }
+
+  public void clearRegionCache( String region ) {
+    Region cacheRegion = region != null ? regions.get( region ) : null;
+    if ( cacheRegion != null ) {
+      synchronized ( cacheRegion.tags ) {
+        cacheRegion.tags.clear();
+        cacheRegion.cache.invalidateAll();
+      }
+    } else {
+      logger.info( Messages.getInstance().getString( "CacheManager.INFO_0001_CACHE_DOES_NOT_EXIST", region ) ); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Discards the entries of the region. As with {@link CacheManager}, the region itself remains available.
+   */
+  public void removeRegionCache( String region ) {
+    if ( getRegion( region ) != null ) {
+      clearRegionCache( region );
+    }
+  }
+
+  public void clearCache() {
+    for ( String region : new ArrayList<>( regions.keySet() ) ) {
+      removeRegionCache( region );
+    }
+  }
+
+  // ~ Region entries =======================================================
+
+  public void putInRegionCache( String region, Object key, Object value ) {
+    if ( key == null || value == null ) {
+      return;
+    }
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion != null ) {
+      cacheRegion.cache.put( key, new CachedValue( value, null ) );
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The entry is put and tagged while holding the lock of the region's tag index, which
+   * {@link #invalidateByTag(String, Object)} also holds, so an entry cannot be put after the invalidation of its tag
+   * yet miss it. Tagging after the put also keeps the tags when the put replaces an expired entry, whose eviction is
+   * reported while putting.
+   */
+  @Override
+  public void putInRegionCache( String region, Object key, Object value, Object... tags ) {
+    if ( tags == null || tags.length == 0 ) {
+      putInRegionCache( region, key, value );
+      return;
+    }
+    if ( key == null || value == null ) {
+      return;
+    }
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion != null ) {
+      synchronized ( cacheRegion.tags ) {
+        cacheRegion.cache.put( key, new CachedValue( value, null ) );
+        cacheRegion.tags.tag( key, Arrays.asList( tags ) );
+      }
+    }
+  }
+
+  @Override
+  public void invalidateByTag( String region, Object tag ) {
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion != null && tag != null ) {
+      synchronized ( cacheRegion.tags ) {
+        cacheRegion.cache.invalidateAll( cacheRegion.tags.removeTag( tag ) );
+      }
+    }
+  }
+
+  public Object getFromRegionCache( String region, Object key ) {
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion == null || key == null ) {
+      return null;
+    }
+    CachedValue cached = cacheRegion.cache.getIfPresent( key );
+    if ( cached == null ) {
+      return null;
+    }
+    refreshIfStale( cacheRegion, key, cached );
+    return cached.value;
+  }
+
+  /**
+   * Creation is atomic per key: concurrent callers for the same key wait for a single call of the creator. The
+   * creator is kept with the value, so that a region with <code>refreshAfterWriteSeconds</code> can recreate it.
+   */
+  public Object getOrCreateFromRegionCache( String region, Object key, Supplier<Object> creator ) {
+    if ( key == null || creator == null ) {
+      return null;
+    }
+    if ( region == null ) {
+      return creator.get();
+    }
+    Region cacheRegion = regions.computeIfAbsent( region, name -> createRegion( name, null ) );
+    try {
+      CachedValue cached = cacheRegion.cache.get( key, () -> new CachedValue( creator.get(), creator ) );
+      if ( cached.value == null ) {
+        // null is returned, but never cached
+        cacheRegion.cache.asMap().remove( key, cached );
+      } else {
+        refreshIfStale( cacheRegion, key, cached );
+      }
+      return cached.value;
+    } catch ( ExecutionException | UncheckedExecutionException | ExecutionError e ) {
+      throw rethrowCacheCreationFailure( e.getCause() != null ? e.getCause() : e );
+    }
+  }
+
+  public void removeFromRegionCache( String region, Object key ) {
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion != null && key != null ) {
+      synchronized ( cacheRegion.tags ) {
+        cacheRegion.tags.remove( key );
+        cacheRegion.cache.invalidate( key );
+      }
+    }
+  }
+
+  public List<Object> getAllValuesFromRegionCache( String region ) {
+    List<Object> values = new ArrayList<>();
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion != null ) {
+      for ( CachedValue cached : cacheRegion.cache.asMap().values() ) {
+        if ( cached.value != null ) {
+          values.add( cached.value );
+        }
+      }
+    }
+    return values;
+  }
+
+  public Set getAllKeysFromRegionCache( String region ) {
+    Region cacheRegion = getRegion( region );
+    return cacheRegion != null ? new HashSet<>( cacheRegion.cache.asMap().keySet() ) : null;
+  }
+
+  public Set getAllEntriesFromRegionCache( String region ) {
+    Region cacheRegion = getRegion( region );
+    if ( cacheRegion == null ) {
+      return null;
+    }
+    Set<Map.Entry<Object, Object>> entries = new HashSet<>();
+    for ( Map.Entry<Object, CachedValue> entry : cacheRegion.cache.asMap().entrySet() ) {
+      if ( entry.getValue().value != null ) {
+        entries.add( new AbstractMap.SimpleImmutableEntry<>( entry.getKey(), entry.getValue().value ) );
+      }
+    }
+    return entries;
+  }
+
+  // ~ Global and session cache =============================================
+
+  public Object getFromGlobalCache( Object key ) {
+    return getFromRegionCache( GLOBAL, key );
+  }
+
+  public void putInGlobalCache( Object key, Object value ) {
+    putInRegionCache( GLOBAL, key, value );
+  }
+
+  public void removeFromGlobalCache( Object key ) {
+    removeFromRegionCache( GLOBAL, key );
+  }
+
+  public Object getFromSessionCache( IPentahoSession session, String key ) {
+    return getFromRegionCache( SESSION, getCorrectedKey( session, key ) );
+  }
+
+  public void putInSessionCache( IPentahoSession session, String key, Object value ) {
+    putInRegionCache( SESSION, getCorrectedKey( session, key ), value, session.getId() );
+  }
+
+  public void removeFromSessionCache( IPentahoSession session, String key ) {
+    removeFromRegionCache( SESSION, getCorrectedKey( session, key ) );
+  }
+
+  /**
+   * Removes the entries put by {@link #putInSessionCache(IPentahoSession, String, Object)} for the session, which are
+   * tagged with its id, and the untagged entries of the session region whose key contains the id.
+   */
+  public void killSessionCache( IPentahoSession session ) {
+    if ( session != null && session.getId() != null && regions.containsKey( SESSION ) ) {
+      invalidateByTag( SESSION, session.getId() );
+      // entries put directly in the session region are not tagged; the tagged entries of other sessions are kept even
+      // if their key contains the id
+      Region sessionRegion = regions.get( SESSION );
+      CacheTagIndex<Object, Object> tagIndex = sessionRegion != null ? sessionRegion.tags : null;
+      Set<?> keys = getAllKeysFromRegionCache( SESSION );
+      if ( keys != null ) {
+        for ( Object key : keys ) {
+          if ( key instanceof String && ( (String) key ).contains( session.getId() )
+            && ( tagIndex == null || !tagIndex.isTagged( key ) ) ) {
+            removeFromRegionCache( SESSION, key );
+          }
+        }
+      }
+    }
+  }
+
+  public void killSessionCaches() {
+    removeRegionCache( SESSION );
+  }
+
+  public void onLogout( IPentahoSession session ) {
+    killSessionCache( session );
+  }
+
+  private String getCorrectedKey( final IPentahoSession session, final String key ) {
+    String sessionId = session.getId();
+    if ( sessionId != null ) {
+      return sessionId + SESSION_KEY_SEPARATOR + key;
+    } else {
+      throw new CacheException( Messages.getInstance().getErrorString( "CacheManager.ERROR_0001_NOSESSION" ) ); //$NON-NLS-1$
+    }
+  }
+
+  // ~ Implementation =======================================================
+
+  /**
+   * @return the region, created on first use for {@link #SESSION} and {@link #GLOBAL}; null if it does not exist
+   */
+  private Region getRegion( String region ) {
+    if ( region == null ) {
+      return null;
+    }
+    Region cacheRegion = regions.get( region );
+    if ( cacheRegion == null && isBuiltInRegion( region ) ) {
+      cacheRegion = regions.computeIfAbsent( region, name -> createRegion( name, null ) );
+    }
+    if ( cacheRegion == null ) {
+      String message =
+        Messages.getInstance().getString( "CacheManager.WARN_0003_REGION_DOES_NOT_EXIST", region ); //$NON-NLS-1$
+      if ( missingRegions.add( region ) ) {
+        logger.warn( message );
+      } else if ( logger.isDebugEnabled() ) {
+        logger.debug( message );
+      }
+    }
+    return cacheRegion;
+  }
+
+  private static boolean isBuiltInRegion( String region ) {
+    return SESSION.equals( region ) || GLOBAL.equals( region );
+  }
+
+  private Region createRegion( String name, Properties cacheProperties ) {
+    Properties properties = new Properties();
+    properties.putAll( defaultRegionProperties );
+    if ( regionProperties.get( name ) != null ) {
+      properties.putAll( regionProperties.get( name ) );
+    }
+    if ( cacheProperties != null ) {
+      properties.putAll( cacheProperties );
+    }
+
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    long maxWeight = getLong( properties, MAX_WEIGHT );
+    if ( maxWeight > 0 ) {
+      if ( weigher != null ) {
+        final Weigher<Object, Object> valueWeigher = weigher;
+        builder.maximumWeight( maxWeight )
+          .weigher( ( key, cached ) -> valueWeigher.weigh( key, ( (CachedValue) cached ).value ) );
+      } else {
+        builder.maximumSize( maxWeight );
+      }
+    }
+    long expireAfterWrite = getLong( properties, EXPIRE_AFTER_WRITE_SECONDS );
+    if ( expireAfterWrite > 0 ) {
+      builder.expireAfterWrite( expireAfterWrite, TimeUnit.SECONDS );
+    }
+    long expireAfterAccess = getLong( properties, EXPIRE_AFTER_ACCESS_SECONDS );
+    if ( expireAfterAccess > 0 ) {
+      builder.expireAfterAccess( expireAfterAccess, TimeUnit.SECONDS );
+    }
+    // entries are refreshed by refreshIfStale rather than by the cache, which would run the creator of a value kept
+    // by getOrCreateFromRegionCache on the calling thread
+    long refreshAfterWrite = getLong( properties, REFRESH_AFTER_WRITE_SECONDS );
+
+    CacheTagIndex<Object, Object> tags = new CacheTagIndex<>();
+    AtomicReference<Cache<Object, CachedValue>> built = new AtomicReference<>();
+    RemovalListener<Object, CachedValue> untagEvicted = notification -> {
+      if ( notification.wasEvicted() ) {
+        // the notification may be delivered after the key was put and tagged again
+        synchronized ( tags ) {
+          if ( !built.get().asMap().containsKey( notification.getKey() ) ) {
+            tags.remove( notification.getKey() );
+          }
+        }
+      }
+    };
+    Cache<Object, CachedValue> cache = builder.removalListener( untagEvicted ).build();
+    built.set( cache );
+    Region region = new Region( name, cache, tags, TimeUnit.SECONDS.toNanos( Math.max( 0, refreshAfterWrite ) ) );
+    register( region );
+    return region;
+  }
+
+  private static long getLong( Properties properties, String name ) {
+    String value = properties.getProperty( name );
+    if ( value == null || value.trim().isEmpty() ) {
+      return 0;
+    }
+    try {
+      return Long.parseLong( value.trim() );
+    } catch ( NumberFormatException e ) {
+      logger.warn( "Ignoring invalid cache region property " + name + "=" + value );
+      return 0;
+    }
+  }
+
+  private void register( Region region ) {
+    if ( !jmxEnabled ) {
+      return;
+    }
+    try {
+      ObjectName objectName = new ObjectName( "pentaho:type=CacheRegion,name=" + ObjectName.quote( region.name ) );
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if ( !server.isRegistered( objectName ) ) {
+        server.registerMBean( region.statistics, objectName );
+        region.objectName = objectName;
+      }
+    } catch ( JMException | RuntimeException e ) {
+      logger.debug( "Unable to register the statistics of cache region " + region.name, e );
+    }
+  }
+
+  private void unregister( Region region ) {
+    if ( region.objectName != null ) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean( region.objectName );
+      } catch ( JMException | RuntimeException e ) {
+        logger.debug( "Unable to unregister the statistics of cache region " + region.name, e );
+      }
+      region.objectName = null;
+    }
+  }
+
+  private synchronized ExecutorService getRefreshExecutor() {
+    if ( refreshExecutor == null ) {
+      final String namePrefix = "cache-refresh-" + POOL_NUMBER.incrementAndGet() + "-";
+      final AtomicInteger threadNumber = new AtomicInteger();
+      refreshExecutor = Executors.newCachedThreadPool( runnable -> {
+        Thread thread = new Thread( runnable, namePrefix + threadNumber.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      } );
+    }
+    return refreshExecutor;
+  }
+
+  private RuntimeException rethrowCacheCreationFailure( Throwable t ) {
+    if ( t instanceof RuntimeException ) {
+      return (RuntimeException) t;
+    }
+    if ( t instanceof Error ) {
+      throw (Error) t;
+    }
+    String message = t.getMessage();
+    if ( message == null || message.isEmpty() ) {
+      message = t.toString();
+    }
+    return new CacheException( message, t );
+  }
+
+  /**
+   * Recreates a value created by {@link #getOrCreateFromRegionCache(String, Object, Supplier)} in the background once
+   * it is older than the <code>refreshAfterWriteSeconds</code> of its region. The new value only replaces the entry
+   * if it was not changed or removed meanwhile; if the creator fails, the next access tries again.
+   */
+  private void refreshIfStale( Region cacheRegion, Object key, CachedValue cached ) {
+    if ( cacheRegion.refreshNanos <= 0 || cached.creator == null
+      || System.nanoTime() - cached.writeNanos < cacheRegion.refreshNanos
+      || !cached.refreshing.compareAndSet( false, true ) ) {
+      return;
+    }
+    getRefreshExecutor().execute( () -> {
+      try {
+        Object value = cached.creator.get();
+        if ( value != null ) {
+          cacheRegion.cache.asMap().replace( key, cached, new CachedValue( value, cached.creator ) );
+        }
+      } catch ( RuntimeException e ) {
+        logger.debug( "Unable to refresh " + key + " in cache region " + cacheRegion.name, e );
+      } finally {
+        cached.refreshing.set( false );
+      }
+    } );
+  }
+
+  private static final class CachedValue {
+    private final Object value;
+    private final Supplier<Object> creator;
+    private final long writeNanos = System.nanoTime();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private CachedValue( Object value, Supplier<Object> creator ) {
+      this.value = value;
+      this.creator = creator;
+    }
+  }
+
+  private static final class Region {
+    private final String name;
+    private final Cache<Object, CachedValue> cache;
+    private final CacheTagIndex<Object, Object> tags;
+    private final long refreshNanos;
+    private final CacheRegionStatistics statistics;
+    private ObjectName objectName;
+
+    private Region( String name, Cache<Object, CachedValue> cache, CacheTagIndex<Object, Object> tags,
+                    long refreshNanos ) {
+      this.name = name;
+      this.cache = cache;
+      this.tags = tags;
+      this.refreshNanos = refreshNanos;
+      this.statistics = new CacheRegionStatistics( name, cache );
+    }
+  }
+}
@@ -0,0 +1,333 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.commons.connection.IPentahoResultSet;
+import org.pentaho.platform.api.data.IQueryResultCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link IQueryResultCache} which keeps the results in memory, in a single Guava cache shared by all datasources.
+ * <p>
+ * Each datasource has its own time to live, set by {@link #setDatasourceTimeToLiveSeconds(Map)}, and defaulting to
+ * the one given to the constructor. Datasources whose time to live is not positive are not cached, so a default of
+ * {@code 0} makes caching opt-in, per datasource.
+ * <p>
+ * The size of the cache is bounded by a maximum total weight, where the weight of a result is its number of cells
+ * (rows times columns). Queries are keyed by their text with the whitespace outside of quoted literals collapsed, so
+ * that differently formatted copies of a query share the same result.
+ */
+public class MemoryQueryResultCache implements IQueryResultCache {
+
+  private static final Log logger = LogFactory.getLog( MemoryQueryResultCache.class );
+
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 10_000_000L;
+
+  private final long defaultTimeToLiveSeconds;
+
+  private final long maximumWeight;
+
+  private final boolean recordStats;
+
+  @SuppressWarnings( "UnstableApiUsage" )
+  private final Ticker ticker;
+
+  private volatile Map<String, Long> datasourceTimeToLiveSeconds = Collections.emptyMap();
+
+  private volatile Cache<Key, Entry> cache;
+
+  public MemoryQueryResultCache( long defaultTimeToLiveSeconds, long maximumWeight, boolean recordStats ) {
+    this( defaultTimeToLiveSeconds, maximumWeight, recordStats, Ticker.systemTicker() );
+  }
+
+  MemoryQueryResultCache( long defaultTimeToLiveSeconds, long maximumWeight, boolean recordStats, Ticker ticker ) {
+    this.defaultTimeToLiveSeconds = defaultTimeToLiveSeconds;
+    this.maximumWeight = maximumWeight > 0 ? maximumWeight : DEFAULT_MAXIMUM_WEIGHT;
+    this.recordStats = recordStats;
+    this.ticker = ticker;
+  }
+
+  /**
+   * Sets the time to live, in seconds, of the results of specific datasources. Results cached before are cleared.
+   *
+   * @param datasourceTimeToLiveSeconds A map from the name of a datasource to its time to live.
+   */
+  public synchronized void setDatasourceTimeToLiveSeconds( Map<String, Long> datasourceTimeToLiveSeconds ) {
+    this.datasourceTimeToLiveSeconds = datasourceTimeToLiveSeconds != null
+      ? new HashMap<>( datasourceTimeToLiveSeconds )
+      : Collections.emptyMap();
+
+    if ( cache != null ) {
+      cache.invalidateAll();
+      cache = null;
+    }
+  }
+
+  public long getTimeToLiveSeconds( String datasource ) {
+    Long timeToLiveSeconds = datasourceTimeToLiveSeconds.get( datasource );
+    return timeToLiveSeconds != null ? timeToLiveSeconds : defaultTimeToLiveSeconds;
+  }
+
+  @Override
+  public boolean isEnabled( String datasource ) {
+    return datasource != null && getTimeToLiveSeconds( datasource ) > 0;
+  }
+
+  @Override
+  public IPentahoResultSet getOrLoad( String datasource, String query, List<?> parameters, String securityConstraint,
+                                      int maxRows, Callable<IPentahoResultSet> loader ) throws Exception {
+    if ( !isEnabled( datasource ) ) {
+      return loader.call();
+    }
+
+    Key key = new Key( datasource, query, parameters, securityConstraint, maxRows );
+    long expirationNanos = ticker.read() + TimeUnit.SECONDS.toNanos( getTimeToLiveSeconds( datasource ) );
+
+    Cache<Key, Entry> currentCache = getCache();
+
+    // Entries live as long as the longest time to live, so check the one of the datasource.
+    Entry entry = currentCache.getIfPresent( key );
+    if ( entry != null && entry.expirationNanos - ticker.read() <= 0 ) {
+      currentCache.asMap().remove( key, entry );
+      entry = null;
+    }
+
+    if ( entry == null ) {
+      try {
+        entry = currentCache.get( key, () -> {
+          if ( logger.isDebugEnabled() ) {
+            logger.debug( "Loading query result for datasource: " + datasource ); //$NON-NLS-1$
+          }
+
+          IPentahoResultSet resultSet = loader.call();
+          if ( resultSet == null ) {
+            // Null results are not cached.
+            throw new InvalidCacheLoadException( "Null query result" ); //$NON-NLS-1$
+          }
+
+          return new Entry( resultSet, expirationNanos );
+        } );
+      } catch ( ExecutionException | UncheckedExecutionException | ExecutionError e ) {
+        Throwable cause = e.getCause();
+        if ( cause instanceof InvalidCacheLoadException ) {
+          return null;
+        }
+        if ( cause instanceof Exception ) {
+          throw (Exception) cause;
+        }
+        if ( cause instanceof Error ) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+    }
+
+    // Each caller gets its own cursor.
+    return entry.resultSet.memoryCopy();
+  }
+
+  @Override
+  public void invalidate( String datasource ) {
+    Cache<Key, Entry> currentCache = cache;
+    if ( currentCache != null ) {
+      currentCache.asMap().keySet().removeIf( key -> key.datasource.equals( datasource ) );
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    Cache<Key, Entry> currentCache = cache;
+    if ( currentCache != null ) {
+      currentCache.invalidateAll();
+    }
+  }
+
+  /**
+   * Gets the statistics of the cache. These are only recorded if enabled in the constructor.
+   *
+   * @return The statistics.
+   */
+  public CacheStats getStats() {
+    Cache<Key, Entry> currentCache = cache;
+    return currentCache != null ? currentCache.stats() : new CacheStats( 0, 0, 0, 0, 0, 0 );
+  }
+
+  private Cache<Key, Entry> getCache() {
+    Cache<Key, Entry> currentCache = cache;
+    if ( currentCache == null ) {
+      synchronized ( this ) {
+        currentCache = cache;
+        if ( currentCache == null ) {
+          currentCache = createCache();
+          cache = currentCache;
+        }
+      }
+    }
+
+    return currentCache;
+  }
+
+  @SuppressWarnings( "UnstableApiUsage" )
+  private Cache<Key, Entry> createCache() {
+    long maximumTimeToLiveSeconds = defaultTimeToLiveSeconds;
+    for ( Long timeToLiveSeconds : datasourceTimeToLiveSeconds.values() ) {
+      if ( timeToLiveSeconds != null ) {
+        maximumTimeToLiveSeconds = Math.max( maximumTimeToLiveSeconds, timeToLiveSeconds );
+      }
+    }
+
+    CacheBuilder<Key, Entry> builder = CacheBuilder.newBuilder()
+      .ticker( ticker )
+      .expireAfterWrite( Math.max( maximumTimeToLiveSeconds, 1 ), TimeUnit.SECONDS )
+      .maximumWeight( maximumWeight )
+      .weigher( ( Key key, Entry entry ) -> entry.weight );
+
+    if ( recordStats ) {
+      builder.recordStats();
+    }
+
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+      + "{defaultTimeToLiveSeconds=" + defaultTimeToLiveSeconds //$NON-NLS-1$
+      + ", datasourceTimeToLiveSeconds=" + datasourceTimeToLiveSeconds //$NON-NLS-1$
+      + ", maximumWeight=" + maximumWeight //$NON-NLS-1$
+      + ", stats=" + getStats() //$NON-NLS-1$
+      + "}"; //$NON-NLS-1$
+  }
+
+  /**
+   * Collapses the runs of whitespace of a query which are outside of quoted literals and identifiers.
+   */
+  static String normalizeQuery( String query ) {
+    if ( query == null ) {
+      return null;
+    }
+
+    StringBuilder normalized = new StringBuilder( query.length() );
+    char quote = 0;
+    boolean pendingSpace = false;
+    for ( int i = 0; i < query.length(); i++ ) {
+      char c = query.charAt( i );
+      if ( quote == 0 && Character.isWhitespace( c ) ) {
+        pendingSpace = normalized.length() > 0;
+        continue;
+      }
+
+      if ( pendingSpace ) {
+        normalized.append( ' ' );
+        pendingSpace = false;
+      }
+
+      if ( quote == 0 && ( c == '\'' || c == '"' || c == '`' ) ) {
+        quote = c;
+      } else if ( c == quote ) {
+        quote = 0;
+      }
+
+      normalized.append( c );
+    }
+
+    return normalized.toString();
+  }
+
+  private static final class Key {
+    private final String datasource;
+    private final String query;
+    private final List<Object> parameters;
+    private final String securityConstraint;
+    private final int maxRows;
+    private final int hashCode;
+
+    Key( String datasource, String query, List<?> parameters, String securityConstraint, int maxRows ) {
+      this.datasource = datasource;
+      this.query = normalizeQuery( query );
+      this.parameters = normalizeParameters( parameters );
+      this.securityConstraint = securityConstraint;
+      this.maxRows = Math.max( maxRows, -1 );
+      this.hashCode = Objects.hash( this.datasource, this.query, this.parameters, this.securityConstraint,
+        this.maxRows );
+    }
+
+    private static List<Object> normalizeParameters( List<?> parameters ) {
+      if ( parameters == null || parameters.isEmpty() ) {
+        return Collections.emptyList();
+      }
+
+      List<Object> normalized = new ArrayList<>( parameters.size() );
+      for ( Object parameter : parameters ) {
+        // Arrays, such as the values of multi-valued parameters, are compared by value.
+        normalized.add( parameter instanceof Object[] ? Arrays.asList( (Object[]) parameter ) : parameter );
+      }
+      return normalized;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof Key ) ) {
+        return false;
+      }
+      Key that = (Key) o;
+      return hashCode == that.hashCode
+        && maxRows == that.maxRows
+        && datasource.equals( that.datasource )
+        && Objects.equals( query, that.query )
+        && parameters.equals( that.parameters )
+        && Objects.equals( securityConstraint, that.securityConstraint );
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Entry {
+    private final IPentahoResultSet resultSet;
+    private final long expirationNanos;
+    private final int weight;
+
+    Entry( IPentahoResultSet resultSet, long expirationNanos ) {
+      this.resultSet = resultSet;
+      this.expirationNanos = expirationNanos;
+      this.weight = (int) Math.min( Integer.MAX_VALUE,
+        (long) Math.max( resultSet.getRowCount(), 1 ) * Math.max( resultSet.getColumnCount(), 1 ) );
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.pentaho.commons.connection.IPentahoMetaData;
 import org.pentaho.commons.connection.IPentahoResultSet;
 import org.pentaho.commons.connection.memory.MemoryMetaData;
 import org.pentaho.commons.connection.memory.MemoryResultSet;
+import org.pentaho.platform.plugin.services.connections.sql.ColumnarResultSet;
 
 import java.text.SimpleDateFormat;
 
@@ -48,9 +49,26 @@ public class JavaScriptResultSet extends ScriptableObject implements IPentahoRes
 
   public void setResultSet( final IPentahoResultSet pResults ) {
     this.results = pResults;
-    if ( results instanceof MemoryResultSet ) {
-      writeableResults = (MemoryResultSet) results;
+    writeableResults = results instanceof MemoryResultSet ? (MemoryResultSet) results : null;
+  }
+
+  /**
+   * Returns the results rows are added to. Columnar results, such as the memory copies of SQL results, are read-only,
+   * so they are copied into a {@link MemoryResultSet} when the first row is added.
+   *
+   * @return the writeable results, or <code>null</code> if rows cannot be added
+   */
+  private MemoryResultSet getWriteableResults() {
+    if ( writeableResults == null && results instanceof ColumnarResultSet ) {
+      MemoryResultSet copy = new MemoryResultSet( results.getMetaData() );
+      int rowCount = results.getRowCount();
+      for ( int row = 0; row < rowCount; row++ ) {
+        copy.addRow( results.getDataRow( row ) );
+      }
+      results = copy;
+      writeableResults = copy;
     }
+    return writeableResults;
   }
 
   @Override
@@ -244,8 +262,9 @@ public class JavaScriptResultSet extends ScriptableObject implements IPentahoRes
 
   /* IPentahoResultSet methods */
   public void addRow( final String[] row ) {
-    if ( writeableResults != null ) {
-      writeableResults.addRow( row );
+    MemoryResultSet target = getWriteableResults();
+    if ( target != null ) {
+      target.addRow( row );
     }
     // rows.add( row );
     if ( description.length() < 100 ) {
@@ -254,8 +273,9 @@ public class JavaScriptResultSet extends ScriptableObject implements IPentahoRes
   }
 
   public void addRow( final Object[] row ) {
-    if ( writeableResults != null ) {
-      writeableResults.addRow( row );
+    MemoryResultSet target = getWriteableResults();
+    if ( target != null ) {
+      target.addRow( row );
     }
     // rows.add( row );
     if ( description.length() < 100 ) {
@@ -36,8 +36,10 @@ import org.pentaho.metadata.query.impl.sql.MappedQuery;
 import org.pentaho.metadata.query.impl.sql.SqlGenerator;
 import org.pentaho.metadata.query.model.Parameter;
 import org.pentaho.metadata.query.model.Query;
+import org.pentaho.metadata.repository.IMetadataDomainRepository;
 import org.pentaho.metadata.util.DatabaseMetaUtil;
 import org.pentaho.metadata.util.ThinModelConverter;
+import org.pentaho.platform.api.data.IQueryResultCache;
 import org.pentaho.platform.api.engine.IConfiguration;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.ISystemConfig;
@@ -58,12 +60,22 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
 
   public static final String FORCE_DB_META_CLASSES_PROP = "forceDbMetaClasses";
 
+  public static final String STREAMING_ROW_LIMIT_PROP = "streamingRowLimit";
+
+  public static final String STREAMING_BYTE_LIMIT_PROP = "streamingByteLimit";
+
   protected final Set<String> driverClassesToForceMeta;
 
+  protected long streamingRowLimit = -1;
+
+  protected long streamingByteLimit = -1;
+
   // Must start out as null in order to allow injection points their turn at
   // specifying the implementing class.
   private String sqlGeneratorClass = null; //$NON-NLS-1$
 
+  private IQueryResultCache queryResultCache;
+
   public SqlMetadataQueryExec() {
     this( PentahoSystem.get( ISystemConfig.class ) );
   }
@@ -77,6 +89,8 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
           Properties props = config.getProperties();
           if ( props != null ) {
             forceDbMetaClasses = props.getProperty( FORCE_DB_META_CLASSES_PROP, "" ).split( "," );
+            streamingRowLimit = parseLimit( props.getProperty( STREAMING_ROW_LIMIT_PROP ) );
+            streamingByteLimit = parseLimit( props.getProperty( STREAMING_BYTE_LIMIT_PROP ) );
           }
         }
       } catch ( IOException e ) {
@@ -146,6 +160,12 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
         sqlConnection.setReadOnly( true );
       }
 
+      if ( isStreaming() ) {
+        sqlConnection.setStreaming( true );
+        sqlConnection.setStreamingRowLimit( streamingRowLimit );
+        sqlConnection.setStreamingByteLimit( streamingByteLimit );
+      }
+
       IPentahoResultSet localResultSet = null;
       sql = mappedQuery.getQuery();
       if ( logger.isDebugEnabled() ) {
@@ -177,24 +197,20 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
       }
 
       try {
-        if ( !isForwardOnly() ) {
-          if ( sqlParams != null ) {
-            localResultSet = sqlConnection.prepareAndExecuteQuery( sql, sqlParams );
-          } else {
-            localResultSet = sqlConnection.executeQuery( sql );
-          }
-        } else {
-          if ( sqlParams != null ) {
-            localResultSet =
-                sqlConnection.prepareAndExecuteQuery( sql, sqlParams, SQLConnection.RESULTSET_FORWARDONLY,
-                    SQLConnection.CONCUR_READONLY );
-          } else {
-            localResultSet =
-                sqlConnection.executeQuery( sql, SQLConnection.RESULTSET_FORWARDONLY, SQLConnection.CONCUR_READONLY );
-          }
+        String datasource = getDatasourceName( activeDatabaseMeta );
+        if ( queryResultCache != null && datasource != null && queryResultCache.isEnabled( datasource ) ) {
+          // the cached result is read in memory, so the connection is closed either way
+          final String query = sql;
+          final List<Object> queryParams = sqlParams;
+          final MappedQuery queryMapping = mappedQuery;
+          return queryResultCache.getOrLoad( datasource, query, queryParams, getSecurityConstraint( queryObject ),
+            maxRows != null ? maxRows : -1, () -> {
+              IPentahoResultSet resultSet = executeSql( sqlConnection, query, queryParams, queryMapping );
+              return resultSet.memoryCopy();
+            } );
         }
-        IPentahoMetaData metadata = mappedQuery.generateMetadata( localResultSet.getMetaData() );
-        ( (SQLResultSet) localResultSet ).setMetaData( metadata );
+
+        localResultSet = executeSql( sqlConnection, sql, sqlParams, mappedQuery );
         closeConnection = false;
 
       } catch ( Exception e ) {
@@ -213,6 +229,60 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
 
   }
 
+  private IPentahoResultSet executeSql( SQLConnection sqlConnection, String sql, List<Object> sqlParams,
+                                        MappedQuery mappedQuery ) throws Exception {
+    IPentahoResultSet localResultSet;
+    if ( !isForwardOnly() ) {
+      if ( sqlParams != null ) {
+        localResultSet = sqlConnection.prepareAndExecuteQuery( sql, sqlParams );
+      } else {
+        localResultSet = sqlConnection.executeQuery( sql );
+      }
+    } else {
+      if ( sqlParams != null ) {
+        localResultSet =
+            sqlConnection.prepareAndExecuteQuery( sql, sqlParams, SQLConnection.RESULTSET_FORWARDONLY,
+                SQLConnection.CONCUR_READONLY );
+      } else {
+        localResultSet =
+            sqlConnection.executeQuery( sql, SQLConnection.RESULTSET_FORWARDONLY, SQLConnection.CONCUR_READONLY );
+      }
+    }
+    IPentahoMetaData metadata = mappedQuery.generateMetadata( localResultSet.getMetaData() );
+    ( (SQLResultSet) localResultSet ).setMetaData( metadata );
+    return localResultSet;
+  }
+
+  /**
+   * Sets the cache of the results of queries. Results are only cached if the executor is not live.
+   *
+   * @param queryResultCache The cache, or {@code null}, to disable caching.
+   */
+  public void setQueryResultCache( IQueryResultCache queryResultCache ) {
+    this.queryResultCache = queryResultCache;
+  }
+
+  /**
+   * Gets the name by which the results of the queries of a database are cached. Only the results of JNDI connections
+   * are cached, as their name identifies the database; the name of other connections is local to a domain, and the
+   * same name can refer to different databases, or to the same database with different credentials.
+   *
+   * @return the JNDI name, or null if the results can't be cached
+   */
+  protected String getDatasourceName( DatabaseMeta databaseMeta ) {
+    if ( databaseMeta.getAccessType() == DatabaseMeta.TYPE_ACCESS_JNDI ) {
+      return databaseMeta.getDatabaseName();
+    }
+    return null;
+  }
+
+  private String getSecurityConstraint( Query queryObject ) {
+    IMetadataDomainRepository domainRepository = getMetadataDomainRepository();
+    return domainRepository != null
+      ? domainRepository.generateRowLevelSecurityConstraint( queryObject.getLogicalModel() )
+      : null;
+  }
+
   public boolean isLive() {
     return true;
   }
@@ -228,6 +298,34 @@ public class SqlMetadataQueryExec extends BaseMetadataQueryExec {
     return false;
   }
 
+  /**
+   * Indicates if the results are streamed from a server-side cursor as they are read, instead of being buffered by the
+   * driver. Streaming is requested with the "streaming" input, and only applies to forward-only result sets. Queries
+   * which return more rows or bytes than the streamingRowLimit and streamingByteLimit settings are aborted.
+   */
+  public boolean isStreaming() {
+    if ( !isForwardOnly() || inputs == null ) {
+      return false;
+    }
+    Object obj = inputs.get( "streaming" );
+    if ( obj instanceof String && "true".equalsIgnoreCase( (String) obj ) ) {
+      return true;
+    }
+    return obj instanceof Boolean && (Boolean) obj;
+  }
+
+  private static long parseLimit( String value ) {
+    if ( StringUtils.isBlank( value ) ) {
+      return -1;
+    }
+    try {
+      return Long.parseLong( value.trim() );
+    } catch ( NumberFormatException e ) {
+      logger.warn( "Invalid streaming limit: " + value ); //$NON-NLS-1$
+      return -1;
+    }
+  }
+
   protected DatabaseMeta getActiveDatabaseMeta( DatabaseMeta databaseMeta ) {
     if ( getForceDbDialect() || driverClassesToForceMeta.contains( databaseMeta.getDriverClass() ) ) {
       return databaseMeta;
@@ -0,0 +1,665 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.connections.sql;
+
+import org.pentaho.commons.connection.IPeekable;
+import org.pentaho.commons.connection.IPentahoMetaData;
+import org.pentaho.commons.connection.IPentahoResultSet;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory, read-only {@link IPentahoResultSet} which stores its data by column.
+ * <p>
+ * Unlike {@link org.pentaho.commons.connection.memory.MemoryResultSet}, which keeps one {@code Object[]} per row and
+ * one boxed object per value, each column is stored in fixed size chunks of primitive arrays, chosen from the class of
+ * its values:
+ * <ul>
+ *   <li>{@code Integer}, {@code Long} and {@code Double} values are stored in {@code int}, {@code long} and
+ *   {@code double} arrays;</li>
+ *   <li>{@code BigDecimal} values are stored as an unscaled {@code long} and a scale;</li>
+ *   <li>{@code String} values are dictionary encoded, so that repeated values are stored only once;</li>
+ *   <li>{@code java.util.Date}, {@code java.sql.Date}, {@code java.sql.Time} and {@code java.sql.Timestamp} values are
+ *   stored as epoch milliseconds (plus nanoseconds, for timestamps);</li>
+ *   <li>null values are tracked in bitmaps, only allocated for chunks which contain nulls.</li>
+ * </ul>
+ * Columns having values of other classes, or of mixed classes, fall back to storing the values as objects.
+ * <p>
+ * Values are boxed on access, so {@link #getValueAt(int, int)} returns a value equal to, and of the same class as, the
+ * one which was added. Random access to any value is O(1).
+ * <p>
+ * Instances are created using a {@link Builder}. The data of an instance is immutable, and is shared with the copies
+ * created by {@link #memoryCopy()}, each of which has its own cursor.
+ */
+public class ColumnarResultSet implements IPentahoResultSet, IPeekable {
+
+  private static final int CHUNK_SHIFT = 12;
+
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final IPentahoMetaData metaData;
+
+  private final Column[] columns;
+
+  private final int rowCount;
+
+  private int rowIndex = 0;
+
+  private ColumnarResultSet( final IPentahoMetaData metaData, final Column[] columns, final int rowCount ) {
+    this.metaData = metaData;
+    this.columns = columns;
+    this.rowCount = rowCount;
+  }
+
+  public IPentahoMetaData getMetaData() {
+    return metaData;
+  }
+
+  public boolean isScrollable() {
+    return true;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public Object getValueAt( final int row, final int column ) {
+    if ( row < 0 || row >= rowCount ) {
+      throw new IndexOutOfBoundsException(
+        "Row index " + row + " out of bounds for row count " + rowCount ); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    return columns[ column ].getValue( row );
+  }
+
+  public Object[] getDataColumn( final int column ) {
+    Column data = columns[ column ];
+    Object[] result = new Object[ rowCount ];
+    for ( int row = 0; row < rowCount; row++ ) {
+      result[ row ] = data.getValue( row );
+    }
+    return result;
+  }
+
+  public Object[] getDataRow( final int row ) {
+    if ( row < 0 || row >= rowCount ) {
+      return null;
+    }
+
+    Object[] result = new Object[ columns.length ];
+    for ( int column = 0; column < columns.length; column++ ) {
+      result[ column ] = columns[ column ].getValue( row );
+    }
+    return result;
+  }
+
+  public Object[] peek() {
+    return getDataRow( rowIndex );
+  }
+
+  public Object[] next() {
+    if ( rowIndex >= rowCount ) {
+      return null;
+    }
+    return getDataRow( rowIndex++ );
+  }
+
+  public void beforeFirst() {
+    rowIndex = 0;
+  }
+
+  public void close() {
+    // Nothing to close.
+  }
+
+  public void closeConnection() {
+    // Nothing to close.
+  }
+
+  public void dispose() {
+    // Nothing to dispose.
+  }
+
+  /**
+   * Creates a copy of this result set, positioned before the first row, which shares its data.
+   *
+   * @return the copy.
+   */
+  public IPentahoResultSet memoryCopy() {
+    return new ColumnarResultSet( metaData, columns, rowCount );
+  }
+
+  /**
+   * Builds a {@link ColumnarResultSet} by adding rows one at a time.
+   * <p>
+   * A builder is not thread-safe and must not be used after {@link #build()} is called.
+   */
+  public static class Builder {
+
+    private final IPentahoMetaData metaData;
+
+    private final Column[] columns;
+
+    private int rowCount;
+
+    public Builder( final IPentahoMetaData metaData, final int columnCount ) {
+      this.metaData = metaData;
+      this.columns = new Column[ columnCount ];
+      for ( int column = 0; column < columnCount; column++ ) {
+        columns[ column ] = new UntypedColumn();
+      }
+    }
+
+    /**
+     * Adds a row of values. Missing values are added as nulls, and extra values are ignored.
+     *
+     * @param row the values of the row.
+     * @return this builder.
+     */
+    public Builder addRow( final Object[] row ) {
+      for ( int column = 0; column < columns.length; column++ ) {
+        columns[ column ] = columns[ column ].add( column < row.length ? row[ column ] : null );
+      }
+      rowCount++;
+      return this;
+    }
+
+    /**
+     * Adds the current row of a JDBC result set.
+     *
+     * @param nativeResultSet the result set, positioned on a row.
+     * @return this builder.
+     * @throws SQLException if a value cannot be read.
+     */
+    public Builder addRow( final ResultSet nativeResultSet ) throws SQLException {
+      for ( int column = 0; column < columns.length; column++ ) {
+        columns[ column ] = columns[ column ].add( nativeResultSet.getObject( column + 1 ) );
+      }
+      rowCount++;
+      return this;
+    }
+
+    /**
+     * Adds all the remaining rows of a JDBC result set.
+     *
+     * @param nativeResultSet the result set.
+     * @return this builder.
+     * @throws SQLException if a row cannot be read.
+     */
+    public Builder addRows( final ResultSet nativeResultSet ) throws SQLException {
+      while ( nativeResultSet.next() ) {
+        addRow( nativeResultSet );
+      }
+      return this;
+    }
+
+    public ColumnarResultSet build() {
+      for ( Column column : columns ) {
+        column.seal();
+      }
+      return new ColumnarResultSet( metaData, columns.clone(), rowCount );
+    }
+  }
+
+  // region Columns
+
+  /**
+   * The values of a column. Values are appended and read by row index.
+   */
+  private abstract static class Column {
+
+    protected int size;
+
+    private final List<long[]> nullChunks = new ArrayList<>();
+
+    /**
+     * Appends a value, returning the column which holds it: either this one or, when this one cannot store the value,
+     * a new one holding all the values.
+     */
+    Column add( final Object value ) {
+      if ( value == null ) {
+        ensureCapacity( size );
+        setNull( size );
+        size++;
+        return this;
+      }
+
+      if ( !set( size, value ) ) {
+        return toObjectColumn().add( value );
+      }
+
+      size++;
+      return this;
+    }
+
+    Object getValue( final int row ) {
+      return isNull( row ) ? null : getNonNullValue( row );
+    }
+
+    /**
+     * Stores a non-null value at the given row, which is the next one, returning {@code false} if it is not supported.
+     */
+    abstract boolean set( int row, Object value );
+
+    /**
+     * Ensures that the storage of the given row, which is the next one, is allocated.
+     */
+    abstract void ensureCapacity( int row );
+
+    abstract Object getNonNullValue( int row );
+
+    void seal() {
+      // Nothing to release by default.
+    }
+
+    private void setNull( final int row ) {
+      int chunk = row >>> CHUNK_SHIFT;
+      while ( nullChunks.size() <= chunk ) {
+        nullChunks.add( null );
+      }
+
+      long[] bitmap = nullChunks.get( chunk );
+      if ( bitmap == null ) {
+        bitmap = new long[ CHUNK_SIZE >>> 6 ];
+        nullChunks.set( chunk, bitmap );
+      }
+
+      int offset = row & CHUNK_MASK;
+      bitmap[ offset >>> 6 ] |= 1L << offset;
+    }
+
+    private boolean isNull( final int row ) {
+      int chunk = row >>> CHUNK_SHIFT;
+      if ( chunk >= nullChunks.size() ) {
+        return false;
+      }
+
+      long[] bitmap = nullChunks.get( chunk );
+      int offset = row & CHUNK_MASK;
+      return bitmap != null && ( bitmap[ offset >>> 6 ] & ( 1L << offset ) ) != 0;
+    }
+
+    private Column toObjectColumn() {
+      Column column = new ObjectColumn();
+      for ( int row = 0; row < size; row++ ) {
+        column.add( getValue( row ) );
+      }
+      return column;
+    }
+  }
+
+  /**
+   * A column which has only had null values so far, and whose storage type is chosen by its first non-null value.
+   */
+  private static class UntypedColumn extends Column {
+
+    @Override
+    Column add( final Object value ) {
+      if ( value == null ) {
+        size++;
+        return this;
+      }
+
+      Column column = createColumn( value );
+      for ( int row = 0; row < size; row++ ) {
+        column.add( null );
+      }
+      return column.add( value );
+    }
+
+    private static Column createColumn( final Object value ) {
+      Class<?> valueClass = value.getClass();
+      if ( valueClass == Integer.class ) {
+        return new IntColumn();
+      }
+      if ( valueClass == Long.class ) {
+        return new LongColumn();
+      }
+      if ( valueClass == Double.class ) {
+        return new DoubleColumn();
+      }
+      if ( valueClass == BigDecimal.class ) {
+        return new DecimalColumn();
+      }
+      if ( valueClass == String.class ) {
+        return new StringColumn();
+      }
+      if ( valueClass == Timestamp.class ) {
+        return new TimestampColumn();
+      }
+      if ( valueClass == Date.class || valueClass == java.sql.Date.class || valueClass == Time.class ) {
+        return new DateColumn( valueClass );
+      }
+      return new ObjectColumn();
+    }
+
+    @Override
+    Object getValue( final int row ) {
+      return null;
+    }
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      return false;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      // No storage.
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return null;
+    }
+  }
+
+  private static class IntColumn extends Column {
+
+    private final List<int[]> chunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != Integer.class ) {
+        return false;
+      }
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = (Integer) value;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new int[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ];
+    }
+  }
+
+  private static class LongColumn extends Column {
+
+    private final List<long[]> chunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != Long.class ) {
+        return false;
+      }
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = (Long) value;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new long[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ];
+    }
+  }
+
+  private static class DoubleColumn extends Column {
+
+    private final List<double[]> chunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != Double.class ) {
+        return false;
+      }
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = (Double) value;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new double[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ];
+    }
+  }
+
+  /**
+   * Stores {@code BigDecimal} values whose unscaled value fits in a {@code long}, and whose scale fits in a
+   * {@code short}.
+   */
+  private static class DecimalColumn extends Column {
+
+    private final List<long[]> unscaledChunks = new ArrayList<>();
+
+    private final List<short[]> scaleChunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != BigDecimal.class ) {
+        return false;
+      }
+
+      BigDecimal decimal = (BigDecimal) value;
+      BigInteger unscaled = decimal.unscaledValue();
+      int scale = decimal.scale();
+      if ( unscaled.bitLength() > 63 || scale < Short.MIN_VALUE || scale > Short.MAX_VALUE ) {
+        return false;
+      }
+
+      ensureCapacity( row );
+      unscaledChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = unscaled.longValue();
+      scaleChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = (short) scale;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && unscaledChunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        unscaledChunks.add( new long[ CHUNK_SIZE ] );
+        scaleChunks.add( new short[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return BigDecimal.valueOf(
+        unscaledChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ],
+        scaleChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] );
+    }
+  }
+
+  /**
+   * Stores {@code String} values as codes into a dictionary of the distinct values.
+   */
+  private static class StringColumn extends Column {
+
+    private final List<int[]> chunks = new ArrayList<>();
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    private Map<String, Integer> codes = new HashMap<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != String.class ) {
+        return false;
+      }
+
+      Integer code = codes.get( value );
+      if ( code == null ) {
+        code = dictionary.size();
+        dictionary.add( (String) value );
+        codes.put( (String) value, code );
+      }
+
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = code;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new int[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return dictionary.get( chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] );
+    }
+
+    @Override
+    void seal() {
+      // The codes are only needed for adding values.
+      codes = null;
+    }
+  }
+
+  /**
+   * Stores {@code java.util.Date}, {@code java.sql.Date} or {@code java.sql.Time} values, all of a single class, as
+   * epoch milliseconds.
+   */
+  private static class DateColumn extends Column {
+
+    private final Class<?> valueClass;
+
+    private final List<long[]> chunks = new ArrayList<>();
+
+    DateColumn( final Class<?> valueClass ) {
+      this.valueClass = valueClass;
+    }
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != valueClass ) {
+        return false;
+      }
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = ( (Date) value ).getTime();
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new long[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      long time = chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ];
+      if ( valueClass == java.sql.Date.class ) {
+        return new java.sql.Date( time );
+      }
+      if ( valueClass == Time.class ) {
+        return new Time( time );
+      }
+      return new Date( time );
+    }
+  }
+
+  /**
+   * Stores {@code java.sql.Timestamp} values as epoch milliseconds and nanoseconds.
+   */
+  private static class TimestampColumn extends Column {
+
+    private final List<long[]> timeChunks = new ArrayList<>();
+
+    private final List<int[]> nanosChunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      if ( value.getClass() != Timestamp.class ) {
+        return false;
+      }
+
+      Timestamp timestamp = (Timestamp) value;
+      ensureCapacity( row );
+      timeChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = timestamp.getTime();
+      nanosChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = timestamp.getNanos();
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && timeChunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        timeChunks.add( new long[ CHUNK_SIZE ] );
+        nanosChunks.add( new int[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      Timestamp timestamp = new Timestamp( timeChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] );
+      timestamp.setNanos( nanosChunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] );
+      return timestamp;
+    }
+  }
+
+  private static class ObjectColumn extends Column {
+
+    private final List<Object[]> chunks = new ArrayList<>();
+
+    @Override
+    boolean set( final int row, final Object value ) {
+      ensureCapacity( row );
+      chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ] = value;
+      return true;
+    }
+
+    @Override
+    void ensureCapacity( final int row ) {
+      if ( ( row & CHUNK_MASK ) == 0 && chunks.size() <= ( row >>> CHUNK_SHIFT ) ) {
+        chunks.add( new Object[ CHUNK_SIZE ] );
+      }
+    }
+
+    @Override
+    Object getNonNullValue( final int row ) {
+      return chunks.get( row >>> CHUNK_SHIFT )[ row & CHUNK_MASK ];
+    }
+  }
+
+  // endregion
+}
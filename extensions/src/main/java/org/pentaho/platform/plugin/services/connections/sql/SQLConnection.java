@@ -74,6 +74,16 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
 
   private boolean fallBackToNonscrollableOnError = true;
 
+  private boolean streaming = false;
+
+  private long streamingRowLimit = -1;
+
+  private long streamingByteLimit = -1;
+
+  private boolean autoCommitDisabled = false;
+
+  private String databaseProductName;
+
   public static final int RESULTSET_SCROLLABLE = ResultSet.TYPE_SCROLL_INSENSITIVE;
 
   public static final int RESULTSET_FORWARDONLY = ResultSet.TYPE_FORWARD_ONLY;
@@ -82,6 +92,9 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
 
   public static final int CONCUR_UPDATABLE = ResultSet.CONCUR_UPDATABLE;
 
+  /** fetch size of streaming queries, when none is set and the database has no dedicated streaming fetch size */
+  public static final int STREAMING_FETCH_SIZE = 1000;
+
   /*
    * private synchronized void bump() { connectionCtr++; }
    */
@@ -348,6 +361,14 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
     if ( nativeConnection != null ) {
       try {
         unEnhanceConnection( nativeConnection );
+        if ( autoCommitDisabled ) {
+          try {
+            // Ends the transaction of the streaming queries, before the connection goes back to the pool
+            nativeConnection.setAutoCommit( true );
+          } catch ( SQLException ignored ) {
+            //ignored
+          }
+        }
         if ( getReadOnly() ) {
           try {
             // Reset the readonly on the native connection before closing
@@ -362,6 +383,8 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
       }
     }
     nativeConnection = null;
+    autoCommitDisabled = false;
+    databaseProductName = null;
   }
 
   /*
@@ -404,9 +427,14 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
    *           indicates the query took longer than allowable by the query timeout
    * @throws PentahoSystemException
    */
-  public IPentahoResultSet executeQuery( final String query, final int scrollType, final int concur )
+  public IPentahoResultSet executeQuery( final String query, int scrollType, int concur )
     throws SQLException, InterruptedException, PentahoSystemException {
 
+    if ( isStreaming() ) {
+      scrollType = ResultSet.TYPE_FORWARD_ONLY;
+      concur = ResultSet.CONCUR_READ_ONLY;
+    }
+
     if ( this.getReadOnly() ) {
       try {
         nativeConnection.setReadOnly( true );
@@ -424,6 +452,9 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
       stmts.add( stmt );
       enhanceStatement( stmt );
       setStatementLimitations( stmt );
+      if ( isStreaming() ) {
+        enableStreaming( stmt );
+      }
       if ( logger != null && logger.getLoggingLevel() == ILogger.DEBUG ) {
         logger.debug( "SQLConnection.executeQuery:" + query ); //$NON-NLS-1$
       }
@@ -445,7 +476,7 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
         setForcedForwardOnly( true );
       }
     }
-    sqlResultSet = new SQLResultSet( resultSet, this );
+    sqlResultSet = createResultSet( resultSet );
     // add to list of resultsets for cleanup later.
     resultSets.add( sqlResultSet );
     lastQuery = query;
@@ -512,8 +543,13 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
     }
   }
 
-  public IPentahoResultSet prepareAndExecuteQuery( final String query, final List parameters, final int scrollType,
-      final int concur ) throws SQLException {
+  public IPentahoResultSet prepareAndExecuteQuery( final String query, final List parameters, int scrollType,
+      int concur ) throws SQLException {
+
+    if ( isStreaming() ) {
+      scrollType = ResultSet.TYPE_FORWARD_ONLY;
+      concur = ResultSet.CONCUR_READ_ONLY;
+    }
 
     if ( this.getReadOnly() ) {
       try {
@@ -536,6 +572,9 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
       stmts.add( pStmt );
       enhanceStatement( pStmt );
       setStatementLimitations( pStmt );
+      if ( isStreaming() ) {
+        enableStreaming( pStmt );
+      }
       for ( int i = 0; i < parameters.size(); i++ ) {
         pStmt.setObject( i + 1, parameters.get( i ) );
       }
@@ -562,13 +601,68 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
       }
     }
 
-    sqlResultSet = new SQLResultSet( resultSet, this );
+    sqlResultSet = createResultSet( resultSet );
     // add to list of resultsets for cleanup later.
     resultSets.add( sqlResultSet );
     lastQuery = query;
     return sqlResultSet;
   }
 
+  /**
+   * Wraps a native result set. Streaming queries are wrapped in a {@link StreamingSQLResultSet}, which enforces the
+   * streaming row and byte limits.
+   *
+   * @param resultSet
+   *          the native result set
+   * @return the result set
+   */
+  protected SQLResultSet createResultSet( ResultSet resultSet ) {
+    if ( isStreaming() ) {
+      return new StreamingSQLResultSet( resultSet, this, getStreamingRowLimit(), getStreamingByteLimit() );
+    }
+    return new SQLResultSet( resultSet, this );
+  }
+
+  /**
+   * Sets up a forward-only, read-only statement so that the driver reads its results from a server-side cursor, one
+   * fetch at a time, instead of buffering them all in memory. MySQL only streams with a fetch size of
+   * Integer.MIN_VALUE, and PostgreSQL only uses cursors outside of auto-commit mode. Other drivers are given a fetch
+   * size, if none was set.
+   *
+   * @param stmt
+   *          Either a Statement or PreparedStatement
+   * @throws SQLException
+   */
+  protected void enableStreaming( Statement stmt ) throws SQLException {
+    String productName = getDatabaseProductName();
+    if ( productName.startsWith( "mysql" ) ) { //$NON-NLS-1$
+      stmt.setFetchSize( Integer.MIN_VALUE );
+      return;
+    }
+
+    if ( productName.startsWith( "postgresql" ) && nativeConnection.getAutoCommit() ) { //$NON-NLS-1$
+      nativeConnection.setAutoCommit( false );
+      autoCommitDisabled = true;
+    }
+
+    if ( this.getFetchSize() <= 0 ) {
+      stmt.setFetchSize( STREAMING_FETCH_SIZE );
+    }
+  }
+
+  private String getDatabaseProductName() {
+    if ( databaseProductName == null ) {
+      String productName = null;
+      try {
+        productName = nativeConnection.getMetaData().getDatabaseProductName();
+      } catch ( Exception ignored ) {
+        //ignored
+      }
+      databaseProductName = productName != null ? productName.toLowerCase() : "";
+    }
+    return databaseProductName;
+  }
+
   public boolean preparedQueriesSupported() {
     return true;
   }
@@ -709,6 +803,53 @@ public class SQLConnection implements IPentahoLoggingConnection, ILimitableConne
     return fallBackToNonscrollableOnError;
   }
 
+  /**
+   * Sets the streaming mode. Queries in streaming mode are forward-only and read-only, and their results are read from
+   * the database as they are iterated, instead of being buffered by the driver.
+   *
+   * @param streaming
+   *          true to stream the results of subsequent queries
+   */
+  public void setStreaming( boolean streaming ) {
+    this.streaming = streaming;
+  }
+
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * @return Returns the maximum number of rows a streaming query may return before it is aborted, or -1, if unlimited.
+   */
+  public long getStreamingRowLimit() {
+    return streamingRowLimit;
+  }
+
+  /**
+   * @param streamingRowLimit
+   *          The maximum number of rows a streaming query may return before it is aborted, or -1, if unlimited.
+   */
+  public void setStreamingRowLimit( long streamingRowLimit ) {
+    this.streamingRowLimit = streamingRowLimit;
+  }
+
+  /**
+   * @return Returns the maximum estimated number of bytes a streaming query may return before it is aborted, or -1, if
+   *         unlimited.
+   */
+  public long getStreamingByteLimit() {
+    return streamingByteLimit;
+  }
+
+  /**
+   * @param streamingByteLimit
+   *          The maximum estimated number of bytes a streaming query may return before it is aborted, or -1, if
+   *          unlimited.
+   */
+  public void setStreamingByteLimit( long streamingByteLimit ) {
+    this.streamingByteLimit = streamingByteLimit;
+  }
+
   public boolean isForcedForwardOnly() {
     return forcedForwardOnly;
   }
@@ -18,7 +18,6 @@ import org.apache.commons.logging.LogFactory;
 import org.pentaho.commons.connection.IPeekable;
 import org.pentaho.commons.connection.IPentahoMetaData;
 import org.pentaho.commons.connection.IPentahoResultSet;
-import org.pentaho.commons.connection.memory.MemoryResultSet;
 import org.pentaho.platform.plugin.services.messages.Messages;
 
 import java.sql.ResultSet;
@@ -275,22 +274,29 @@ public class SQLResultSet implements IPentahoResultSet, IPeekable {
   }
 
   /**
-   * <b>Attention: </b> It does not clone data!  It is create the shallow copy of metadata! 
-   * It is create the shallow copy of data. You must avoid to use this method. 
-   * @return new instance the {@link MemoryResultSet} with same metadata
+   * Reads the remaining rows into a {@link ColumnarResultSet}, which stores the values of each column in primitive
+   * arrays, and closes this result set.
+   * <b>Attention: </b> It does not clone metadata! The copy shares the metadata of this result set.
+   * @return new instance the {@link ColumnarResultSet} with same metadata
    */
   public IPentahoResultSet memoryCopy() {
     try {
       // we have the {@link #setMetaData(IPentahoMetaData)} so the metadata can be any 
       // class which implements IPentahoMetaData, we should not lost data from metadata, so we must use metadata from original result set,
       // or clone metadata. The IPentahoMetaData does not implement Cloneable and we unable to clone data. So keep the shallow copy of metadata.
-      MemoryResultSet cachedResultSet = new MemoryResultSet( getMetaData() );
-      Object[] rowObjects = next();
-      while ( rowObjects != null ) {
-        cachedResultSet.addRow( rowObjects );
-        rowObjects = next();
+      ColumnarResultSet.Builder builder = new ColumnarResultSet.Builder( getMetaData(), getColumnCount() );
+      if ( peekRow != null ) {
+        builder.addRow( peekRow );
+        peekRow = null;
       }
-      return cachedResultSet;
+      if ( nativeResultSet != null ) {
+        // read directly from the native result set, without building an intermediate row array
+        builder.addRows( nativeResultSet );
+      }
+      return builder.build();
+    } catch ( SQLException e ) {
+      SQLResultSet.log.error( Messages.getInstance().getErrorString( "SQLResultSet.ERROR_0005_NEXT" ), e ); //$NON-NLS-1$
+      throw new SQLResultSetException( Messages.getInstance().getErrorString( "SQLResultSet.ERROR_0005_NEXT" ), e ); //$NON-NLS-1$
     } finally {
       close();
     }
@@ -0,0 +1,184 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.connections.sql;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.commons.connection.IPentahoResultSet;
+import org.pentaho.platform.plugin.services.messages.Messages;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A forward-only {@link SQLResultSet} which is read from a server-side cursor, one fetch at a time, as its rows are
+ * pulled through {@link #next()} or {@link #iterator()}.
+ * <p>
+ * An optional budget of rows and bytes guards against runaway queries: once either is exceeded, the query is
+ * cancelled, the result set is closed and a {@link SQLResultSetException} is thrown. The bytes are an estimate of the
+ * in-memory size of the values read so far.
+ *
+ * @see SQLConnection#setStreaming(boolean)
+ */
+public class StreamingSQLResultSet extends SQLResultSet implements Iterable<Object[]> {
+
+  private static final Log log = LogFactory.getLog( StreamingSQLResultSet.class );
+
+  private final long rowLimit;
+
+  private final long byteLimit;
+
+  private long rowsRead;
+
+  private long bytesRead;
+
+  /**
+   * @param nativeResultSet  The forward-only native result set.
+   * @param nativeConnection The connection of the result set.
+   * @param rowLimit         The maximum number of rows which may be read, or a negative value, if unlimited.
+   * @param byteLimit        The maximum estimated number of bytes which may be read, or a negative value, if
+   *                         unlimited.
+   */
+  public StreamingSQLResultSet( final ResultSet nativeResultSet, final SQLConnection nativeConnection,
+                                final long rowLimit, final long byteLimit ) {
+    super( nativeResultSet, nativeConnection );
+    this.rowLimit = rowLimit;
+    this.byteLimit = byteLimit;
+  }
+
+  @Override
+  public Object[] next() {
+    if ( peekRow == null && nativeResultSet == null ) {
+      return null;
+    }
+
+    boolean peeked = peekRow != null;
+    Object[] row = super.next();
+    if ( row != null && !peeked ) {
+      // peeked rows were already accounted for when read
+      consume( row );
+    }
+    return row;
+  }
+
+  /**
+   * Gets an iterator over the remaining rows. Rows are fetched from the database as the iterator is advanced.
+   *
+   * @return The iterator.
+   */
+  @Override
+  public Iterator<Object[]> iterator() {
+    return new Iterator<Object[]>() {
+      @Override
+      public boolean hasNext() {
+        return peek() != null;
+      }
+
+      @Override
+      public Object[] next() {
+        Object[] row = StreamingSQLResultSet.this.next();
+        if ( row == null ) {
+          throw new NoSuchElementException();
+        }
+        return row;
+      }
+    };
+  }
+
+  /**
+   * Reads the remaining rows into a {@link ColumnarResultSet}, within the budget of this result set, and closes it.
+   */
+  @Override
+  public IPentahoResultSet memoryCopy() {
+    try {
+      ColumnarResultSet.Builder builder = new ColumnarResultSet.Builder( getMetaData(), getColumnCount() );
+      for ( Object[] row : this ) {
+        builder.addRow( row );
+      }
+      return builder.build();
+    } finally {
+      close();
+    }
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  private void consume( final Object[] row ) {
+    rowsRead++;
+    if ( rowLimit >= 0 && rowsRead > rowLimit ) {
+      abort( Messages.getInstance().getErrorString( "SQLResultSet.ERROR_0009_ROW_LIMIT_EXCEEDED",
+        Long.toString( rowLimit ) ) ); //$NON-NLS-1$
+    }
+
+    if ( byteLimit >= 0 ) {
+      for ( Object value : row ) {
+        bytesRead += estimateSize( value );
+      }
+      if ( bytesRead > byteLimit ) {
+        abort( Messages.getInstance().getErrorString( "SQLResultSet.ERROR_0010_BYTE_LIMIT_EXCEEDED",
+          Long.toString( byteLimit ) ) ); //$NON-NLS-1$
+      }
+    }
+  }
+
+  private void abort( final String message ) {
+    log.error( message );
+    if ( nativeResultSet != null ) {
+      try {
+        // cancel first, as closing a streaming result set may otherwise read the remaining rows
+        Statement statement = nativeResultSet.getStatement();
+        if ( statement != null ) {
+          statement.cancel();
+        }
+      } catch ( SQLException ignored ) {
+        //ignored
+      }
+    }
+    close();
+    throw new SQLResultSetException( message );
+  }
+
+  /**
+   * Estimates the in-memory size of a value, in bytes.
+   */
+  static long estimateSize( final Object value ) {
+    if ( value == null ) {
+      return 0;
+    }
+    if ( value instanceof CharSequence ) {
+      return 40 + 2L * ( (CharSequence) value ).length();
+    }
+    if ( value instanceof byte[] ) {
+      return 16 + ( (byte[]) value ).length;
+    }
+    if ( value instanceof char[] ) {
+      return 16 + 2L * ( (char[]) value ).length;
+    }
+    if ( value instanceof BigDecimal || value instanceof BigInteger ) {
+      return 40 + value.toString().length() / 2;
+    }
+    return 24;
+  }
+}
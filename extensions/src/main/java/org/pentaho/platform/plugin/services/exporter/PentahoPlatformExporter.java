@@ -42,6 +42,7 @@ import org.pentaho.platform.plugin.services.importexport.DatabaseConnectionConve
 import org.pentaho.platform.plugin.services.importexport.DefaultExportHandler;
 import org.pentaho.platform.plugin.services.importexport.ExportFileNameEncoder;
 import org.pentaho.platform.plugin.services.importexport.ExportManifestUserSetting;
+import org.pentaho.platform.plugin.services.importexport.ParallelZipOutputStream;
 import org.pentaho.platform.plugin.services.importexport.RoleExport;
 import org.pentaho.platform.plugin.services.importexport.UserExport;
 import org.pentaho.platform.plugin.services.importexport.ZipExportProcessor;
@@ -68,6 +69,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -105,7 +107,21 @@ public class PentahoPlatformExporter extends ZipExportProcessor implements IPent
   }
 
   public File performExport() throws ExportException, IOException {
-    return this.performExport( null );
+    return this.performExport( (RepositoryFile) null );
+  }
+
+  /**
+   * Performs an incremental export of the repository files modified after the given time. Unlike
+   * {@link #setModifiedSince(Date)}, the time only applies to this export, so concurrent callers of this shared
+   * exporter do not change each other's exports. Files are selected by their modification time, which permission
+   * changes, moves and restores do not update; without a {@link #setPreviousManifest previous manifest} to compare
+   * the paths with, such files are not exported.
+   *
+   * @param modifiedSince null to select the files as {@link #performExport()} does
+   */
+  public File performExport( Date modifiedSince ) throws ExportException, IOException {
+    return newExport().doExport(
+        modifiedSince != null ? Long.valueOf( modifiedSince.getTime() ) : getEffectiveModifiedSince() );
   }
 
   public void addExportHelper( IExportHelper helper ) {
@@ -129,48 +145,83 @@ public class PentahoPlatformExporter extends ZipExportProcessor implements IPent
    */
   @Override
   public File performExport( RepositoryFile exportRepositoryFile ) throws ExportException, IOException {
+    return newExport().doExport( getEffectiveModifiedSince() );
+  }
+
+  /**
+   * The zip stream and the manifest of an export are kept in the exporter, so each export runs on its own copy of this
+   * shared exporter. The copy uses the same repository, services and helpers.
+   */
+  protected PentahoPlatformExporter newExport() {
+    PentahoPlatformExporter export = new PentahoPlatformExporter( getUnifiedRepository() );
+    export.exportHelpers.addAll( exportHelpers );
+    export.setRepositoryExportLogger( getRepositoryExportLogger() );
+    export.setLocaleExportList( getLocaleExportList() );
+    export.setParallelism( getParallelism() );
+    export.setModifiedSince( getModifiedSince() );
+    export.setPreviousManifest( getPreviousManifest() );
+    export.withManifest = withManifest;
+    export.scheduler = scheduler;
+    export.metadataDomainRepository = metadataDomainRepository;
+    export.datasourceMgmtService = datasourceMgmtService;
+    export.mondrianCatalogService = mondrianCatalogService;
+    export.mondrianCatalogRepositoryHelper = mondrianCatalogRepositoryHelper;
+    export.metastore = metastore;
+    export.userSettingService = userSettingService;
+    return export;
+  }
+
+  private File doExport( Long modifiedSince ) throws ExportException, IOException {
 
     getRepositoryExportLogger().info( Messages.getInstance().getString( "PentahoPlatformExporter.INFO_START_EXPORT_PROCESS" ) );
+    startExport( modifiedSince );
     // always export root
-    exportRepositoryFile = getUnifiedRepository().getFile( ROOT );
+    RepositoryFile exportRepositoryFile = getUnifiedRepository().getFile( ROOT );
 
     // create temp file
     File exportFile = File.createTempFile( EXPORT_TEMP_FILENAME_PREFIX, EXPORT_TEMP_FILENAME_EXT );
     exportFile.deleteOnExit();
 
-    zos = new ZipOutputStream( new FileOutputStream( exportFile ) );
+    zos = createZipOutputStream( new FileOutputStream( exportFile ) );
 
     try {
-      exportFileContent( exportRepositoryFile );
-    } catch ( ExportException | IOException exception ) {
-      getRepositoryExportLogger().error( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_EXPORT_FILE_CONTENT", exception.getLocalizedMessage() ) );
-    }
+      try {
+        exportFileContent( exportRepositoryFile );
+        if ( zos instanceof ParallelZipOutputStream ) {
+          ( (ParallelZipOutputStream) zos ).drain();
+        }
+      } catch ( ExportException | IOException exception ) {
+        getRepositoryExportLogger().error( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_EXPORT_FILE_CONTENT", exception.getLocalizedMessage() ) );
+      }
 
-    exportDatasources();
-    exportMondrianSchemas();
-    exportMetadataModels();
-    runExportHelpers();
-    exportUsersAndRoles();
-    exportMetastore();
+      exportDatasources();
+      exportMondrianSchemas();
+      exportMetadataModels();
+      runExportHelpers();
+      exportUsersAndRoles();
+      exportMetastore();
 
-    if ( this.withManifest ) {
-      // write manifest to zip output stream
-      ZipEntry entry = new ZipEntry( EXPORT_MANIFEST_FILENAME );
-      zos.putNextEntry( entry );
+      if ( this.withManifest ) {
+        // write manifest to zip output stream
+        ZipEntry entry = new ZipEntry( EXPORT_MANIFEST_FILENAME );
+        zos.putNextEntry( entry );
 
-      // pass output stream to manifest class for writing
-      try {
-        getExportManifest().toXml( zos );
-      } catch ( Exception e ) {
-        // todo: add to messages.properties
-        getRepositoryExportLogger().error( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_GENERATING_EXPORT_XML" ) );
+        // pass output stream to manifest class for writing
+        try {
+          getExportManifest().toXml( zos );
+        } catch ( Exception e ) {
+          // todo: add to messages.properties
+          getRepositoryExportLogger().error( Messages.getInstance().getString( "PentahoPlatformExporter.ERROR_GENERATING_EXPORT_XML" ) );
+        }
+
+        zos.closeEntry();
       }
 
-      zos.closeEntry();
+      zos.close();
+    } finally {
+      getExportManifest().deleteSpool();
     }
 
-    zos.close();
-
     // clean up
     initManifest();
     zos = null;
@@ -570,6 +621,7 @@ public class PentahoPlatformExporter extends ZipExportProcessor implements IPent
       }
       getRepositoryExportLogger().debug( "Starting recursive backup of a folder [ " + exportRepositoryFile.getName() + " ]" );
       exportDirectory( exportRepositoryFile, zos, filePath );
+      addDeletedFilesToManifest( exportRepositoryFile );
 
     } else {
       getRepositoryExportLogger().trace( "Repository object [ " + exportRepositoryFile.getName() + "] is a file" );
@@ -73,6 +73,7 @@ public class ArchiveLoader {
 
     RepositoryFileImportBundle.Builder bundleBuilder = new RepositoryFileImportBundle.Builder();
     bundleBuilder.input( createInputStream( file ) );
+    bundleBuilder.archiveFile( file );
     bundleBuilder.charSet( "UTF-8" );
     bundleBuilder.hidden( true );
     bundleBuilder.schedulable( RepositoryFile.SCHEDULABLE_BY_DEFAULT );
@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running totals of the files and bytes handled by one stage of a solution import, and of the time the stage took.
+ * Used to report the throughput of each stage once the import is done.
+ */
+class ImportStageStatistics {
+
+  private final String stage;
+  private long files;
+  private long bytes;
+  private long nanos;
+
+  ImportStageStatistics( String stage ) {
+    this.stage = stage;
+  }
+
+  synchronized void add( long files, long bytes, long nanos ) {
+    this.files += files;
+    this.bytes += bytes;
+    this.nanos += nanos;
+  }
+
+  String getStage() {
+    return stage;
+  }
+
+  synchronized long getFiles() {
+    return files;
+  }
+
+  synchronized long getBytes() {
+    return bytes;
+  }
+
+  synchronized long getMillis() {
+    return TimeUnit.NANOSECONDS.toMillis( nanos );
+  }
+
+  synchronized long getFilesPerSecond() {
+    return perSecond( files );
+  }
+
+  synchronized long getBytesPerSecond() {
+    return perSecond( bytes );
+  }
+
+  private long perSecond( long count ) {
+    return nanos > 0 ? Math.round( count * (double) TimeUnit.SECONDS.toNanos( 1 ) / nanos ) : 0;
+  }
+}
@@ -66,6 +66,17 @@ public class LocaleFilesProcessor {
     localeFiles = new ArrayList<LocaleFileDescriptor>();
   }
 
+  /**
+   * Checks the name only; the content of a candidate still has to be passed to {@link #isLocaleFile}.
+   *
+   * @param fileName
+   *          decoded name of the file
+   * @return false if the file can not be a locale file
+   */
+  public boolean isLocaleFileCandidate( String fileName ) {
+    return fileName.endsWith( PROPERTIES_EXT ) || fileName.endsWith( LOCALE_EXT ) || fileName.equals( XML_LOCALE );
+  }
+
   /**
    * @param file
    * @param parentPath
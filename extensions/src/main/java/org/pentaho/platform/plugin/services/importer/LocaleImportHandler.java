@@ -13,7 +13,6 @@
 
 package org.pentaho.platform.plugin.services.importer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -29,7 +28,6 @@ import javax.xml.xpath.XPathFactory;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.pentaho.platform.api.mimetype.IMimeType;
 import org.pentaho.platform.api.repository2.unified.IPlatformImportBundle;
@@ -110,9 +108,7 @@ public class LocaleImportHandler extends RepositoryFileImportFileHandler impleme
       comment = localePropertiesFromIndex.getProperty( DESC_PROPERTY_NAME );
       fileTitle = localePropertiesFromIndex.getProperty( TITLE_PROPERTY_NAME );
     } else {
-      try {
-        byte[] bytes = IOUtils.toByteArray( locale.getInputStream() );
-        java.io.InputStream bundleInputStream = new ByteArrayInputStream( bytes );
+      try ( java.io.InputStream bundleInputStream = locale.getInputStream() ) {
         rb = new PropertyResourceBundle( bundleInputStream );
       } catch ( Exception returnEmptyIfError ) {
         getLogger().error( returnEmptyIfError.getMessage() );
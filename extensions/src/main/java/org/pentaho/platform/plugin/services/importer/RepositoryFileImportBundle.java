@@ -13,6 +13,7 @@
 
 package org.pentaho.platform.plugin.services.importer;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -54,6 +55,7 @@ public class RepositoryFileImportBundle implements IPlatformImportBundle {
   private Map<String, Object> properties = new HashMap<String, Object>();
   private List<IPlatformImportBundle> children = new ArrayList<IPlatformImportBundle>();
   private boolean preserveDsw;
+  private File archiveFile;
 
   protected RepositoryFileImportBundle() {
   }
@@ -237,6 +239,18 @@ public class RepositoryFileImportBundle implements IPlatformImportBundle {
     properties.put( prop, val );
   }
 
+  /**
+   * @return the file the input stream of this bundle was opened from, if the bundle is an archive on disk; importers
+   *         can read such an archive in place instead of copying the stream
+   */
+  public File getArchiveFile() {
+    return archiveFile;
+  }
+
+  public void setArchiveFile( File archiveFile ) {
+    this.archiveFile = archiveFile;
+  }
+
   @Override
   public Object getProperty( String prop ) {
     return properties.get( prop );
@@ -363,6 +377,15 @@ public class RepositoryFileImportBundle implements IPlatformImportBundle {
       bundle.setPreserveDsw( preserveDsw );
       return this;
     }
+
+    /**
+     * @param archiveFile
+     * @see RepositoryFileImportBundle#getArchiveFile()
+     */
+    public Builder archiveFile( File archiveFile ) {
+      bundle.setArchiveFile( archiveFile );
+      return this;
+    }
   }
 
   @Override
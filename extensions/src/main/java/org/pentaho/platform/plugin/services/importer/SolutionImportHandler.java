@@ -52,6 +52,7 @@ import org.pentaho.platform.plugin.services.importexport.UserExport;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.DatabaseConnection;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifest;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.Parameters;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestDeletedFile;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMetaStore;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMetadata;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMondrian;
@@ -68,13 +69,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 public class SolutionImportHandler implements IPlatformImportHandler {
 
@@ -101,12 +104,20 @@ public class SolutionImportHandler implements IPlatformImportHandler {
     protected boolean partialImport;
     protected Map<String, RepositoryFileImportBundle.Builder> cachedImports = new HashMap<>();
     protected boolean overwriteFile;
-    protected List<IRepositoryFileBundle> files = new ArrayList<>();
+    /** entries of the archive to import, except the manifest; each one is turned into a file when it is imported */
+    protected List<ZipEntry> entries = new ArrayList<>();
     protected boolean isPerformingRestore;
+    protected ImportStageStatistics decodeStatistics = new ImportStageStatistics( "decode" );
+    /** archive being imported; its entries are read in place until the import is done */
+    protected ZipFile archive;
+    /** copy of the imported stream, if it was not read from a file */
+    protected File temporaryArchive;
   }
 
   private List<IImportHelper> importHelpers = new ArrayList<>();
 
+  private int importParallelism = 1;
+
   public SolutionImportHandler( List<IMimeType> mimeTypes ) {
     this.mimeTypes = mimeTypes;
     this.solutionHelper = new SolutionFileImportHelper();
@@ -128,6 +139,19 @@ public class SolutionImportHandler implements IPlatformImportHandler {
       }
     }
   }
+  public int getImportParallelism() {
+    return importParallelism;
+  }
+
+  /**
+   * Number of threads used to write repository files and folders. With 1, the default, files and folders are written
+   * one at a time in the order they appear in the archive. Otherwise folders are still created in archive order, but
+   * files in different folders are written concurrently.
+   */
+  public void setImportParallelism( int importParallelism ) {
+    this.importParallelism = Math.max( 1, importParallelism );
+  }
+
   public ImportSession getImportSession() {
     return ImportSession.getSession();
   }
@@ -150,7 +174,7 @@ public class SolutionImportHandler implements IPlatformImportHandler {
     if ( importState.isPerformingRestore ) {
       getLogger().debug( " Start:  pre processing files and folder from the bundle" );
     }
-    if ( !processZip( bundle.getInputStream(), importState ) ) {
+    if ( !processZip( bundle, importState ) ) {
       // Something went wrong, do not proceed!
       return;
     }
@@ -161,21 +185,29 @@ public class SolutionImportHandler implements IPlatformImportHandler {
 
     //Process Manifest Settings
     ExportManifest manifest = getImportSession().getManifest();
-    // Process Metadata
-    if ( manifest != null ) {
-      Map<String, List<String>> roleToUserMap = importUsers( manifest.getUserExports(), importState );
+    try {
+      // Process Metadata
+      if ( manifest != null ) {
+        Map<String, List<String>> roleToUserMap = importUsers( manifest.getUserExports(), importState );
 
-      importRoles( manifest.getRoleExports(), roleToUserMap, importState );
+        importRoles( manifest.getRoleExports(), roleToUserMap, importState );
 
-      importMetadata( manifest.getMetadataList(), bundle.isPreserveDsw(), importState );
+        importMetadata( manifest.getMetadataList(), bundle.isPreserveDsw(), importState );
 
-      importMondrian( manifest.getMondrianList(), importState );
+        importMondrian( manifest.getMondrianList(), importState );
 
-      importMetaStore( manifest.getMetaStore(), bundle.overwriteInRepository(), importState );
+        importMetaStore( manifest.getMetaStore(), bundle.overwriteInRepository(), importState );
 
-      importJDBCDataSource( manifest, importState );
+        importJDBCDataSource( manifest, importState );
+      }
+      importRepositoryFilesAndFolders( manifest, bundle, importState );
+
+      if ( manifest != null && manifest.isIncremental() ) {
+        importDeletedFiles( manifest, bundle, importState );
+      }
+    } finally {
+      closeArchive( importState );
     }
-    importRepositoryFilesAndFolders( manifest, bundle, importState );
 
     // import schedules and any other imports defined by ImportHelper
     if ( manifest != null ) {
@@ -212,9 +244,9 @@ public class SolutionImportHandler implements IPlatformImportHandler {
   protected void importRepositoryFilesAndFolders( ExportManifest manifest, IPlatformImportBundle bundle, ImportState importState ) throws IOException {
     if ( importState.isPerformingRestore ) {
       getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_START_IMPORT_FILEFOLDER" ) );
-      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_COUNT_FILEFOLDER", importState.files.size() ) );
+      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_COUNT_FILEFOLDER", importState.entries.size() ) );
     }
-    int successfulFilesImportCount = 0;
+    AtomicInteger successfulFilesImportCount = new AtomicInteger();
     String manifestVersion = null;
     if ( manifest != null ) {
       manifestVersion = manifest.getManifestInformation().getManifestVersion();
@@ -224,150 +256,238 @@ public class SolutionImportHandler implements IPlatformImportHandler {
     LocaleFilesProcessor localeFilesProcessor = new LocaleFilesProcessor();
     IPlatformImporter importer = PentahoSystem.get( IPlatformImporter.class );
 
-    for ( IRepositoryFileBundle fileBundle : importState.files ) {
-      String fileName = fileBundle.getFile().getName();
-      String actualFilePath = fileBundle.getPath();
-      if ( manifestVersion != null ) {
-        fileName = ExportFileNameEncoder.decodeZipFileName( fileName );
-        actualFilePath = ExportFileNameEncoder.decodeZipFileName( actualFilePath );
+    ImportStageStatistics prepareStatistics = new ImportStageStatistics( "prepare" );
+    ImportStageStatistics writeStatistics = new ImportStageStatistics( "write" );
+    try ( SolutionImportWriter writer =
+            new SolutionImportWriter( repository, getImportSession(), importParallelism, writeStatistics,
+                importer != null ? importer.getRepositoryImportLogger() : null ) ) {
+      for ( ZipEntry entry : importState.entries ) {
+        IRepositoryFileBundle fileBundle = toFileBundle( entry, importState );
+        importRepositoryFileOrFolder( fileBundle, manifest, manifestVersion, bundle, importState, importer,
+            localeFilesProcessor, writer, prepareStatistics, successfulFilesImportCount );
       }
-      String repositoryFilePath =
-          RepositoryFilenameUtils.concat( PentahoPlatformImporter.computeBundlePath( actualFilePath ), fileName );
+    }
+    logThroughput( importState, importState.decodeStatistics, prepareStatistics, writeStatistics );
 
-      var cachedImports = importState.cachedImports;
-      if ( cachedImports.containsKey( repositoryFilePath ) ) {
-        getLogger().debug( "Repository object with path [ " + repositoryFilePath + " ] found in the cache" );
-        byte[] bytes = IOUtils.toByteArray( fileBundle.getInputStream() );
-        RepositoryFileImportBundle.Builder builder = cachedImports.get( repositoryFilePath );
-        builder.input( new ByteArrayInputStream( bytes ) );
+    // Process locale files.
+    if ( importState.isPerformingRestore ) {
+      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_START_IMPORT_LOCALEFILE" ) );
+    }
+    int successfulLocaleFilesProcessed = 0;
+    try {
+      successfulLocaleFilesProcessed = localeFilesProcessor.processLocaleFiles( importer );
+    } catch ( PlatformImportException e ) {
+      if ( importState.isPerformingRestore ) {
+        getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_LOCALE_FILE", e.getLocalizedMessage() ) );
+      }
+    } finally {
+      if ( importState.isPerformingRestore ) {
+        getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_END_IMPORT_LOCALEFILE" ) );
+      }
+    }
 
-        try {
-          importer.importFile( build( builder ) );
-          if ( importState.isPerformingRestore ) {
-            getLogger().debug( "Successfully restored repository object with path [ " + repositoryFilePath + " ] from the cache" );
-          }
-          successfulFilesImportCount++;
-          continue;
-        } catch ( PlatformImportException e ) {
-          if ( importState.isPerformingRestore ) {
-            getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_REPOSITORY_OBJECT", repositoryFilePath, e.getLocalizedMessage() ) );
-          }
+    if ( importState.isPerformingRestore ) {
+      getLogger().info( Messages.getInstance().getString(
+        "SolutionImportHandler.INFO_SUCCESSFUL_REPOSITORY_IMPORT_COUNT", successfulFilesImportCount.get()
+          + successfulLocaleFilesProcessed, importState.entries.size() ) );
+      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_END_IMPORT_FILEFOLDER" ) );
+    }
+  }
+
+  /**
+   * Removes the files recorded as deleted by an incremental export. Deletions are only applied when the import may
+   * overwrite repository content; deleted files go to the trash.
+   */
+  protected void importDeletedFiles( ExportManifest manifest, IPlatformImportBundle bundle, ImportState importState ) {
+    List<ExportManifestDeletedFile> deletedFiles = manifest.getDeletedFiles();
+    if ( deletedFiles.isEmpty() || !bundle.overwriteInRepository() ) {
+      return;
+    }
+    if ( importState.isPerformingRestore ) {
+      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_COUNT_DELETED_FILEFOLDER",
+          deletedFiles.size() ) );
+    }
+    for ( ExportManifestDeletedFile deletedFile : deletedFiles ) {
+      String repositoryFilePath = RepositoryFilenameUtils.concat( bundle.getPath(), deletedFile.getPath() );
+      try {
+        RepositoryFile file = repository.getFile( repositoryFilePath );
+        // a parent folder may already have been removed
+        if ( file != null && file.isFolder() == deletedFile.isFolder() ) {
+          repository.deleteFile( file.getId(), null );
+          getLogger().debug( "Removed deleted repository object [ " + repositoryFilePath + " ]" );
         }
+      } catch ( Exception e ) {
+        getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_DELETING_REPOSITORY_OBJECT",
+            repositoryFilePath, e.getLocalizedMessage() ) );
       }
+    }
+  }
 
-      RepositoryFileImportBundle.Builder bundleBuilder = new RepositoryFileImportBundle.Builder();
-      InputStream bundleInputStream = null;
-
-      String decodedFilePath = fileBundle.getPath();
-      RepositoryFile decodedFile = fileBundle.getFile();
-      if ( manifestVersion != null ) {
-        decodedFile = new RepositoryFile.Builder( decodedFile ).path( decodedFilePath ).name( fileName ).title( fileName ).build();
-        decodedFilePath = ExportFileNameEncoder.decodeZipFileName( fileBundle.getPath() );
+  private void importRepositoryFileOrFolder( IRepositoryFileBundle fileBundle, ExportManifest manifest,
+                                             String manifestVersion, IPlatformImportBundle bundle,
+                                             ImportState importState, IPlatformImporter importer,
+                                             LocaleFilesProcessor localeFilesProcessor, SolutionImportWriter writer,
+                                             ImportStageStatistics prepareStatistics,
+                                             AtomicInteger successfulFilesImportCount ) throws IOException {
+    long prepareStart = System.nanoTime();
+    RepositoryFileImportBundle importBundle = (RepositoryFileImportBundle) bundle;
+    String fileName = fileBundle.getFile().getName();
+    String actualFilePath = fileBundle.getPath();
+    if ( manifestVersion != null ) {
+      fileName = ExportFileNameEncoder.decodeZipFileName( fileName );
+      actualFilePath = ExportFileNameEncoder.decodeZipFileName( actualFilePath );
+    }
+    String repositoryFilePath =
+        RepositoryFilenameUtils.concat( PentahoPlatformImporter.computeBundlePath( actualFilePath ), fileName );
+
+    var cachedImports = importState.cachedImports;
+    if ( cachedImports.containsKey( repositoryFilePath ) ) {
+      getLogger().debug( "Repository object with path [ " + repositoryFilePath + " ] found in the cache" );
+      RepositoryFileImportBundle.Builder builder = cachedImports.get( repositoryFilePath );
+
+      try ( InputStream cachedInputStream = fileBundle.getInputStream() ) {
+        builder.input( cachedInputStream );
+        // objects from the cache are not written in parallel
+        writer.drain();
+        importer.importFile( build( builder ) );
+        if ( importState.isPerformingRestore ) {
+          getLogger().debug( "Successfully restored repository object with path [ " + repositoryFilePath + " ] from the cache" );
+        }
+        successfulFilesImportCount.incrementAndGet();
+        return;
+      } catch ( PlatformImportException e ) {
+        if ( importState.isPerformingRestore ) {
+          getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_REPOSITORY_OBJECT", repositoryFilePath, e.getLocalizedMessage() ) );
+        }
       }
+    }
 
-      if ( fileBundle.getFile().isFolder() ) {
-        bundleBuilder.mime( "text/directory" );
-        bundleBuilder.file( decodedFile );
-        fileName = repositoryFilePath;
-        repositoryFilePath = importBundle.getPath();
-      } else {
+    RepositoryFileImportBundle.Builder bundleBuilder = new RepositoryFileImportBundle.Builder();
+    InputStream bundleInputStream = null;
+    long size = 0;
+
+    String decodedFilePath = fileBundle.getPath();
+    RepositoryFile decodedFile = fileBundle.getFile();
+    if ( manifestVersion != null ) {
+      decodedFile = new RepositoryFile.Builder( decodedFile ).path( decodedFilePath ).name( fileName ).title( fileName ).build();
+      decodedFilePath = ExportFileNameEncoder.decodeZipFileName( fileBundle.getPath() );
+    }
+
+    if ( fileBundle.getFile().isFolder() ) {
+      bundleBuilder.mime( "text/directory" );
+      bundleBuilder.file( decodedFile );
+      fileName = repositoryFilePath;
+      repositoryFilePath = importBundle.getPath();
+    } else {
+      // only possible locale files are read up front, everything else is streamed from the archive when written
+      if ( localeFilesProcessor.isLocaleFileCandidate( fileName ) ) {
         byte[] bytes = IOUtils.toByteArray( fileBundle.getInputStream() );
-        bundleInputStream = new ByteArrayInputStream( bytes );
+        size = bytes.length;
         // If is locale file store it for later processing.
         if ( localeFilesProcessor.isLocaleFile( fileBundle, importBundle.getPath(), bytes ) ) {
           getLogger().trace( Messages.getInstance()
               .getString( "SolutionImportHandler.SkipLocaleFile", repositoryFilePath ) );
-          continue;
+          return;
         }
-        bundleBuilder.input( bundleInputStream );
-        bundleBuilder.mime( solutionHelper.getMime( fileName ) );
-
-        String filePath =
-            ( decodedFilePath.equals( "/" ) || decodedFilePath.equals( "\\" ) ) ? "" : decodedFilePath;
-        repositoryFilePath = RepositoryFilenameUtils.concat( importBundle.getPath(), filePath );
+        bundleInputStream = new ByteArrayInputStream( bytes );
+      } else {
+        if ( fileBundle instanceof RepositoryFileBundle ) {
+          size = Math.max( ( (RepositoryFileBundle) fileBundle ).getSize(), 0 );
+        }
+        bundleInputStream = fileBundle.getInputStream();
       }
+      bundleBuilder.input( bundleInputStream );
+      bundleBuilder.mime( solutionHelper.getMime( fileName ) );
 
-      bundleBuilder.name( fileName );
-      bundleBuilder.path( repositoryFilePath );
+      String filePath =
+          ( decodedFilePath.equals( "/" ) || decodedFilePath.equals( "\\" ) ) ? "" : decodedFilePath;
+      repositoryFilePath = RepositoryFilenameUtils.concat( importBundle.getPath(), filePath );
+    }
 
-      String sourcePath;
-      if ( fileBundle.getFile().isFolder() ) {
-        sourcePath = fileName;
-      } else {
-        sourcePath =
-            RepositoryFilenameUtils.concat( PentahoPlatformImporter.computeBundlePath( actualFilePath ), fileName );
-      }
+    bundleBuilder.name( fileName );
+    bundleBuilder.path( repositoryFilePath );
 
-      //This clause was added for processing ivb files so that it would not try process acls on folders that the user
-      //may not have rights to such as /home or /public
-      if ( manifest != null && manifest.getExportManifestEntity( sourcePath ) == null && fileBundle.getFile()
-          .isFolder() ) {
-        continue;
-      }
+    String sourcePath;
+    if ( fileBundle.getFile().isFolder() ) {
+      sourcePath = fileName;
+    } else {
+      sourcePath =
+          RepositoryFilenameUtils.concat( PentahoPlatformImporter.computeBundlePath( actualFilePath ), fileName );
+    }
 
-      getImportSession().setCurrentManifestKey( sourcePath );
+    //This clause was added for processing ivb files so that it would not try process acls on folders that the user
+    //may not have rights to such as /home or /public
+    if ( manifest != null && manifest.getExportManifestEntity( sourcePath ) == null && fileBundle.getFile()
+        .isFolder() ) {
+      return;
+    }
 
-      bundleBuilder.charSet( bundle.getCharSet() );
-      bundleBuilder.overwriteFile( bundle.overwriteInRepository() );
-      bundleBuilder.applyAclSettings( bundle.isApplyAclSettings() );
-      bundleBuilder.retainOwnership( bundle.isRetainOwnership() );
-      bundleBuilder.overwriteAclSettings( bundle.isOverwriteAclSettings() );
-      bundleBuilder.acl( getImportSession().processAclForFile( sourcePath ) );
-      bundleBuilder.extraMetaData( getImportSession().processExtraMetaDataForFile( sourcePath ) );
+    getImportSession().setCurrentManifestKey( sourcePath );
 
-      RepositoryFile file = getFile( importBundle, fileBundle );
-      ManifestFile manifestFile = getImportSession().getManifestFile( sourcePath, file != null );
+    bundleBuilder.charSet( bundle.getCharSet() );
+    bundleBuilder.overwriteFile( bundle.overwriteInRepository() );
+    bundleBuilder.applyAclSettings( bundle.isApplyAclSettings() );
+    bundleBuilder.retainOwnership( bundle.isRetainOwnership() );
+    bundleBuilder.overwriteAclSettings( bundle.isOverwriteAclSettings() );
+    bundleBuilder.acl( getImportSession().processAclForFile( sourcePath ) );
+    bundleBuilder.extraMetaData( getImportSession().processExtraMetaDataForFile( sourcePath ) );
 
-      bundleBuilder.hidden( isFileHidden( file, manifestFile, sourcePath ) );
-      boolean isSchedulable = isSchedulable( file, manifestFile );
+    RepositoryFile file = getFile( importBundle, fileBundle );
+    ManifestFile manifestFile = getImportSession().getManifestFile( sourcePath, file != null );
 
-      if ( isSchedulable ) {
-        bundleBuilder.schedulable( isSchedulable );
-      } else {
-        bundleBuilder.schedulable( fileIsScheduleInputSource( manifest, sourcePath ) );
-      }
+    bundleBuilder.hidden( isFileHidden( file, manifestFile, sourcePath ) );
+    boolean isSchedulable = isSchedulable( file, manifestFile );
+
+    if ( isSchedulable ) {
+      bundleBuilder.schedulable( isSchedulable );
+    } else {
+      bundleBuilder.schedulable( fileIsScheduleInputSource( manifest, sourcePath ) );
+    }
+
+    IPlatformImportBundle platformImportBundle = build( bundleBuilder );
+    String folderPath = repositoryFilePath;
+    String createdFolderPath = null;
+    if ( fileBundle.getFile().isFolder() ) {
+      createdFolderPath = RepositoryFilenameUtils.concat( repositoryFilePath, fileName );
+      folderPath = RepositoryFilenameUtils.getFullPathNoEndSeparator( createdFolderPath );
+    }
+    prepareStatistics.add( 1, size, System.nanoTime() - prepareStart );
 
-      IPlatformImportBundle platformImportBundle = build( bundleBuilder );
+    final String writePath = repositoryFilePath;
+    final InputStream writeInputStream = bundleInputStream;
+    writer.submit( folderPath, createdFolderPath, size, () -> {
+      if ( writer.isParallel() ) {
+        getImportSession().setCurrentManifestKey( sourcePath );
+      }
       try {
         importer.importFile( platformImportBundle );
-        successfulFilesImportCount++;
+        successfulFilesImportCount.incrementAndGet();
         if ( importState.isPerformingRestore ) {
-          getLogger().debug( "Successfully restored repository object with path [ " + repositoryFilePath + " ]" );
+          getLogger().debug( "Successfully restored repository object with path [ " + writePath + " ]" );
         }
       } catch ( PlatformImportException e ) {
         if ( importState.isPerformingRestore ) {
-          getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_REPOSITORY_OBJECT", repositoryFilePath, e.getLocalizedMessage() ) );
+          getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_REPOSITORY_OBJECT", writePath, e.getLocalizedMessage() ) );
+        }
+      } finally {
+        if ( writeInputStream != null ) {
+          writeInputStream.close();
         }
       }
+    } );
+  }
 
-      if ( bundleInputStream != null ) {
-        bundleInputStream.close();
-      }
-    }
-
-    // Process locale files.
-    if ( importState.isPerformingRestore ) {
-      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_START_IMPORT_LOCALEFILE" ) );
-    }
-    int successfulLocaleFilesProcessed = 0;
-    try {
-      successfulLocaleFilesProcessed = localeFilesProcessor.processLocaleFiles( importer );
-    } catch ( PlatformImportException e ) {
-      if ( importState.isPerformingRestore ) {
-        getLogger().error( Messages.getInstance().getString( "SolutionImportHandler.ERROR_IMPORTING_LOCALE_FILE", e.getLocalizedMessage() ) );
-      }
-    } finally {
+  private void logThroughput( ImportState importState, ImportStageStatistics... stages ) {
+    for ( ImportStageStatistics stage : stages ) {
+      String message = Messages.getInstance().getString( "SolutionImportHandler.INFO_STAGE_THROUGHPUT",
+          stage.getStage(), stage.getFiles(), stage.getBytes(), stage.getMillis(), stage.getFilesPerSecond(),
+          stage.getBytesPerSecond() );
       if ( importState.isPerformingRestore ) {
-        getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_END_IMPORT_LOCALEFILE" ) );
+        getLogger().info( message );
+      } else {
+        getLogger().debug( message );
       }
     }
-
-    if ( importState.isPerformingRestore ) {
-      getLogger().info( Messages.getInstance().getString(
-        "SolutionImportHandler.INFO_SUCCESSFUL_REPOSITORY_IMPORT_COUNT", successfulFilesImportCount
-          + successfulLocaleFilesProcessed, importState.files.size() ) );
-      getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_END_IMPORT_FILEFOLDER" ) );
-    }
   }
 
   protected void importJDBCDataSource( ExportManifest manifest, ImportState importState ) {
@@ -870,23 +990,30 @@ public class SolutionImportHandler implements IPlatformImportHandler {
     return path;
   }
 
-  private boolean processZip( InputStream inputStream, ImportState importState ) {
+  /**
+   * Reads the central directory of the archive: validates every entry name, so that an invalid one rejects the archive
+   * before anything is imported, and reads the manifest, which the other stages need and can be the last entry.
+   * Entries are only turned into files, and their content read, as they are imported.
+   */
+  private boolean processZip( IPlatformImportBundle bundle, ImportState importState ) {
     if ( importState.isPerformingRestore ) {
       getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_START_IMPORT_REPOSITORY_OBJECT" ) );
     }
-    try ( ZipInputStream zipInputStream = new ZipInputStream( inputStream ) ) {
+    long start = System.nanoTime();
+    long files = 0;
+    long bytes = 0;
+    try {
+      ZipFile zipFile = openArchive( bundle, importState );
       FileService fileService = new FileService();
-      ZipEntry entry = zipInputStream.getNextEntry();
-      while ( entry != null ) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while ( entries.hasMoreElements() ) {
+        ZipEntry entry = entries.nextElement();
         final String entryName = RepositoryFilenameUtils.separatorsToRepository( entry.getName() );
         getLogger().debug( Messages.getInstance().getString( "ZIPFILE.ProcessingEntry", entryName ) );
         final String decodedEntryName = ExportFileNameEncoder.decodeZipFileName( entryName );
-        File tempFile = null;
         boolean isDir = entry.isDirectory();
         if ( !isDir ) {
           if ( !solutionHelper.isInApprovedExtensionList( entryName ) ) {
-            zipInputStream.closeEntry();
-            entry = zipInputStream.getNextEntry();
             importState.partialImport = true;
             continue;
           }
@@ -898,11 +1025,8 @@ public class SolutionImportHandler implements IPlatformImportHandler {
                     entryName ), PlatformImportException.PUBLISH_PROHIBITED_SYMBOLS_ERROR );
           }
 
-          tempFile = File.createTempFile( "zip", null );
-          tempFile.deleteOnExit();
-          try ( FileOutputStream fos = new FileOutputStream( tempFile ) ) {
-            IOUtils.copy( zipInputStream, fos );
-          }
+          files++;
+          bytes += Math.max( entry.getSize(), 0 );
         } else {
           if ( !fileService.isValidFileName( entryName ) ) {
             getLogger().error( Messages.getInstance().getString( "DefaultImportHandler.ERROR_0011_INVALID_FILE_NAME", decodedEntryName ) );
@@ -911,41 +1035,80 @@ public class SolutionImportHandler implements IPlatformImportHandler {
                     entryName ), PlatformImportException.PUBLISH_PROHIBITED_SYMBOLS_ERROR );
           }
         }
-        File file = new File( entryName );
-        RepositoryFile repoFile =
-            new RepositoryFile.Builder( file.getName() ).folder( isDir ).hidden( false ).build();
-        String parentDir =
-            file.getParent() == null ? RepositoryFile.SEPARATOR : file.getParent()
-                + RepositoryFile.SEPARATOR;
-        IRepositoryFileBundle repoFileBundle =
-            new RepositoryFileBundle( repoFile, null, parentDir, tempFile, UTF_8, null );
-
-        if ( EXPORT_MANIFEST_XML_FILE.equals( file.getName() ) ) {
-          initializeAclManifest( repoFileBundle );
+        if ( EXPORT_MANIFEST_XML_FILE.equals( new File( entryName ).getName() ) ) {
+          initializeAclManifest( toFileBundle( entry, importState ) );
         } else {
-          if ( importState.isPerformingRestore ) {
-            getLogger().debug( "Adding file " + repoFile.getName() + " to list for later processing " );
-          }
-          importState.files.add( repoFileBundle );
+          importState.entries.add( entry );
         }
-        zipInputStream.closeEntry();
-        entry = zipInputStream.getNextEntry();
       }
     } catch ( IOException | PlatformImportException e ) {
       getLogger().error( Messages.getInstance()
           .getErrorString( "ZIPFILE.ExceptionOccurred", e.getLocalizedMessage() ), e );
+      closeArchive( importState );
       return false;
     }
+    importState.decodeStatistics.add( files, bytes, System.nanoTime() - start );
     if ( importState.isPerformingRestore ) {
       getLogger().info( Messages.getInstance().getString( "SolutionImportHandler.INFO_END_IMPORT_REPOSITORY_OBJECT" ) );
     }
     return true;
   }
 
-  private void initializeAclManifest( IRepositoryFileBundle file ) {
+  /**
+   * Turns an entry of the archive into a file to import. Its content is only read when the file is written.
+   */
+  private IRepositoryFileBundle toFileBundle( ZipEntry entry, ImportState importState ) {
+    long start = System.nanoTime();
+    boolean isDir = entry.isDirectory();
+    File file = new File( RepositoryFilenameUtils.separatorsToRepository( entry.getName() ) );
+    RepositoryFile repoFile = new RepositoryFile.Builder( file.getName() ).folder( isDir ).hidden( false ).build();
+    String parentDir =
+        file.getParent() == null ? RepositoryFile.SEPARATOR : file.getParent()
+            + RepositoryFile.SEPARATOR;
+    IRepositoryFileBundle repoFileBundle =
+        new RepositoryFileBundle( repoFile, null, parentDir, importState.archive, isDir ? null : entry, UTF_8, null );
+    importState.decodeStatistics.add( 0, 0, System.nanoTime() - start );
+    return repoFileBundle;
+  }
+
+  /**
+   * Opens the archive of the bundle for random access. An archive that is already on disk is opened in place;
+   * otherwise the bundle's stream is copied once to a temporary file, which is deleted by {@link #closeArchive}.
+   */
+  private ZipFile openArchive( IPlatformImportBundle bundle, ImportState importState ) throws IOException {
+    File archiveFile = bundle instanceof RepositoryFileImportBundle
+        ? ( (RepositoryFileImportBundle) bundle ).getArchiveFile() : null;
+    try ( InputStream inputStream = bundle.getInputStream() ) {
+      if ( archiveFile == null ) {
+        archiveFile = File.createTempFile( "import", ".zip" );
+        importState.temporaryArchive = archiveFile;
+        try ( FileOutputStream fos = new FileOutputStream( archiveFile ) ) {
+          IOUtils.copyLarge( inputStream, fos );
+        }
+      }
+    }
+    importState.archive = new ZipFile( archiveFile, StandardCharsets.UTF_8 );
+    return importState.archive;
+  }
+
+  private void closeArchive( ImportState importState ) {
     try {
-      byte[] bytes = IOUtils.toByteArray( file.getInputStream() );
-      ByteArrayInputStream in = new ByteArrayInputStream( bytes );
+      if ( importState.archive != null ) {
+        importState.archive.close();
+      }
+    } catch ( IOException e ) {
+      getLogger().debug( e.getLocalizedMessage(), e );
+    } finally {
+      importState.archive = null;
+      if ( importState.temporaryArchive != null && !importState.temporaryArchive.delete() ) {
+        getLogger().debug( "Unable to delete " + importState.temporaryArchive );
+      }
+      importState.temporaryArchive = null;
+    }
+  }
+
+  private void initializeAclManifest( IRepositoryFileBundle file ) {
+    try ( InputStream in = file.getInputStream() ) {
       getImportSession().setManifest( ExportManifest.fromXml( in ) );
     } catch ( Exception e ) {
       getLogger().trace( e );
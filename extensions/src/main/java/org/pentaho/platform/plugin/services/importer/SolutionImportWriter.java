@@ -0,0 +1,285 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importer;
+
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+import org.pentaho.platform.plugin.services.importexport.IRepositoryImportLogger;
+import org.pentaho.platform.plugin.services.importexport.ImportSession;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Repository write stage of a solution import.
+ * <p>
+ * With a parallelism of 1 every write runs on the calling thread, in the order it is submitted. Otherwise writes are
+ * queued on one lane per target folder: writes to the same folder, and the creation of a folder and the writes into
+ * it, keep their submission order, while writes to different folders run concurrently on a pool of
+ * {@code parallelism} threads. A write into a folder that was neither created earlier in the import nor exists in
+ * the repository needs the folder to be created implicitly; it waits for all queued writes and runs on the calling
+ * thread, so that implicit folder creation is never concurrent.
+ * <p>
+ * Pool threads run with the security context, the Pentaho session, the import job log and a fork of the
+ * {@link ImportSession} of the thread that created the writer. The forks are merged back into that import session by {@link #close()}.
+ */
+class SolutionImportWriter implements AutoCloseable {
+
+  /**
+   * A single repository write.
+   */
+  interface Write {
+    void run() throws IOException;
+  }
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  private final IUnifiedRepository repository;
+  private final ImportStageStatistics statistics;
+  private final ImportSession importSession;
+  private final UnaryOperator<Runnable> importJob;
+
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final List<ImportSession> forks = new ArrayList<>();
+  private final Map<String, CompletableFuture<Void>> lanes = new HashMap<>();
+  private final Map<String, CompletableFuture<Void>> createdFolders = new HashMap<>();
+  private final Object failureLock = new Object();
+  private Throwable failure;
+  private long started;
+  private long bytes;
+  private long files;
+
+  SolutionImportWriter( IUnifiedRepository repository, ImportSession importSession, int parallelism,
+                        ImportStageStatistics statistics ) {
+    this( repository, importSession, parallelism, statistics, null );
+  }
+
+  /**
+   * @param importLogger
+   *          logger of the running import job, if any; pool threads log to the job started on the calling thread
+   */
+  SolutionImportWriter( IUnifiedRepository repository, ImportSession importSession, int parallelism,
+                        ImportStageStatistics statistics, IRepositoryImportLogger importLogger ) {
+    this.repository = repository;
+    this.importSession = importSession;
+    this.importJob = importLogger != null ? importLogger.captureJob() : UnaryOperator.identity();
+    this.statistics = statistics;
+    if ( parallelism > 1 ) {
+      this.executor = Executors.newFixedThreadPool( parallelism, new ImportThreadFactory() );
+      // bounds the number of files held in memory while waiting for their lane
+      this.permits = new Semaphore( parallelism * 4 );
+    } else {
+      this.executor = null;
+      this.permits = null;
+    }
+  }
+
+  boolean isParallel() {
+    return executor != null;
+  }
+
+  /**
+   * Submits a write into a folder.
+   *
+   * @param folderPath
+   *          repository path of the folder the file or folder is written into
+   * @param createdFolderPath
+   *          repository path of the folder created by this write, or null if it writes a file
+   * @param size
+   *          number of bytes written
+   * @param write
+   *          the write itself
+   * @throws IOException
+   *           if this or an earlier write failed with an exception other than {@link PlatformImportException}
+   */
+  void submit( String folderPath, String createdFolderPath, long size, Write write ) throws IOException {
+    if ( !isParallel() ) {
+      long start = System.nanoTime();
+      try {
+        write.run();
+      } finally {
+        statistics.add( 1, size, System.nanoTime() - start );
+      }
+      return;
+    }
+
+    rethrowFailure();
+    if ( started == 0 ) {
+      started = System.nanoTime();
+    }
+    files++;
+    bytes += size;
+
+    String laneKey = toKey( folderPath );
+    CompletableFuture<Void> lane = lanes.get( laneKey );
+    if ( lane == null ) {
+      lane = createdFolders.get( laneKey );
+    }
+    if ( lane == null ) {
+      if ( repository.getFile( folderPath ) == null ) {
+        drain();
+        write.run();
+        if ( createdFolderPath != null ) {
+          createdFolders.put( toKey( createdFolderPath ), CompletableFuture.completedFuture( null ) );
+        }
+        return;
+      }
+      lane = CompletableFuture.completedFuture( null );
+    }
+
+    try {
+      permits.acquire();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( e.getMessage() );
+    }
+    CompletableFuture<Void> next = lane.thenRunAsync( () -> {
+      try {
+        write.run();
+      } catch ( Throwable t ) {
+        recordFailure( t );
+      } finally {
+        permits.release();
+      }
+    }, executor );
+    lanes.put( laneKey, next );
+    if ( createdFolderPath != null ) {
+      createdFolders.put( toKey( createdFolderPath ), next );
+    }
+  }
+
+  /**
+   * Waits for every queued write to finish.
+   */
+  void drain() throws IOException {
+    if ( !isParallel() ) {
+      return;
+    }
+    CompletableFuture.allOf( lanes.values().toArray( new CompletableFuture[ 0 ] ) ).join();
+    lanes.clear();
+    rethrowFailure();
+  }
+
+  /**
+   * Waits for every queued write, stops the pool and merges what the pool threads recorded into the import session.
+   */
+  @Override
+  public void close() throws IOException {
+    if ( !isParallel() ) {
+      return;
+    }
+    try {
+      drain();
+    } finally {
+      executor.shutdown();
+      try {
+        executor.awaitTermination( Long.MAX_VALUE, TimeUnit.NANOSECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      synchronized ( forks ) {
+        for ( ImportSession fork : forks ) {
+          importSession.merge( fork );
+        }
+        forks.clear();
+      }
+      if ( started != 0 ) {
+        statistics.add( files, bytes, System.nanoTime() - started );
+      }
+    }
+  }
+
+  private void recordFailure( Throwable t ) {
+    synchronized ( failureLock ) {
+      if ( failure == null ) {
+        failure = t;
+      }
+    }
+  }
+
+  private void rethrowFailure() throws IOException {
+    Throwable t;
+    synchronized ( failureLock ) {
+      t = failure;
+    }
+    if ( t == null ) {
+      return;
+    }
+    if ( t instanceof IOException ) {
+      throw (IOException) t;
+    }
+    if ( t instanceof RuntimeException ) {
+      throw (RuntimeException) t;
+    }
+    if ( t instanceof Error ) {
+      throw (Error) t;
+    }
+    throw new UncheckedIOException( new IOException( t ) );
+  }
+
+  private static String toKey( String path ) {
+    String key = path.replace( '\\', '/' );
+    while ( key.length() > 1 && key.endsWith( "/" ) ) {
+      key = key.substring( 0, key.length() - 1 );
+    }
+    return key;
+  }
+
+  private class ImportThreadFactory implements ThreadFactory {
+
+    private final SecurityContext securityContext = SecurityContextHolder.getContext();
+    private final IPentahoSession pentahoSession = PentahoSessionHolder.getSession();
+    private final String namePrefix = "solution-import-" + POOL_NUMBER.incrementAndGet() + "-";
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread( Runnable runnable ) {
+      Thread thread = new Thread( importJob.apply( () -> {
+        ImportSession fork = importSession.fork();
+        synchronized ( forks ) {
+          forks.add( fork );
+        }
+        SecurityContextHolder.setContext( securityContext );
+        PentahoSessionHolder.setSession( pentahoSession );
+        ImportSession.setSession( fork );
+        try {
+          runnable.run();
+        } finally {
+          ImportSession.setSession( null );
+          PentahoSessionHolder.removeSession();
+          SecurityContextHolder.clearContext();
+        }
+      } ), namePrefix + threadNumber.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    }
+  }
+}
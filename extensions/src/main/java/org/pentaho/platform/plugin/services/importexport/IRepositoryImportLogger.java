@@ -18,6 +18,7 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.StringLayout;
 
 import java.io.OutputStream;
+import java.util.function.UnaryOperator;
 
 /**
  * * Below is a sample of how to use this class to generate a log file. 1) You must use startJob(OutputStream,
@@ -120,4 +121,13 @@ public interface IRepositoryImportLogger extends Log {
   boolean isPerformingRestore();
 
   void setPerformingRestore( boolean value );
+
+  /**
+   * Captures the job started on the calling thread, so that threads working for it log to the same job.
+   *
+   * @return wraps a task so that it runs as part of the captured job
+   */
+  default UnaryOperator<Runnable> captureJob() {
+    return UnaryOperator.identity();
+  }
 }
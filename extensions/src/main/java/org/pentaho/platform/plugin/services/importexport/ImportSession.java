@@ -16,6 +16,8 @@ package org.pentaho.platform.plugin.services.importexport;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,7 +40,8 @@ public class ImportSession {
   private static final ThreadLocal<ImportSession> sessions = new ThreadLocal<ImportSession>();
 
   private HashSet<String> skippedFiles = new HashSet<String>(); // Files skipped due to overwriteFlag = false
-  private final HashSet<String> foldersCreatedImplicitly = new HashSet<String>(); // Folders created implicitly
+  // Folders created implicitly; shared with the forks of this session
+  private Set<String> foldersCreatedImplicitly = ConcurrentHashMap.newKeySet();
 
   private Log log;
   private Boolean isNotRunningImport = true;
@@ -62,6 +65,47 @@ public class ImportSession {
     return session;
   }
 
+  /**
+   * Makes the given session the current thread's session. Used by threads that write files on behalf of an import
+   * running in another thread; see {@link #fork()}.
+   */
+  public static void setSession( ImportSession session ) {
+    if ( session == null ) {
+      sessions.remove();
+    } else {
+      sessions.set( session );
+    }
+  }
+
+  /**
+   * Creates a session for another thread taking part in this import. The new session shares the manifest, the ACL
+   * settings, the logger and the set of folders created implicitly of this one, so that every thread of the import
+   * sees the same folders as a sequential import would. It has its own current manifest key and its own other
+   * collections, so it can be used concurrently with this session. Those collections are added back to this session
+   * with {@link #merge}.
+   */
+  public ImportSession fork() {
+    ImportSession fork = new ImportSession();
+    fork.log = log;
+    fork.isNotRunningImport = isNotRunningImport;
+    fork.manifest = manifest;
+    fork.applyAclSettings = applyAclSettings;
+    fork.retainOwnership = retainOwnership;
+    fork.overwriteAclSettings = overwriteAclSettings;
+    fork.foldersCreatedImplicitly = foldersCreatedImplicitly;
+    return fork;
+  }
+
+  /**
+   * Adds the files and schedules recorded by a session created with {@link #fork()} to this session. Must not
+   * be called while the forked session is still in use.
+   */
+  public void merge( ImportSession fork ) {
+    skippedFiles.addAll( fork.skippedFiles );
+    importedRepositoryFiles.addAll( fork.importedRepositoryFiles );
+    importedScheduleJobIds.addAll( fork.importedScheduleJobIds );
+  }
+
   /**
    * Clear out any collections, most likely before starting a new import
    */
@@ -264,7 +308,7 @@ public class ImportSession {
    * these folders. The list is kept so that if the folder entry, itself, is encountered later on in the zip file, the
    * importer will know that this file was already processed as a new file, and not process it as a pre-existing file.
    */
-  public HashSet<String> getFoldersCreatedImplicitly() {
+  public Set<String> getFoldersCreatedImplicitly() {
     return foldersCreatedImplicitly;
   }
 
@@ -19,6 +19,7 @@ import org.apache.logging.log4j.core.StringLayout;
 import org.pentaho.platform.api.util.IRepositoryExportLogger;
 
 import java.io.OutputStream;
+import java.util.function.UnaryOperator;
 
 /**
  * {@inherit}
@@ -86,6 +87,22 @@ public class Log4JRepositoryExportLogger implements IRepositoryExportLogger {
     return ( repositoryExportLog.get() == null ) ? false : true;
   }
 
+  @Override
+  public UnaryOperator<Runnable> captureJob() {
+    final Log4JRepositoryExportLog jobLog = repositoryExportLog.get();
+    if ( jobLog == null ) {
+      return UnaryOperator.identity();
+    }
+    return task -> () -> {
+      repositoryExportLog.set( jobLog );
+      try {
+        task.run();
+      } finally {
+        repositoryExportLog.remove();
+      }
+    };
+  }
+
   @Override
   public void debug( Object arg0 ) {
     getLogger().debug( arg0 );
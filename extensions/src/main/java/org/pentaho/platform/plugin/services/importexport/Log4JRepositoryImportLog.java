@@ -30,7 +30,8 @@ public class Log4JRepositoryImportLog {
   private Logger logger;
   static final String FILE_KEY = "currentFile"; // Intentionally scoped as default
   private OutputStream outputStream;
-  private String currentFilePath;
+  // an import job can write files on several threads at once, each of them with its own current file
+  private final ThreadLocal<String> currentFilePath = new ThreadLocal<String>();
   private String logName;
   private String importRootPath;
   private Level logLevel;
@@ -81,20 +82,28 @@ public class Log4JRepositoryImportLog {
   }
 
   /**
-   * @return the currentFilePath
+   * @return the currentFilePath of the calling thread
    */
   public String getCurrentFilePath() {
-    return currentFilePath;
+    return currentFilePath.get();
   }
 
   /**
-   * @param currentFilePath the currentFilePath to set
+   * @param currentFilePath the currentFilePath of the calling thread to set
    */
   public void setCurrentFilePath( String currentFilePath ) {
-    this.currentFilePath = currentFilePath;
+    this.currentFilePath.set( currentFilePath );
     MDC.put( FILE_KEY, currentFilePath );
   }
 
+  /**
+   * Forgets the currentFilePath of the calling thread, e.g. when a pool thread is done with its part of the job.
+   */
+  void clearCurrentFilePath() {
+    currentFilePath.remove();
+    MDC.remove( FILE_KEY );
+  }
+
   /**
    * @return the importRootPath
    */
@@ -18,6 +18,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.StringLayout;
 
 import java.io.OutputStream;
+import java.util.function.UnaryOperator;
 
 /**
  * {@inherit}
@@ -99,6 +100,23 @@ public class Log4JRepositoryImportLogger implements IRepositoryImportLogger {
     return ( repositoryImportLog.get() == null ) ? false : true;
   }
 
+  @Override
+  public UnaryOperator<Runnable> captureJob() {
+    final Log4JRepositoryImportLog jobLog = repositoryImportLog.get();
+    if ( jobLog == null ) {
+      return UnaryOperator.identity();
+    }
+    return task -> () -> {
+      repositoryImportLog.set( jobLog );
+      try {
+        task.run();
+      } finally {
+        jobLog.clearCurrentFilePath();
+        repositoryImportLog.remove();
+      }
+    };
+  }
+
   @Override
   public boolean isPerformingRestore() {
     return isPerformingRestore;
@@ -0,0 +1,510 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importexport;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.util.IRepositoryExportLogger;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A {@link ZipOutputStream} that deflates entries on a pool of worker threads.
+ * <p>
+ * Work is handed to the stream with {@link #submit(EntryWriter)}: the writer runs on a worker thread against a
+ * private {@code ZipOutputStream} that deflates each entry into a buffer, so reading, converting and compressing
+ * content all happen off the calling thread. Entries written directly with {@link #putNextEntry(ZipEntry)} are
+ * deflated on the calling thread. Either way, entries appear in the archive in the order they were submitted; the
+ * calling thread copies the already deflated data into the archive as it becomes available.
+ * <p>
+ * At most {@code 4 * parallelism} submissions are pending at any time; the calling thread waits for the oldest one
+ * when the limit is reached. Deflated data above {@value #SPILL_THRESHOLD} bytes per entry is kept in a temporary
+ * file rather than in memory.
+ * <p>
+ * A duplicate entry written directly fails with a {@link ZipException}, as with {@code ZipOutputStream}; a
+ * duplicate produced by a submitted writer is logged and skipped. The first exception thrown by a submitted writer
+ * is rethrown by the next call on this stream.
+ * <p>
+ * Instances must only be used from the thread that created them.
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+
+  private static final Log log = LogFactory.getLog( ParallelZipOutputStream.class );
+
+  static final int SPILL_THRESHOLD = 1024 * 1024;
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  /**
+   * Writes one or more entries to a {@code ZipOutputStream}. Runs on a worker thread.
+   */
+  public interface EntryWriter {
+    void write( ZipOutputStream zos ) throws Exception;
+  }
+
+  private final ZipArchiveOutputStream archive;
+  private final ExecutorService executor;
+  private final int maxPending;
+  private final Deque<Future<List<DeflatedEntry>>> pending = new ArrayDeque<>();
+  private final Set<String> names = new HashSet<>();
+
+  private int level = Deflater.DEFAULT_COMPRESSION;
+  private DeflatingZipOutputStream current;
+  private boolean finished;
+
+  public ParallelZipOutputStream( OutputStream out, int parallelism ) {
+    this( out, parallelism, null );
+  }
+
+  /**
+   * @param exportLogger
+   *          logger of the running export job, if any; workers log to the job started on the calling thread
+   */
+  public ParallelZipOutputStream( OutputStream out, int parallelism, IRepositoryExportLogger exportLogger ) {
+    super( OutputStream.nullOutputStream() );
+    this.archive = new ZipArchiveOutputStream( out );
+    this.executor = Executors.newFixedThreadPool( Math.max( 1, parallelism ),
+      new ExportThreadFactory( exportLogger != null ? exportLogger.captureJob() : UnaryOperator.identity() ) );
+    this.maxPending = Math.max( 1, parallelism ) * 4;
+  }
+
+  /**
+   * Runs the writer on a worker thread. The entries it writes are added to the archive after everything submitted
+   * or written before this call.
+   */
+  public void submit( EntryWriter writer ) throws IOException {
+    ensureOpen();
+    closeEntry();
+    final int entryLevel = level;
+    enqueue( executor.submit( () -> {
+      DeflatingZipOutputStream zos = new DeflatingZipOutputStream( entryLevel, false );
+      try {
+        writer.write( zos );
+        zos.closeEntry();
+        return zos.getEntries();
+      } catch ( Exception e ) {
+        zos.discard();
+        throw e;
+      }
+    } ) );
+  }
+
+  /**
+   * Waits for every submitted writer and copies its entries to the archive.
+   *
+   * @throws IOException
+   *           if a submitted writer failed; the entries of the other writers are still written
+   */
+  public void drain() throws IOException {
+    ensureOpen();
+    closeEntry();
+    IOException failure = null;
+    while ( !pending.isEmpty() ) {
+      try {
+        writeNext();
+      } catch ( IOException e ) {
+        if ( failure == null ) {
+          failure = e;
+        }
+      }
+    }
+    if ( failure != null ) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void putNextEntry( ZipEntry e ) throws IOException {
+    ensureOpen();
+    closeEntry();
+    if ( !names.add( e.getName() ) ) {
+      throw new ZipException( "duplicate entry: " + e.getName() ); //$NON-NLS-1$
+    }
+    current = new DeflatingZipOutputStream( level, true );
+    current.putNextEntry( e );
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    ensureOpen();
+    if ( current == null ) {
+      throw new ZipException( "no current ZIP entry" ); //$NON-NLS-1$
+    }
+    current.write( b, off, len );
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    write( new byte[] { (byte) b }, 0, 1 );
+  }
+
+  @Override
+  public void closeEntry() throws IOException {
+    ensureOpen();
+    if ( current != null ) {
+      DeflatingZipOutputStream entry = current;
+      current = null;
+      entry.closeEntry();
+      enqueue( CompletableFuture.completedFuture( entry.getEntries() ) );
+    }
+  }
+
+  @Override
+  public void setLevel( int level ) {
+    this.level = level;
+  }
+
+  @Override
+  public void setComment( String comment ) {
+    archive.setComment( comment );
+  }
+
+  @Override
+  public void flush() throws IOException {
+    archive.flush();
+  }
+
+  /**
+   * Waits for every submitted writer and writes the central directory.
+   */
+  @Override
+  public void finish() throws IOException {
+    if ( finished ) {
+      return;
+    }
+    try {
+      closeEntry();
+      while ( !pending.isEmpty() ) {
+        writeNext();
+      }
+      archive.finish();
+    } finally {
+      finished = true;
+      shutdown();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      archive.close();
+      super.close();
+    }
+  }
+
+  private void enqueue( Future<List<DeflatedEntry>> future ) throws IOException {
+    pending.add( future );
+    while ( !pending.isEmpty() && ( pending.size() > maxPending || pending.peek().isDone() ) ) {
+      writeNext();
+    }
+  }
+
+  private void writeNext() throws IOException {
+    List<DeflatedEntry> entries;
+    try {
+      entries = pending.poll().get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( e.getMessage() );
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof IOException ) {
+        throw (IOException) cause;
+      }
+      throw new IOException( cause.getMessage(), cause );
+    }
+    try {
+      for ( DeflatedEntry entry : entries ) {
+        if ( entry.directlyWritten || names.add( entry.name ) ) {
+          entry.writeTo( archive );
+        } else {
+          log.debug( "duplicate entry: " + entry.name ); //$NON-NLS-1$
+        }
+      }
+    } finally {
+      for ( DeflatedEntry entry : entries ) {
+        entry.delete();
+      }
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( finished ) {
+      throw new IOException( "Stream closed" ); //$NON-NLS-1$
+    }
+  }
+
+  private void shutdown() {
+    executor.shutdownNow();
+    for ( Future<List<DeflatedEntry>> future : pending ) {
+      future.cancel( true );
+      try {
+        for ( DeflatedEntry entry : future.get() ) {
+          entry.delete();
+        }
+      } catch ( Exception e ) {
+        // nothing to clean up
+      }
+    }
+    pending.clear();
+  }
+
+  /**
+   * An entry whose content has been deflated, but not yet written to the archive.
+   */
+  private static class DeflatedEntry {
+    private final String name;
+    private final long time;
+    private final long crc;
+    private final long size;
+    private final long compressedSize;
+    private final SpillBuffer data;
+    private final boolean directlyWritten;
+
+    DeflatedEntry( ZipEntry entry, long crc, long size, long compressedSize, SpillBuffer data,
+                   boolean directlyWritten ) {
+      this.name = entry.getName();
+      this.time = entry.getTime() != -1 ? entry.getTime() : System.currentTimeMillis();
+      this.crc = crc;
+      this.size = size;
+      this.compressedSize = compressedSize;
+      this.data = data;
+      this.directlyWritten = directlyWritten;
+    }
+
+    void writeTo( ZipArchiveOutputStream archive ) throws IOException {
+      ZipArchiveEntry entry = new ZipArchiveEntry( name );
+      entry.setMethod( ZipEntry.DEFLATED );
+      entry.setTime( time );
+      entry.setCrc( crc );
+      entry.setSize( size );
+      entry.setCompressedSize( compressedSize );
+      try ( InputStream in = data.openInputStream() ) {
+        archive.addRawArchiveEntry( entry, in );
+      }
+    }
+
+    void delete() {
+      data.delete();
+    }
+  }
+
+  /**
+   * Deflates every entry written to it into a separate buffer instead of writing an archive.
+   */
+  private static class DeflatingZipOutputStream extends ZipOutputStream {
+
+    private final int level;
+    private final boolean direct;
+    private final List<DeflatedEntry> entries = new ArrayList<>();
+    private final Set<String> entryNames = new HashSet<>();
+
+    private ZipEntry entry;
+    private CRC32 crc;
+    private Deflater deflater;
+    private SpillBuffer data;
+    private DeflaterOutputStream deflaterOutputStream;
+
+    DeflatingZipOutputStream( int level, boolean direct ) {
+      super( OutputStream.nullOutputStream() );
+      this.level = level;
+      this.direct = direct;
+    }
+
+    @Override
+    public void putNextEntry( ZipEntry e ) throws IOException {
+      closeEntry();
+      if ( !entryNames.add( e.getName() ) ) {
+        throw new ZipException( "duplicate entry: " + e.getName() ); //$NON-NLS-1$
+      }
+      entry = e;
+      crc = new CRC32();
+      deflater = new Deflater( level, true );
+      data = new SpillBuffer();
+      deflaterOutputStream = new DeflaterOutputStream( data, deflater, 8192 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+      if ( entry == null ) {
+        throw new ZipException( "no current ZIP entry" ); //$NON-NLS-1$
+      }
+      crc.update( b, off, len );
+      deflaterOutputStream.write( b, off, len );
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+      write( new byte[] { (byte) b }, 0, 1 );
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+      if ( entry == null ) {
+        return;
+      }
+      try {
+        deflaterOutputStream.finish();
+        data.close();
+        entries.add( new DeflatedEntry( entry, crc.getValue(), deflater.getBytesRead(), deflater.getBytesWritten(),
+            data, direct ) );
+      } finally {
+        deflater.end();
+        entry = null;
+      }
+    }
+
+    @Override
+    public void finish() {
+      // entries are collected by the enclosing stream
+    }
+
+    @Override
+    public void close() {
+      // entries are collected by the enclosing stream
+    }
+
+    List<DeflatedEntry> getEntries() {
+      return entries;
+    }
+
+    void discard() {
+      if ( entry != null ) {
+        deflater.end();
+        data.delete();
+        entry = null;
+      }
+      for ( DeflatedEntry deflatedEntry : entries ) {
+        deflatedEntry.delete();
+      }
+      entries.clear();
+    }
+  }
+
+  /**
+   * Keeps data in memory up to {@link #SPILL_THRESHOLD} bytes and in a temporary file beyond that.
+   */
+  private static class SpillBuffer extends OutputStream {
+
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private File file;
+    private OutputStream out = memory;
+
+    @Override
+    public void write( int b ) throws IOException {
+      write( new byte[] { (byte) b }, 0, 1 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+      if ( file == null && memory.size() + len > SPILL_THRESHOLD ) {
+        file = File.createTempFile( "export", ".tmp" ); //$NON-NLS-1$ //$NON-NLS-2$
+        out = new FileOutputStream( file );
+        memory.writeTo( out );
+        memory = null;
+      }
+      out.write( b, off, len );
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    InputStream openInputStream() throws IOException {
+      return file == null ? new ByteArrayInputStream( memory.toByteArray() ) : new FileInputStream( file );
+    }
+
+    void delete() {
+      try {
+        out.close();
+      } catch ( IOException e ) {
+        // ignored, the buffer is being discarded
+      }
+      if ( file != null && !file.delete() ) {
+        file.deleteOnExit();
+      }
+      file = null;
+      memory = null;
+    }
+  }
+
+  /**
+   * Runs the workers as the user that started the export, as part of its export job.
+   */
+  private static class ExportThreadFactory implements ThreadFactory {
+
+    private final UnaryOperator<Runnable> exportJob;
+    private final SecurityContext securityContext = SecurityContextHolder.getContext();
+    private final IPentahoSession pentahoSession = PentahoSessionHolder.getSession();
+    private final String namePrefix = "zip-export-" + POOL_NUMBER.incrementAndGet() + "-";
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    ExportThreadFactory( UnaryOperator<Runnable> exportJob ) {
+      this.exportJob = exportJob;
+    }
+
+    @Override
+    public Thread newThread( Runnable runnable ) {
+      Thread thread = new Thread( exportJob.apply( () -> {
+        SecurityContextHolder.setContext( securityContext );
+        PentahoSessionHolder.setSession( pentahoSession );
+        try {
+          runnable.run();
+        } finally {
+          PentahoSessionHolder.removeSession();
+          SecurityContextHolder.clearContext();
+        }
+      } ), namePrefix + threadNumber.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    }
+  }
+}
@@ -24,10 +24,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * An {@link org.pentaho.platform.plugin.services.importexport.ImportSource.IRepositoryFileBundle} that uses temporary
- * files.
+ * files, or entries of a zip archive that is open for the duration of the import. Zip entries are decompressed each
+ * time {@link #getInputStream()} is called; nothing is extracted up front.
  * 
  * @author mlowery
  */
@@ -41,6 +44,10 @@ public class RepositoryFileBundle implements IRepositoryFileBundle, Serializable
 
   private File tmpFile;
 
+  private transient ZipFile zipFile;
+
+  private transient ZipEntry zipEntry;
+
   private String path;
 
   private String charset;
@@ -58,6 +65,13 @@ public class RepositoryFileBundle implements IRepositoryFileBundle, Serializable
     this.mimeType = mimeType;
   }
 
+  public RepositoryFileBundle( final RepositoryFile file, final RepositoryFileAcl acl, final String path,
+      final ZipFile zipFile, final ZipEntry zipEntry, final String charset, final String mimeType ) {
+    this( file, acl, path, (File) null, charset, mimeType );
+    this.zipFile = zipFile;
+    this.zipEntry = zipEntry;
+  }
+
   public RepositoryFileAcl getAcl() {
     return acl;
   }
@@ -67,9 +81,22 @@ public class RepositoryFileBundle implements IRepositoryFileBundle, Serializable
   }
 
   public InputStream getInputStream() throws IOException {
+    if ( zipEntry != null ) {
+      return new BufferedInputStream( zipFile.getInputStream( zipEntry ) );
+    }
     return new BufferedInputStream( FileUtils.openInputStream( tmpFile ) );
   }
 
+  /**
+   * @return the uncompressed size of the content in bytes, or -1 if it is not known
+   */
+  public long getSize() {
+    if ( zipEntry != null ) {
+      return zipEntry.getSize();
+    }
+    return tmpFile != null ? tmpFile.length() : -1;
+  }
+
   public String getPath() {
     return path;
   }
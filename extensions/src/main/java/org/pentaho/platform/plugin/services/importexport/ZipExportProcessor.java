@@ -27,6 +27,7 @@ import org.pentaho.platform.api.importexport.ExportException;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifest;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifestEntity;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifestFormatException;
 import org.pentaho.platform.repository2.ClientRepositoryPaths;
 import org.pentaho.platform.api.repository2.unified.webservices.LocaleMapDto;
@@ -42,9 +43,13 @@ import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
@@ -62,6 +67,31 @@ public class ZipExportProcessor extends BaseExportProcessor {
 
   private static final int SAFETY_TMP_FILE_SIZE = 50;
 
+  /**
+   * Number of threads reading and compressing repository files; 1 exports on the calling thread only. Defaults to
+   * half the available processors, at most {@link #MAX_DEFAULT_PARALLELISM}
+   */
+  public static final String PARALLELISM_PROPERTY =
+      "org.pentaho.platform.plugin.services.importexport.ZipExportProcessor.parallelism";
+
+  private static final int MAX_DEFAULT_PARALLELISM = 4;
+
+  private int parallelism = getDefaultParallelism();
+
+  protected Date modifiedSince;
+
+  protected ExportManifest previousManifest;
+
+  /**
+   * Repository paths of every file and folder seen by an incremental export, whether it was exported or not
+   */
+  private Set<String> visitedPaths;
+
+  /**
+   * Repository paths of the files and folders known to the previous manifest, with whether each is a folder
+   */
+  private Map<String, Boolean> previousPaths;
+
   private Log logger;
 
 
@@ -130,7 +160,8 @@ public class ZipExportProcessor extends BaseExportProcessor {
       throw new FileNotFoundException( "JCR file not found: " + this.path );
     }
 
-    try ( ZipOutputStream zos = new ZipOutputStream( new FileOutputStream( exportFile ) ) ) {
+    startExport();
+    try ( ZipOutputStream zos = createZipOutputStream( new FileOutputStream( exportFile ) ) ) {
       if ( exportRepositoryFile.isFolder() ) { // Handle recursive export
         exportManifest.getManifestInformation().setRootFolder( path.substring( 0, path.lastIndexOf( "/" ) + 1 ) );
 
@@ -139,12 +170,18 @@ public class ZipExportProcessor extends BaseExportProcessor {
           zos.putNextEntry( new ZipEntry( getFixedZipEntryName( exportRepositoryFile, filePath ) ) );
         }
         exportDirectory( exportRepositoryFile, zos, filePath );
+        addDeletedFilesToManifest( exportRepositoryFile );
 
       } else {
         exportManifest.getManifestInformation().setRootFolder( path.substring( 0, path.lastIndexOf( "/" ) + 1 ) );
         exportFile( exportRepositoryFile, zos, filePath );
       }
 
+      if ( zos instanceof ParallelZipOutputStream ) {
+        // every file must be in the manifest before it is written
+        ( (ParallelZipOutputStream) zos ).drain();
+      }
+
       if ( this.withManifest ) {
         // write manifest to zip output stream
         ZipEntry entry = new ZipEntry( EXPORT_MANIFEST_FILENAME );
@@ -160,6 +197,8 @@ public class ZipExportProcessor extends BaseExportProcessor {
 
         zos.closeEntry();
       }
+    } finally {
+      exportManifest.deleteSpool();
     }
 
     // clean up
@@ -168,6 +207,170 @@ public class ZipExportProcessor extends BaseExportProcessor {
     return exportFile;
   }
 
+  /**
+   * Records the start of the export in the manifest and, when a manifest is written, starts spooling its file entries
+   * to disk. Its time becomes the watermark of the manifest; when
+   * {@link #getModifiedSince()} or the watermark of {@link #getPreviousManifest()} is set, only the files modified
+   * after it are exported.
+   */
+  protected void startExport() {
+    startExport( getEffectiveModifiedSince() );
+  }
+
+  /**
+   * @param since the time after which files must have been modified to be exported, or null for a full export
+   */
+  protected void startExport( Long since ) {
+    exportManifest.getManifestInformation().setModifiedSince( since );
+    exportManifest.getManifestInformation().setWatermark( System.currentTimeMillis() );
+    visitedPaths = since != null ? new HashSet<>() : null;
+    previousPaths = null;
+    if ( withManifest ) {
+      try {
+        exportManifest.spoolEntities();
+      } catch ( IOException e ) {
+        log.warn( "Could not spool the export manifest, keeping it in memory", e );
+      }
+    }
+  }
+
+  /**
+   * @return the time after which files must have been modified to be exported, or null for a full export
+   */
+  protected Long getEffectiveModifiedSince() {
+    if ( modifiedSince != null ) {
+      return modifiedSince.getTime();
+    }
+    if ( previousManifest != null ) {
+      return previousManifest.getManifestInformation().getWatermark();
+    }
+    return null;
+  }
+
+  /**
+   * @return true if the file has to be exported; always true for a full export
+   */
+  protected boolean isModified( RepositoryFile repositoryFile ) {
+    Long since = exportManifest.getManifestInformation().getModifiedSince();
+    if ( since == null ) {
+      return true;
+    }
+    Date modified =
+        repositoryFile.getLastModifiedDate() != null ? repositoryFile.getLastModifiedDate() : repositoryFile
+            .getCreatedDate();
+    return modified == null || modified.getTime() > since;
+  }
+
+  /**
+   * @return true if the previous manifest does not know the file at its current path, i.e. it was created, moved,
+   *         renamed, copied or restored since; moving a file does not change its modification date, so such files
+   *         must be exported even when {@link #isModified(RepositoryFile)} is false. Always false without a previous
+   *         manifest.
+   */
+  protected boolean isNewSincePreviousManifest( RepositoryFile repositoryFile ) {
+    Map<String, Boolean> paths = getPreviousPaths();
+    return paths != null && !paths.containsKey( repositoryFile.getPath() );
+  }
+
+  /**
+   * @return the repository paths listed by the previous manifest, exported or unchanged, or null if there is no
+   *         previous manifest for the same root folder
+   */
+  private Map<String, Boolean> getPreviousPaths() {
+    if ( previousPaths == null && previousManifest != null ) {
+      String rootFolder = exportManifest.getManifestInformation().getRootFolder();
+      if ( rootFolder == null || !rootFolder.equals( previousManifest.getManifestInformation().getRootFolder() ) ) {
+        return null;
+      }
+      Map<String, Boolean> paths = new LinkedHashMap<>();
+      for ( ExportManifestEntity entity : previousManifest.getExportManifestEntities().values() ) {
+        paths.put( rootFolder + entity.getPath(), entity.getEntityMetaData().isIsFolder() );
+      }
+      for ( String unchangedFile : previousManifest.getUnchangedFiles() ) {
+        paths.putIfAbsent( rootFolder + unchangedFile, Boolean.FALSE );
+      }
+      previousPaths = paths;
+    }
+    return previousPaths;
+  }
+
+  private void addUnchangedToManifest( RepositoryFile repositoryFile ) {
+    String rootFolder = exportManifest.getManifestInformation().getRootFolder();
+    if ( rootFolder != null && repositoryFile.getPath().startsWith( rootFolder ) ) {
+      synchronized ( exportManifest ) {
+        exportManifest.addUnchangedFile( repositoryFile.getPath().substring( rootFolder.length() ) );
+      }
+    }
+  }
+
+  /**
+   * Adds the files deleted below the exported folder to the manifest of an incremental export. Deletions are taken
+   * from the previous manifest, if there is one, as the files it lists that no longer exist, and from the trash as
+   * the files deleted after the watermark.
+   */
+  protected void addDeletedFilesToManifest( RepositoryFile exportRepositoryDir ) {
+    Long since = exportManifest.getManifestInformation().getModifiedSince();
+    if ( since == null || visitedPaths == null ) {
+      return;
+    }
+    String rootFolder = exportManifest.getManifestInformation().getRootFolder();
+    String exportPath = exportRepositoryDir.getPath();
+    Map<String, Boolean> deletedFiles = new LinkedHashMap<>();
+
+    Map<String, Boolean> paths = getPreviousPaths();
+    if ( paths != null ) {
+      for ( Map.Entry<String, Boolean> previousPath : paths.entrySet() ) {
+        String repositoryPath = previousPath.getKey();
+        if ( isBelow( repositoryPath, exportPath ) && !visitedPaths.contains( repositoryPath ) ) {
+          deletedFiles.put( repositoryPath, previousPath.getValue() );
+        }
+      }
+    }
+
+    try {
+      for ( RepositoryFile deletedFile : getUnifiedRepository().getAllDeletedFiles() ) {
+        if ( deletedFile.getDeletedDate() == null || deletedFile.getDeletedDate().getTime() <= since
+            || deletedFile.getOriginalParentFolderPath() == null ) {
+          continue;
+        }
+        String parentPath = deletedFile.getOriginalParentFolderPath();
+        String repositoryPath =
+            parentPath.endsWith( RepositoryFile.SEPARATOR ) ? parentPath + deletedFile.getName()
+                : parentPath + RepositoryFile.SEPARATOR + deletedFile.getName();
+        if ( isBelow( repositoryPath, exportPath ) && !visitedPaths.contains( repositoryPath ) ) {
+          deletedFiles.putIfAbsent( repositoryPath, deletedFile.isFolder() );
+        }
+      }
+    } catch ( RuntimeException e ) {
+      log.warn( "Unable to read deleted files from the trash: " + e.getMessage(), e );
+    }
+
+    for ( Map.Entry<String, Boolean> deletedFile : deletedFiles.entrySet() ) {
+      if ( deletedFile.getKey().startsWith( rootFolder ) ) {
+        exportManifest.addDeletedFile( deletedFile.getKey().substring( rootFolder.length() ), deletedFile.getValue() );
+      }
+    }
+    if ( logger != null ) {
+      logger.debug( "Added [ " + deletedFiles.size() + " ] deleted files to the manifest" );
+    }
+  }
+
+  private static boolean isBelow( String repositoryPath, String folderPath ) {
+    String prefix = folderPath.endsWith( RepositoryFile.SEPARATOR ) ? folderPath : folderPath + RepositoryFile.SEPARATOR;
+    return repositoryPath.startsWith( prefix );
+  }
+
+  /**
+   * Creates the stream the export is written to. Files are read and compressed on {@link #getParallelism()} threads
+   * when it is greater than 1.
+   */
+  protected ZipOutputStream createZipOutputStream( OutputStream outputStream ) {
+    if ( parallelism > 1 ) {
+      return new ParallelZipOutputStream( outputStream, parallelism, getRepositoryExportLogger() );
+    }
+    return new ZipOutputStream( outputStream );
+  }
+
   /**
    * @param repositoryFile
    * @param outputStream
@@ -177,6 +380,18 @@ public class ZipExportProcessor extends BaseExportProcessor {
   public void exportFile( RepositoryFile repositoryFile, OutputStream outputStream, String filePath ) throws
       ExportException, IOException {
 
+    if ( outputStream instanceof ParallelZipOutputStream ) {
+      ( (ParallelZipOutputStream) outputStream ).submit( zos -> {
+        try {
+          exportFile( repositoryFile, zos, filePath );
+        } catch ( ZipException e ) {
+          // possible duplicate entry, log it and continue on with the other files
+          log.debug( e.getMessage(), e );
+        }
+      } );
+      return;
+    }
+
     // we need a zip
     ZipOutputStream zos = (ZipOutputStream) outputStream;
 
@@ -223,7 +438,11 @@ public class ZipExportProcessor extends BaseExportProcessor {
       // add this entity to the manifest
       RepositoryFileAcl fileAcl = getUnifiedRepository().getAcl( repositoryFile.getId() );
       try {
-        getExportManifest().add( repositoryFile, fileAcl );
+        ExportManifest manifest = getExportManifest();
+        // files may be exported concurrently, see createZipOutputStream
+        synchronized ( manifest ) {
+          manifest.add( repositoryFile, fileAcl );
+        }
       } catch ( ExportManifestFormatException e ) {
         throw new ExportException( e.getMessage() );
       }
@@ -241,6 +460,9 @@ public class ZipExportProcessor extends BaseExportProcessor {
       logger.debug( "Adding repository object [ " + repositoryDir.getName() + " ] to the manifest" );
     }
     addToManifest( repositoryDir );
+    if ( visitedPaths != null ) {
+      visitedPaths.add( repositoryDir.getPath() );
+    }
     List<RepositoryFile> children = getUnifiedRepository().getChildren( new RepositoryRequest(
         String.valueOf( repositoryDir.getId() ), true, 1, null ) );
     if ( logger != null ) {
@@ -256,7 +478,8 @@ public class ZipExportProcessor extends BaseExportProcessor {
           if ( logger != null ) {
             logger.debug( "Repository Object [ " + repositoryFile.getName() + " ] is a folder. Adding it to the bundle" );
           }
-          if ( outputStream.getClass().isAssignableFrom( ZipOutputStream.class ) ) {
+          if ( outputStream.getClass().isAssignableFrom( ZipOutputStream.class )
+              || outputStream instanceof ParallelZipOutputStream ) {
             ZipOutputStream zos = (ZipOutputStream) outputStream;
             String zipEntryName = getFixedZipEntryName( repositoryFile, filePath );
             ZipEntry entry = new ZipEntry( zipEntryName );
@@ -267,6 +490,16 @@ public class ZipExportProcessor extends BaseExportProcessor {
           }
           exportDirectory( repositoryFile, outputStream, filePath );
         } else {
+          if ( visitedPaths != null ) {
+            visitedPaths.add( repositoryFile.getPath() );
+          }
+          if ( !isModified( repositoryFile ) && !isNewSincePreviousManifest( repositoryFile ) ) {
+            if ( logger != null ) {
+              logger.trace( "Repository object [ " + repositoryFile.getName() + " ] is unchanged, skipping it" );
+            }
+            addUnchangedToManifest( repositoryFile );
+            continue;
+          }
           try {
             if ( logger != null ) {
               logger.debug( "Repository Object [ " + repositoryFile.getName() + " ] is a file. Adding it to the bundle" );
@@ -476,6 +709,56 @@ public class ZipExportProcessor extends BaseExportProcessor {
     this.localeExportList = localeExportList;
   }
 
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism( int parallelism ) {
+    this.parallelism = Math.max( 1, parallelism );
+  }
+
+  private static int getDefaultParallelism() {
+    int processors = Math.max( 1, Math.min( MAX_DEFAULT_PARALLELISM, Runtime.getRuntime().availableProcessors() / 2 ) );
+    String property = System.getProperty( PARALLELISM_PROPERTY );
+    if ( property == null ) {
+      return processors;
+    }
+    try {
+      return Math.max( 1, Integer.parseInt( property.trim() ) );
+    } catch ( NumberFormatException e ) {
+      return processors;
+    }
+  }
+
+  public Date getModifiedSince() {
+    return modifiedSince;
+  }
+
+  /**
+   * Turns the next exports into incremental exports of the files modified after the given time. Folders are always
+   * exported, so that their ACLs are kept in sync. Moving, renaming, copying or restoring a file keeps its modification
+   * date, so without a {@link #setPreviousManifest(ExportManifest) previous manifest} such files are not exported.
+   *
+   * @param modifiedSince null to export everything
+   */
+  public void setModifiedSince( Date modifiedSince ) {
+    this.modifiedSince = modifiedSince;
+  }
+
+  public ExportManifest getPreviousManifest() {
+    return previousManifest;
+  }
+
+  /**
+   * Sets the manifest of the export the next exports are based on. Unless {@link #setModifiedSince(Date)} is used,
+   * its watermark selects the modified files. The files it does not list are exported whatever their modification
+   * date, which covers moved, copied and restored files; the files it lists which no longer exist are recorded as
+   * deleted.
+   */
+  public void setPreviousManifest( ExportManifest previousManifest ) {
+    this.previousManifest = previousManifest;
+  }
+
   public ExportManifest getExportManifest() {
     return exportManifest;
   }
@@ -20,11 +20,13 @@ import org.pentaho.platform.plugin.services.importexport.ExportManifestUserSetti
 import org.pentaho.platform.plugin.services.importexport.RoleExport;
 import org.pentaho.platform.plugin.services.importexport.UserExport;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.DatabaseConnection;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestDeletedFile;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestDto;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestEntityDto;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMetaStore;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMetadata;
 import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestMondrian;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.JobScheduleRequest;
 import org.pentaho.platform.util.StringUtil;
 import org.pentaho.platform.util.xml.XMLParserFactoryProducer;
 
@@ -44,13 +46,22 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -60,8 +71,15 @@ import java.util.TreeSet;
  * @author tkafalas
  */
 public class ExportManifest {
+  private static final String NAMESPACE = "http://www.pentaho.com/schema/"; //$NON-NLS-1$
+
   private HashMap<String, ExportManifestEntity> exportManifestEntities;
 
+  private File entitySpoolFile;
+  private OutputStream entitySpool;
+  private Marshaller entitySpoolMarshaller;
+  private Set<String> spooledPaths = new HashSet<>();
+
   private ExportManifestDto.ExportManifestInformation manifestInformation;
   private List<ExportManifestMetadata> metadataList = new ArrayList<>();
   private List<ExportManifestMondrian> mondrianList = new ArrayList<>();
@@ -71,6 +89,8 @@ public class ExportManifest {
   private List<RoleExport> roleExports = new ArrayList<>();
   private List<ExportManifestUserSetting> globalUserSettings = new ArrayList<>();
   private ExportManifestMetaStore metaStore;
+  private List<ExportManifestDeletedFile> deletedFiles = new ArrayList<>();
+  private List<String> unchangedFiles = new ArrayList<>();
 
   public ExportManifest() {
     this.exportManifestEntities = new HashMap<>();
@@ -94,6 +114,8 @@ public class ExportManifest {
     roleExports = exportManifestDto.getExportManifestRole();
     globalUserSettings = exportManifestDto.getGlobalUserSettings();
     setMetaStore( exportManifestDto.getExportManifestMetaStore() );
+    deletedFiles = exportManifestDto.getExportManifestDeletedFile();
+    unchangedFiles = exportManifestDto.getExportManifestUnchangedFile();
   }
 
   /**
@@ -116,11 +138,60 @@ public class ExportManifest {
   }
 
   private void add( ExportManifestEntity exportManifestEntity ) throws ExportManifestFormatException {
-    if ( exportManifestEntity.isValid() ) {
-      exportManifestEntities.put( exportManifestEntity.getPath(), exportManifestEntity );
-    } else {
+    if ( !exportManifestEntity.isValid() ) {
       throw new ExportManifestFormatException( "Invalid Manifest Entry" );
     }
+    if ( entitySpool == null ) {
+      exportManifestEntities.put( exportManifestEntity.getPath(), exportManifestEntity );
+    } else if ( spooledPaths.add( exportManifestEntity.getPath() ) ) {
+      try {
+        entitySpoolMarshaller.marshal( new JAXBElement<>( new QName( "ExportManifestEntity" ),
+          ExportManifestEntityDto.class, exportManifestEntity.getExportManifestEntityDto() ), entitySpool );
+      } catch ( JAXBException e ) {
+        throw new ExportManifestFormatException( "Could not spool Manifest Entry", e );
+      }
+    }
+  }
+
+  /**
+   * Writes the file and folder entries to a temporary file as they are added instead of holding them in memory until
+   * the manifest is written. {@link #toXml(OutputStream)} copies the spooled entries into the manifest; they are not
+   * returned by {@link #getExportManifestEntities()}. Call {@link #deleteSpool()} once the manifest has been written.
+   *
+   * @throws IOException if the temporary file cannot be created
+   */
+  public synchronized void spoolEntities() throws IOException {
+    if ( entitySpool != null ) {
+      return;
+    }
+    try {
+      entitySpoolMarshaller = getMarshaller();
+      entitySpoolMarshaller.setProperty( Marshaller.JAXB_FRAGMENT, Boolean.TRUE );
+    } catch ( JAXBException e ) {
+      throw new IOException( e );
+    }
+    entitySpoolFile = File.createTempFile( "exportManifest", ".xml" ); //$NON-NLS-1$ //$NON-NLS-2$
+    entitySpoolFile.deleteOnExit();
+    entitySpool = new BufferedOutputStream( new FileOutputStream( entitySpoolFile ) );
+  }
+
+  /**
+   * Removes the temporary file started by {@link #spoolEntities()}, discarding the entries spooled so far
+   */
+  public synchronized void deleteSpool() {
+    if ( entitySpool == null ) {
+      return;
+    }
+    try {
+      entitySpool.close();
+    } catch ( IOException e ) {
+      // the file is deleted anyway
+    }
+    entitySpoolFile.delete();
+    entitySpool = null;
+    entitySpoolFile = null;
+    entitySpoolMarshaller = null;
+    spooledPaths.clear();
   }
 
   /**
@@ -147,10 +218,64 @@ public class ExportManifest {
     if ( !isValid() ) {
       throw new ExportManifestFormatException( "Invalid root Folder for manifest" );
     }
+    if ( entitySpool != null ) {
+      try {
+        writeSpooledXml( outputStream );
+      } catch ( IOException e ) {
+        throw new JAXBException( e );
+      }
+      return;
+    }
     getMarshaller().marshal( new JAXBElement<ExportManifestDto>( new QName( "http://www.pentaho.com/schema/",
       "ExportManifest" ), ExportManifestDto.class, getExportManifestDto() ), outputStream );
   }
 
+  /**
+   * Writes the manifest element by element in the order of {@link ExportManifestDto}, copying the spooled entries in
+   * place, so the file and folder entries are never held in memory together
+   */
+  private void writeSpooledXml( OutputStream outputStream ) throws JAXBException, IOException {
+    entitySpool.flush();
+    Marshaller marshaller = getMarshaller();
+    marshaller.setProperty( Marshaller.JAXB_FRAGMENT, Boolean.TRUE );
+    outputStream.write( ( "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<ns2:ExportManifest "
+      + "xmlns:ns2=\"" + NAMESPACE + "\">\n" ).getBytes( StandardCharsets.UTF_8 ) ); //$NON-NLS-1$ //$NON-NLS-2$
+    marshalElement( marshaller, "ExportManifestInformation", ExportManifestDto.ExportManifestInformation.class,
+      manifestInformation, outputStream );
+    marshalElements( marshaller, "ExportManifestMondrian", ExportManifestMondrian.class, mondrianList, outputStream );
+    marshalElements( marshaller, "ExportManifestMetadata", ExportManifestMetadata.class, metadataList, outputStream );
+    marshalElements( marshaller, "ExportManifestSchedule", JobScheduleRequest.class,
+      ExportManifestUtil.fromSchedulerToBindingRequest( scheduleList ), outputStream );
+    marshalElements( marshaller, "ExportManifestDatasource", DatabaseConnection.class, datasourceList, outputStream );
+    outputStream.flush();
+    Files.copy( entitySpoolFile.toPath(), outputStream );
+    marshalElements( marshaller, "ExportManifestUser", UserExport.class, userExports, outputStream );
+    marshalElements( marshaller, "ExportManifestRole", RoleExport.class, roleExports, outputStream );
+    if ( metaStore != null ) {
+      marshalElement( marshaller, "ExportManifestMetaStore", ExportManifestMetaStore.class, metaStore, outputStream );
+    }
+    marshalElements( marshaller, "ExportManifestGlobalUserSetting", ExportManifestUserSetting.class,
+      globalUserSettings, outputStream );
+    marshalElements( marshaller, "ExportManifestDeletedFile", ExportManifestDeletedFile.class, deletedFiles,
+      outputStream );
+    marshalElements( marshaller, "ExportManifestUnchangedFile", String.class, unchangedFiles, outputStream );
+    outputStream.write( "</ns2:ExportManifest>\n".getBytes( StandardCharsets.UTF_8 ) ); //$NON-NLS-1$
+    outputStream.flush();
+  }
+
+  private static <T> void marshalElements( Marshaller marshaller, String name, Class<T> type,
+                                           Collection<? extends T> values, OutputStream outputStream )
+    throws JAXBException {
+    for ( T value : values ) {
+      marshalElement( marshaller, name, type, value, outputStream );
+    }
+  }
+
+  private static <T> void marshalElement( Marshaller marshaller, String name, Class<T> type, T value,
+                                          OutputStream outputStream ) throws JAXBException {
+    marshaller.marshal( new JAXBElement<>( new QName( name ), type, value ), outputStream );
+  }
+
   public String toXmlString() throws JAXBException {
     StringWriter sw = new StringWriter();
     Marshaller marshaller = getMarshaller();
@@ -167,6 +292,10 @@ public class ExportManifest {
   }
 
   public static ExportManifest fromXml( ByteArrayInputStream input ) throws JAXBException {
+    return fromXml( (InputStream) input );
+  }
+
+  public static ExportManifest fromXml( InputStream input ) throws JAXBException {
     SAXParserFactory secureSAXParserFactory;
     try {
       secureSAXParserFactory = XMLParserFactoryProducer.createSecureSAXParserFactory();
@@ -214,6 +343,8 @@ public class ExportManifest {
     rawExportManifest.getExportManifestRole().addAll( this.getRoleExports() );
     rawExportManifest.setExportManifestMetaStore( this.getMetaStore() );
     rawExportManifest.getGlobalUserSettings().addAll( this.getGlobalUserSettings() );
+    rawExportManifest.getExportManifestDeletedFile().addAll( this.deletedFiles );
+    rawExportManifest.getExportManifestUnchangedFile().addAll( this.unchangedFiles );
 
     return rawExportManifest;
   }
@@ -229,7 +360,7 @@ public class ExportManifest {
   }
 
   public boolean isValid() {
-    if ( !this.exportManifestEntities.isEmpty() ) {
+    if ( !this.exportManifestEntities.isEmpty() || !spooledPaths.isEmpty() ) {
       for ( ExportManifestEntity manEntity : exportManifestEntities.values() ) {
         if ( !manEntity.isValid() ) {
           return false;
@@ -323,4 +454,40 @@ public class ExportManifest {
   public void addGlobalUserSetting( ExportManifestUserSetting globalSetting ) {
     globalUserSettings.add( globalSetting );
   }
+
+  /**
+   * @return true if this manifest describes an incremental export, which only contains the files modified since
+   *         {@link ExportManifestDto.ExportManifestInformation#getModifiedSince()}
+   */
+  public boolean isIncremental() {
+    return manifestInformation.getModifiedSince() != null;
+  }
+
+  /**
+   * Records a file or folder deleted since the watermark of an incremental export.
+   *
+   * @param path path relative to the root folder of the manifest
+   * @param isFolder
+   */
+  public void addDeletedFile( String path, boolean isFolder ) {
+    deletedFiles.add( new ExportManifestDeletedFile( path, isFolder ) );
+  }
+
+  public List<ExportManifestDeletedFile> getDeletedFiles() {
+    return deletedFiles;
+  }
+
+  /**
+   * Records a file left out of an incremental export because it was not modified since the watermark, so that the
+   * next incremental export still knows it existed at this path.
+   *
+   * @param path path relative to the root folder of the manifest
+   */
+  public void addUnchangedFile( String path ) {
+    unchangedFiles.add( path );
+  }
+
+  public List<String> getUnchangedFiles() {
+    return unchangedFiles;
+  }
 }
@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importexport.exportManifest.bindings;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlAttribute;
+import jakarta.xml.bind.annotation.XmlType;
+
+/**
+ * A repository file or folder that was deleted since the watermark of an incremental export. The path is relative to
+ * the root folder of the manifest, like the path of an {@link ExportManifestEntityDto}.
+ */
+@XmlAccessorType( XmlAccessType.FIELD )
+@XmlType( name = "ExportManifestDeletedFile" )
+public class ExportManifestDeletedFile {
+
+  @XmlAttribute( name = "path", required = true )
+  protected String path;
+
+  @XmlAttribute( name = "isFolder" )
+  protected Boolean isFolder;
+
+  public ExportManifestDeletedFile() {
+  }
+
+  public ExportManifestDeletedFile( String path, boolean isFolder ) {
+    this.path = path;
+    this.isFolder = isFolder;
+  }
+
+  /**
+   * Get the path of the deleted file, relative to the root folder of the manifest
+   * @return
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Set the path of the deleted file, relative to the root folder of the manifest
+   * @param path
+   */
+  public void setPath( String path ) {
+    this.path = path;
+  }
+
+  public boolean isFolder() {
+    return isFolder != null && isFolder;
+  }
+
+  public void setFolder( boolean isFolder ) {
+    this.isFolder = isFolder;
+  }
+}
@@ -75,7 +75,8 @@ import java.util.List;
 @XmlAccessorType ( XmlAccessType.FIELD )
 @XmlType ( name = "ExportManifestDto", propOrder = { "exportManifestInformation", "exportManifestMondrian",
   "exportManifestMetadata", "exportManifestSchedule", "exportManifestDatasource", "exportManifestEntity",
-  "exportManifestUser", "exportManifestRole", "exportManifestMetaStore", "globalUserSettings" } )
+  "exportManifestUser", "exportManifestRole", "exportManifestMetaStore", "globalUserSettings",
+  "exportManifestDeletedFile", "exportManifestUnchangedFile" } )
 public class ExportManifestDto {
 
   @XmlElement ( name = "ExportManifestInformation", required = true )
@@ -98,6 +99,10 @@ public class ExportManifestDto {
   protected ExportManifestMetaStore exportManifestMetaStore;
   @XmlElement ( name = "ExportManifestGlobalUserSetting" )
   protected List<ExportManifestUserSetting> globalUserSettings;
+  @XmlElement ( name = "ExportManifestDeletedFile" )
+  protected List<ExportManifestDeletedFile> exportManifestDeletedFile;
+  @XmlElement ( name = "ExportManifestUnchangedFile" )
+  protected List<String> exportManifestUnchangedFile;
 
   /**
    * Gets the value of the exportManifestInformation property.
@@ -293,6 +298,10 @@ public class ExportManifestDto {
     protected String rootFolder;
     @XmlAttribute ( name = "manifestVersion" )
     protected String manifestVersion;
+    @XmlAttribute ( name = "modifiedSince" )
+    protected Long modifiedSince;
+    @XmlAttribute ( name = "watermark" )
+    protected Long watermark;
 
     /**
      * Gets the value of the exportDate property.
@@ -374,6 +383,44 @@ public class ExportManifestDto {
       this.manifestVersion = manifestVersion;
     }
 
+    /**
+     * Gets the time, in milliseconds since the epoch, after which files must have been modified to be included in
+     * an incremental export; null for a full export.
+     *
+     * @return possible object is {@link Long }
+     */
+    public Long getModifiedSince() {
+      return modifiedSince;
+    }
+
+    /**
+     * Sets the value of the modifiedSince property.
+     *
+     * @param modifiedSince allowed object is {@link Long }
+     */
+    public void setModifiedSince( Long modifiedSince ) {
+      this.modifiedSince = modifiedSince;
+    }
+
+    /**
+     * Gets the time, in milliseconds since the epoch, at which the export started. An incremental export based on
+     * this manifest includes the files modified after it.
+     *
+     * @return possible object is {@link Long }
+     */
+    public Long getWatermark() {
+      return watermark;
+    }
+
+    /**
+     * Sets the value of the watermark property.
+     *
+     * @param watermark allowed object is {@link Long }
+     */
+    public void setWatermark( Long watermark ) {
+      this.watermark = watermark;
+    }
+
   }
 
   /**
@@ -399,4 +446,28 @@ public class ExportManifestDto {
     }
     return globalUserSettings;
   }
+
+  /**
+   * Gets the files deleted since the watermark of an incremental export.
+   *
+   * @return live list of {@link ExportManifestDeletedFile}
+   */
+  public List<ExportManifestDeletedFile> getExportManifestDeletedFile() {
+    if ( exportManifestDeletedFile == null ) {
+      exportManifestDeletedFile = new ArrayList<>();
+    }
+    return exportManifestDeletedFile;
+  }
+
+  /**
+   * Gets the files left out of an incremental export because they were not modified since the watermark.
+   *
+   * @return live list of paths relative to the root folder
+   */
+  public List<String> getExportManifestUnchangedFile() {
+    if ( exportManifestUnchangedFile == null ) {
+      exportManifestUnchangedFile = new ArrayList<>();
+    }
+    return exportManifestUnchangedFile;
+  }
 }
@@ -0,0 +1,31 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.metadata;
+
+import org.pentaho.metadata.repository.IMetadataDomainRepository;
+
+/**
+ * A metadata domain repository which can tell when a domain changes, without loading it. This allows callers to share
+ * a single parsed copy of each version of a domain.
+ */
+public interface IVersionAwareMetadataDomainRepository extends IMetadataDomainRepository {
+
+  /**
+   * Retrieve the version of a domain, which changes whenever the domain or one of its locale files is stored.
+   *
+   * @param domainId the domain id
+   * @return the version of the domain, or <code>null</code> if the domain doesn't exist or its version is unknown
+   */
+  String getDomainVersion( String domainId );
+}
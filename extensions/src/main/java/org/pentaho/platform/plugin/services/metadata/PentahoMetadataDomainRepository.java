@@ -58,6 +58,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
@@ -79,7 +80,7 @@ import static java.util.stream.Collectors.toMap;
 public class PentahoMetadataDomainRepository implements IMetadataDomainRepository,
   IModelAnnotationsAwareMetadataDomainRepositoryImporter,
   IAclAwarePentahoMetadataDomainRepositoryImporter, IPentahoMetadataDomainRepositoryExporter,
-        IDataSourceAwareMetadataDomainRepository {
+        IDataSourceAwareMetadataDomainRepository, IVersionAwareMetadataDomainRepository {
   // The logger for this class
   private static final Log logger = LogFactory.getLog( PentahoMetadataDomainRepository.class );
 
@@ -505,6 +506,60 @@ public class PentahoMetadataDomainRepository implements IMetadataDomainRepositor
     return domain;
   }
 
+  /**
+   * The version of a domain is made of the ids and versions of its domain file and locale files, which change whenever
+   * one of them is stored. If the repository keeps no version of a file, its last modification date is used instead.
+   */
+  @Override
+  public String getDomainVersion( final String domainId ) {
+    if ( StringUtils.isEmpty( domainId ) ) {
+      return null;
+    }
+
+    final RepositoryFile file = getMetadataRepositoryFile( domainId );
+    if ( file == null ) {
+      return null;
+    }
+
+    StringBuilder version = new StringBuilder();
+    if ( !appendFileVersion( version, file ) ) {
+      return null;
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<String, RepositoryFile> localeFiles = metadataMapping.getLocaleFiles( domainId );
+      if ( localeFiles != null ) {
+        for ( Map.Entry<String, RepositoryFile> localeFile : new TreeMap<>( localeFiles ).entrySet() ) {
+          version.append( '|' ).append( localeFile.getKey() ).append( '=' );
+          if ( !appendFileVersion( version, localeFile.getValue() ) ) {
+            return null;
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return version.toString();
+  }
+
+  private static boolean appendFileVersion( StringBuilder version, RepositoryFile file ) {
+    if ( file == null || file.getId() == null ) {
+      return false;
+    }
+
+    version.append( file.getId() ).append( ':' );
+    if ( file.getVersionId() != null ) {
+      version.append( file.getVersionId() );
+    } else if ( file.getLastModifiedDate() != null ) {
+      version.append( file.getLastModifiedDate().getTime() );
+    } else {
+      return false;
+    }
+    return true;
+  }
+
   /**
    * Parses SimpleRepositoryFileData to Domain object.
    * @param fileMetadata jcr file metadata information.
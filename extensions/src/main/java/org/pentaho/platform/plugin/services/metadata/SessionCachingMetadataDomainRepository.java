@@ -18,8 +18,14 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pentaho.metadata.model.Domain;
+import org.pentaho.metadata.model.Category;
+import org.pentaho.metadata.model.LogicalColumn;
 import org.pentaho.metadata.model.LogicalModel;
+import org.pentaho.metadata.model.LogicalTable;
+import org.pentaho.metadata.model.concept.Concept;
 import org.pentaho.metadata.model.concept.IConcept;
+import org.pentaho.metadata.model.concept.security.Security;
+import org.pentaho.metadata.model.concept.security.SecurityOwner;
 import org.pentaho.metadata.repository.DomainAlreadyExistsException;
 import org.pentaho.metadata.repository.DomainIdNullException;
 import org.pentaho.metadata.repository.DomainStorageException;
@@ -32,20 +38,28 @@ import org.pentaho.platform.api.engine.ISystemConfig;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.springframework.security.core.GrantedAuthority;
 
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -80,6 +94,40 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
   private final IMetadataDomainRepository delegate;
   private static final String DOMAIN_CACHE_KEY_PREDICATE = "domain-id-cache-for-session:";
 
+  /**
+   * Tags of the cache entries, used to invalidate them with {@link ICacheManager#invalidateByTag(String, Object)}
+   * instead of scanning the keys of the region. Every domain is tagged with {@link #DOMAINS_TAG}, its session and its
+   * domain id; every domain id list with {@link #DOMAIN_IDS_TAG} and its session.
+   */
+  private static final String DOMAINS_TAG = "domains"; //$NON-NLS-1$
+  private static final String DOMAIN_IDS_TAG = "domain-ids"; //$NON-NLS-1$
+  private static final String SESSION_TAG_PREFIX = "session:"; //$NON-NLS-1$
+  private static final String DOMAIN_TAG_PREFIX = "domain:"; //$NON-NLS-1$
+
+  /**
+   * Tag of the single parsed copy of each version of a domain, shared by all sessions. The sessions of a same user and
+   * roles also share the secure view of a domain, so the entries of each session only reference shared instances. A
+   * view is also tagged with each session it was handed to, so that it does not outlive them.
+   */
+  private static final String SHARED_DOMAINS_TAG = "shared-domains"; //$NON-NLS-1$
+
+  /**
+   * The version of each domain which was last handed out, to drop the cached copies of a domain when it changes
+   * without going through this repository.
+   */
+  private final ConcurrentMap<String, String> domainVersions = new ConcurrentHashMap<>();
+
+  /**
+   * The users that the security of each shared domain names, see {@link #getUserOwners(SharedDomainKey, Domain)}.
+   */
+  private final ConcurrentMap<SharedDomainKey, Set<String>> userOwners = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Object, Object> loadLocks = new ConcurrentHashMap<>();
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+  private final LongAdder sharedHitCount = new LongAdder();
+  private final LongAdder createdViewCount = new LongAdder();
+
   /**
    * this as a public class so that if necessary someone can get access to a session key and clear the cache in their
    * own way via javascript rule / etc
@@ -131,6 +179,117 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
     }
   }
 
+  /**
+   * Key of the shared copy of a version of a domain, when {@code securityIdentity} is <code>null</code>, and of its
+   * secure views otherwise.
+   */
+  private static final class SharedDomainKey implements Serializable {
+    private static final long serialVersionUID = -4512893530842785361L;
+    private final String domainId;
+    private final String version;
+    private final String securityIdentity;
+
+    SharedDomainKey( String domainId, String version, String securityIdentity ) {
+      this.domainId = domainId;
+      this.version = version;
+      this.securityIdentity = securityIdentity;
+    }
+
+    @Override
+    public boolean equals( final Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof SharedDomainKey ) ) {
+        return false;
+      }
+      SharedDomainKey that = (SharedDomainKey) o;
+      return Objects.equals( domainId, that.domainId ) && Objects.equals( version, that.version )
+        && Objects.equals( securityIdentity, that.securityIdentity );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( domainId, version, securityIdentity );
+    }
+
+    @Override
+    public String toString() {
+      return "(" + domainId + "," + version //$NON-NLS-1$ //$NON-NLS-2$
+        + "," + securityIdentity + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
+  /**
+   * Statistics of the shared domain cache, see {@link #getDomainCacheStatistics()}.
+   */
+  public static class DomainCacheStatistics {
+    private final long loadCount;
+    private final long loadNanos;
+    private final long sharedHitCount;
+    private final long createdViewCount;
+    private final int sharedDomainCount;
+    private final int viewCount;
+    private final int sessionEntryCount;
+
+    DomainCacheStatistics( long loadCount, long loadNanos, long sharedHitCount, long createdViewCount,
+                           int sharedDomainCount, int viewCount, int sessionEntryCount ) {
+      this.loadCount = loadCount;
+      this.loadNanos = loadNanos;
+      this.sharedHitCount = sharedHitCount;
+      this.createdViewCount = createdViewCount;
+      this.sharedDomainCount = sharedDomainCount;
+      this.viewCount = viewCount;
+      this.sessionEntryCount = sessionEntryCount;
+    }
+
+    /**
+     * @return number of shared domains loaded, and parsed, by the delegate
+     */
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    public double getMeanLoadMillis() {
+      return loadCount == 0 ? 0 : loadNanos / 1e6 / loadCount;
+    }
+
+    public long getTotalLoadMillis() {
+      return TimeUnit.NANOSECONDS.toMillis( loadNanos );
+    }
+
+    public long getSharedHitCount() {
+      return sharedHitCount;
+    }
+
+    public long getCreatedViewCount() {
+      return createdViewCount;
+    }
+
+    public int getSharedDomainCount() {
+      return sharedDomainCount;
+    }
+
+    public int getViewCount() {
+      return viewCount;
+    }
+
+    public int getSessionEntryCount() {
+      return sessionEntryCount;
+    }
+
+    @Override
+    public String toString() {
+      return "DomainCacheStatistics{loadCount=" + loadCount //$NON-NLS-1$
+        + ", meanLoadMillis=" + getMeanLoadMillis() //$NON-NLS-1$
+        + ", sharedHitCount=" + sharedHitCount //$NON-NLS-1$
+        + ", createdViewCount=" + createdViewCount //$NON-NLS-1$
+        + ", sharedDomainCount=" + sharedDomainCount //$NON-NLS-1$
+        + ", viewCount=" + viewCount //$NON-NLS-1$
+        + ", sessionEntryCount=" + sessionEntryCount + "}"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
   /**
    * Wraps the provided domain repository to provide session-based caching of domains.
    */
@@ -214,7 +373,10 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
    * Calls the callback for every key in the cache region
    *
    * @param callback {@see CacheCallback}
+   * @deprecated scans every key of the region; entries are tagged and invalidated with
+   * {@link ICacheManager#invalidateByTag(String, Object)} instead
    */
+  @Deprecated
   protected void forAllKeys( final CacheIteratorCallback callback ) {
     try {
       Set<?> cachedObjects = cacheManager.getAllKeysFromRegionCache( CACHE_REGION );
@@ -244,7 +406,9 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
    *
    * @param session  Session to use for matching keys
    * @param callback {@see CacheCallback}
+   * @deprecated scans every key of the region; see {@link #forAllKeys(CacheIteratorCallback)}
    */
+  @Deprecated
   protected void forAllKeysInSession( final IPentahoSession session, final CacheIteratorCallback callback ) {
     forAllKeys( new CacheIteratorCallback() {
       @Override
@@ -278,86 +442,276 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
       }
       return domain;
     }
-    domain = delegate.getDomain( id );
+    String version = getDomainVersion( id );
+    if ( version != null ) {
+      dropPreviousVersions( id, version );
+    }
+    domain = version != null ? getSecureDomainView( session, id, version ) : delegate.getDomain( id );
     if ( domain != null ) {
 
       if ( logger.isDebugEnabled() ) {
         logger.debug( "Requested Domain wasn't in Session Cache, but was found in the delegating repository: " + id );
       }
 
-      SecurityHelper helper = new SecurityHelper();
-      domain = helper.createSecureDomain( this, domain );
+      if ( version == null ) {
+        SecurityHelper helper = new SecurityHelper();
+        domain = helper.createSecureDomain( this, domain );
+      }
       // cache domain with the key we used to look it up, not whatever new id it might have now
       if ( logger.isDebugEnabled() ) {
         logger.debug( "Caching domain by session: " + key ); //$NON-NLS-1$
       }
-      cacheManager.putInRegionCache( CACHE_REGION, key, domain );
+      cacheManager.putInRegionCache( CACHE_REGION, key, domain, DOMAINS_TAG, sessionTag( key.sessionId ),
+        domainTag( key.domainId ) );
     }
     return domain;
   }
 
   /**
-   * Remove all cache entries whose domain's id is equal to {@code domainId}.
+   * Gets the version of a domain from the delegate, if it can tell it and the current user has access to the domain.
+   * Otherwise, the domain is loaded for the session alone, and the delegate denies access as usual.
+   */
+  private String getDomainVersion( final String domainId ) {
+    if ( !( delegate instanceof IVersionAwareMetadataDomainRepository ) ) {
+      return null;
+    }
+    if ( delegate instanceof IAclAwarePentahoMetadataDomainRepositoryImporter
+      && !( (IAclAwarePentahoMetadataDomainRepositoryImporter) delegate ).hasAccessFor( domainId ) ) {
+      return null;
+    }
+    return ( (IVersionAwareMetadataDomainRepository) delegate ).getDomainVersion( domainId );
+  }
+
+  /**
+   * Drops the cached copies of a domain, for all sessions, when its version differs from the one last handed out, such
+   * as when its file was changed without going through this repository.
+   */
+  private void dropPreviousVersions( final String domainId, final String version ) {
+    String previousVersion = domainVersions.put( domainId, version );
+    if ( previousVersion != null && !previousVersion.equals( version ) ) {
+      if ( logger.isDebugEnabled() ) {
+        logger.debug( "Domain " + domainId + " changed from version " + previousVersion //$NON-NLS-1$ //$NON-NLS-2$
+          + " to " + version + ", removing it from cache" ); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+      cacheManager.invalidateByTag( CACHE_REGION, domainTag( domainId ) );
+      userOwners.keySet().removeIf( key -> key.domainId.equals( domainId ) );
+    }
+  }
+
+  /**
+   * Gets the view of a version of a domain for the security identity of a session, filtered with
+   * {@link SecurityHelper#createSecureDomain(IMetadataDomainRepository, Domain)} from the shared copy of the domain.
+   * Sessions with the same roles share the same view, unless the security of the domain names one of their users.
+   */
+  private Domain getSecureDomainView( final IPentahoSession session, final String domainId, final String version ) {
+    Domain sharedDomain = getSharedDomain( domainId, version );
+    if ( sharedDomain == null ) {
+      return null;
+    }
+
+    String securityIdentity =
+      getSecurityIdentity( session, getUserOwners( new SharedDomainKey( domainId, version, null ), sharedDomain ) );
+    if ( securityIdentity == null ) {
+      return new SecurityHelper().createSecureDomain( this, sharedDomain );
+    }
+
+    SharedDomainKey viewKey = new SharedDomainKey( domainId, version, securityIdentity );
+    Domain view = (Domain) cacheManager.getFromRegionCache( CACHE_REGION, viewKey );
+    if ( view == null ) {
+      view = new SecurityHelper().createSecureDomain( this, sharedDomain );
+      createdViewCount.increment();
+    }
+    // tags are added to those of the other sessions; once one of them ends, the others keep the view through their
+    // own entries, and the next session creates a new one
+    cacheManager.putInRegionCache( CACHE_REGION, viewKey, view, DOMAINS_TAG, domainTag( domainId ),
+      sessionTag( session.getId() ) );
+    return view;
+  }
+
+  /**
+   * Gets the single parsed copy of a version of a domain, loading it from the delegate if needed. Concurrent requests
+   * for the same version wait for a single load. The shared copy must never be modified.
+   */
+  private Domain getSharedDomain( final String domainId, final String version ) {
+    SharedDomainKey sharedKey = new SharedDomainKey( domainId, version, null );
+    Domain sharedDomain = (Domain) cacheManager.getFromRegionCache( CACHE_REGION, sharedKey );
+    if ( sharedDomain != null ) {
+      sharedHitCount.increment();
+      return sharedDomain;
+    }
+
+    Object loadLock = loadLocks.computeIfAbsent( sharedKey, k -> new Object() );
+    try {
+      synchronized ( loadLock ) {
+        sharedDomain = (Domain) cacheManager.getFromRegionCache( CACHE_REGION, sharedKey );
+        if ( sharedDomain != null ) {
+          sharedHitCount.increment();
+          return sharedDomain;
+        }
+
+        long start = System.nanoTime();
+        sharedDomain = delegate.getDomain( domainId );
+        long elapsed = System.nanoTime() - start;
+        loadCount.increment();
+        loadNanos.add( elapsed );
+        if ( logger.isDebugEnabled() ) {
+          logger.debug( "Loaded shared domain " + domainId + " in " //$NON-NLS-1$ //$NON-NLS-2$
+            + TimeUnit.NANOSECONDS.toMillis( elapsed ) + " ms" ); //$NON-NLS-1$
+        }
+
+        if ( sharedDomain != null ) {
+          cacheManager.putInRegionCache( CACHE_REGION, sharedKey, sharedDomain, DOMAINS_TAG, SHARED_DOMAINS_TAG,
+            domainTag( domainId ) );
+        }
+        return sharedDomain;
+      }
+    } finally {
+      loadLocks.remove( sharedKey, loadLock );
+    }
+  }
+
+  /**
+   * The identity which the secure view of a domain depends on: the roles of the session, and its user if the security
+   * of the domain names it. All the roles are kept, since the roles that make a user an administrator, who sees the
+   * whole domain, are not named by the domain.
    *
-   * @param domainId Domain id to remove from cache
+   * @param userOwners the users named by the security of the domain
+   * @return the identity, or <code>null</code> if the roles of the session are unknown, so that it gets its own view
    */
-  private void purgeDomain( final String domainId ) {
-    forAllKeys( new CacheIteratorCallback() {
-      @Override
-      public Boolean call( ICacheManager cacheManager, CacheKey key ) {
-        if ( domainId == null ? key.domainId == null : domainId.equals( key.domainId ) ) {
-          cacheManager.removeFromRegionCache( CACHE_REGION, key );
+  static String getSecurityIdentity( final IPentahoSession session, final Set<String> userOwners ) {
+    Object roles = session.getAttribute( IPentahoSession.SESSION_ROLES );
+    if ( !( roles instanceof Collection ) ) {
+      return null;
+    }
+
+    Set<String> roleNames = new TreeSet<>();
+    for ( Object role : (Collection<?>) roles ) {
+      roleNames.add( role instanceof GrantedAuthority ? ( (GrantedAuthority) role ).getAuthority()
+        : String.valueOf( role ) );
+    }
+    String user = userOwners.contains( session.getName() ) ? "user:" + session.getName() : ""; //$NON-NLS-1$
+    return user + "roles:" + roleNames; //$NON-NLS-1$
+  }
+
+  /**
+   * Gets the users that the security of a shared domain names. The secure view of the domain only depends on the user
+   * of a session if it is one of them.
+   */
+  private Set<String> getUserOwners( final SharedDomainKey sharedKey, final Domain sharedDomain ) {
+    return userOwners.computeIfAbsent( sharedKey, k -> {
+      Set<String> users = new HashSet<>();
+      addUserOwners( sharedDomain, users );
+      for ( LogicalModel model : sharedDomain.getLogicalModels() ) {
+        addUserOwners( model, users );
+        for ( Category category : model.getCategories() ) {
+          addUserOwners( category, users );
+          for ( LogicalColumn column : category.getLogicalColumns() ) {
+            addUserOwners( column, users );
+          }
+        }
+        for ( LogicalTable table : model.getLogicalTables() ) {
+          addUserOwners( table, users );
+          for ( LogicalColumn column : table.getLogicalColumns() ) {
+            addUserOwners( column, users );
+          }
         }
-        return true; // continue
       }
+      return users;
     } );
+  }
+
+  private static void addUserOwners( final IConcept concept, final Set<String> users ) {
+    Object security = concept.getProperty( Concept.SECURITY_PROPERTY );
+    if ( security instanceof Security && ( (Security) security ).getOwnerAclMap() != null ) {
+      for ( SecurityOwner owner : ( (Security) security ).getOwnerAclMap().keySet() ) {
+        if ( owner.getOwnerType() == SecurityOwner.OwnerType.USER ) {
+          users.add( owner.getOwnerName() );
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the statistics of the shared domain cache: the time spent loading domains from the delegate, and the number
+   * of shared domains, security views and session entries in the cache. Counting the entries scans the keys of the
+   * cache region.
+   */
+  public DomainCacheStatistics getDomainCacheStatistics() {
+    int sharedDomains = 0;
+    int views = 0;
+    int sessionEntries = 0;
+    try {
+      Set<?> keys = cacheManager.getAllKeysFromRegionCache( CACHE_REGION );
+      if ( keys != null ) {
+        for ( Object key : keys ) {
+          if ( key instanceof SharedDomainKey ) {
+            if ( ( (SharedDomainKey) key ).securityIdentity == null ) {
+              sharedDomains++;
+            } else {
+              views++;
+            }
+          } else if ( key instanceof CacheKey ) {
+            sessionEntries++;
+          }
+        }
+      }
+    } catch ( RuntimeException e ) {
+      if ( logger.isDebugEnabled() ) {
+        logger.debug( "", e ); //$NON-NLS-1$
+      }
+    }
+
+    return new DomainCacheStatistics( loadCount.sum(), loadNanos.sum(), sharedHitCount.sum(), createdViewCount.sum(),
+      sharedDomains, views, sessionEntries );
+  }
+
+  /**
+   * Remove all cache entries whose domain's id is equal to {@code domainId}.
+   *
+   * @param domainId Domain id to remove from cache
+   */
+  private void purgeDomain( final String domainId ) {
+    if ( logger.isDebugEnabled() ) {
+      logger.debug( "Removing domain from cache: " + domainId ); //$NON-NLS-1$
+    }
+    cacheManager.invalidateByTag( CACHE_REGION, domainTag( domainId ) );
+    domainVersions.remove( domainId );
+    userOwners.keySet().removeIf( key -> key.domainId.equals( domainId ) );
     removeDomainFromIDCache( domainId );
   }
 
   @Override
   public void reloadDomains() {
-    forAllKeys( REMOVE_ALL_CALLBACK );
+    cacheManager.invalidateByTag( CACHE_REGION, DOMAINS_TAG );
+    domainVersions.clear();
+    userOwners.clear();
     clearDomainIdsFromCache();
     delegate.reloadDomains();
   }
 
   @Override
   public void flushDomains() {
-    forAllKeys( REMOVE_ALL_CALLBACK );
+    cacheManager.invalidateByTag( CACHE_REGION, DOMAINS_TAG );
+    domainVersions.clear();
+    userOwners.clear();
     clearDomainIdsFromCache();
     delegate.flushDomains();
   }
 
+  /**
+   * Remove the domains and domain ID caches of a given session
+   *
+   * @param session
+   */
   protected void flushDomains( final IPentahoSession session ) {
-    forAllKeysInSession( session, REMOVE_ALL_CALLBACK );
-    clearDomainIdsFromCache( session );
+    cacheManager.invalidateByTag( CACHE_REGION, sessionTag( session.getId() ) );
   }
 
   /**
    * Remove domain ID cache for all sessions
    */
   protected void clearDomainIdsFromCache() {
-    try {
-      Set<?> cachedObjects = cacheManager.getAllKeysFromRegionCache( CACHE_REGION );
-      if ( cachedObjects != null ) {
-        for ( Object k : cachedObjects ) {
-          if ( k instanceof String ) {
-            String key = (String) k;
-            if ( key != null && key.startsWith( DOMAIN_CACHE_KEY_PREDICATE ) ) {
-              cacheManager.removeFromRegionCache( CACHE_REGION, key );
-            }
-          }
-        }
-      }
-    } catch ( Throwable e ) {
-      // due to a known issue in hibernate cache
-      // the getAll* methods of ICacheManager throw a NullPointerException if
-      // cache values are null (this can happen due to cache object timeouts)
-      // please see: http://opensource.atlassian.com/projects/hibernate/browse/HHH-3248
-      if ( logger.isDebugEnabled() ) {
-        logger.debug( "", e ); //$NON-NLS-1$
-      }
-    }
+    cacheManager.invalidateByTag( CACHE_REGION, DOMAIN_IDS_TAG );
   }
 
   /**
@@ -380,46 +734,36 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
    */
   private boolean removeDomainFromIDCache( Set<String> domainIds ) {
     boolean dirtyCache = false;
-    for ( String domainId : domainIds ) {
+    for ( Iterator<String> it = domainIds.iterator(); it.hasNext(); ) {
+      String domainId = it.next();
       if ( delegate instanceof IAclAwarePentahoMetadataDomainRepositoryImporter
               && !( (IAclAwarePentahoMetadataDomainRepositoryImporter) delegate ).hasAccessFor( domainId ) ) {
-        domainIds.remove( domainId );
-        removeDomainFromIDCache( domainId );
+        it.remove();
         dirtyCache = true;
       }
     }
+    if ( dirtyCache ) {
+      clearDomainIdsFromCache();
+    }
     return dirtyCache;
   }
 
   /**
-   * Remove a single domain ID from all session domain ID caches
+   * Remove a single domain ID from all session domain ID caches. The lists are dropped rather than edited, and are
+   * rebuilt from the delegate the next time each session asks for them.
    *
    * @param domainId
    */
   private void removeDomainFromIDCache( String domainId ) {
-    try {
-      Set<?> cachedObjects = cacheManager.getAllKeysFromRegionCache( CACHE_REGION );
-      if ( cachedObjects != null ) {
-        for ( Object k : cachedObjects ) {
-          if ( k instanceof String ) {
-            String key = (String) k;
-            if ( key != null && key.startsWith( DOMAIN_CACHE_KEY_PREDICATE ) ) {
-              Set<String> domainIds = (Set<String>) cacheManager.getFromRegionCache( CACHE_REGION, key );
-              domainIds.remove( domainId );
-              cacheManager.putInRegionCache( CACHE_REGION, key, domainIds );
-            }
-          }
-        }
-      }
-    } catch ( Throwable e ) {
-      // due to a known issue in hibernate cache
-      // the getAll* methods of ICacheManager throw a NullPointerException if
-      // cache values are null (this can happen due to cache object timeouts)
-      // please see: http://opensource.atlassian.com/projects/hibernate/browse/HHH-3248
-      if ( logger.isDebugEnabled() ) {
-        logger.debug( "", e ); //$NON-NLS-1$
-      }
-    }
+    clearDomainIdsFromCache();
+  }
+
+  private static String sessionTag( String sessionId ) {
+    return SESSION_TAG_PREFIX + sessionId;
+  }
+
+  private static String domainTag( String domainId ) {
+    return DOMAIN_TAG_PREFIX + domainId;
   }
 
   /**
@@ -520,7 +864,7 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
    */
   Set<String> getDomainIdsHelper( final IPentahoSession session, String domainKey,
                                   Supplier<Set<String>> delegateGetDomainIds ) {
-    Set<String> domainIds = getDomainIdsFromCache( domainKey, delegateGetDomainIds );
+    Set<String> domainIds = getDomainIdsFromCache( session, domainKey, delegateGetDomainIds );
     asyncPopulateCacheDomain( domainIds, session );
     return domainIds;
   }
@@ -528,18 +872,21 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
   /**
    * Wrapper to retrieve domain identifiers while checking ACL. Will return results from cache, else it will
    * query delegate.
+   * @param session pentaho session the identifiers are cached for
    * @param domainKey key used for caching
    * @param delegateGetDomainIds logic to retrieve domains from delegate if not in cache
    * @return domain identifiers
    */
-  Set<String> getDomainIdsFromCache( String domainKey, Supplier<Set<String>> delegateGetDomainIds ) {
+  Set<String> getDomainIdsFromCache( IPentahoSession session, String domainKey,
+                                     Supplier<Set<String>> delegateGetDomainIds ) {
     Set<String> domainIds;
     if ( domainIdsCacheEnabled ) {
       domainIds = (Set<String>) cacheManager.getFromRegionCache( CACHE_REGION, domainKey );
       if ( domainIds != null ) {
         boolean dirtyCache = removeDomainFromIDCache( domainIds );
         if ( dirtyCache ) {
-          cacheManager.putInRegionCache( CACHE_REGION, domainKey, new HashSet<>( domainIds ) );
+          cacheManager.putInRegionCache( CACHE_REGION, domainKey, new HashSet<>( domainIds ), DOMAIN_IDS_TAG,
+            sessionTag( session.getId() ) );
         }
         // We've previously cached domainIds available for this session
         return domainIds;
@@ -551,7 +898,8 @@ public class SessionCachingMetadataDomainRepository implements IMetadataDomainRe
     // session-specific.
     domainIds = delegateGetDomainIds.get();
     if ( domainIdsCacheEnabled ) {
-      cacheManager.putInRegionCache( CACHE_REGION, domainKey, new HashSet<>( domainIds ) );
+      cacheManager.putInRegionCache( CACHE_REGION, domainKey, new HashSet<>( domainIds ), DOMAIN_IDS_TAG,
+        sessionTag( session.getId() ) );
     }
     return domainIds;
   }
@@ -14,10 +14,13 @@
 package org.pentaho.platform.plugin.services.pluginmgr;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -51,12 +54,14 @@ import org.pentaho.platform.api.engine.perspective.pojo.IPluginPerspective;
 import org.pentaho.platform.config.PropertiesFileConfiguration;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.engine.core.system.StartupScheduler;
 import org.pentaho.platform.engine.core.system.objfac.StandaloneSpringPentahoObjectFactory;
 import org.pentaho.platform.engine.core.system.objfac.references.AbstractPentahoObjectReference;
 import org.pentaho.platform.engine.core.system.objfac.references.PrototypePentahoObjectReference;
 import org.pentaho.platform.engine.core.system.objfac.references.SingletonPentahoObjectReference;
 import org.pentaho.platform.engine.core.system.objfac.spring.Const;
 import org.pentaho.platform.engine.core.system.objfac.spring.PentahoBeanScopeValidatorPostProcessor;
+import org.pentaho.platform.engine.security.SecurityHelper;
 import org.pentaho.platform.plugin.services.messages.Messages;
 import org.pentaho.platform.plugin.services.pluginmgr.servicemgr.ServiceConfig;
 import org.pentaho.platform.util.StringUtil;
@@ -79,11 +84,13 @@ import org.springframework.core.io.FileSystemResource;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -91,6 +98,7 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * An IPluginManager implementation based on registering objects to the PentahoSystem and querying for them there. This
@@ -116,6 +124,25 @@ public class PentahoSystemPluginManager implements IPluginManager {
   private final Logger logger = LoggerFactory.getLogger( getClass() );
   private final Set<IPluginManagerListener> listeners = new HashSet<>();
 
+  /**
+   * System property with the number of bytes of static resources kept in memory.
+   */
+  public static final String STATIC_RESOURCE_CACHE_BYTES_PROPERTY = "pentaho.plugin.staticResourceCache.maxBytes";
+
+  /**
+   * System property with the size up to which a static resource is kept in memory.
+   */
+  public static final String STATIC_RESOURCE_MAX_CACHED_BYTES_PROPERTY =
+    "pentaho.plugin.staticResourceCache.maxResourceBytes";
+
+  private final int maxCachedResourceBytes =
+    Integer.getInteger( STATIC_RESOURCE_MAX_CACHED_BYTES_PROPERTY, 256 * 1024 );
+  private final Cache<String, StaticResource> staticResourceCache = CacheBuilder.newBuilder()
+    .maximumWeight( Long.getLong( STATIC_RESOURCE_CACHE_BYTES_PROPERTY, 32L * 1024 * 1024 ) )
+    .weigher( ( String path, StaticResource resource ) -> resource.getWeight() + path.length() )
+    .build();
+  private volatile StaticResourceRouter staticResourceRouter;
+
   private static void createAndRegisterLifecycleListeners( IPlatformPlugin plugin, ClassLoader loader )
     throws PlatformPluginRegistrationException {
     try {
@@ -216,6 +243,8 @@ public class PentahoSystemPluginManager implements IPluginManager {
       entry.getValue().remove();
     }
     handleRegistry.clear();
+    staticResourceRouter = null;
+    staticResourceCache.invalidateAll();
   }
 
   @Override
@@ -241,17 +270,24 @@ public class PentahoSystemPluginManager implements IPluginManager {
       anyErrors = true;
     }
 
+    Map<IPlatformPlugin, PreparedPlugin> preparedPlugins = preparePlugins( providedPlugins );
+
     for ( IPlatformPlugin plugin : providedPlugins ) {
+      PreparedPlugin prepared = preparedPlugins.get( plugin );
       try {
         IPlatformPlugin existingPlugin = getPluginObject( IPlatformPlugin.class, plugin.getId() );
         if ( existingPlugin != null ) {
+          prepared.close();
           throw new PlatformPluginRegistrationException(
             Messages.getInstance().getErrorString(
               "PluginManager.ERROR_0024_PLUGIN_ALREADY_LOADED_BY_SAME_NAME",
               plugin.getId() ) );
         }
+        if ( prepared.failure != null ) {
+          throw prepared.failure;
+        }
 
-        final ClassLoader classloader = createClassloader( plugin );
+        final ClassLoader classloader = prepared.classloader;
 
         // Register the classloader, Spring App Context and Object Factory with PentahoSystem
         registerPluginReference(
@@ -262,7 +298,7 @@ public class PentahoSystemPluginManager implements IPluginManager {
           plugin,
           new SingletonPentahoObjectReference.Builder<>( ClassLoader.class ).object( classloader ) );
 
-        final GenericApplicationContext beanFactory = createBeanFactory( plugin, classloader );
+        final GenericApplicationContext beanFactory = prepared.beanFactory;
 
         final StandaloneSpringPentahoObjectFactory pentahoFactory =
           new StandaloneSpringPentahoObjectFactory( "Plugin Factory ( " + plugin.getId() + " )" );
@@ -300,6 +336,8 @@ public class PentahoSystemPluginManager implements IPluginManager {
       }
     }
 
+    staticResourceRouter = buildStaticResourceRouter();
+
     IServiceManager svcManager = PentahoSystem.get( IServiceManager.class, null );
     if ( svcManager != null ) {
       try {
@@ -324,6 +362,59 @@ public class PentahoSystemPluginManager implements IPluginManager {
     return !anyErrors;
   }
 
+  /**
+   * Creates the class loaders and reads the bean definitions of the plugins concurrently. These steps only touch the
+   * plugin's own folder; refreshing the contexts and registering the plugins stays sequential, in the order the
+   * plugins were provided, since beans may look up objects published by plugins registered before them. Like the
+   * system listeners, the preparation runs as the system user.
+   */
+  private Map<IPlatformPlugin, PreparedPlugin> preparePlugins( List<IPlatformPlugin> plugins ) {
+    Map<IPlatformPlugin, PreparedPlugin> prepared = new IdentityHashMap<>();
+    StartupScheduler scheduler = new StartupScheduler( "Plugin", StartupScheduler.getDefaultParallelism() );
+    for ( IPlatformPlugin plugin : plugins ) {
+      PreparedPlugin preparedPlugin = new PreparedPlugin();
+      prepared.put( plugin, preparedPlugin );
+      String id = String.valueOf( plugin.getId() );
+      for ( int i = 2; scheduler.hasTask( id ); i++ ) {
+        id = plugin.getId() + "#" + i;
+      }
+      scheduler.addTask( id, null, () -> {
+        try {
+          SecurityHelper.getInstance().runAsSystem( () -> {
+            preparedPlugin.classloader = createClassloader( plugin );
+            preparedPlugin.beanFactory = createBeanFactory( plugin, preparedPlugin.classloader );
+            return null;
+          } );
+        } catch ( Throwable t ) {
+          preparedPlugin.failure = t;
+        }
+      } );
+    }
+    try {
+      logger.info( scheduler.run().toString() );
+    } catch ( ExecutionException e ) {
+      // the tasks keep their own failures, which are reported when each plugin is registered
+      logger.error( "Plugin preparation failed", e.getCause() );
+    }
+    return prepared;
+  }
+
+  private static class PreparedPlugin {
+    private volatile ClassLoader classloader;
+    private volatile GenericApplicationContext beanFactory;
+    private volatile Throwable failure;
+
+    private void close() {
+      if ( classloader instanceof PluginClassLoader ) {
+        try {
+          ( (PluginClassLoader) classloader ).close();
+        } catch ( IOException e ) {
+          // the plugin is rejected anyway
+        }
+      }
+    }
+  }
+
   private void registerPlugin( final IPlatformPlugin plugin ) throws PlatformPluginRegistrationException,
     PluginLifecycleException {
     // TODO: we should treat the registration of a plugin as an atomic operation
@@ -1010,33 +1101,24 @@ public class PentahoSystemPluginManager implements IPluginManager {
   }
 
   @Deprecated
-  @SuppressWarnings( "DuplicatedCode" )
   public String getServicePlugin( String path ) {
-    for ( IPlatformPlugin plugin : PentahoSystem.getAll( IPlatformPlugin.class ) ) {
-      String pluginId = getStaticResourcePluginId( plugin, path );
-      if ( pluginId != null ) {
-        return pluginId;
-      }
+    return getStaticResourceRouter().getPluginId( path );
+  }
 
-      for ( IContentGeneratorInfo contentGenerator : plugin.getContentGenerators() ) {
-        String cgId = contentGenerator.getId();
-        if ( isRequested( cgId, path ) ) {
-          return plugin.getId();
-        }
-      }
+  /**
+   * The router is built when the plugins are loaded; it is only built here if a resource is requested before that.
+   */
+  private StaticResourceRouter getStaticResourceRouter() {
+    StaticResourceRouter router = staticResourceRouter;
+    if ( router == null ) {
+      router = buildStaticResourceRouter();
+      staticResourceRouter = router;
     }
-
-    return null;
+    return router;
   }
 
-  private String getStaticResourcePluginId( IPlatformPlugin plugin, String path ) {
-    Map<String, String> resourceMap = plugin.getStaticResourceMap();
-    for ( String url : resourceMap.keySet() ) {
-      if ( isRequested( url, path ) ) {
-        return plugin.getId();
-      }
-    }
-    return null;
+  private StaticResourceRouter buildStaticResourceRouter() {
+    return StaticResourceRouter.build( PentahoSystem.getAll( IPlatformPlugin.class ), this::getClassLoader );
   }
 
   @Override
@@ -1051,15 +1133,7 @@ public class PentahoSystemPluginManager implements IPluginManager {
 
   @Override
   public boolean isStaticResource( String path ) {
-
-    for ( IPlatformPlugin plugin : PentahoSystem.getAll( IPlatformPlugin.class ) ) {
-      String pluginId = getStaticResourcePluginId( plugin, path );
-      if ( pluginId != null ) {
-        return true;
-      }
-    }
-
-    return false;
+    return getStaticResourceRouter().route( path ) != null;
   }
 
   @Override
@@ -1086,18 +1160,98 @@ public class PentahoSystemPluginManager implements IPluginManager {
 
   @Override
   public InputStream getStaticResource( String path ) {
-    for ( IPlatformPlugin plugin : PentahoSystem.getAll( IPlatformPlugin.class ) ) {
-      Map<String, String> resourceMap = plugin.getStaticResourceMap();
-      for ( String url : resourceMap.keySet() ) {
-        if ( isRequested( url, path ) ) {
-          IPluginResourceLoader resLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
-          ClassLoader classLoader = getClassLoader( plugin.getId() );
-          String resourcePath = path.replace( url, resourceMap.get( url ) );
-          return resLoader.getResourceAsStream( classLoader, resourcePath );
-        }
+    StaticResourceRouter.Route route = getStaticResourceRouter().route( path );
+    if ( route == null ) {
+      return null;
+    }
+    IPluginResourceLoader resLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    return resLoader.getResourceAsStream( route.getClassLoader(), route.getResourcePath( path ) );
+  }
+
+  /**
+   * Resolves a static resource like {@link #getStaticResource(String)}, keeping recently served resources in memory.
+   * Resources read from files are re-read when the file changes.
+   *
+   * @return the resource, or <code>null</code> if <code>path</code> is not a static resource or does not exist
+   */
+  public StaticResource resolveStaticResource( String path ) {
+    return resolveStaticResource( path, true );
+  }
+
+  /**
+   * Same as {@link #resolveStaticResource(String)}; with <code>cache</code> false, e.g. for a plugin whose
+   * <code>settings/cache</code> setting is off, the resource is read again and not kept in memory.
+   */
+  public StaticResource resolveStaticResource( String path, boolean cache ) {
+    StaticResource resource = cache ? staticResourceCache.getIfPresent( path ) : null;
+    if ( resource != null && !resource.isStale() ) {
+      return resource;
+    }
+    StaticResourceRouter.Route route = getStaticResourceRouter().route( path );
+    if ( route == null ) {
+      return null;
+    }
+    try {
+      resource = loadStaticResource( route, route.getResourcePath( path ) );
+    } catch ( IOException | IllegalArgumentException e ) {
+      logger.debug( "Cannot read static resource {}", path, e );
+      resource = null;
+    }
+    if ( !cache ) {
+      return resource;
+    }
+    if ( resource == null || resource.getWeight() > maxCachedResourceBytes ) {
+      staticResourceCache.invalidate( path );
+    } else {
+      staticResourceCache.put( path, resource );
+    }
+    return resource;
+  }
+
+  /**
+   * Checks whether {@link #resolveStaticResource(String)} would find a resource of the given plugin, without reading
+   * it.
+   */
+  public boolean hasStaticResource( String pluginId, String path ) {
+    StaticResourceRouter.Route route = getStaticResourceRouter().route( path );
+    if ( route == null || !route.getPluginId().equals( pluginId ) ) {
+      return false;
+    }
+    StaticResource resource = staticResourceCache.getIfPresent( path );
+    if ( resource != null && !resource.isStale() ) {
+      return true;
+    }
+    IPluginResourceLoader resLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    String resourcePath = route.getResourcePath( path );
+    try {
+      if ( resLoader instanceof PluginResourceLoader ) {
+        return ( (PluginResourceLoader) resLoader ).getResourceUrl( route.getClassLoader(), resourcePath ) != null;
+      }
+      try ( InputStream in = resLoader.getResourceAsStream( route.getClassLoader(), resourcePath ) ) {
+        return in != null;
       }
+    } catch ( IOException | IllegalArgumentException e ) {
+      logger.debug( "Cannot find static resource {}", path, e );
+      return false;
+    }
+  }
+
+  private StaticResource loadStaticResource( StaticResourceRouter.Route route, String resourcePath )
+    throws IOException {
+    IPluginResourceLoader resLoader = PentahoSystem.get( IPluginResourceLoader.class, null );
+    if ( resLoader instanceof PluginResourceLoader ) {
+      PluginResourceLoader pluginResLoader = (PluginResourceLoader) resLoader;
+      File file = pluginResLoader.getResourceFile( route.getClassLoader(), resourcePath );
+      if ( file != null ) {
+        return StaticResource.fromFile( file, maxCachedResourceBytes );
+      }
+      URL url = pluginResLoader.getResourceUrl( route.getClassLoader(), resourcePath );
+      return url == null ? null : StaticResource.fromUrl( url );
+    }
+    try ( InputStream in = resLoader.getResourceAsStream( route.getClassLoader(), resourcePath ) ) {
+      // the loader does not tell where the resource comes from
+      return in == null ? null : StaticResource.fromContent( IOUtils.toByteArray( in ), System.currentTimeMillis() );
     }
-    return null;
   }
 
   @Override
@@ -13,15 +13,28 @@
 
 package org.pentaho.platform.plugin.services.pluginmgr;
 
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoPublisher;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.engine.IPluginManager;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.plugin.services.messages.Messages;
 import org.pentaho.platform.util.logging.Logger;
 
-public class PluginAdapter implements IPentahoSystemListener, IPentahoPublisher {
+import java.util.Arrays;
+import java.util.Collection;
+
+public class PluginAdapter implements IDependentSystemListener, IPentahoPublisher {
+
+  /**
+   * Platform plugins may use OSGi services and the Kettle environment while they are loaded.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.osgi.OSGIBoot",
+        "org.pentaho.platform.plugin.action.kettle.KettleSystemListener" );
+  }
 
   public boolean startup( IPentahoSession session ) {
 
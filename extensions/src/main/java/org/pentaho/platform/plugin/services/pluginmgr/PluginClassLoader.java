@@ -20,12 +20,23 @@ import org.pentaho.platform.engine.services.messages.Messages;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSource;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipFile;
 
 /**
  * A custom implementation of {@link URLClassLoader} for Pentaho Platform Plugins. It is used to load plugin jars and
@@ -34,15 +45,46 @@ import java.util.List;
  * Note: {@link PluginClassLoader} will search for jar files in a 'lib' subdirectory under the pluginDir provided in the
  * constructor. Class and other resources will be visible to this classloader in either the root directory of the plugin
  * or in the lib folder.
+ * <p>
+ * The loader is parallel capable and locks per class name. Plugin classes are looked up through an index of the
+ * packages in the plugin's jars, and names the parent classloader failed to load are remembered for a short while so
+ * they are not delegated again in quick succession. Set the system property {@value #INDEX_DIR_PROPERTY} to a folder to keep the jar index between
+ * restarts.
  * 
  * @author aphillips
  */
 public class PluginClassLoader extends URLClassLoader {
+  /**
+   * System property naming the folder where jar indexes are saved; indexes are not saved if it is not set.
+   */
+  public static final String INDEX_DIR_PROPERTY = "pentaho.plugin.classloader.indexDir"; //$NON-NLS-1$
+
+  private static final int MAX_PARENT_MISSES = 10000;
+
+  /**
+   * How long a class the parent failed to load is not asked for again; the parent may define it later, e.g. once
+   * another plugin or bundle is installed
+   */
+  private static final long PARENT_MISS_TTL_NANOS = TimeUnit.SECONDS.toNanos( 30 );
+
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
+
   private static Log log = LogFactory.getLog( PluginClassLoader.class );
 
   private File pluginDir;
 
-  private boolean overrideLoad = false;
+  private volatile boolean overrideLoad = false;
+
+  private final PluginJarIndex jarIndex;
+
+  private final Map<File, JarFile> openJars = new ConcurrentHashMap<>();
+
+  /**
+   * Names the parent failed to load, with the {@link System#nanoTime()} of the failure
+   */
+  private final Map<String, Long> parentMisses = new ConcurrentHashMap<>();
 
   /**
    * Creates a class loader for loading plugin classes and discovering resources. Jars must be located in
@@ -62,6 +104,7 @@ public class PluginClassLoader extends URLClassLoader {
         log.debug( url );
       }
     }
+    jarIndex = PluginJarIndex.create( getJarFiles(), getIndexFile( pluginDir ) );
   }
 
   /**
@@ -93,6 +136,29 @@ public class PluginClassLoader extends URLClassLoader {
     }
   }
 
+  private List<File> getJarFiles() {
+    List<File> jars = new ArrayList<>();
+    for ( URL url : getURLs() ) {
+      if ( url.getPath().endsWith( ".jar" ) ) { //$NON-NLS-1$
+        try {
+          jars.add( new File( url.toURI() ) );
+        } catch ( URISyntaxException | IllegalArgumentException e ) {
+          log.warn( "Unable to index jar " + url, e ); //$NON-NLS-1$
+        }
+      }
+    }
+    return jars;
+  }
+
+  private static File getIndexFile( File pluginDir ) {
+    String indexDir = System.getProperty( INDEX_DIR_PROPERTY );
+    if ( indexDir == null || indexDir.isEmpty() ) {
+      return null;
+    }
+    String path = pluginDir.getAbsolutePath();
+    return new File( indexDir, pluginDir.getName() + "-" + Integer.toHexString( path.hashCode() ) + ".index" ); //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
   protected static URL[] getPluginUrls( File pluginDir ) {
     List<URL> urls = new ArrayList<URL>();
     File libDir = new File( pluginDir, "lib" ); //$NON-NLS-1$
@@ -139,7 +205,7 @@ public class PluginClassLoader extends URLClassLoader {
 
   @Override
   public Class<?> loadClass( String name, boolean resolve ) throws ClassNotFoundException {
-    synchronized ( this ) {
+    synchronized ( getClassLoadingLock( name ) ) {
       if ( log.isDebugEnabled() ) {
         log.debug( "loadClass(" + name + ")... " ); //$NON-NLS-1$ //$NON-NLS-2$
       }
@@ -157,24 +223,22 @@ public class PluginClassLoader extends URLClassLoader {
         return t;
       }
 
+      ClassLoader parent = getParent();
+      if ( parent == null ) {
+        return super.loadClass( name, resolve );
+      }
+
       /*
        * If we are overriding the parent classloader we will first try to load this class from this classloader object in
        * isolation (no awareness of the parent classloader). If this classloader does not have the class, we will proceed
        * to attempt to load the class from the parent.
        */
+      boolean searched = false;
       if ( overrideLoad ) {
         try {
           t = findClass( name );
-          if ( t != null ) {
-            if ( log.isDebugEnabled() ) {
-              log.debug( MessageFormat.format( "{0} loaded by {1}", name, this ) ); //$NON-NLS-1$
-            }
-            if ( resolve ) {
-              resolveClass( t );
-            }
-            return t;
-          }
         } catch ( ClassNotFoundException e ) {
+          searched = true;
           if ( log.isTraceEnabled() ) {
             log.trace( MessageFormat
                 .format( "class {0} not found in loader {1}. Trying parent loader", name, this ) ); //$NON-NLS-1$
@@ -184,9 +248,24 @@ public class PluginClassLoader extends URLClassLoader {
 
       /*
        * At this point we have not found the class either in the cache or in this classloader, so we need to ask the
-       * parent.
+       * parent. A name the parent failed to load recently is not asked for again.
        */
-      t = super.loadClass( name, resolve );
+      if ( t == null && !isRecentParentMiss( name ) ) {
+        try {
+          t = parent.loadClass( name );
+        } catch ( ClassNotFoundException e ) {
+          addParentMiss( name );
+        }
+      }
+      if ( t == null ) {
+        if ( searched ) {
+          throw new ClassNotFoundException( name );
+        }
+        t = findClass( name );
+      }
+      if ( resolve ) {
+        resolveClass( t );
+      }
       if ( log.isDebugEnabled() ) {
         log.debug( MessageFormat.format( "{0} loaded by {1}", name, t.getClassLoader() ) ); //$NON-NLS-1$
       }
@@ -194,6 +273,111 @@ public class PluginClassLoader extends URLClassLoader {
     }
   }
 
+  private boolean isRecentParentMiss( String name ) {
+    Long missedAt = parentMisses.get( name );
+    return missedAt != null && System.nanoTime() - missedAt < PARENT_MISS_TTL_NANOS;
+  }
+
+  private void addParentMiss( String name ) {
+    long now = System.nanoTime();
+    if ( parentMisses.size() >= MAX_PARENT_MISSES ) {
+      parentMisses.values().removeIf( missedAt -> now - missedAt >= PARENT_MISS_TTL_NANOS );
+      if ( parentMisses.size() >= MAX_PARENT_MISSES ) {
+        parentMisses.clear();
+      }
+    }
+    parentMisses.put( name, now );
+  }
+
+  /**
+   * Looks the class up in the plugin folders first, as they precede the jars on the class path, and then only in the
+   * jars whose index holds the class's package.
+   */
+  @Override
+  protected Class<?> findClass( String name ) throws ClassNotFoundException {
+    String path = name.replace( '.', '/' ).concat( ".class" ); //$NON-NLS-1$
+    int slash = path.lastIndexOf( '/' );
+    if ( slash < 0 || pluginDir == null || new File( pluginDir, path ).isFile()
+        || new File( new File( pluginDir, "lib" ), path ).isFile() ) { //$NON-NLS-1$
+      return super.findClass( name );
+    }
+    for ( File jar : jarIndex.getJars( path.substring( 0, slash ) ) ) {
+      Class<?> t = defineClass( name, path, jar );
+      if ( t != null ) {
+        return t;
+      }
+    }
+    throw new ClassNotFoundException( name );
+  }
+
+  private Class<?> defineClass( String name, String path, File jar ) throws ClassNotFoundException {
+    try {
+      JarFile jarFile = getJarFile( jar );
+      JarEntry entry = jarFile.getJarEntry( path );
+      if ( entry == null ) {
+        return null;
+      }
+      byte[] bytes;
+      try ( InputStream in = jarFile.getInputStream( entry ) ) {
+        bytes = in.readAllBytes();
+      }
+      URL url = jar.toURI().toURL();
+      definePackage( name.substring( 0, name.lastIndexOf( '.' ) ), jarFile.getManifest(), url, jar );
+      // the signers are only known once the entry has been read completely
+      return defineClass( name, bytes, 0, bytes.length, new CodeSource( url, entry.getCodeSigners() ) );
+    } catch ( IOException e ) {
+      throw new ClassNotFoundException( name, e );
+    }
+  }
+
+  private void definePackage( String packageName, Manifest manifest, URL url, File jar ) {
+    if ( getDefinedPackage( packageName ) != null ) {
+      return;
+    }
+    try {
+      if ( manifest != null ) {
+        definePackage( packageName, manifest, url );
+      } else {
+        definePackage( packageName, null, null, null, null, null, null, null );
+      }
+    } catch ( IllegalArgumentException e ) {
+      // defined concurrently by another class of the same package
+      if ( getDefinedPackage( packageName ) == null ) {
+        log.warn( "Unable to define package " + packageName + " from " + jar, e ); //$NON-NLS-1$ //$NON-NLS-2$
+      }
+    }
+  }
+
+  private JarFile getJarFile( File jar ) throws IOException {
+    JarFile jarFile = openJars.get( jar );
+    if ( jarFile == null ) {
+      JarFile opened = new JarFile( jar, true, ZipFile.OPEN_READ, JarFile.runtimeVersion() );
+      jarFile = openJars.putIfAbsent( jar, opened );
+      if ( jarFile == null ) {
+        jarFile = opened;
+      } else {
+        opened.close();
+      }
+    }
+    return jarFile;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      for ( JarFile jarFile : openJars.values() ) {
+        try {
+          jarFile.close();
+        } catch ( IOException e ) {
+          log.warn( "Unable to close " + jarFile.getName(), e ); //$NON-NLS-1$
+        }
+      }
+      openJars.clear();
+    } finally {
+      super.close();
+    }
+  }
+
   @Override
   public String toString() {
     return super.toString() + ( ( pluginDir != null ) ? " at " + pluginDir.getAbsolutePath() : "" ); //$NON-NLS-1$ //$NON-NLS-2$
@@ -0,0 +1,144 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.pluginmgr;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Maps the packages of a plugin's jars to the jars that contain them, so a class is looked up only in the jars that
+ * hold its package instead of in every jar of the plugin. The index can be saved to a file and is reused as long as
+ * the size and modification time of every jar still match.
+ */
+class PluginJarIndex {
+  private static final Log log = LogFactory.getLog( PluginJarIndex.class );
+
+  private static final String SEPARATOR = ":"; //$NON-NLS-1$
+  private static final String PACKAGE_SEPARATOR = ","; //$NON-NLS-1$
+
+  private final Map<String, List<File>> jarsByPackage;
+
+  private PluginJarIndex( Map<String, List<File>> jarsByPackage ) {
+    this.jarsByPackage = jarsByPackage;
+  }
+
+  /**
+   * Indexes <code>jars</code>, keeping their order for jars that share a package.
+   *
+   * @param indexFile
+   *          the file the index is read from and saved to, or <code>null</code> to always scan the jars
+   */
+  static PluginJarIndex create( List<File> jars, File indexFile ) {
+    Properties saved = indexFile == null ? null : load( indexFile );
+    Properties current = new Properties();
+    Map<String, List<File>> jarsByPackage = new HashMap<>();
+    boolean changed = saved == null;
+    for ( File jar : jars ) {
+      String stamp = jar.length() + SEPARATOR + jar.lastModified() + SEPARATOR;
+      String entry = saved == null ? null : saved.getProperty( jar.getAbsolutePath() );
+      Set<String> packages;
+      if ( entry != null && entry.startsWith( stamp ) ) {
+        packages = new LinkedHashSet<>();
+        for ( String name : entry.substring( stamp.length() ).split( PACKAGE_SEPARATOR ) ) {
+          if ( !name.isEmpty() ) {
+            packages.add( name );
+          }
+        }
+      } else {
+        packages = scan( jar );
+        changed = true;
+      }
+      current.setProperty( jar.getAbsolutePath(), stamp + String.join( PACKAGE_SEPARATOR, packages ) );
+      for ( String name : packages ) {
+        jarsByPackage.computeIfAbsent( name, key -> new ArrayList<>( 1 ) ).add( jar );
+      }
+    }
+    if ( indexFile != null && ( changed || saved.size() != current.size() ) ) {
+      save( indexFile, current );
+    }
+    return new PluginJarIndex( jarsByPackage );
+  }
+
+  /**
+   * @param packagePath
+   *          the package in resource form, e.g. <code>org/pentaho/platform</code>
+   * @return the jars holding classes of the package, in class path order
+   */
+  List<File> getJars( String packagePath ) {
+    List<File> jars = jarsByPackage.get( packagePath );
+    return jars == null ? Collections.emptyList() : jars;
+  }
+
+  private static Set<String> scan( File jar ) {
+    Set<String> packages = new LinkedHashSet<>();
+    try ( JarFile jarFile = new JarFile( jar, false ) ) {
+      for ( Enumeration<? extends ZipEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+        String name = entries.nextElement().getName();
+        int slash = name.lastIndexOf( '/' );
+        // classes of the default package are not indexed and always looked up through the class path
+        if ( slash > 0 && name.endsWith( ".class" ) ) { //$NON-NLS-1$
+          packages.add( name.substring( 0, slash ) );
+        }
+      }
+    } catch ( IOException e ) {
+      log.warn( "Unable to index plugin jar " + jar.getAbsolutePath(), e ); //$NON-NLS-1$
+    }
+    return packages;
+  }
+
+  private static Properties load( File indexFile ) {
+    if ( !indexFile.isFile() ) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try ( InputStream in = new FileInputStream( indexFile ) ) {
+      properties.load( in );
+      return properties;
+    } catch ( IOException | IllegalArgumentException e ) {
+      log.warn( "Ignoring unreadable plugin jar index " + indexFile.getAbsolutePath(), e ); //$NON-NLS-1$
+      return null;
+    }
+  }
+
+  private static void save( File indexFile, Properties index ) {
+    File parent = indexFile.getParentFile();
+    if ( parent != null && !parent.isDirectory() && !parent.mkdirs() ) {
+      log.warn( "Unable to create folder for plugin jar index " + indexFile.getAbsolutePath() ); //$NON-NLS-1$
+      return;
+    }
+    try ( OutputStream out = new FileOutputStream( indexFile ) ) {
+      index.store( out, null );
+    } catch ( IOException e ) {
+      log.warn( "Unable to save plugin jar index " + indexFile.getAbsolutePath(), e ); //$NON-NLS-1$
+    }
+  }
+}
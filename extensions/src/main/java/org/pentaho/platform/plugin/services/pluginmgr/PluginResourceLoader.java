@@ -192,12 +192,11 @@ public class PluginResourceLoader implements IPluginResourceLoader {
     File root = getPluginDir( classLoader );
     if ( root != null ) {
 
-      File f = new File( root, resourcePath );
       try {
-        checkPathTraversal( resourcePath, f );
+        File f = getResourceFile( root, resourcePath );
 
         // can we find it on the filesystem?
-        if ( f.canRead() ) {
+        if ( f != null ) {
           in = new BufferedInputStream( new FileInputStream( f ) );
         } else { //if not in filesystem ask the classloader
           in = classLoader.getResourceAsStream( resourcePath );
@@ -212,6 +211,52 @@ public class PluginResourceLoader implements IPluginResourceLoader {
     return in;
   }
 
+  /**
+   * Returns the readable file of a resource in the plugin folder, the file {@link #getResourceAsStream(ClassLoader,
+   * String)} would read.
+   *
+   * @return the file, or <code>null</code> if the resource is not a file in the plugin folder
+   * @throws IllegalArgumentException
+   *           if the path leaves the plugin folder
+   */
+  public File getResourceFile( ClassLoader classLoader, String resourcePath ) throws IOException {
+    if ( getOverrideClassloader() != null ) {
+      classLoader = getOverrideClassloader();
+    }
+    File root = getPluginDir( classLoader );
+    File f = root == null ? null : getResourceFile( root, resourcePath );
+    return f != null && f.isFile() ? f : null;
+  }
+
+  /**
+   * Returns the location of the resource {@link #getResourceAsStream(ClassLoader, String)} would read, without reading
+   * it.
+   *
+   * @return the URL, or <code>null</code> if the resource does not exist
+   * @throws IllegalArgumentException
+   *           if the path leaves the plugin folder
+   */
+  public URL getResourceUrl( ClassLoader classLoader, String resourcePath ) throws IOException {
+    if ( getOverrideClassloader() != null ) {
+      classLoader = getOverrideClassloader();
+    }
+    File root = getPluginDir( classLoader );
+    if ( root == null ) {
+      return null;
+    }
+    File f = getResourceFile( root, resourcePath );
+    if ( f != null ) {
+      return f.isFile() ? f.toURI().toURL() : null;
+    }
+    return classLoader.getResource( resourcePath );
+  }
+
+  private File getResourceFile( File root, String resourcePath ) throws IOException {
+    File f = new File( root, resourcePath );
+    checkPathTraversal( resourcePath, f );
+    return f.canRead() ? f : null;
+  }
+
   public List<URL> findResources( Class<?> clazz, String namePattern ) {
     ClassLoader classLoader = getClassLoader( clazz );
     return findResources( classLoader, namePattern );
@@ -0,0 +1,174 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.pluginmgr;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A static resource of a plugin, ready to be served. Small resources keep their content in memory and have an ETag
+ * derived from it; larger resources that are plain files are streamed from the file with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} and have an ETag derived from their size and
+ * modification time.
+ */
+public class StaticResource {
+
+  private final byte[] content;
+  private final File file;
+  private final long length;
+  private final long lastModified;
+  private final String eTag;
+
+  private StaticResource( byte[] content, File file, long length, long lastModified, String eTag ) {
+    this.content = content;
+    this.file = file;
+    this.length = length;
+    this.lastModified = lastModified;
+    this.eTag = eTag;
+  }
+
+  /**
+   * @param maxContentLength
+   *          files up to this size are read into memory
+   */
+  static StaticResource fromFile( File file, int maxContentLength ) throws IOException {
+    long lastModified = file.lastModified();
+    long length = file.length();
+    if ( length <= maxContentLength ) {
+      byte[] content = Files.readAllBytes( file.toPath() );
+      return new StaticResource( content, file, content.length, lastModified, contentETag( content ) );
+    }
+    return new StaticResource( null, file, length, lastModified,
+        "\"" + Long.toHexString( length ) + "-" + Long.toHexString( lastModified ) + "\"" ); //$NON-NLS-1$ //$NON-NLS-2$
+  }
+
+  /**
+   * Reads a resource that is not a plain file, such as an entry of a plugin jar. The modification time is the one of
+   * the jar entry, so that browsers can keep using their copy until the jar changes.
+   */
+  static StaticResource fromUrl( URL url ) throws IOException {
+    URLConnection connection = url.openConnection();
+    // a cached jar file would stay open after the plugin class loader is closed
+    connection.setUseCaches( false );
+    try ( InputStream in = connection.getInputStream() ) {
+      long lastModified = connection instanceof JarURLConnection
+        ? ( (JarURLConnection) connection ).getJarEntry().getTime()
+        : connection.getLastModified();
+      return fromContent( in.readAllBytes(), lastModified > 0 ? lastModified : System.currentTimeMillis() );
+    }
+  }
+
+  public static StaticResource fromContent( byte[] content, long lastModified ) {
+    return new StaticResource( content, null, content.length, lastModified, contentETag( content ) );
+  }
+
+  private static String contentETag( byte[] content ) {
+    try {
+      byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( content ); //$NON-NLS-1$
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString( Arrays.copyOf( digest, 16 ) ) + "\""; //$NON-NLS-1$ //$NON-NLS-2$
+    } catch ( NoSuchAlgorithmException e ) {
+      throw new IllegalStateException( e );
+    }
+  }
+
+  /**
+   * @return whether the file the resource was read from has changed since
+   */
+  boolean isStale() {
+    return file != null && ( file.lastModified() != lastModified || file.length() != length );
+  }
+
+  /**
+   * The size of the resource kept in memory.
+   */
+  int getWeight() {
+    return content == null ? 0 : content.length;
+  }
+
+  /**
+   * @return the file to serve, or <code>null</code> if the resource is served from memory
+   */
+  public File getFile() {
+    return content == null ? file : null;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   * @return whether a request with the given <code>If-None-Match</code> and <code>If-Modified-Since</code> headers
+   *         already has the current version of the resource
+   */
+  public boolean isNotModified( String ifNoneMatch, long ifModifiedSince ) {
+    if ( ifNoneMatch != null ) {
+      for ( String tag : ifNoneMatch.split( "," ) ) { //$NON-NLS-1$
+        String trimmed = tag.trim();
+        if ( trimmed.equals( eTag ) || trimmed.equals( "*" ) ) { //$NON-NLS-1$
+          return true;
+        }
+      }
+      return false;
+    }
+    // HTTP dates have a precision of one second
+    return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+  }
+
+  public InputStream openStream() throws IOException {
+    return content != null ? new ByteArrayInputStream( content ) : new FileInputStream( file );
+  }
+
+  public void writeTo( OutputStream out ) throws IOException {
+    if ( content != null ) {
+      out.write( content );
+      return;
+    }
+    try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) ) {
+      WritableByteChannel target = Channels.newChannel( out );
+      long position = 0;
+      long size = Math.min( length, channel.size() );
+      while ( position < size ) {
+        long transferred = channel.transferTo( position, size - position, target );
+        if ( transferred <= 0 ) {
+          break;
+        }
+        position += transferred;
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.pluginmgr;
+
+import org.pentaho.platform.api.engine.IContentGeneratorInfo;
+import org.pentaho.platform.api.engine.IPlatformPlugin;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Routes request paths to the plugin serving them, using a trie of the path elements of every plugin's static resource
+ * URLs and content generator ids. A route matches a request path that starts with all of its elements, as in
+ * {@link PentahoSystemPluginManager#isRequested(String, String)}, and when several routes match, the one of the
+ * plugin listed first wins, as when the plugins are searched one after the other.
+ * <p>
+ * A router is immutable; the plugin manager builds a new one whenever the plugins are reloaded.
+ */
+public class StaticResourceRouter {
+
+  /**
+   * A static resource URL of a plugin and the plugin folder it is served from.
+   */
+  public static class Route {
+    private final int order;
+    private final String pluginId;
+    private final String url;
+    private final String resourceDir;
+    private final ClassLoader classLoader;
+
+    Route( int order, String pluginId, String url, String resourceDir, ClassLoader classLoader ) {
+      this.order = order;
+      this.pluginId = pluginId;
+      this.url = url;
+      this.resourceDir = resourceDir;
+      this.classLoader = classLoader;
+    }
+
+    public String getPluginId() {
+      return pluginId;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public String getResourceDir() {
+      return resourceDir;
+    }
+
+    public ClassLoader getClassLoader() {
+      return classLoader;
+    }
+
+    /**
+     * @return the path of the requested resource relative to the plugin folder
+     */
+    public String getResourcePath( String requestPath ) {
+      return requestPath.replace( url, resourceDir );
+    }
+  }
+
+  private static class Node {
+    private final Map<String, Node> children = new HashMap<>( 4 );
+    private Route route;
+    private int pluginOrder = Integer.MAX_VALUE;
+    private String pluginId;
+  }
+
+  private final Node root = new Node();
+
+  private StaticResourceRouter() {
+  }
+
+  /**
+   * Builds the routes of <code>plugins</code>, in the order given.
+   *
+   * @param classLoaders
+   *          returns the class loader of a plugin id
+   */
+  public static StaticResourceRouter build( List<IPlatformPlugin> plugins, Function<String, ClassLoader> classLoaders ) {
+    StaticResourceRouter router = new StaticResourceRouter();
+    int order = 0;
+    for ( IPlatformPlugin plugin : plugins ) {
+      String pluginId = plugin.getId();
+      Map<String, String> resourceMap = plugin.getStaticResourceMap();
+      if ( resourceMap != null && !resourceMap.isEmpty() ) {
+        ClassLoader classLoader = classLoaders.apply( pluginId );
+        for ( Map.Entry<String, String> resource : resourceMap.entrySet() ) {
+          if ( resource.getKey() == null || resource.getValue() == null ) {
+            continue;
+          }
+          Node node = router.insert( resource.getKey(), order, pluginId );
+          if ( node.route == null ) {
+            node.route = new Route( order, pluginId, resource.getKey(), resource.getValue(), classLoader );
+          }
+          order++;
+        }
+      }
+      List<IContentGeneratorInfo> contentGenerators = plugin.getContentGenerators();
+      if ( contentGenerators != null ) {
+        for ( IContentGeneratorInfo contentGenerator : contentGenerators ) {
+          if ( contentGenerator.getId() != null ) {
+            router.insert( contentGenerator.getId(), order++, pluginId );
+          }
+        }
+      }
+    }
+    return router;
+  }
+
+  private Node insert( String servicePath, int order, String pluginId ) {
+    Node node = root;
+    for ( String element : split( servicePath ) ) {
+      node = node.children.computeIfAbsent( element, key -> new Node() );
+    }
+    if ( order < node.pluginOrder ) {
+      node.pluginOrder = order;
+      node.pluginId = pluginId;
+    }
+    return node;
+  }
+
+  /**
+   * @return the static resource route for <code>requestPath</code>, or <code>null</code>
+   */
+  public Route route( String requestPath ) {
+    Route best = null;
+    Node node = root;
+    for ( String element : split( requestPath ) ) {
+      node = node.children.get( element );
+      if ( node == null ) {
+        break;
+      }
+      if ( node.route != null && ( best == null || node.route.order < best.order ) ) {
+        best = node.route;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @return the id of the plugin serving <code>requestPath</code> either as a static resource or through a content
+   *         generator, or <code>null</code>
+   */
+  public String getPluginId( String requestPath ) {
+    int bestOrder = Integer.MAX_VALUE;
+    String best = null;
+    Node node = root;
+    for ( String element : split( requestPath ) ) {
+      node = node.children.get( element );
+      if ( node == null ) {
+        break;
+      }
+      if ( node.pluginOrder < bestOrder ) {
+        bestOrder = node.pluginOrder;
+        best = node.pluginId;
+      }
+    }
+    return best;
+  }
+
+  private static String[] split( String path ) {
+    return ( path.startsWith( "/" ) ? path.substring( 1 ) : path ).split( "/" );
+  }
+}
@@ -15,20 +15,32 @@ package org.pentaho.platform.plugin.services.security.userrole;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.web.FilterChainProxy;
 import org.springframework.security.web.firewall.StrictHttpFirewall;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 /**
  * This listener ensures that the Authentication system has been loaded. Security must be started before the repository.
  */
-public class SecuritySystemListener implements IPentahoSystemListener {
+public class SecuritySystemListener implements IDependentSystemListener {
 
   private static final Log logger = LogFactory.getLog( SecuritySystemListener.class );
 
+  /**
+   * Plugins can contribute authentication providers, so the authentication manager is only created once they
+   * are loaded.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList( "org.pentaho.platform.plugin.services.pluginmgr.PluginAdapter" ); //$NON-NLS-1$
+  }
+
   @Override
   public boolean startup( IPentahoSession session ) {
     PentahoSystem.get( ProviderManager.class, "authenticationManager", session  );
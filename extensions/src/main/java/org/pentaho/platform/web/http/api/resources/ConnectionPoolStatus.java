@@ -0,0 +1,232 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import org.pentaho.platform.engine.services.connection.datasource.dbcp.ConnectionPoolStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The status of the connection pool of a datasource, as reported by {@link ConnectionPoolStatistics}.
+ */
+@XmlRootElement
+public class ConnectionPoolStatus {
+
+  private String name;
+  private int numActive;
+  private int numIdle;
+  private int numWaiters;
+  private int maxTotal;
+  private int maxIdle;
+  private int minIdle;
+  private long borrowedCount;
+  private long createdCount;
+  private long destroyedCount;
+  private long borrowFailureCount;
+  private long creationFailureCount;
+  private double meanBorrowMillis;
+  private long maxBorrowMillis;
+  private double meanCreationMillis;
+  private double meanValidationMillis;
+  private List<Long> borrowHistogramBounds;
+  private List<Long> borrowHistogram;
+  private boolean adaptive;
+
+  public ConnectionPoolStatus() {
+  }
+
+  public ConnectionPoolStatus( ConnectionPoolStatistics statistics ) {
+    this.name = statistics.getName();
+    this.numActive = statistics.getNumActive();
+    this.numIdle = statistics.getNumIdle();
+    this.numWaiters = statistics.getNumWaiters();
+    this.maxTotal = statistics.getMaxTotal();
+    this.maxIdle = statistics.getMaxIdle();
+    this.minIdle = statistics.getMinIdle();
+    this.borrowedCount = statistics.getBorrowedCount();
+    this.createdCount = statistics.getCreatedCount();
+    this.destroyedCount = statistics.getDestroyedCount();
+    this.borrowFailureCount = statistics.getBorrowFailureCount();
+    this.creationFailureCount = statistics.getCreationFailureCount();
+    this.meanBorrowMillis = statistics.getMeanBorrowMillis();
+    this.maxBorrowMillis = statistics.getMaxBorrowMillis();
+    this.meanCreationMillis = statistics.getMeanCreationMillis();
+    this.meanValidationMillis = statistics.getMeanValidationMillis();
+    this.borrowHistogramBounds = toList( statistics.getBorrowHistogramBounds() );
+    this.borrowHistogram = toList( statistics.getBorrowHistogram() );
+    this.adaptive = statistics.isAdaptive();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName( String name ) {
+    this.name = name;
+  }
+
+  public int getNumActive() {
+    return numActive;
+  }
+
+  public void setNumActive( int numActive ) {
+    this.numActive = numActive;
+  }
+
+  public int getNumIdle() {
+    return numIdle;
+  }
+
+  public void setNumIdle( int numIdle ) {
+    this.numIdle = numIdle;
+  }
+
+  public int getNumWaiters() {
+    return numWaiters;
+  }
+
+  public void setNumWaiters( int numWaiters ) {
+    this.numWaiters = numWaiters;
+  }
+
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  public void setMaxTotal( int maxTotal ) {
+    this.maxTotal = maxTotal;
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  public void setMaxIdle( int maxIdle ) {
+    this.maxIdle = maxIdle;
+  }
+
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  public void setMinIdle( int minIdle ) {
+    this.minIdle = minIdle;
+  }
+
+  public long getBorrowedCount() {
+    return borrowedCount;
+  }
+
+  public void setBorrowedCount( long borrowedCount ) {
+    this.borrowedCount = borrowedCount;
+  }
+
+  public long getCreatedCount() {
+    return createdCount;
+  }
+
+  public void setCreatedCount( long createdCount ) {
+    this.createdCount = createdCount;
+  }
+
+  public long getDestroyedCount() {
+    return destroyedCount;
+  }
+
+  public void setDestroyedCount( long destroyedCount ) {
+    this.destroyedCount = destroyedCount;
+  }
+
+  public long getBorrowFailureCount() {
+    return borrowFailureCount;
+  }
+
+  public void setBorrowFailureCount( long borrowFailureCount ) {
+    this.borrowFailureCount = borrowFailureCount;
+  }
+
+  public long getCreationFailureCount() {
+    return creationFailureCount;
+  }
+
+  public void setCreationFailureCount( long creationFailureCount ) {
+    this.creationFailureCount = creationFailureCount;
+  }
+
+  public double getMeanBorrowMillis() {
+    return meanBorrowMillis;
+  }
+
+  public void setMeanBorrowMillis( double meanBorrowMillis ) {
+    this.meanBorrowMillis = meanBorrowMillis;
+  }
+
+  public long getMaxBorrowMillis() {
+    return maxBorrowMillis;
+  }
+
+  public void setMaxBorrowMillis( long maxBorrowMillis ) {
+    this.maxBorrowMillis = maxBorrowMillis;
+  }
+
+  public double getMeanCreationMillis() {
+    return meanCreationMillis;
+  }
+
+  public void setMeanCreationMillis( double meanCreationMillis ) {
+    this.meanCreationMillis = meanCreationMillis;
+  }
+
+  public double getMeanValidationMillis() {
+    return meanValidationMillis;
+  }
+
+  public void setMeanValidationMillis( double meanValidationMillis ) {
+    this.meanValidationMillis = meanValidationMillis;
+  }
+
+  public List<Long> getBorrowHistogramBounds() {
+    return borrowHistogramBounds;
+  }
+
+  public void setBorrowHistogramBounds( List<Long> borrowHistogramBounds ) {
+    this.borrowHistogramBounds = borrowHistogramBounds;
+  }
+
+  public List<Long> getBorrowHistogram() {
+    return borrowHistogram;
+  }
+
+  public void setBorrowHistogram( List<Long> borrowHistogram ) {
+    this.borrowHistogram = borrowHistogram;
+  }
+
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  public void setAdaptive( boolean adaptive ) {
+    this.adaptive = adaptive;
+  }
+
+  private static List<Long> toList( long[] values ) {
+    List<Long> list = new ArrayList<>( values.length );
+    for ( long value : values ) {
+      list.add( value );
+    }
+    return list;
+  }
+}
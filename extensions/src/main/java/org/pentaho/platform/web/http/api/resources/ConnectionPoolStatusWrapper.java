@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+public class ConnectionPoolStatusWrapper {
+  private List<ConnectionPoolStatus> connectionPool = new ArrayList<>();
+
+  public ConnectionPoolStatusWrapper() {
+  }
+
+  public ConnectionPoolStatusWrapper( List<ConnectionPoolStatus> connectionPool ) {
+    this.connectionPool = connectionPool;
+  }
+
+  public List<ConnectionPoolStatus> getConnectionPool() {
+    return connectionPool;
+  }
+
+  public void setConnectionPool( List<ConnectionPoolStatus> connectionPool ) {
+    this.connectionPool = connectionPool;
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.platform.web.http.api.resources;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import org.glassfish.jersey.media.multipart.FormDataParam;
@@ -168,6 +169,11 @@ public class FileResource extends AbstractJaxRSResource {
 
   /**
    * Performs a system back up of the Pentaho system. This includes content, schedules, users, roles, datasources, and the metastore.
+   * When the optional <code>modifiedSince</code> parameter (milliseconds since the epoch) is given, only the content
+   * modified after that time is included, together with the list of content deleted since then. The
+   * <code>watermark</code> in the manifest of the backup is the value to pass for the next incremental backup. Content
+   * is selected by its modification time only: content whose permissions changed, or that was moved, renamed, copied or
+   * restored from the trash, keeps its modification time and is not included; take a full backup after such changes.
    *
    * <p><b>Example Request:</b><br />
    * GET pentaho/api/repo/files/backup
@@ -191,8 +197,14 @@ public class FileResource extends AbstractJaxRSResource {
   public Response systemBackup( final MultivaluedMap<String, String> formParams ) {
     FileService.DownloadFileWrapper wrapper;
     try {
-      wrapper = fileService.systemBackup( formParams.getFirst( "logFile" ), formParams
-          .getFirst( "logLevel" ), formParams.getFirst( "outputFile" ) );
+      String modifiedSince = formParams.getFirst( "modifiedSince" );
+      if ( isBlank( modifiedSince ) ) {
+        wrapper = fileService.systemBackup( formParams.getFirst( "logFile" ), formParams
+            .getFirst( "logLevel" ), formParams.getFirst( "outputFile" ) );
+      } else {
+        wrapper = fileService.systemBackup( formParams.getFirst( "logFile" ), formParams
+            .getFirst( "logLevel" ), formParams.getFirst( "outputFile" ), Long.valueOf( modifiedSince ) );
+      }
       return buildZipOkResponse( wrapper );
     } catch ( IllegalArgumentException iae ) {
       throw new WebApplicationException( iae, Response.Status.BAD_REQUEST );
@@ -867,6 +879,17 @@ public class FileResource extends AbstractJaxRSResource {
     return xsr;
   }
 
+  /**
+   * @return the mapper the JAX-RS providers use to write JSON, or null if there is none
+   */
+  protected ObjectMapper getObjectMapper( Class<?> clazz ) {
+    ContextResolver<ObjectMapper> mapperResolver = null;
+    if ( null != providers ) { // should never be null except in unit tests
+      mapperResolver = providers.getContextResolver( ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE );
+    }
+    return null != mapperResolver ? mapperResolver.getContext( clazz ) : null;
+  }
+
   protected Unmarshaller getUnmarshaller( Class<?> clazz ) throws JAXBException {
     ContextResolver<JAXBContext> jaxbResolver = null;
     JAXBContext jaxbContext = null;
@@ -1927,6 +1950,55 @@ public class FileResource extends AbstractJaxRSResource {
     return fileService.doGetTree( pathId, depth, filter, showHidden, includeAcls, includeSystemFolders );
   }
 
+  /**
+   * Retrieve the hierarchical tree of files from the selected repository path, streamed to the client while it is
+   * being read from the repository. This avoids building the whole tree in memory and is meant for large trees.
+   *
+   * <p><b>Example Request:</b><br />
+   * GET pentaho/api/repo/files/:public/tree/stream?depth=-1&maxNodes=5000
+   * </p>
+   *
+   * @param pathId      The path from the root folder to the root node of the tree to return using colon characters in place of /
+   *                    or \ characters. To clarify /path/to/file, the encoded pathId would be :path:to:file.
+   * @param depth       The maximum depth of the tree starting at the specified path.
+   * @param filter      Filter to be applied for search. See {@link #doGetTree}.
+   * @param showHidden  Include or exclude hidden files from the file list.
+   * @param includeAcls Include permission information about the file in the output.
+   * @param pageToken   Token returned by a previous page; the traversal continues right after it.
+   * @param maxNodes    Maximum number of nodes to return. When given, or when a page token is given, the nodes are
+   *                    returned as a flat list with their level, followed by the token for the next page if the
+   *                    traversal is not complete.
+   * @return Without paging, the same structure as {@link #doGetTree}, with siblings in name order.
+   *
+   * <p><b>Example Response:</b></p>
+   * <pre function="syntax.xml">
+   *  &lt;repositoryFileTreePage&gt;
+   *  &lt;node level="0"&gt;&lt;file&gt;...&lt;/file&gt;&lt;/node&gt;
+   *  &lt;node level="1"&gt;&lt;file&gt;...&lt;/file&gt;&lt;/node&gt;
+   *  &lt;nextPageToken&gt;/public/Steel Wheels&lt;/nextPageToken&gt;
+   *  &lt;/repositoryFileTreePage&gt;
+   * </pre>
+   */
+  @GET
+  @Path( "{pathId : .+}/tree/stream" )
+  @Produces( {MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON} )
+  @StatusCodes( {
+      @ResponseCode( code = 200, condition = "Successfully streamed the tree." ),
+      @ResponseCode( code = 500, condition = "Server Error." )} )
+  public Response doGetTreeStream( @PathParam( "pathId" ) String pathId, @QueryParam( "depth" ) Integer depth,
+                                   @QueryParam( "filter" ) String filter, @QueryParam( "showHidden" ) Boolean showHidden,
+                                   @DefaultValue( "false" ) @QueryParam( "includeAcls" ) Boolean includeAcls,
+                                   @DefaultValue( "false" ) @QueryParam( "includeSysDirs" ) Boolean includeSystemFolders,
+                                   @QueryParam( "pageToken" ) String pageToken,
+                                   @QueryParam( "maxNodes" ) Integer maxNodes,
+                                   @HeaderParam( "Accept" ) String accept ) {
+    MediaType mediaType = accept != null && accept.contains( MediaType.APPLICATION_JSON )
+      ? MediaType.APPLICATION_JSON_TYPE : MediaType.APPLICATION_XML_TYPE;
+    StreamingOutput streamingOutput = fileService.doGetTreeStream( pathId, depth, filter, showHidden, includeAcls,
+      includeSystemFolders, pageToken, maxNodes, mediaType, getObjectMapper( RepositoryFileDto.class ) );
+    return Response.ok( streamingOutput, mediaType ).build();
+  }
+
   /**
    * Retrieve a list of child files from the selected repository path of the repository.
    *
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.web.http.api.resources;
+
+import jakarta.xml.bind.annotation.XmlRootElement;
+import org.pentaho.platform.plugin.services.metadata.SessionCachingMetadataDomainRepository.DomainCacheStatistics;
+
+/**
+ * The status of the shared metadata domain cache, as reported by {@link DomainCacheStatistics}.
+ */
+@XmlRootElement
+public class MetadataDomainCacheStatus {
+
+  private long loadCount;
+  private double meanLoadMillis;
+  private long totalLoadMillis;
+  private long sharedHitCount;
+  private long createdViewCount;
+  private int sharedDomainCount;
+  private int viewCount;
+  private int sessionEntryCount;
+
+  public MetadataDomainCacheStatus() {
+  }
+
+  public MetadataDomainCacheStatus( DomainCacheStatistics statistics ) {
+    this.loadCount = statistics.getLoadCount();
+    this.meanLoadMillis = statistics.getMeanLoadMillis();
+    this.totalLoadMillis = statistics.getTotalLoadMillis();
+    this.sharedHitCount = statistics.getSharedHitCount();
+    this.createdViewCount = statistics.getCreatedViewCount();
+    this.sharedDomainCount = statistics.getSharedDomainCount();
+    this.viewCount = statistics.getViewCount();
+    this.sessionEntryCount = statistics.getSessionEntryCount();
+  }
+
+  public long getLoadCount() {
+    return loadCount;
+  }
+
+  public void setLoadCount( long loadCount ) {
+    this.loadCount = loadCount;
+  }
+
+  public double getMeanLoadMillis() {
+    return meanLoadMillis;
+  }
+
+  public void setMeanLoadMillis( double meanLoadMillis ) {
+    this.meanLoadMillis = meanLoadMillis;
+  }
+
+  public long getTotalLoadMillis() {
+    return totalLoadMillis;
+  }
+
+  public void setTotalLoadMillis( long totalLoadMillis ) {
+    this.totalLoadMillis = totalLoadMillis;
+  }
+
+  public long getSharedHitCount() {
+    return sharedHitCount;
+  }
+
+  public void setSharedHitCount( long sharedHitCount ) {
+    this.sharedHitCount = sharedHitCount;
+  }
+
+  public long getCreatedViewCount() {
+    return createdViewCount;
+  }
+
+  public void setCreatedViewCount( long createdViewCount ) {
+    this.createdViewCount = createdViewCount;
+  }
+
+  public int getSharedDomainCount() {
+    return sharedDomainCount;
+  }
+
+  public void setSharedDomainCount( int sharedDomainCount ) {
+    this.sharedDomainCount = sharedDomainCount;
+  }
+
+  public int getViewCount() {
+    return viewCount;
+  }
+
+  public void setViewCount( int viewCount ) {
+    this.viewCount = viewCount;
+  }
+
+  public int getSessionEntryCount() {
+    return sessionEntryCount;
+  }
+
+  public void setSessionEntryCount( int sessionEntryCount ) {
+    this.sessionEntryCount = sessionEntryCount;
+  }
+}
@@ -28,6 +28,8 @@ import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
+import java.util.List;
+
 import static jakarta.ws.rs.core.Response.Status.UNAUTHORIZED;
 
 @Path( "/legacy/permissions" )
@@ -58,7 +60,7 @@ public class SystemPermissionsResource extends AbstractJaxRSResource {
 
   private boolean canAdminister() {
     IAuthorizationPolicy policy = PentahoSystem.get( IAuthorizationPolicy.class );
-    return policy.isAllowed( RepositoryReadAction.NAME ) && policy.isAllowed( RepositoryCreateAction.NAME )
-        && ( policy.isAllowed( AdministerSecurityAction.NAME ) );
+    return policy.isAllowedAll(
+      List.of( RepositoryReadAction.NAME, RepositoryCreateAction.NAME, AdministerSecurityAction.NAME ) );
   }
 }
@@ -16,6 +16,7 @@ package org.pentaho.platform.web.http.api.resources;
 import org.codehaus.enunciate.Facet;
 import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.data.IQueryResultCache;
 import org.pentaho.platform.api.engine.security.authorization.caching.IAuthorizationDecisionCache;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
@@ -172,6 +173,26 @@ public class SystemRefreshResource extends AbstractJaxRSResource {
     }
   }
 
+  @GET
+  @Path( "/queryResultCache" )
+  @Produces( { MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON } )
+  @Facet ( name = "Unsupported" )
+  public Response flushQueryResultCache( @QueryParam( "datasource" ) String datasource ) {
+    if ( canAdminister() ) {
+      IQueryResultCache queryResultCache = PentahoSystem.get( IQueryResultCache.class );
+      if ( queryResultCache != null ) {
+        if ( datasource != null ) {
+          queryResultCache.invalidate( datasource );
+        } else {
+          queryResultCache.invalidateAll();
+        }
+      }
+      return Response.ok().type( MediaType.TEXT_PLAIN ).build();
+    } else {
+      return Response.status( UNAUTHORIZED ).build();
+    }
+  }
+
   private boolean canAdminister() {
     return SystemUtils.canAdminister();
   }
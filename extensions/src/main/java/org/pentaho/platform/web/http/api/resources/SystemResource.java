@@ -19,6 +19,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.codehaus.enunciate.Facet;
 import org.codehaus.enunciate.modules.jersey.ExternallyManagedLifecycle;
+import org.pentaho.metadata.repository.IMetadataDomainRepository;
 
 import org.pentaho.platform.api.engine.IConfiguration;
 import org.pentaho.platform.api.engine.IContentInfo;
@@ -30,6 +31,9 @@ import org.pentaho.platform.api.repository2.unified.webservices.ExecutableFileTy
 import org.pentaho.platform.api.usersettings.IUserSettingService;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.engine.services.connection.datasource.dbcp.ConnectionPoolMonitor;
+import org.pentaho.platform.engine.services.connection.datasource.dbcp.ConnectionPoolStatistics;
+import org.pentaho.platform.plugin.services.metadata.SessionCachingMetadataDomainRepository;
 import org.pentaho.platform.api.repository2.unified.webservices.ExecutableFileTypeDto;
 import org.pentaho.platform.security.policy.rolebased.actions.AdministerSecurityAction;
 import org.pentaho.platform.security.policy.rolebased.actions.RepositoryCreateAction;
@@ -55,6 +59,7 @@ import java.util.TimeZone;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_XML;
+import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
 import static jakarta.ws.rs.core.Response.Status.UNAUTHORIZED;
 
 /**
@@ -232,6 +237,51 @@ public class SystemResource extends AbstractJaxRSResource {
     return new ExecutableFileTypeDtoWrapper( executableTypes );
   }
 
+  /**
+   * Returns the statistics of the connection pools of the datasources, such as their active and idle connections and
+   * the time spent borrowing connections. Only available to administrators.
+   *
+   * @return the statistics of the connection pools, sorted by datasource name
+   */
+  @GET
+  @Path( "/connectionPools" )
+  @Produces( { APPLICATION_JSON, APPLICATION_XML } )
+  @Facet ( name = "Unsupported" )
+  public Response getConnectionPools() {
+    if ( !canAdminister() ) {
+      return Response.status( UNAUTHORIZED ).build();
+    }
+
+    List<ConnectionPoolStatus> pools = new ArrayList<>();
+    for ( ConnectionPoolStatistics statistics : ConnectionPoolMonitor.getInstance().getPools() ) {
+      pools.add( new ConnectionPoolStatus( statistics ) );
+    }
+    return Response.ok( new ConnectionPoolStatusWrapper( pools ) ).build();
+  }
+
+  /**
+   * Returns the statistics of the shared metadata domain cache, such as the time spent loading domains and the number
+   * of shared domains and security views. Only available to administrators.
+   *
+   * @return the statistics of the cache, or NOT_FOUND if the metadata domains are not cached across sessions
+   */
+  @GET
+  @Path( "/metadataDomainCache" )
+  @Produces( { APPLICATION_JSON, APPLICATION_XML } )
+  @Facet ( name = "Unsupported" )
+  public Response getMetadataDomainCache() {
+    if ( !canAdminister() ) {
+      return Response.status( UNAUTHORIZED ).build();
+    }
+
+    IMetadataDomainRepository repository = PentahoSystem.get( IMetadataDomainRepository.class );
+    if ( !( repository instanceof SessionCachingMetadataDomainRepository ) ) {
+      return Response.status( NOT_FOUND ).build();
+    }
+    return Response.ok( new MetadataDomainCacheStatus(
+      ( (SessionCachingMetadataDomainRepository) repository ).getDomainCacheStatistics() ) ).build();
+  }
+
   private boolean hasOperationId( final List<IPluginOperation> operations, final String operationId ) {
     if ( operations != null && StringUtils.isNotBlank( operationId ) ) {
       for ( IPluginOperation operation : operations ) {
@@ -927,8 +927,8 @@ public class UserRoleDaoResource extends AbstractJaxRSResource {
 
   protected boolean canAdminister() {
     IAuthorizationPolicy policy = PentahoSystem.get( IAuthorizationPolicy.class );
-    return policy.isAllowed( RepositoryReadAction.NAME ) && policy.isAllowed( RepositoryCreateAction.NAME )
-      && ( policy.isAllowed( AdministerSecurityAction.NAME ) );
+    return policy.isAllowedAll(
+      List.of( RepositoryReadAction.NAME, RepositoryCreateAction.NAME, AdministerSecurityAction.NAME ) );
   }
 
   protected void updateRolesForCurrentSession() {
@@ -13,6 +13,7 @@
 
 package org.pentaho.platform.web.http.api.resources.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.BooleanUtils;
@@ -83,10 +84,12 @@ import org.pentaho.platform.web.http.api.resources.StringListWrapper;
 import org.pentaho.platform.web.http.api.resources.operations.CopyFilesOperation;
 import org.pentaho.platform.web.http.api.resources.utils.FileUtils;
 import org.pentaho.platform.web.http.api.resources.utils.RepositoryFileHelper;
+import org.pentaho.platform.web.http.api.resources.utils.RepositoryFileTreeStreamWriter;
 import org.pentaho.platform.web.http.api.resources.utils.SystemUtils;
 import org.pentaho.platform.web.http.messages.Messages;
 import org.pentaho.platform.web.servlet.HttpMimeTypeListener;
 
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -153,6 +156,14 @@ public class FileService {
   }
 
   public DownloadFileWrapper systemBackup( String logFile, String logLevel, String outputFile ) throws IllegalArgumentException, IOException, ExportException {
+    return systemBackup( logFile, logLevel, outputFile, null );
+  }
+
+  /**
+   * @param modifiedSince if not null, only the repository files modified after this time (milliseconds since the
+   *                      epoch) are backed up, together with the files deleted since then
+   */
+  public DownloadFileWrapper systemBackup( String logFile, String logLevel, String outputFile, Long modifiedSince ) throws IllegalArgumentException, IOException, ExportException {
     if ( doCanAdminister() ) {
       clearBowlCache();
       String encodedFileName;
@@ -184,7 +195,7 @@ public class FileService {
       }
       RepositoryTextLayout stringLayout = new RepositoryTextLayout( level );
       exportLogger.startJob( exportLoggerSream, level, stringLayout );
-      StreamingOutput streamingOutput = getBackupStream();
+      StreamingOutput streamingOutput = getBackupStream( modifiedSince );
       exportLogger.endJob();
       try {
         exportLoggerSream.writeTo( fileOutputStream );
@@ -265,8 +276,10 @@ public class FileService {
     }
   }
 
-  private StreamingOutput getBackupStream() throws IOException, ExportException {
-    final File zipFile = getBackupExporter().performExport();
+  private StreamingOutput getBackupStream( Long modifiedSince ) throws IOException, ExportException {
+    final File zipFile;
+    // the exporter is shared, so the time is passed with the call instead of being set on it
+    zipFile = getBackupExporter().performExport( modifiedSince != null ? new Date( modifiedSince ) : null );
     return new StreamingOutput() {
       @Override
       public void write( OutputStream output ) throws IOException {
@@ -346,11 +359,13 @@ public class FileService {
   public List<Setting> doGetCanAccessList( String pathId, String permissions ) {
     StringTokenizer tokenizer = new StringTokenizer( permissions, "|" );
     ArrayList<Setting> permMap = new ArrayList<Setting>();
+    // Resolve the path once for all of the permissions being checked
+    String path = idToPath( pathId );
     while ( tokenizer.hasMoreTokens() ) {
       Integer perm = Integer.valueOf( tokenizer.nextToken() );
       EnumSet<RepositoryFilePermission> permission = EnumSet.of( RepositoryFilePermission.values()[ perm ] );
       permMap.add( new Setting( perm.toString(), new Boolean( getRepository()
-          .hasAccess( idToPath( pathId ), permission ) ).toString() ) );
+          .hasAccess( path, permission ) ).toString() ) );
     }
     return permMap;
   }
@@ -1580,16 +1595,9 @@ public class FileService {
 
   public RepositoryFileTreeDto doGetTree( String pathId, Integer depth, String filter, Boolean showHidden,
                                           Boolean includeAcls, Boolean includeSystemFolders ) {
-    String path = null;
-    if ( pathId == null || pathId.equals( FileUtils.PATH_SEPARATOR ) ) {
-      path = FileUtils.PATH_SEPARATOR;
-    } else if ( !pathId.startsWith( FileUtils.PATH_SEPARATOR ) ) {
-      path = idToPath( pathId );
-    }
-
-    RepositoryRequest repositoryRequest = getRepositoryRequest( path, showHidden, depth, filter );
-    repositoryRequest.setIncludeAcls( includeAcls );
-    repositoryRequest.setIncludeSystemFolders( includeSystemFolders );
+    RepositoryRequest repositoryRequest =
+      getTreeRepositoryRequest( pathId, depth, filter, showHidden, includeAcls, includeSystemFolders );
+    String path = repositoryRequest.getPath();
 
     RepositoryFileTreeDto tree = null;
     try {
@@ -1626,6 +1634,60 @@ public class FileService {
     return tree;
   }
 
+  /**
+   * Streaming variant of {@link #doGetTree(String, Integer, String, Boolean, Boolean, Boolean)}. The tree is written
+   * to the response while it is being read from the repository, without building the DTO graph. Siblings are
+   * written in name order. When a page token or a positive node budget is given, the nodes are written as a flat,
+   * paged list instead of a nested tree.
+   */
+  public StreamingOutput doGetTreeStream( String pathId, Integer depth, String filter, Boolean showHidden,
+                                          Boolean includeAcls, Boolean includeSystemFolders, String pageToken,
+                                          Integer maxNodes, final MediaType mediaType ) {
+    return doGetTreeStream( pathId, depth, filter, showHidden, includeAcls, includeSystemFolders, pageToken, maxNodes,
+      mediaType, null );
+  }
+
+  /**
+   * @param objectMapper the mapper used to write JSON, or null to use a default one
+   */
+  public StreamingOutput doGetTreeStream( String pathId, Integer depth, String filter, Boolean showHidden,
+                                          Boolean includeAcls, Boolean includeSystemFolders, String pageToken,
+                                          Integer maxNodes, final MediaType mediaType,
+                                          final ObjectMapper objectMapper ) {
+    final RepositoryRequest repositoryRequest =
+      getTreeRepositoryRequest( pathId, depth, filter, showHidden, includeAcls, includeSystemFolders );
+    repositoryRequest.setPageToken( pageToken );
+    if ( maxNodes != null ) {
+      repositoryRequest.setMaxNodes( maxNodes );
+    }
+    final boolean paged = pageToken != null || repositoryRequest.getMaxNodes() > 0;
+
+    return new StreamingOutput() {
+      @Override
+      public void write( OutputStream output ) throws IOException {
+        RepositoryFileTreeStreamWriter writer =
+          RepositoryFileTreeStreamWriter.create( mediaType, output, repositoryRequest, paged, objectMapper );
+        writer.start();
+        writer.finish( getRepoWs().walkTreeFromRequest( repositoryRequest, writer ) );
+      }
+    };
+  }
+
+  private RepositoryRequest getTreeRepositoryRequest( String pathId, Integer depth, String filter, Boolean showHidden,
+                                                      Boolean includeAcls, Boolean includeSystemFolders ) {
+    String path = null;
+    if ( pathId == null || pathId.equals( FileUtils.PATH_SEPARATOR ) ) {
+      path = FileUtils.PATH_SEPARATOR;
+    } else if ( !pathId.startsWith( FileUtils.PATH_SEPARATOR ) ) {
+      path = idToPath( pathId );
+    }
+
+    RepositoryRequest repositoryRequest = getRepositoryRequest( path, showHidden, depth, filter );
+    repositoryRequest.setIncludeAcls( includeAcls );
+    repositoryRequest.setIncludeSystemFolders( includeSystemFolders );
+    return repositoryRequest;
+  }
+
   public void sortByLocaleTitle( final Collator collator, final RepositoryFileTreeDto tree ) {
 
     if ( tree == null || tree.getChildren() == null || tree.getChildren().isEmpty() ) {
@@ -1711,15 +1773,10 @@ public class FileService {
 
     RepositoryFile workspaceFolder = getRepository().getFile( userDir );
     if ( workspaceFolder != null ) {
-      List<RepositoryFile> children = getRepository().getChildren( workspaceFolder.getId() );
+      List<RepositoryFile> children =
+          getRepository().getChildrenByMetadata( workspaceFolder.getId(), metadataConstant, targetComparator, 0, -1 );
       for ( RepositoryFile child : children ) {
-        if ( !child.isFolder() ) {
-          Map<String, Serializable> fileMetadata = getRepository().getFileMetadata( child.getId() );
-          String creatorId = (String) fileMetadata.get( metadataConstant );
-          if ( creatorId != null && creatorId.equals( targetComparator ) ) {
-            content.add( toFileDto( child, null, false ) );
-          }
-        }
+        content.add( toFileDto( child, null, false ) );
       }
     } else {
       logger.error( Messages.getInstance().getString( "FileResource.WORKSPACE_FOLDER_NOT_FOUND", userDir ) );
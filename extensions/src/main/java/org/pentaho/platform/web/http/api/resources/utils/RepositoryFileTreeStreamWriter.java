@@ -0,0 +1,268 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.web.http.api.resources.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
+import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
+import org.pentaho.platform.api.repository2.unified.webservices.RepositoryFileDto;
+import org.pentaho.platform.repository2.ClientRepositoryPaths;
+import org.pentaho.platform.repository2.unified.webservices.RepositoryFileAdapter;
+import org.pentaho.platform.web.http.messages.Messages;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the nodes reported by {@link org.pentaho.platform.api.repository2.unified.IUnifiedRepository#walkTree}
+ * straight to a response stream, so that a tree never has to be materialized as a {@code RepositoryFileTreeDto}.
+ * <p>
+ * In nested mode the output has the same shape as a serialized {@code RepositoryFileTreeDto}. In paged mode the
+ * nodes are written as a flat list, each with its level, followed by the token for the next page if there is one.
+ */
+public abstract class RepositoryFileTreeStreamWriter implements IRepositoryFileTreeVisitor {
+
+  private final RepositoryFileAdapter adapter;
+
+  protected final boolean paged;
+
+  protected RepositoryFileTreeStreamWriter( final RepositoryRequest repositoryRequest, final boolean paged ) {
+    this.adapter = new RepositoryFileAdapter( repositoryRequest );
+    this.paged = paged;
+  }
+
+  public static RepositoryFileTreeStreamWriter create( final MediaType mediaType, final OutputStream output,
+                                                       final RepositoryRequest repositoryRequest,
+                                                       final boolean paged ) throws IOException {
+    return create( mediaType, output, repositoryRequest, paged, null );
+  }
+
+  /**
+   * @param objectMapper the mapper used for JSON by the rest of the API, as resolved from the JAX-RS providers; a
+   *                     default one is used if null
+   */
+  public static RepositoryFileTreeStreamWriter create( final MediaType mediaType, final OutputStream output,
+                                                       final RepositoryRequest repositoryRequest,
+                                                       final boolean paged, final ObjectMapper objectMapper )
+    throws IOException {
+    if ( MediaType.APPLICATION_JSON_TYPE.isCompatible( mediaType ) ) {
+      return new Json( output, repositoryRequest, paged, objectMapper != null ? objectMapper : Json.DEFAULT_MAPPER );
+    }
+    return new Xml( output, repositoryRequest, paged );
+  }
+
+  /**
+   * Writes the document header. Must be called before the writer is passed to the repository.
+   */
+  public abstract void start() throws IOException;
+
+  /**
+   * Writes the document trailer and flushes the output.
+   */
+  public abstract void finish( RepositoryFileTreePage page ) throws IOException;
+
+  protected RepositoryFileDto toFileDto( final RepositoryFile file ) {
+    RepositoryFileDto dto = adapter.marshal( file );
+    // translating /home and /public folders titles
+    if ( dto != null && dto.getName() != null && dto.getPath() != null ) {
+      if ( dto.getName().equals( ClientRepositoryPaths.getHomeFolderName() )
+          && dto.getPath().equals( ClientRepositoryPaths.getHomeFolderPath() ) ) {
+        dto.setTitle( Messages.getInstance().getString( "FileResource.HOME_FOLDER_DISPLAY_TITLE" ) );
+      } else if ( dto.getName().equals( ClientRepositoryPaths.getPublicFolderName() )
+          && dto.getPath().equals( ClientRepositoryPaths.getPublicFolderPath() ) ) {
+        dto.setTitle( Messages.getInstance().getString( "FileResource.PUBLIC_FOLDER_DISPLAY_TITLE" ) );
+      }
+    }
+    return dto;
+  }
+
+  static class Json extends RepositoryFileTreeStreamWriter {
+
+    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
+
+    private final ObjectWriter fileWriter;
+
+    private final JsonGenerator generator;
+
+    Json( final OutputStream output, final RepositoryRequest repositoryRequest, final boolean paged,
+          final ObjectMapper objectMapper ) throws IOException {
+      super( repositoryRequest, paged );
+      // the generator is flushed once at the end, not after every file
+      this.fileWriter = objectMapper.writerFor( RepositoryFileDto.class )
+        .without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+      this.generator = objectMapper.getFactory().createGenerator( output, JsonEncoding.UTF8 );
+      this.generator.disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+    }
+
+    @Override
+    public void start() throws IOException {
+      generator.writeStartObject();
+      if ( paged ) {
+        generator.writeArrayFieldStart( "nodes" );
+      }
+    }
+
+    @Override
+    public void startNode( final RepositoryFile file, final int level ) {
+      try {
+        if ( paged || level > 0 ) {
+          generator.writeStartObject();
+        }
+        if ( paged ) {
+          generator.writeNumberField( "level", level );
+        }
+        generator.writeFieldName( "file" );
+        fileWriter.writeValue( generator, toFileDto( file ) );
+        if ( paged ) {
+          generator.writeEndObject();
+        } else if ( file.isFolder() ) {
+          // leaf files have no children, as in a serialized RepositoryFileTreeDto
+          generator.writeArrayFieldStart( "children" );
+        }
+      } catch ( IOException e ) {
+        throw new UncheckedIOException( e );
+      }
+    }
+
+    @Override
+    public void endNode( final RepositoryFile file, final int level ) {
+      if ( paged ) {
+        return;
+      }
+      try {
+        if ( file.isFolder() ) {
+          generator.writeEndArray();
+        }
+        if ( level > 0 ) {
+          generator.writeEndObject();
+        }
+      } catch ( IOException e ) {
+        throw new UncheckedIOException( e );
+      }
+    }
+
+    @Override
+    public void finish( final RepositoryFileTreePage page ) throws IOException {
+      if ( paged ) {
+        generator.writeEndArray();
+        if ( page.getNextPageToken() != null ) {
+          generator.writeStringField( "nextPageToken", page.getNextPageToken() );
+        }
+      }
+      generator.writeEndObject();
+      generator.flush();
+    }
+  }
+
+  static class Xml extends RepositoryFileTreeStreamWriter {
+
+    private static JAXBContext jaxbContext;
+
+    private final XMLStreamWriter writer;
+
+    private final Marshaller marshaller;
+
+    Xml( final OutputStream output, final RepositoryRequest repositoryRequest, final boolean paged )
+      throws IOException {
+      super( repositoryRequest, paged );
+      try {
+        this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter( output, "UTF-8" );
+        this.marshaller = getJaxbContext().createMarshaller();
+        this.marshaller.setProperty( Marshaller.JAXB_FRAGMENT, Boolean.TRUE );
+      } catch ( XMLStreamException | JAXBException e ) {
+        throw new IOException( e );
+      }
+    }
+
+    private static synchronized JAXBContext getJaxbContext() throws JAXBException {
+      if ( jaxbContext == null ) {
+        jaxbContext = JAXBContext.newInstance( RepositoryFileDto.class );
+      }
+      return jaxbContext;
+    }
+
+    @Override
+    public void start() throws IOException {
+      try {
+        writer.writeStartDocument( "UTF-8", "1.0" );
+        writer.writeStartElement( paged ? "repositoryFileTreePage" : "repositoryFileTreeDto" );
+      } catch ( XMLStreamException e ) {
+        throw new IOException( e );
+      }
+    }
+
+    @Override
+    public void startNode( final RepositoryFile file, final int level ) {
+      try {
+        if ( paged ) {
+          writer.writeStartElement( "node" );
+          writer.writeAttribute( "level", String.valueOf( level ) );
+        } else if ( level > 0 ) {
+          writer.writeStartElement( "children" );
+        }
+        marshaller.marshal( new JAXBElement<RepositoryFileDto>( new QName( "file" ), RepositoryFileDto.class,
+            toFileDto( file ) ), writer );
+        if ( paged ) {
+          writer.writeEndElement();
+        }
+      } catch ( XMLStreamException | JAXBException e ) {
+        throw new UncheckedIOException( new IOException( e ) );
+      }
+    }
+
+    @Override
+    public void endNode( final RepositoryFile file, final int level ) {
+      if ( paged || level == 0 ) {
+        return;
+      }
+      try {
+        writer.writeEndElement();
+      } catch ( XMLStreamException e ) {
+        throw new UncheckedIOException( new IOException( e ) );
+      }
+    }
+
+    @Override
+    public void finish( final RepositoryFileTreePage page ) throws IOException {
+      try {
+        if ( paged && page.getNextPageToken() != null ) {
+          writer.writeStartElement( "nextPageToken" );
+          writer.writeCharacters( page.getNextPageToken() );
+          writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+      } catch ( XMLStreamException e ) {
+        throw new IOException( e );
+      }
+    }
+  }
+}
@@ -62,7 +62,7 @@ public class WebSpringPentahoObjectFactory extends AbstractSpringPentahoObjectFa
 
     ServletContext servletContext = (ServletContext) context;
 
-    beanFactory =
-        (XmlWebApplicationContext) WebApplicationContextUtils.getRequiredWebApplicationContext( servletContext );
+    setBeanFactory(
+        (XmlWebApplicationContext) WebApplicationContextUtils.getRequiredWebApplicationContext( servletContext ) );
   }
 }
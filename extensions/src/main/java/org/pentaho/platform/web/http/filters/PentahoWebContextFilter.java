@@ -28,6 +28,7 @@ import org.pentaho.platform.api.usersettings.IUserSettingService;
 import org.pentaho.platform.engine.core.system.PentahoRequestContextHolder;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.plugin.services.pluginmgr.StaticResource;
 import org.pentaho.platform.repository2.ClientRepositoryPaths;
 import org.pentaho.platform.repository2.unified.jcr.JcrRepositoryFileUtils;
 import org.pentaho.platform.util.messages.LocaleHelper;
@@ -44,14 +45,20 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * If the request is searching for a webcontext.js, it writes out the content of the webcontext.js
@@ -87,6 +94,7 @@ public class PentahoWebContextFilter implements Filter {
   private static final String APPLICATION = "application";
   private static final String GLOBAL = "global";
   private static final String REQUIRE_JS = "requirejs";
+  private static final int WEB_CONTEXT_BUFFER_SIZE = 8192;
   private FileService fileService;
 
   private String ssoEnabled = null;
@@ -96,6 +104,12 @@ public class PentahoWebContextFilter implements Filter {
   protected static ICacheManager cache = PentahoSystem.getCacheManager( null );
 
   private LazyInitializer<String> lazyServicesPath;
+
+  // The session independent parts of webcontext.js are assembled once per plugin registry generation; the generation
+  // is bumped every time the plugin manager reloads.
+  private final AtomicLong templateGeneration = new AtomicLong();
+  private volatile WebContextTemplate webContextTemplate;
+  private IPluginManager observedPluginManager;
   private ConfigurationAdminNonOsgiProxy configurationAdminProxy;
 
   @Override
@@ -139,42 +153,36 @@ public class PentahoWebContextFilter implements Filter {
       httpRequest.setAttribute( FILTER_APPLIED, Boolean.TRUE );
 
       try {
-        response.setContentType( "text/javascript" );
-        OutputStream out = response.getOutputStream();
+        WebContextTemplate webContextTemplate = getWebContextTemplate();
         HashMap<String, String> webContextVariables = getWebContextVariables( httpRequest );
+        String reqStr = getRequestParameterString( httpRequest );
+
+        // assembled in memory so that an ETag can be computed before anything is sent
+        ByteArrayOutputStream out = new ByteArrayOutputStream( WEB_CONTEXT_BUFFER_SIZE );
 
         out.write( initialCommentBytes );
 
         printWebContextVar( out, webContextVariables, "CONTEXT_PATH" );
 
-        printWebContextVar( out, webContextVariables, "FULL_QUALIFIED_URL" );
-
-        printWebContextVar( out, webContextVariables, "SERVER_PROTOCOL" );
+        // FULL_QUALIFIED_URL and SERVER_PROTOCOL
+        out.write( webContextTemplate.serverUrlVars );
 
         printWebContextVar( out, webContextVariables, "PENTAHO_CONTEXT_NAME" );
 
         printWebContextVar( out, webContextVariables, "active_theme" );
 
-        printWebContextVar( out, webContextVariables, "requireCfg", false, false );
-
-        // This var will enable correct redirect in Session Expire Dialog for a SSO scenario
-        if ( getSsoEnabled() != null ) {
-          printWebContextVar( out, webContextVariables, "ssoEnabled", false, false );
-        }
+        // requireCfg and, if configured, ssoEnabled, which enables correct redirect in Session Expire Dialog for a
+        // SSO scenario
+        out.write( webContextTemplate.requireCfgVars );
 
         // config for 'pentaho/environment' amd module
         printPentahoEnvironmentConfig( out, webContextVariables );
 
         // Let all plugins contribute to the RequireJS config
-        printResourcesForContext( REQUIRE_JS, out, httpRequest, false );
+        printResourcesForContext( webContextTemplate, REQUIRE_JS, out, reqStr, false );
 
         byte[] requireScriptBytes = THREAD_LOCAL_REQUIRE_SCRIPT.get();
-        if ( requireScriptBytes == null ) {
-          printDocumentWrite( out, REQUIREJS_LOCATION );
-          printDocumentWrite( out, REQUIREJS_CONFIG_LOCATION );
-        } else {
-          out.write( requireScriptBytes );
-        }
+        out.write( requireScriptBytes != null ? requireScriptBytes : webContextTemplate.requireScript );
 
         printWebContextVar( out, webContextVariables, "SESSION_NAME" );
 
@@ -187,11 +195,8 @@ public class PentahoWebContextFilter implements Filter {
 
         printWebContextVar( out, webContextVariables, "DEFAULT_FOLDER" );
 
-        printWebContextVar( out, webContextVariables, "RESERVED_CHARS" );
-
-        printWebContextVar( out, webContextVariables, "RESERVED_CHARS_DISPLAY" );
-
-        printWebContextVar( out, webContextVariables, "RESERVED_CHARS_REGEX_PATTERN", true, false );
+        // RESERVED_CHARS, RESERVED_CHARS_DISPLAY and RESERVED_CHARS_REGEX_PATTERN
+        out.write( webContextTemplate.reservedCharsVars );
 
         boolean noOsgiRequireConfig = "true".equals( request.getParameter( "noOsgiRequireConfig" ) );
         if ( !noOsgiRequireConfig && !"anonymousUser".equals( getSession().getName() ) ) {
@@ -208,21 +213,21 @@ public class PentahoWebContextFilter implements Filter {
 
         if ( !requireJsOnly ) {
           // print global resources defined in plugins
-          printResourcesForContext( GLOBAL, out, httpRequest, false );
+          printResourcesForContext( webContextTemplate, GLOBAL, out, reqStr, false );
 
           // print out external-resources defined in plugins if a context has been passed in
           boolean cssOnly = "true".equals( request.getParameter( "cssOnly" ) );
 
           String contextName = getContextNameVar( httpRequest );
           if ( StringUtils.isNotEmpty( contextName ) ) {
-            printResourcesForContext( contextName, out, httpRequest, cssOnly );
+            printResourcesForContext( webContextTemplate, contextName, out, reqStr, cssOnly );
           }
         }
 
         // Any subclass can add more information to webcontext.js
         addCustomInfo( out );
 
-        out.close();
+        writeWebContext( httpRequest, httpResponse, out.toByteArray() );
         return;
       } finally {
         httpRequest.removeAttribute( FILTER_APPLIED );
@@ -255,6 +260,94 @@ public class PentahoWebContextFilter implements Filter {
     return waitTime;
   }
 
+  private void writeWebContext( HttpServletRequest request, HttpServletResponse response, byte[] content )
+          throws IOException {
+    StaticResource resource = StaticResource.fromContent( content, -1 );
+
+    response.setContentType( "text/javascript" );
+    // the content is specific to the user, so it must not be shared and always has to be revalidated
+    response.setHeader( "Cache-Control", "private, no-cache" );
+    response.setHeader( "ETag", resource.getETag() );
+
+    if ( resource.isNotModified( request.getHeader( "If-None-Match" ), -1 ) ) {
+      response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+      return;
+    }
+
+    response.setContentLength( content.length );
+    OutputStream out = response.getOutputStream();
+    out.write( content );
+    out.close();
+  }
+
+  WebContextTemplate getWebContextTemplate() throws IOException {
+    IPluginManager pluginManager = getPluginManager();
+
+    WebContextTemplate template = this.webContextTemplate;
+    if ( template != null && template.isCurrent( pluginManager, templateGeneration.get() ) ) {
+      return template;
+    }
+
+    synchronized ( this ) {
+      if ( pluginManager != null && pluginManager != observedPluginManager ) {
+        pluginManager.addPluginManagerListener( templateGeneration::incrementAndGet );
+        observedPluginManager = pluginManager;
+      }
+
+      // read before building, so that a reload happening meanwhile makes the new template stale right away
+      long generation = templateGeneration.get();
+      template = this.webContextTemplate;
+      if ( template == null || !template.isCurrent( pluginManager, generation ) ) {
+        template = buildWebContextTemplate( pluginManager, generation );
+        this.webContextTemplate = template;
+      }
+
+      return template;
+    }
+  }
+
+  private WebContextTemplate buildWebContextTemplate( IPluginManager pluginManager, long generation )
+          throws IOException {
+    HashMap<String, String> variables = new HashMap<>();
+
+    variables.put( "requireCfg", getRequireCfgVar() );                             // Global JS variable
+    variables.put( "ssoEnabled", getSsoEnabled() );                                // Global JS variable
+
+    variables.put( "FULL_QUALIFIED_URL", getFullyQualifiedServerUrlVar() );        // Global JS environment variable
+    variables.put( "SERVER_PROTOCOL", getServerProtocolVar() );                    // Global JS environment variable
+
+    variables.put( "RESERVED_CHARS", getReservedCharsVar() );                      // Global JS environment variable
+    variables.put( "RESERVED_CHARS_DISPLAY", getReservedCharsDisplayVar() );       // Global JS environment variable
+    variables.put( "RESERVED_CHARS_REGEX_PATTERN", getReservedRegexPatternVar() ); // Global JS environment variable
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    printWebContextVar( buffer, variables, "FULL_QUALIFIED_URL" );
+    printWebContextVar( buffer, variables, "SERVER_PROTOCOL" );
+    byte[] serverUrlVars = buffer.toByteArray();
+    buffer.reset();
+
+    printWebContextVar( buffer, variables, "requireCfg", false, false );
+    if ( getSsoEnabled() != null ) {
+      printWebContextVar( buffer, variables, "ssoEnabled", false, false );
+    }
+    byte[] requireCfgVars = buffer.toByteArray();
+    buffer.reset();
+
+    printDocumentWrite( buffer, REQUIREJS_LOCATION );
+    printDocumentWrite( buffer, REQUIREJS_CONFIG_LOCATION );
+    byte[] requireScript = buffer.toByteArray();
+    buffer.reset();
+
+    printWebContextVar( buffer, variables, "RESERVED_CHARS" );
+    printWebContextVar( buffer, variables, "RESERVED_CHARS_DISPLAY" );
+    printWebContextVar( buffer, variables, "RESERVED_CHARS_REGEX_PATTERN", true, false );
+    byte[] reservedCharsVars = buffer.toByteArray();
+
+    return new WebContextTemplate( pluginManager, generation, variables, serverUrlVars, requireCfgVars,
+      requireScript, reservedCharsVars );
+  }
+
   // region get Environment Variables
   private String getActiveThemeVar( HttpServletRequest request ) {
     IPentahoSession session = getSession();
@@ -288,14 +381,12 @@ public class PentahoWebContextFilter implements Filter {
   HashMap<String, String> getWebContextVariables( HttpServletRequest request ) throws IOException {
     HashMap<String, String> map = new HashMap<>();
 
-    map.put( "requireCfg", getRequireCfgVar() );                             // Global JS variable
-    map.put( "ssoEnabled", getSsoEnabled() );                                // Global JS variable
+    // requireCfg, ssoEnabled, FULL_QUALIFIED_URL, SERVER_PROTOCOL and the RESERVED_CHARS variables
+    map.putAll( getWebContextTemplate().variables );
 
     map.put( "application", getApplicationVar( request ) );                  // Internal variable
     map.put( "PENTAHO_CONTEXT_NAME", getContextNameVar( request ) );         // Global JS environment variable
-    map.put( "FULL_QUALIFIED_URL", getFullyQualifiedServerUrlVar() );        // Global JS environment variable
     map.put( "CONTEXT_PATH", getContextPathVar( request ) );                 // Global JS environment variable
-    map.put( "SERVER_PROTOCOL", getServerProtocolVar() );                    // Global JS environment variable
 
     map.put( "active_theme", getActiveThemeVar( request ) );                 // Global JS environment variable
     map.put( "SESSION_LOCALE", getLocaleVar( request ) );                    // Global JS environment variable
@@ -303,10 +394,6 @@ public class PentahoWebContextFilter implements Filter {
     map.put( "HOME_FOLDER", getHomeFolderVar() );                            // Global JS environment variable
     map.put( "DEFAULT_FOLDER", getDefaultFolderVar() );                      // Global JS environment variable
 
-    map.put( "RESERVED_CHARS", getReservedCharsVar() );                      // Global JS environment variable
-    map.put( "RESERVED_CHARS_DISPLAY", getReservedCharsDisplayVar() );       // Global JS environment variable
-    map.put( "RESERVED_CHARS_REGEX_PATTERN", getReservedRegexPatternVar() ); // Global JS environment variable
-
     map.put( PLATFORM_OSGI_BRIDGE_ID, getOsgiBridgePath( request ) );        // Internal variable
     map.put( SERVICES_CONTEXT_PROPERTY, getServicesPath() );                 // Internal variable
 
@@ -447,18 +534,33 @@ public class PentahoWebContextFilter implements Filter {
   // endregion
 
   // region Print Methods
-  private void printResourcesForContext( String contextName, OutputStream out, HttpServletRequest request,
-                                         boolean printCssOnly ) throws IOException {
+  private void printResourcesForContext( WebContextTemplate template, String contextName, OutputStream out,
+                                         String reqStr, boolean printCssOnly ) throws IOException {
+    ContextResources contextResources = template.contextResources.get( contextName );
+    if ( contextResources == null ) {
+      IPluginManager pluginManager = template.pluginManager;
+      List<String> externalResources = pluginManager != null
+        ? pluginManager.getExternalResourcesForContext( contextName )
+        : null;
+      contextResources = new ContextResources( contextName, externalResources );
+
+      // the context name comes from the request, so only contexts plugins contribute to are kept
+      if ( !contextResources.isEmpty() ) {
+        template.contextResources.putIfAbsent( contextName, contextResources );
+      }
+    }
 
-    IPluginManager pluginManager = getPluginManager();
+    out.write( contextResources.getBytes( reqStr, printCssOnly ) );
+  }
 
+  private String getRequestParameterString( HttpServletRequest request ) {
     String reqStr = "";
     Map paramMap = request.getParameterMap();
 
     // Fix for BISERVER-7613, BISERVER-7614, BISERVER-7615
     // Make sure that parameters in the URL are encoded for Javascript safety since they'll be
     // added to Javascript fragments that get executed.
-    if ( paramMap.size() > 0 ) {
+    if ( paramMap != null && paramMap.size() > 0 ) {
       StringBuilder sb = new StringBuilder();
       Map.Entry<String, String[]> me;
       char sep = '?'; // first separator is '?'
@@ -478,26 +580,7 @@ public class PentahoWebContextFilter implements Filter {
       reqStr = sb.toString(); // get the request string.
     }
 
-    List<String> externalResources = pluginManager.getExternalResourcesForContext( contextName );
-    out.write( ( "\n<!-- Injecting web resources defined in by plugins as external-resources for: "
-      + Encode.forHtml( contextName ) + "-->" ).getBytes() );
-
-    if ( externalResources != null ) {
-      for ( String res : externalResources ) {
-        if ( res == null ) {
-          continue;
-        }
-
-        if ( res.endsWith( JS ) && !printCssOnly ) {
-          out.write( ( "\ndocument.write(\"<script language='javascript' type='text/javascript' src='\" + CONTEXT_PATH + \"" + res.trim() + reqStr + "'></scr\"+\"ipt>\");" //$NON-NLS-1$ //$NON-NLS-2$
-          ).getBytes() );
-        } else if ( res.endsWith( CSS ) ) {
-          out.write( ( "\ndocument.write(\"<link rel='stylesheet' type='text/css' href='\" + CONTEXT_PATH + \"" + res.trim() + reqStr + "'/>\");" //$NON-NLS-1$ //$NON-NLS-2$
-          ).getBytes() );
-        }
-      }
-    }
-
+    return reqStr;
   }
 
   private void printWebContextVar( OutputStream out, HashMap<String, String> webContextVariables,
@@ -737,6 +820,94 @@ public class PentahoWebContextFilter implements Filter {
 
   public void setSsoEnabled( String ssoEnabled ) {
     this.ssoEnabled = ssoEnabled;
+    this.webContextTemplate = null;
   }
   // endregion
+
+  /**
+   * The parts of webcontext.js that are the same for every user and request, for a given plugin registry generation.
+   */
+  static final class WebContextTemplate {
+    private final IPluginManager pluginManager;
+    private final long generation;
+
+    private final Map<String, String> variables;
+    private final byte[] serverUrlVars;
+    private final byte[] requireCfgVars;
+    private final byte[] requireScript;
+    private final byte[] reservedCharsVars;
+
+    private final Map<String, ContextResources> contextResources = new ConcurrentHashMap<>();
+
+    WebContextTemplate( IPluginManager pluginManager, long generation, Map<String, String> variables,
+                        byte[] serverUrlVars, byte[] requireCfgVars, byte[] requireScript,
+                        byte[] reservedCharsVars ) {
+      this.pluginManager = pluginManager;
+      this.generation = generation;
+      this.variables = Collections.unmodifiableMap( variables );
+      this.serverUrlVars = serverUrlVars;
+      this.requireCfgVars = requireCfgVars;
+      this.requireScript = requireScript;
+      this.reservedCharsVars = reservedCharsVars;
+    }
+
+    boolean isCurrent( IPluginManager pluginManager, long generation ) {
+      return this.pluginManager == pluginManager && this.generation == generation;
+    }
+  }
+
+  /**
+   * The external resources plugins define for a context. The output for requests without parameters is prebuilt,
+   * otherwise the (javascript encoded) request parameters have to be appended to every resource url.
+   */
+  private static final class ContextResources {
+    private final String header;
+    private final List<String> resources = new ArrayList<>();
+
+    private final byte[] allBytes;
+    private final byte[] cssOnlyBytes;
+
+    ContextResources( String contextName, List<String> externalResources ) {
+      this.header = "\n<!-- Injecting web resources defined in by plugins as external-resources for: "
+        + Encode.forHtml( contextName ) + "-->";
+
+      if ( externalResources != null ) {
+        for ( String res : externalResources ) {
+          if ( res != null && ( res.endsWith( JS ) || res.endsWith( CSS ) ) ) {
+            resources.add( res );
+          }
+        }
+      }
+
+      this.allBytes = build( "", false );
+      this.cssOnlyBytes = build( "", true );
+    }
+
+    boolean isEmpty() {
+      return resources.isEmpty();
+    }
+
+    byte[] getBytes( String reqStr, boolean printCssOnly ) {
+      if ( reqStr.isEmpty() ) {
+        return printCssOnly ? cssOnlyBytes : allBytes;
+      }
+      return build( reqStr, printCssOnly );
+    }
+
+    private byte[] build( String reqStr, boolean printCssOnly ) {
+      StringBuilder sb = new StringBuilder( header );
+      for ( String res : resources ) {
+        if ( res.endsWith( JS ) && !printCssOnly ) {
+          sb.append( "\ndocument.write(\"<script language='javascript' type='text/javascript' " ) //$NON-NLS-1$
+            .append( "src='\" + CONTEXT_PATH + \"" ).append( res.trim() ).append( reqStr ) //$NON-NLS-1$
+            .append( "'></scr\"+\"ipt>\");" ); //$NON-NLS-1$
+        } else if ( res.endsWith( CSS ) ) {
+          sb.append( "\ndocument.write(\"<link rel='stylesheet' type='text/css' " ) //$NON-NLS-1$
+            .append( "href='\" + CONTEXT_PATH + \"" ).append( res.trim() ).append( reqStr ) //$NON-NLS-1$
+            .append( "'/>\");" ); //$NON-NLS-1$
+        }
+      }
+      return sb.toString().getBytes( StandardCharsets.UTF_8 );
+    }
+  }
 }
@@ -30,6 +30,8 @@ import org.pentaho.platform.api.engine.IPluginManager;
 import org.pentaho.platform.engine.core.solution.SimpleParameterProvider;
 import org.pentaho.platform.engine.core.system.PentahoRequestContextHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
+import org.pentaho.platform.plugin.services.pluginmgr.PentahoSystemPluginManager;
+import org.pentaho.platform.plugin.services.pluginmgr.StaticResource;
 import org.pentaho.platform.util.messages.LocaleHelper;
 import org.pentaho.platform.util.web.MimeHelper;
 import org.pentaho.platform.util.web.SimpleUrlFactory;
@@ -43,6 +45,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -70,6 +73,11 @@ public class GenericServlet extends ServletBase {
    */
   private static final Pattern PATH_PATTERN = Pattern.compile( "\\A/content(/.+)\\Z" );
 
+  private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
   private boolean showDeprecationMessage;
 
   static {
@@ -155,6 +163,10 @@ public class GenericServlet extends ServletBase {
   protected boolean doesStaticResourceExist( @NonNull IPluginManager pluginManager,
                                              @NonNull String pluginId,
                                              @NonNull String staticResourceUrl ) {
+    if ( pluginManager instanceof PentahoSystemPluginManager ) {
+      return ( (PentahoSystemPluginManager) pluginManager ).hasStaticResource( pluginId, staticResourceUrl );
+    }
+
     // Check the file actually exists.
     boolean cacheOn = isPluginCacheOn( pluginManager, pluginId );
 
@@ -289,6 +301,20 @@ public class GenericServlet extends ServletBase {
         if ( mimeType != null ) {
           response.setContentType( mimeType );
         }
+
+        if ( pluginManager instanceof PentahoSystemPluginManager ) {
+          StaticResource resource =
+            ( (PentahoSystemPluginManager) pluginManager ).resolveStaticResource( pathInfo, cacheOn );
+          if ( resource != null ) {
+            writeStaticResource( resource, request, response );
+            return;
+          }
+          logger.error( Messages.getInstance().getErrorString(
+            "GenericServlet.ERROR_0004_RESOURCE_NOT_FOUND", pluginId, pathInfo ) ); //$NON-NLS-1$
+          response.sendError( 404 );
+          return;
+        }
+
         OutputStream out = response.getOutputStream();
 
         // do we have this resource cached?
@@ -426,6 +452,36 @@ public class GenericServlet extends ServletBase {
     }
   }
 
+  /**
+   * Writes a static resource with its validators, answering conditional requests with 304. Files too large to be kept
+   * in memory are handed to the container's sendfile support when it offers it, and are otherwise copied with
+   * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+   */
+  protected void writeStaticResource( StaticResource resource, HttpServletRequest request,
+                                      HttpServletResponse response ) throws IOException {
+    response.setHeader( "ETag", resource.getETag() ); //$NON-NLS-1$
+    response.setDateHeader( "Last-Modified", resource.getLastModified() ); //$NON-NLS-1$
+    long ifModifiedSince;
+    try {
+      ifModifiedSince = request.getDateHeader( "If-Modified-Since" ); //$NON-NLS-1$
+    } catch ( IllegalArgumentException e ) {
+      ifModifiedSince = -1;
+    }
+    if ( resource.isNotModified( request.getHeader( "If-None-Match" ), ifModifiedSince ) ) { //$NON-NLS-1$
+      response.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+      return;
+    }
+    response.setContentLengthLong( resource.getLength() );
+    File file = resource.getFile();
+    if ( file != null && Boolean.TRUE.equals( request.getAttribute( SENDFILE_SUPPORT_ATTRIBUTE ) ) ) {
+      request.setAttribute( SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath() );
+      request.setAttribute( SENDFILE_START_ATTRIBUTE, 0L );
+      request.setAttribute( SENDFILE_END_ATTRIBUTE, resource.getLength() );
+      return;
+    }
+    resource.writeTo( response.getOutputStream() );
+  }
+
   protected void allowBrowserCache( String maxAge, IParameterProvider pathParams ) {
     if ( maxAge == null || "0".equals( maxAge ) ) { //$NON-NLS-1$
       return;
@@ -65,7 +65,6 @@ import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 import static org.pentaho.platform.plugin.services.importer.MondrianImportHandler.ENABLE_XMLA;
 
@@ -132,10 +131,8 @@ public class PentahoXmlaServlet extends DynamicDatasourceXmlaServlet {
     // BEWARE! before making modifications that check security rights or all
     // other kind of stateful things.
 
-    Set keys = cacheMgr.getAllKeysFromRegionCache( CACHE_REGION );
-
-    if ( !keys.contains( dataSourcesUrl ) ) {
-      cacheMgr.putInRegionCache( CACHE_REGION, dataSourcesUrl, new DynamicContentFinder( dataSourcesUrl ) {
+    return (RepositoryContentFinder) cacheMgr.getOrCreateFromRegionCache( CACHE_REGION, dataSourcesUrl,
+      () -> new DynamicContentFinder( dataSourcesUrl ) {
           @Override
           public String getContent() {
             try {
@@ -194,9 +191,6 @@ public class PentahoXmlaServlet extends DynamicDatasourceXmlaServlet {
           }
         }
       );
-    }
-
-    return (RepositoryContentFinder) cacheMgr.getFromRegionCache( CACHE_REGION, dataSourcesUrl );
   }
 
   private String generateInMemoryDatasourcesXml() {
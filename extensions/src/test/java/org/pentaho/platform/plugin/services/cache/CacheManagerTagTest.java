@@ -0,0 +1,127 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import org.hibernate.cache.spi.DirectAccessRegion;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.engine.ICacheManager;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.engine.core.system.CacheTagIndex;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CacheManagerTagTest {
+
+  private CacheManager cacheManager;
+
+  /**
+   * Entries of the SESSION region, standing for the JCache behind it
+   */
+  private Map<Object, Object> entries;
+
+  @Before
+  public void setUp() {
+    entries = new ConcurrentHashMap<>();
+    DirectAccessRegion directAccess = mock( DirectAccessRegion.class );
+    doAnswer( invocation -> entries.put( invocation.getArgument( 0 ), invocation.getArgument( 1 ) ) )
+        .when( directAccess ).putIntoCache( any(), any(), any() );
+    when( directAccess.getFromCache( any(), any() ) )
+        .thenAnswer( invocation -> entries.get( invocation.getArgument( 0 ) ) );
+    StorageAccess storageAccess = mock( StorageAccess.class );
+    when( storageAccess.contains( any() ) )
+        .thenAnswer( invocation -> entries.containsKey( invocation.getArgument( 0 ) ) );
+    doAnswer( invocation -> entries.remove( invocation.getArgument( 0 ) ) ).when( storageAccess ).evictData( any() );
+    HvCache hvCache = mock( HvCache.class );
+    when( hvCache.getDirectAccessRegion() ).thenReturn( directAccess );
+    when( hvCache.getStorageAccess() ).thenReturn( storageAccess );
+
+    cacheManager = new CacheManager();
+    ConcurrentMap<String, Object> regionCache = new ConcurrentHashMap<>();
+    regionCache.put( ICacheManager.SESSION, hvCache );
+    ReflectionTestUtils.setField( cacheManager, "cacheEnabled", true );
+    ReflectionTestUtils.setField( cacheManager, "regionCache", regionCache );
+  }
+
+  @Test
+  public void testKillSessionCacheOnlyRemovesTheEntriesOfTheSession() {
+    IPentahoSession session1 = mockSession( "session1" );
+    IPentahoSession session2 = mockSession( "session2" );
+    cacheManager.putInSessionCache( session1, "a", "1a" );
+    cacheManager.putInSessionCache( session1, "b", "1b" );
+    cacheManager.putInSessionCache( session2, "a", "2a" );
+
+    cacheManager.killSessionCache( session1 );
+
+    assertNull( cacheManager.getFromSessionCache( session1, "a" ) );
+    assertNull( cacheManager.getFromSessionCache( session1, "b" ) );
+    assertEquals( "2a", cacheManager.getFromSessionCache( session2, "a" ) );
+    assertEquals( Set.of( "session2\ta" ), entries.keySet() );
+  }
+
+  @Test
+  public void testInvalidateByTagAndRemoveFromRegionCache() {
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "k1", "v1", "domain:a", "user:1" );
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "k2", "v2", "domain:b", "user:1" );
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "k3", "v3", "domain:a" );
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "k4", "v4" );
+
+    cacheManager.invalidateByTag( ICacheManager.SESSION, "domain:a" );
+    assertEquals( Set.of( "k2", "k4" ), entries.keySet() );
+
+    cacheManager.removeFromRegionCache( ICacheManager.SESSION, "k2" );
+    assertTrue( getTagIndex().getKeys( "user:1" ).isEmpty() );
+    assertEquals( Set.of( "k4" ), entries.keySet() );
+  }
+
+  @Test
+  public void testTagIndexIsPrunedOfExpiredKeys() {
+    for ( int i = 0; i < 1023; i++ ) {
+      cacheManager.putInRegionCache( ICacheManager.SESSION, i, "v", "tag" );
+    }
+    // the cache expires entries without telling the cache manager
+    entries.keySet().removeIf( key -> (Integer) key < 1000 );
+
+    cacheManager.putInRegionCache( ICacheManager.SESSION, 1023, "v", "tag" );
+
+    assertEquals( 24, getTagIndex().size() );
+    assertEquals( 24, getTagIndex().getKeys( "tag" ).size() );
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private CacheTagIndex<Object, Object> getTagIndex() {
+    Map<String, CacheTagIndex<Object, Object>> tagIndexes =
+        (Map<String, CacheTagIndex<Object, Object>>) ReflectionTestUtils.getField( cacheManager, "tagIndexes" );
+    return tagIndexes.get( ICacheManager.SESSION );
+  }
+
+  private static IPentahoSession mockSession( String id ) {
+    IPentahoSession session = mock( IPentahoSession.class );
+    when( session.getId() ).thenReturn( id );
+    return session;
+  }
+}
@@ -0,0 +1,251 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.engine.ICacheManager;
+import org.pentaho.platform.api.engine.IPentahoSession;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GuavaCacheManagerTest {
+
+  private GuavaCacheManager cacheManager;
+
+  @Before
+  public void setUp() {
+    cacheManager = new GuavaCacheManager();
+    cacheManager.setJmxEnabled( false );
+  }
+
+  @After
+  public void tearDown() {
+    cacheManager.cacheStop();
+  }
+
+  @Test
+  public void testRegionLifecycle() {
+    assertFalse( cacheManager.cacheEnabled( "region" ) );
+    assertTrue( cacheManager.cacheEnabled( ICacheManager.GLOBAL ) );
+
+    cacheManager.putInRegionCache( "region", "key", "value" );
+    assertNull( cacheManager.getFromRegionCache( "region", "key" ) );
+
+    assertTrue( cacheManager.addCacheRegion( "region" ) );
+    assertTrue( cacheManager.cacheEnabled( "region" ) );
+    cacheManager.putInRegionCache( "region", "key", "value" );
+    assertEquals( "value", cacheManager.getFromRegionCache( "region", "key" ) );
+    assertEquals( Collections.singleton( "key" ), cacheManager.getAllKeysFromRegionCache( "region" ) );
+    assertEquals( Collections.singletonList( "value" ), cacheManager.getAllValuesFromRegionCache( "region" ) );
+    assertEquals( 1, cacheManager.getAllEntriesFromRegionCache( "region" ).size() );
+
+    cacheManager.removeFromRegionCache( "region", "key" );
+    assertNull( cacheManager.getFromRegionCache( "region", "key" ) );
+
+    cacheManager.putInRegionCache( "region", "key", "value" );
+    cacheManager.removeRegionCache( "region" );
+    assertTrue( cacheManager.cacheEnabled( "region" ) );
+    assertTrue( cacheManager.getAllKeysFromRegionCache( "region" ).isEmpty() );
+  }
+
+  @Test
+  public void testSessionCache() {
+    IPentahoSession session1 = mockSession( "session1" );
+    IPentahoSession session2 = mockSession( "session10" );
+    cacheManager.putInSessionCache( session1, "key", "value1" );
+    cacheManager.putInSessionCache( session2, "key", "value2" );
+    assertEquals( "value1", cacheManager.getFromSessionCache( session1, "key" ) );
+
+    cacheManager.onLogout( session1 );
+
+    assertNull( cacheManager.getFromSessionCache( session1, "key" ) );
+    assertEquals( "value2", cacheManager.getFromSessionCache( session2, "key" ) );
+  }
+
+  @Test
+  public void testKillSessionCacheRemovesUntaggedEntriesOfTheSession() {
+    IPentahoSession session1 = mockSession( "session1" );
+    IPentahoSession session2 = mockSession( "session10" );
+    cacheManager.putInSessionCache( session2, "key", "value2" );
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "session1-untagged", "value1" );
+    cacheManager.putInRegionCache( ICacheManager.SESSION, "other-untagged", "value" );
+
+    cacheManager.killSessionCache( session1 );
+
+    assertNull( cacheManager.getFromRegionCache( ICacheManager.SESSION, "session1-untagged" ) );
+    assertEquals( "value", cacheManager.getFromRegionCache( ICacheManager.SESSION, "other-untagged" ) );
+    assertEquals( "value2", cacheManager.getFromSessionCache( session2, "key" ) );
+  }
+
+  @Test
+  public void testStaleValueIsRecreatedInTheBackground() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty( GuavaCacheManager.REFRESH_AFTER_WRITE_SECONDS, "1" );
+    cacheManager.addCacheRegion( "refreshed", properties );
+    AtomicInteger version = new AtomicInteger();
+    List<String> creatorThreads = new CopyOnWriteArrayList<>();
+    Supplier<Object> creator = () -> {
+      creatorThreads.add( Thread.currentThread().getName() );
+      return version.incrementAndGet();
+    };
+
+    assertEquals( 1, cacheManager.getOrCreateFromRegionCache( "refreshed", "key", creator ) );
+    Thread.sleep( 1100 );
+
+    // the stale value is returned while the new one is created on another thread
+    assertEquals( 1, cacheManager.getOrCreateFromRegionCache( "refreshed", "key", creator ) );
+    long deadline = System.currentTimeMillis() + 5000;
+    while ( !Integer.valueOf( 2 ).equals( cacheManager.getFromRegionCache( "refreshed", "key" ) )
+      && System.currentTimeMillis() < deadline ) {
+      Thread.sleep( 10 );
+    }
+    assertEquals( 2, cacheManager.getFromRegionCache( "refreshed", "key" ) );
+    assertEquals( 2, creatorThreads.size() );
+    assertTrue( creatorThreads.get( 1 ).startsWith( "cache-refresh-" ) );
+  }
+
+  @Test
+  public void testInvalidateByTag() {
+    cacheManager.addCacheRegion( "tagged" );
+    cacheManager.putInRegionCache( "tagged", "k1", "v1", "session:1", "domain:a" );
+    cacheManager.putInRegionCache( "tagged", "k2", "v2", "session:1", "domain:b" );
+    cacheManager.putInRegionCache( "tagged", "k3", "v3", "session:2", "domain:a" );
+
+    cacheManager.invalidateByTag( "tagged", "domain:a" );
+
+    assertEquals( Collections.singleton( "k2" ), cacheManager.getAllKeysFromRegionCache( "tagged" ) );
+
+    cacheManager.invalidateByTag( "tagged", "session:1" );
+
+    assertTrue( cacheManager.getAllKeysFromRegionCache( "tagged" ).isEmpty() );
+  }
+
+  @Test
+  public void testMaxWeightAndStatistics() {
+    Properties properties = new Properties();
+    properties.setProperty( GuavaCacheManager.MAX_WEIGHT, "10" );
+    cacheManager.addCacheRegion( "bounded", properties );
+
+    for ( int i = 0; i < 100; i++ ) {
+      cacheManager.putInRegionCache( "bounded", i, i );
+    }
+    cacheManager.getFromRegionCache( "bounded", 99 );
+    cacheManager.getFromRegionCache( "bounded", 0 );
+
+    CacheRegionStatistics statistics = cacheManager.getRegionStatistics( "bounded" );
+    assertTrue( statistics.getSize() <= 10 );
+    assertEquals( 90, statistics.getEvictionCount() );
+    assertEquals( 1, statistics.getHitCount() );
+    assertEquals( 1, statistics.getMissCount() );
+  }
+
+  @Test
+  public void testWeigher() {
+    cacheManager.setWeigher( ( key, value ) -> ( (String) value ).length() );
+    Properties properties = new Properties();
+    properties.setProperty( GuavaCacheManager.MAX_WEIGHT, "10" );
+    cacheManager.addCacheRegion( "weighed", properties );
+
+    cacheManager.putInRegionCache( "weighed", "a", "0123456789" );
+    cacheManager.putInRegionCache( "weighed", "b", "0123456789" );
+
+    assertEquals( 1, cacheManager.getRegionStatistics( "weighed" ).getSize() );
+  }
+
+  @Test
+  public void testGetOrCreateCreatesOnceForConcurrentCallers() throws Exception {
+    int threadCount = 8;
+    ExecutorService executor = Executors.newFixedThreadPool( threadCount );
+    try {
+      CountDownLatch start = new CountDownLatch( 1 );
+      AtomicInteger creationCount = new AtomicInteger();
+      List<Callable<Object>> tasks = new ArrayList<>();
+      for ( int i = 0; i < threadCount; i++ ) {
+        tasks.add( () -> {
+          assertTrue( start.await( 5, TimeUnit.SECONDS ) );
+          return cacheManager.getOrCreateFromRegionCache( "region", "key", () -> {
+            creationCount.incrementAndGet();
+            try {
+              Thread.sleep( 100 );
+            } catch ( InterruptedException e ) {
+              Thread.currentThread().interrupt();
+            }
+            return new Object();
+          } );
+        } );
+      }
+      List<Future<Object>> futures = new ArrayList<>();
+      for ( Callable<Object> task : tasks ) {
+        futures.add( executor.submit( task ) );
+      }
+      start.countDown();
+
+      Object first = futures.get( 0 ).get( 5, TimeUnit.SECONDS );
+      for ( Future<Object> future : futures ) {
+        assertSame( first, future.get( 5, TimeUnit.SECONDS ) );
+      }
+      assertEquals( 1, creationCount.get() );
+      assertEquals( 1, cacheManager.getRegionStatistics( "region" ).getLoadSuccessCount() );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testGetOrCreateFailureAndNullAreNotCached() {
+    try {
+      cacheManager.getOrCreateFromRegionCache( "region", "key", () -> {
+        throw new IllegalStateException( "simulated failure" );
+      } );
+      fail( "Expected IllegalStateException" );
+    } catch ( IllegalStateException e ) {
+      assertEquals( "simulated failure", e.getMessage() );
+    }
+
+    assertNull( cacheManager.getOrCreateFromRegionCache( "region", "key", () -> null ) );
+    assertTrue( cacheManager.getAllKeysFromRegionCache( "region" ).isEmpty() );
+
+    assertEquals( "value", cacheManager.getOrCreateFromRegionCache( "region", "key", () -> "value" ) );
+    assertEquals( "value", cacheManager.getOrCreateFromRegionCache( "region", "key", () -> "unused" ) );
+  }
+
+  private static IPentahoSession mockSession( String id ) {
+    IPentahoSession session = mock( IPentahoSession.class );
+    when( session.getId() ).thenReturn( id );
+    return session;
+  }
+}
@@ -0,0 +1,180 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.cache;
+
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.commons.connection.IPentahoResultSet;
+import org.pentaho.commons.connection.memory.MemoryMetaData;
+import org.pentaho.commons.connection.memory.MemoryResultSet;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MemoryQueryResultCacheTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return nanos.get();
+    }
+  };
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private MemoryQueryResultCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new MemoryQueryResultCache( 0, 1000, true, ticker );
+    cache.setDatasourceTimeToLiveSeconds( Map.of( "cached", 60L, "short", 10L ) );
+  }
+
+  private Callable<IPentahoResultSet> loader( Object value ) {
+    return () -> {
+      loads.incrementAndGet();
+      MemoryResultSet resultSet = new MemoryResultSet( new MemoryMetaData( new Object[][] { { "column" } }, null ) );
+      resultSet.addRow( new Object[] { value } );
+      return resultSet;
+    };
+  }
+
+  private IPentahoResultSet getOrLoad( String datasource, String query, List<?> parameters, String constraint )
+    throws Exception {
+    return cache.getOrLoad( datasource, query, parameters, constraint, -1, loader( query ) );
+  }
+
+  @Test
+  public void testIsEnabled() {
+    assertTrue( cache.isEnabled( "cached" ) );
+    assertFalse( cache.isEnabled( "other" ) );
+    assertFalse( cache.isEnabled( null ) );
+  }
+
+  @Test
+  public void testDisabledDatasourceAlwaysLoads() throws Exception {
+    getOrLoad( "other", "select 1", null, null );
+    getOrLoad( "other", "select 1", null, null );
+
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testCachedResultIsLoadedOnceWithOwnCursor() throws Exception {
+    IPentahoResultSet first = getOrLoad( "cached", "select 1", null, null );
+    first.next();
+    IPentahoResultSet second = getOrLoad( "cached", "select  1 ", Collections.emptyList(), null );
+
+    assertEquals( 1, loads.get() );
+    assertNotSame( first, second );
+    assertArrayEquals( new Object[] { "select 1" }, second.next() );
+  }
+
+  @Test
+  public void testKeyIncludesParametersConstraintAndMaxRows() throws Exception {
+    getOrLoad( "cached", "select ?", Arrays.asList( "a" ), null );
+    getOrLoad( "cached", "select ?", Arrays.asList( "b" ), null );
+    getOrLoad( "cached", "select ?", Arrays.asList( "a" ), "region = 'east'" );
+    cache.getOrLoad( "cached", "select ?", Arrays.asList( "a" ), null, 10, loader( "x" ) );
+    assertEquals( 4, loads.get() );
+
+    getOrLoad( "cached", "select ?", Arrays.asList( (Object) new String[] { "a" } ), null );
+    getOrLoad( "cached", "select ?", Arrays.asList( (Object) new String[] { "a" } ), null );
+    assertEquals( 5, loads.get() );
+  }
+
+  @Test
+  public void testQuotedWhitespaceIsPreserved() {
+    assertEquals( "select 'a  b' from t where x = \"c  d\"",
+      MemoryQueryResultCache.normalizeQuery( "  select   'a  b'\n from t\twhere x = \"c  d\" " ) );
+  }
+
+  @Test
+  public void testEntriesExpireWithTheTimeToLiveOfTheirDatasource() throws Exception {
+    getOrLoad( "cached", "select 1", null, null );
+    getOrLoad( "short", "select 1", null, null );
+
+    nanos.addAndGet( TimeUnit.SECONDS.toNanos( 30 ) );
+    getOrLoad( "cached", "select 1", null, null );
+    getOrLoad( "short", "select 1", null, null );
+    assertEquals( 3, loads.get() );
+
+    nanos.addAndGet( TimeUnit.SECONDS.toNanos( 31 ) );
+    getOrLoad( "cached", "select 1", null, null );
+    assertEquals( 4, loads.get() );
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    getOrLoad( "cached", "select 1", null, null );
+    getOrLoad( "short", "select 1", null, null );
+
+    cache.invalidate( "cached" );
+    getOrLoad( "cached", "select 1", null, null );
+    getOrLoad( "short", "select 1", null, null );
+    assertEquals( 3, loads.get() );
+
+    cache.invalidateAll();
+    getOrLoad( "cached", "select 1", null, null );
+    getOrLoad( "short", "select 1", null, null );
+    assertEquals( 5, loads.get() );
+  }
+
+  @Test
+  public void testNullResultIsNotCached() throws Exception {
+    Callable<IPentahoResultSet> nullLoader = () -> {
+      loads.incrementAndGet();
+      return null;
+    };
+
+    assertNull( cache.getOrLoad( "cached", "select 1", null, null, -1, nullLoader ) );
+    assertNull( cache.getOrLoad( "cached", "select 1", null, null, -1, nullLoader ) );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testLoaderExceptionIsRethrown() throws Exception {
+    SQLException exception = new SQLException( "failed" );
+    try {
+      cache.getOrLoad( "cached", "select 1", null, null, -1, () -> {
+        throw exception;
+      } );
+      fail();
+    } catch ( SQLException e ) {
+      assertSame( exception, e );
+    }
+
+    getOrLoad( "cached", "select 1", null, null );
+    assertEquals( 1, loads.get() );
+  }
+}
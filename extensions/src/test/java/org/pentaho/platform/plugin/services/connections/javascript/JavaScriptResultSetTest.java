@@ -0,0 +1,48 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.connections.javascript;
+
+import org.junit.Test;
+import org.pentaho.commons.connection.IPentahoMetaData;
+import org.pentaho.commons.connection.IPentahoResultSet;
+import org.pentaho.commons.connection.memory.MemoryMetaData;
+import org.pentaho.platform.plugin.services.connections.sql.ColumnarResultSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class JavaScriptResultSetTest {
+
+  private final IPentahoMetaData metaData = new MemoryMetaData( new String[][] { { "name", "count" } }, null );
+
+  @Test
+  public void testRowsCanBeAddedToColumnarResults() {
+    IPentahoResultSet columnar = new ColumnarResultSet.Builder( metaData, 2 )
+      .addRow( new Object[] { "a", 1 } )
+      .build();
+
+    JavaScriptResultSet resultSet = new JavaScriptResultSet();
+    resultSet.setResultSet( columnar.memoryCopy() );
+    resultSet.addRow( new Object[] { "b", 2 } );
+    resultSet.addRow( new String[] { "c", "3" } );
+
+    assertEquals( 3, resultSet.getRowCount() );
+    assertArrayEquals( new Object[] { "a", 1 }, resultSet.getDataRow( 0 ) );
+    assertArrayEquals( new Object[] { "b", 2 }, resultSet.getDataRow( 1 ) );
+    assertArrayEquals( new Object[] { "c", "3" }, resultSet.getDataRow( 2 ) );
+    assertEquals( metaData, resultSet.getMetaData() );
+    // the columnar results are left as they were
+    assertEquals( 1, columnar.getRowCount() );
+  }
+}
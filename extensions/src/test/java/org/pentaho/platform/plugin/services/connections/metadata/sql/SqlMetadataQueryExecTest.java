@@ -14,6 +14,7 @@
 package org.pentaho.platform.plugin.services.connections.metadata.sql;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.ArgumentMatchers.eq;
@@ -27,6 +28,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.platform.api.engine.IConfiguration;
 import org.pentaho.platform.api.engine.ISystemConfig;
 
@@ -114,4 +116,20 @@ public class SqlMetadataQueryExecTest {
     SqlMetadataQueryExec sqlMetadataQueryExec = new SqlMetadataQueryExec( sysConfig );
     assertEquals( 0, sqlMetadataQueryExec.driverClassesToForceMeta.size() );
   }
+
+  @Test
+  public void testOnlyJndiConnectionsHaveACachedDatasourceName() {
+    SqlMetadataQueryExec sqlMetadataQueryExec = new SqlMetadataQueryExec( mock( ISystemConfig.class ) );
+
+    DatabaseMeta jndiMeta = mock( DatabaseMeta.class );
+    when( jndiMeta.getAccessType() ).thenReturn( DatabaseMeta.TYPE_ACCESS_JNDI );
+    when( jndiMeta.getDatabaseName() ).thenReturn( "SampleData" );
+    when( jndiMeta.getName() ).thenReturn( "connection" );
+    assertEquals( "SampleData", sqlMetadataQueryExec.getDatasourceName( jndiMeta ) );
+
+    DatabaseMeta nativeMeta = mock( DatabaseMeta.class );
+    when( nativeMeta.getAccessType() ).thenReturn( DatabaseMeta.TYPE_ACCESS_NATIVE );
+    when( nativeMeta.getName() ).thenReturn( "connection" );
+    assertNull( sqlMetadataQueryExec.getDatasourceName( nativeMeta ) );
+  }
 }
@@ -0,0 +1,141 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.connections.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.junit.Test;
+import org.pentaho.commons.connection.IPentahoMetaData;
+import org.pentaho.commons.connection.IPentahoResultSet;
+
+public class ColumnarResultSetTest {
+
+  private final IPentahoMetaData metaData = mock( IPentahoMetaData.class );
+
+  @Test
+  public void testValuesKeepTheirClass() {
+    Timestamp timestamp = new Timestamp( 1234567890123L );
+    timestamp.setNanos( 123456789 );
+    Object[] row = new Object[] { 1, 2L, 3.5d, new BigDecimal( "12.345" ), "text", new Date( 1000L ),
+      new java.sql.Date( 2000L ), new Time( 3000L ), timestamp, Boolean.TRUE };
+
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, row.length ).addRow( row ).build();
+
+    for ( int column = 0; column < row.length; column++ ) {
+      Object value = resultSet.getValueAt( 0, column );
+      assertEquals( row[column], value );
+      assertEquals( row[column].getClass(), value.getClass() );
+    }
+  }
+
+  @Test
+  public void testNullValues() {
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, 3 )
+      .addRow( new Object[] { null, 1, null } )
+      .addRow( new Object[] { "a", null, null } )
+      .addRow( new Object[] { null, 2 } )
+      .build();
+
+    assertEquals( 3, resultSet.getRowCount() );
+    assertArrayEquals( new Object[] { null, "a", null }, resultSet.getDataColumn( 0 ) );
+    assertArrayEquals( new Object[] { 1, null, 2 }, resultSet.getDataColumn( 1 ) );
+    assertArrayEquals( new Object[] { null, null, null }, resultSet.getDataColumn( 2 ) );
+  }
+
+  @Test
+  public void testMixedValuesFallBackToObjects() {
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, 1 )
+      .addRow( new Object[] { 1 } )
+      .addRow( new Object[] { null } )
+      .addRow( new Object[] { 2L } )
+      .addRow( new Object[] { new BigDecimal( "1E+100" ).add( BigDecimal.ONE ) } )
+      .build();
+
+    assertArrayEquals( new Object[] { 1, null, 2L, new BigDecimal( "1E+100" ).add( BigDecimal.ONE ) },
+      resultSet.getDataColumn( 0 ) );
+  }
+
+  @Test
+  public void testRowsSpanningSeveralChunks() {
+    int rowCount = 10000;
+    ColumnarResultSet.Builder builder = new ColumnarResultSet.Builder( metaData, 2 );
+    for ( int row = 0; row < rowCount; row++ ) {
+      builder.addRow( new Object[] { row % 7 == 0 ? null : row, "value" + ( row % 10 ) } );
+    }
+    ColumnarResultSet resultSet = builder.build();
+
+    assertEquals( rowCount, resultSet.getRowCount() );
+    for ( int row = 0; row < rowCount; row++ ) {
+      assertEquals( row % 7 == 0 ? null : row, resultSet.getValueAt( row, 0 ) );
+      assertEquals( "value" + ( row % 10 ), resultSet.getValueAt( row, 1 ) );
+    }
+  }
+
+  @Test
+  public void testNextAndBeforeFirst() {
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, 1 )
+      .addRow( new Object[] { "a" } )
+      .addRow( new Object[] { "b" } )
+      .build();
+
+    assertArrayEquals( new Object[] { "a" }, resultSet.peek() );
+    assertArrayEquals( new Object[] { "a" }, resultSet.next() );
+    assertArrayEquals( new Object[] { "b" }, resultSet.next() );
+    assertNull( resultSet.next() );
+
+    resultSet.beforeFirst();
+    assertArrayEquals( new Object[] { "a" }, resultSet.next() );
+  }
+
+  @Test
+  public void testMemoryCopySharesDataWithOwnCursor() {
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, 1 )
+      .addRow( new Object[] { "a" } )
+      .build();
+    resultSet.next();
+
+    IPentahoResultSet copy = resultSet.memoryCopy();
+
+    assertSame( metaData, copy.getMetaData() );
+    assertArrayEquals( new Object[] { "a" }, copy.next() );
+    assertNull( resultSet.next() );
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void testGetValueAtOutOfBoundsThrows() {
+    new ColumnarResultSet.Builder( metaData, 1 ).build().getValueAt( 0, 0 );
+  }
+
+  @Test
+  public void testAddRowsFromNativeResultSet() throws SQLException {
+    ResultSet nativeResultSet = mock( ResultSet.class );
+    when( nativeResultSet.next() ).thenReturn( true, true, false );
+    when( nativeResultSet.getObject( 1 ) ).thenReturn( 1, 2 );
+    when( nativeResultSet.getObject( 2 ) ).thenReturn( "a", null );
+
+    ColumnarResultSet resultSet = new ColumnarResultSet.Builder( metaData, 2 ).addRows( nativeResultSet ).build();
+
+    assertEquals( 2, resultSet.getRowCount() );
+    assertArrayEquals( new Object[] { 1, "a" }, resultSet.getDataRow( 0 ) );
+    assertArrayEquals( new Object[] { 2, null }, resultSet.getDataRow( 1 ) );
+  }
+}
@@ -14,7 +14,10 @@
 package org.pentaho.platform.plugin.services.connections.sql;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Properties;
 
 import javax.sql.DataSource;
@@ -26,6 +29,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import org.pentaho.commons.connection.IPentahoConnection;
+import org.pentaho.commons.connection.IPentahoResultSet;
 import org.pentaho.database.model.IDatabaseConnection;
 import org.pentaho.platform.api.data.DBDatasourceServiceException;
 import org.pentaho.platform.api.data.IDBDatasourceService;
@@ -35,8 +39,10 @@ import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.ObjectFactoryException;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -44,6 +50,7 @@ import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -128,4 +135,57 @@ public class SQLConnectionTest {
     verify( sqlc ).initDataSource( eq( mockDatabaseConnection ), eq( false ) );
     assertTrue( sqlc.initialized() );
   }
+
+  private SQLConnection streamingConnection( String productName, Statement stmt ) throws SQLException {
+    DatabaseMetaData metaData = mock( DatabaseMetaData.class );
+    when( metaData.getDatabaseProductName() ).thenReturn( productName );
+    when( nativeConnection.getMetaData() ).thenReturn( metaData );
+    when( nativeConnection.createStatement( anyInt(), anyInt() ) ).thenReturn( stmt );
+    when( stmt.executeQuery( anyString() ) ).thenReturn( mock( ResultSet.class ) );
+
+    SQLConnection sqlc = new SQLConnection();
+    sqlc.nativeConnection = nativeConnection;
+    sqlc.setStreaming( true );
+    return sqlc;
+  }
+
+  @Test
+  public void testStreamingQueryOnMySqlUsesMinValueFetchSize() throws Exception {
+    Statement stmt = mock( Statement.class );
+    SQLConnection sqlc = streamingConnection( "MySQL", stmt );
+
+    IPentahoResultSet resultSet = sqlc.executeQuery( "select 1" );
+
+    assertTrue( resultSet instanceof StreamingSQLResultSet );
+    verify( nativeConnection ).createStatement( ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY );
+    verify( stmt ).setFetchSize( Integer.MIN_VALUE );
+  }
+
+  @Test
+  public void testStreamingQueryOnPostgreSqlDisablesAutoCommitUntilClosed() throws Exception {
+    Statement stmt = mock( Statement.class );
+    SQLConnection sqlc = streamingConnection( "PostgreSQL", stmt );
+    when( nativeConnection.getAutoCommit() ).thenReturn( true );
+
+    sqlc.executeQuery( "select 1" );
+
+    verify( nativeConnection ).setAutoCommit( false );
+    verify( stmt ).setFetchSize( SQLConnection.STREAMING_FETCH_SIZE );
+
+    sqlc.close();
+    verify( nativeConnection ).setAutoCommit( true );
+  }
+
+  @Test
+  public void testQueryIsNotStreamedByDefault() throws Exception {
+    Statement stmt = mock( Statement.class );
+    SQLConnection sqlc = streamingConnection( "MySQL", stmt );
+    sqlc.setStreaming( false );
+
+    IPentahoResultSet resultSet = sqlc.executeQuery( "select 1" );
+
+    assertFalse( resultSet instanceof StreamingSQLResultSet );
+    verify( nativeConnection ).createStatement( ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY );
+    verify( stmt, never() ).setFetchSize( anyInt() );
+  }
 }
@@ -186,6 +186,23 @@ public class SQLResultSetTest {
     verify( nativeResultSet, times( 1 ) ).close();
   }
 
+  @Test
+  public void testMemoryCopyReadsPeekedAndRemainingRows() throws SQLException {
+    when( nativeResultSet.next() ).thenReturn( true, true, false );
+    when( nativeResultSet.getObject( 1 ) ).thenReturn( "a", "b" );
+    when( nativeResultSet.getObject( 2 ) ).thenReturn( 1, 2 );
+    SQLResultSet resultSet = new SQLResultSet( nativeResultSet, nativeConnection );
+    resultSet.peek();
+
+    IPentahoResultSet memoryCopyResultSet = resultSet.memoryCopy();
+
+    assertTrue( memoryCopyResultSet instanceof ColumnarResultSet );
+    assertEquals( 2, memoryCopyResultSet.getRowCount() );
+    assertArrayEquals( new Object[] { "a", 1 }, memoryCopyResultSet.getDataRow( 0 ) );
+    assertArrayEquals( new Object[] { "b", 2 }, memoryCopyResultSet.getDataRow( 1 ) );
+    verify( nativeResultSet, times( 1 ) ).close();
+  }
+
   @Test
   public void testMemoryCopy_setMetadaQuery() throws SQLException {
     IPentahoMetaData metadata = new QueryModelMetaData( mock( QueryModelMetaData.class ) );
@@ -0,0 +1,110 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.connections.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.commons.connection.IPentahoResultSet;
+
+public class StreamingSQLResultSetTest {
+
+  private final ResultSet nativeResultSet = mock( ResultSet.class );
+
+  private final Statement statement = mock( Statement.class );
+
+  @Before
+  public void setUp() throws SQLException {
+    ResultSetMetaData metaData = mock( ResultSetMetaData.class );
+    when( metaData.getColumnCount() ).thenReturn( 1 );
+    when( nativeResultSet.getMetaData() ).thenReturn( metaData );
+    when( nativeResultSet.getStatement() ).thenReturn( statement );
+    when( nativeResultSet.getType() ).thenReturn( ResultSet.TYPE_FORWARD_ONLY );
+    when( nativeResultSet.next() ).thenReturn( true, true, true, false );
+    when( nativeResultSet.getObject( 1 ) ).thenReturn( "a", "b", "c" );
+  }
+
+  @Test
+  public void testIteratorPullsAllRows() {
+    StreamingSQLResultSet resultSet = new StreamingSQLResultSet( nativeResultSet, null, -1, -1 );
+
+    List<Object> values = new ArrayList<>();
+    for ( Object[] row : resultSet ) {
+      values.add( row[0] );
+    }
+
+    assertEquals( List.of( "a", "b", "c" ), values );
+    assertEquals( 3, resultSet.getRowsRead() );
+    assertEquals( -1, resultSet.getRowCount() );
+  }
+
+  @Test
+  public void testPeekedRowsAreCountedOnce() {
+    StreamingSQLResultSet resultSet = new StreamingSQLResultSet( nativeResultSet, null, 3, -1 );
+
+    Iterator<Object[]> iterator = resultSet.iterator();
+    while ( iterator.hasNext() ) {
+      assertTrue( iterator.hasNext() );
+      iterator.next();
+    }
+
+    assertEquals( 3, resultSet.getRowsRead() );
+  }
+
+  @Test
+  public void testRowLimitAbortsQuery() throws SQLException {
+    StreamingSQLResultSet resultSet = new StreamingSQLResultSet( nativeResultSet, null, 2, -1 );
+
+    resultSet.next();
+    resultSet.next();
+    try {
+      resultSet.next();
+      fail();
+    } catch ( SQLResultSetException e ) {
+      verify( statement ).cancel();
+      verify( nativeResultSet ).close();
+    }
+    assertNull( resultSet.next() );
+  }
+
+  @Test( expected = SQLResultSetException.class )
+  public void testByteLimitAbortsQuery() {
+    StreamingSQLResultSet resultSet = new StreamingSQLResultSet( nativeResultSet, null, -1,
+      2 * StreamingSQLResultSet.estimateSize( "a" ) );
+
+    resultSet.memoryCopy();
+  }
+
+  @Test
+  public void testMemoryCopyReadsRemainingRows() throws SQLException {
+    StreamingSQLResultSet resultSet = new StreamingSQLResultSet( nativeResultSet, null, 3, -1 );
+    resultSet.next();
+
+    IPentahoResultSet copy = resultSet.memoryCopy();
+
+    assertEquals( 2, copy.getRowCount() );
+    assertArrayEquals( new Object[] { "b" }, copy.next() );
+    verify( nativeResultSet ).close();
+  }
+}
@@ -24,6 +24,7 @@ import org.pentaho.metadata.repository.IMetadataDomainRepository;
 import org.pentaho.metastore.api.IMetaStore;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.IUserRoleListService;
+import org.pentaho.platform.api.importexport.IExportHelper;
 import org.pentaho.platform.api.mt.ITenant;
 import org.pentaho.platform.api.repository.datasource.IDatasourceMgmtService;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
@@ -63,6 +64,8 @@ import java.util.zip.ZipOutputStream;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -372,6 +375,27 @@ public class PentahoPlatformExporterTest {
     verify( manifest ).setMetaStore( ArgumentMatchers.any( ExportManifestMetaStore.class ) );
   }
 
+  @Test
+  public void testEachExportRunsOnItsOwnCopy() throws Exception {
+    IExportHelper helper = mock( IExportHelper.class );
+    exporter.addExportHelper( helper );
+    exporter.setScheduler( scheduler );
+    exporter.setMondrianCatalogService( mondrianCatalogService );
+    exporter.setParallelism( 3 );
+
+    PentahoPlatformExporter export = exporter.newExport();
+
+    assertNotSame( exporter, export );
+    assertNotSame( exporter.getExportManifest(), export.getExportManifest() );
+    assertSame( repo, export.getUnifiedRepository() );
+    assertSame( exporter.getRepositoryExportLogger(), export.getRepositoryExportLogger() );
+    assertSame( scheduler, export.getScheduler() );
+    assertSame( mondrianCatalogService, export.getMondrianCatalogService() );
+    assertEquals( 3, export.getParallelism() );
+    export.runExportHelpers();
+    verify( helper ).doExport( export );
+  }
+
   @Test
   public void testIsExportCandidate() throws Exception {
     assertTrue( exporter.isExportCandidate( "/etc" ) );
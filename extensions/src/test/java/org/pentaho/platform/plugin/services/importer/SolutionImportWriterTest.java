@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.apache.logging.log4j.Level;
+import org.pentaho.platform.plugin.services.importexport.ImportSession;
+import org.pentaho.platform.plugin.services.importexport.Log4JRepositoryImportLogger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SolutionImportWriterTest {
+
+  private IUnifiedRepository repository;
+  private ImportSession importSession;
+  private ImportStageStatistics statistics;
+
+  @Before
+  public void setUp() {
+    repository = mock( IUnifiedRepository.class );
+    when( repository.getFile( anyString() ) ).thenReturn( mock( RepositoryFile.class ) );
+    importSession = ImportSession.getSession();
+    importSession.initialize();
+    statistics = new ImportStageStatistics( "write" );
+  }
+
+  @After
+  public void tearDown() {
+    importSession.initialize();
+  }
+
+  @Test
+  public void testSequentialWritesRunInline() throws IOException {
+    List<String> written = new ArrayList<>();
+    Thread caller = Thread.currentThread();
+    try ( SolutionImportWriter writer = new SolutionImportWriter( repository, importSession, 1, statistics ) ) {
+      assertFalse( writer.isParallel() );
+      for ( String name : new String[] { "a", "b", "c" } ) {
+        writer.submit( "/public", null, 10, () -> {
+          assertSame( caller, Thread.currentThread() );
+          written.add( name );
+        } );
+      }
+    }
+    assertEquals( List.of( "a", "b", "c" ), written );
+    assertEquals( 3, statistics.getFiles() );
+    assertEquals( 30, statistics.getBytes() );
+  }
+
+  @Test
+  public void testParallelWritesKeepOrderWithinFolder() throws IOException {
+    List<String> written = Collections.synchronizedList( new ArrayList<>() );
+    try ( SolutionImportWriter writer = new SolutionImportWriter( repository, importSession, 4, statistics ) ) {
+      assertTrue( writer.isParallel() );
+      writer.submit( "/public", "/public/a", 0, () -> written.add( "/public/a" ) );
+      writer.submit( "/public", "/public/b", 0, () -> written.add( "/public/b" ) );
+      for ( int i = 0; i < 20; i++ ) {
+        String a = "/public/a/" + i;
+        String b = "/public/b/" + i;
+        writer.submit( "/public/a", null, 1, () -> written.add( a ) );
+        writer.submit( "/public/b/", null, 1, () -> written.add( b ) );
+      }
+    }
+
+    assertEquals( 42, written.size() );
+    for ( String folder : new String[] { "/public/a", "/public/b" } ) {
+      int previous = written.indexOf( folder );
+      for ( int i = 0; i < 20; i++ ) {
+        int index = written.indexOf( folder + "/" + i );
+        assertTrue( folder + "/" + i + " written out of order", index > previous );
+        previous = index;
+      }
+    }
+    assertEquals( 42, statistics.getFiles() );
+    assertEquals( 40, statistics.getBytes() );
+  }
+
+  @Test
+  public void testParallelWritesUseForkedImportSession() throws IOException {
+    List<ImportSession> sessions = Collections.synchronizedList( new ArrayList<>() );
+    try ( SolutionImportWriter writer = new SolutionImportWriter( repository, importSession, 2, statistics ) ) {
+      for ( int i = 0; i < 10; i++ ) {
+        String file = "/public/" + i;
+        writer.submit( "/public", null, 0, () -> {
+          ImportSession session = ImportSession.getSession();
+          sessions.add( session );
+          session.getSkippedFiles().add( file );
+        } );
+      }
+    }
+
+    for ( ImportSession session : sessions ) {
+      assertNotSame( importSession, session );
+    }
+    assertEquals( 10, importSession.getSkippedFiles().size() );
+    assertTrue( importSession.getSkippedFiles().contains( "/public/9" ) );
+  }
+
+  @Test
+  public void testParallelWritesLogToTheImportJob() throws Exception {
+    Log4JRepositoryImportLogger importLogger = new Log4JRepositoryImportLogger();
+    importLogger.startJob( new ByteArrayOutputStream(), "/public", Level.INFO );
+    try {
+      List<Boolean> hasLogger = Collections.synchronizedList( new ArrayList<>() );
+      try ( SolutionImportWriter writer =
+              new SolutionImportWriter( repository, importSession, 2, statistics, importLogger ) ) {
+        for ( int i = 0; i < 10; i++ ) {
+          writer.submit( "/public", null, 0, () -> hasLogger.add( importLogger.hasLogger() ) );
+        }
+      }
+      assertEquals( Collections.nCopies( 10, true ), hasLogger );
+
+      // threads started for other purposes do not log to the job
+      List<Boolean> other = new ArrayList<>();
+      Thread thread = new Thread( () -> other.add( importLogger.hasLogger() ) );
+      thread.start();
+      thread.join();
+      assertEquals( List.of( false ), other );
+    } finally {
+      importLogger.endJob();
+    }
+  }
+
+  @Test
+  public void testWriteIntoMissingFolderRunsOnCallingThread() throws IOException {
+    when( repository.getFile( "/public/missing" ) ).thenReturn( null );
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+    try ( SolutionImportWriter writer = new SolutionImportWriter( repository, importSession, 2, statistics ) ) {
+      writer.submit( "/public/missing", null, 0, () -> threads.add( Thread.currentThread() ) );
+    }
+    assertEquals( List.of( caller ), threads );
+  }
+
+  @Test
+  public void testFailureIsRethrownOnClose() throws IOException {
+    SolutionImportWriter writer = new SolutionImportWriter( repository, importSession, 2, statistics );
+    writer.submit( "/public", null, 0, () -> {
+      throw new IllegalStateException( "failed" );
+    } );
+    try {
+      writer.close();
+      fail();
+    } catch ( IllegalStateException e ) {
+      assertEquals( "failed", e.getMessage() );
+    }
+  }
+}
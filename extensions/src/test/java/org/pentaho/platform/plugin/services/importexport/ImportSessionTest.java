@@ -42,6 +42,34 @@ public class ImportSessionTest {
     importSession.initialize();
   }
 
+  @Test
+  public void testForkAndMerge() {
+    ExportManifest manifest = new ExportManifest();
+    importSession.setManifest( manifest );
+    importSession.setAclProperties( true, false, true );
+    importSession.getFoldersCreatedImplicitly().add( "/public/a" );
+    importSession.setCurrentManifestKey( "parent" );
+
+    ImportSession fork = importSession.fork();
+    Assert.assertNotSame( importSession, fork );
+    Assert.assertSame( manifest, fork.getManifest() );
+    assertTrue( fork.isApplyAclSettings() );
+    assertFalse( fork.isRetainOwnership() );
+    assertTrue( fork.isOverwriteAclSettings() );
+    assertTrue( fork.getFoldersCreatedImplicitly().contains( "/public/a" ) );
+
+    fork.setCurrentManifestKey( PATH );
+    fork.getSkippedFiles().add( "/public/b" );
+    fork.getFoldersCreatedImplicitly().add( "/public/c" );
+    assertEquals( "parent", importSession.getCurrentManifestKey() );
+    assertFalse( importSession.getSkippedFiles().contains( "/public/b" ) );
+    // folders created implicitly are seen by every thread right away
+    assertTrue( importSession.getFoldersCreatedImplicitly().contains( "/public/c" ) );
+
+    importSession.merge( fork );
+    assertTrue( importSession.getSkippedFiles().contains( "/public/b" ) );
+  }
+
   @Test
   public void testSettingAclProperties() {
     importSession.setAclProperties( true, true, true );
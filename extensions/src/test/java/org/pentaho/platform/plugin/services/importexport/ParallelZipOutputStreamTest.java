@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.importexport;
+
+import org.apache.logging.log4j.Level;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelZipOutputStreamTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testEntriesAreWrittenInSubmissionOrder() throws IOException {
+    File file = temporaryFolder.newFile( "export.zip" );
+    byte[] large = new byte[ ParallelZipOutputStream.SPILL_THRESHOLD * 2 ];
+    new Random( 42 ).nextBytes( large );
+
+    List<String> expected = new ArrayList<>();
+    try ( OutputStream out = new FileOutputStream( file );
+          ParallelZipOutputStream zos = new ParallelZipOutputStream( out, 4 ) ) {
+      zos.putNextEntry( new ZipEntry( "folder/" ) );
+      expected.add( "folder/" );
+      for ( int i = 0; i < 50; i++ ) {
+        final String name = "folder/file" + i + ".txt";
+        expected.add( name );
+        zos.submit( entryZos -> {
+          entryZos.putNextEntry( new ZipEntry( name ) );
+          entryZos.write( name.getBytes( StandardCharsets.UTF_8 ) );
+          entryZos.closeEntry();
+        } );
+      }
+      zos.submit( entryZos -> {
+        entryZos.putNextEntry( new ZipEntry( "folder/large.bin" ) );
+        entryZos.write( large );
+      } );
+      expected.add( "folder/large.bin" );
+      zos.putNextEntry( new ZipEntry( "manifest.xml" ) );
+      zos.write( "<manifest/>".getBytes( StandardCharsets.UTF_8 ) );
+      expected.add( "manifest.xml" );
+    }
+
+    try ( ZipFile zipFile = new ZipFile( file ) ) {
+      List<String> names = new ArrayList<>();
+      for ( ZipEntry entry : Collections.list( zipFile.entries() ) ) {
+        names.add( entry.getName() );
+      }
+      assertEquals( expected, names );
+      try ( InputStream in = zipFile.getInputStream( zipFile.getEntry( "folder/file7.txt" ) ) ) {
+        assertEquals( "folder/file7.txt", new String( in.readAllBytes(), StandardCharsets.UTF_8 ) );
+      }
+      try ( InputStream in = zipFile.getInputStream( zipFile.getEntry( "folder/large.bin" ) ) ) {
+        assertArrayEquals( large, in.readAllBytes() );
+      }
+    }
+  }
+
+  @Test
+  public void testDuplicateSubmittedEntryIsSkipped() throws IOException {
+    File file = temporaryFolder.newFile( "export.zip" );
+    try ( OutputStream out = new FileOutputStream( file );
+          ParallelZipOutputStream zos = new ParallelZipOutputStream( out, 2 ) ) {
+      zos.putNextEntry( new ZipEntry( "a.txt" ) );
+      zos.write( 'a' );
+      zos.submit( entryZos -> {
+        entryZos.putNextEntry( new ZipEntry( "a.txt" ) );
+        entryZos.write( 'b' );
+      } );
+      try {
+        zos.putNextEntry( new ZipEntry( "a.txt" ) );
+        fail();
+      } catch ( ZipException e ) {
+        // expected
+      }
+    }
+
+    try ( ZipFile zipFile = new ZipFile( file );
+          InputStream in = zipFile.getInputStream( zipFile.getEntry( "a.txt" ) ) ) {
+      assertEquals( 1, zipFile.size() );
+      assertEquals( 'a', in.read() );
+    }
+  }
+
+  @Test
+  public void testSubmittedFailureIsRethrown() throws IOException {
+    File file = temporaryFolder.newFile( "export.zip" );
+    try ( OutputStream out = new FileOutputStream( file );
+          ParallelZipOutputStream zos = new ParallelZipOutputStream( out, 2 ) ) {
+      try {
+        zos.submit( entryZos -> {
+          entryZos.putNextEntry( new ZipEntry( "broken.txt" ) );
+          throw new IllegalStateException( "broken" );
+        } );
+        zos.submit( entryZos -> {
+          entryZos.putNextEntry( new ZipEntry( "ok.txt" ) );
+          entryZos.write( 'x' );
+        } );
+        zos.drain();
+        fail();
+      } catch ( IOException e ) {
+        assertTrue( e.getCause() instanceof IllegalStateException );
+      }
+    }
+
+    try ( ZipFile zipFile = new ZipFile( file ) ) {
+      assertNull( zipFile.getEntry( "broken.txt" ) );
+    }
+  }
+
+  @Test
+  public void testWorkersLogToTheExportJob() throws IOException {
+    Log4JRepositoryExportLogger exportLogger = new Log4JRepositoryExportLogger();
+    exportLogger.startJob( new ByteArrayOutputStream(), Level.INFO );
+    List<Boolean> hasLogger = Collections.synchronizedList( new ArrayList<>() );
+    try ( ParallelZipOutputStream zos =
+            new ParallelZipOutputStream( OutputStream.nullOutputStream(), 2, exportLogger ) ) {
+      for ( int i = 0; i < 10; i++ ) {
+        zos.submit( entryZos -> hasLogger.add( exportLogger.hasLogger() ) );
+      }
+      zos.drain();
+    } finally {
+      exportLogger.endJob();
+      exportLogger.remove();
+    }
+    assertEquals( Collections.nCopies( 10, true ), hasLogger );
+  }
+}
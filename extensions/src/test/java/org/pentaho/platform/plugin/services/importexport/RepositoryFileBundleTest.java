@@ -14,9 +14,16 @@
 package org.pentaho.platform.plugin.services.importexport;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -107,4 +114,28 @@ public class RepositoryFileBundleTest {
     assertNotEquals( repositoryFileBundle, equalBundle );
   }
 
+  @Test
+  public void testZipEntryIsReadInPlace() throws Exception {
+    File zip = File.createTempFile( "bundle", ".zip" );
+    try {
+      try ( ZipOutputStream out = new ZipOutputStream( new FileOutputStream( zip ) ) ) {
+        out.putNextEntry( new ZipEntry( "public/folder/" + FILE_NAME ) );
+        out.write( "content".getBytes( StandardCharsets.UTF_8 ) );
+        out.closeEntry();
+      }
+      try ( ZipFile zipFile = new ZipFile( zip ) ) {
+        RepositoryFileBundle bundle = new RepositoryFileBundle( repositoryFile, acl, PATH, zipFile,
+            zipFile.getEntry( "public/folder/" + FILE_NAME ), CHAR_SET, MIME_NAME );
+        assertEquals( 7, bundle.getSize() );
+        // every call opens a new stream over the entry
+        for ( int i = 0; i < 2; i++ ) {
+          try ( InputStream in = bundle.getInputStream() ) {
+            assertEquals( "content", IOUtils.toString( in, StandardCharsets.UTF_8 ) );
+          }
+        }
+      }
+    } finally {
+      zip.delete();
+    }
+  }
 }
@@ -50,6 +50,25 @@ public class RepositoryImportLogTest extends TestCase {
     }
   }
 
+  public void testEachThreadOfAJobHasItsOwnCurrentFile() throws Exception {
+    final Log4JRepositoryImportLog log =
+      new Log4JRepositoryImportLog( new ByteArrayOutputStream(), "/dir3", Level.DEBUG );
+    log.setCurrentFilePath( "/dir3/main" );
+    final String[] seen = new String[ 2 ];
+    Thread worker = new Thread( () -> {
+      seen[ 0 ] = log.getCurrentFilePath();
+      log.setCurrentFilePath( "/dir3/worker" );
+      seen[ 1 ] = log.getCurrentFilePath();
+    } );
+    worker.start();
+    worker.join( 10000 );
+    log.endJob();
+
+    assertNull( seen[ 0 ] );
+    assertEquals( "/dir3/worker", seen[ 1 ] );
+    assertEquals( "/dir3/main", log.getCurrentFilePath() );
+  }
+
   public static class TestRun implements Runnable {
     String outputFile;
     String threadNumber;
@@ -14,6 +14,7 @@
 package org.pentaho.platform.plugin.services.importexport;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,7 +31,9 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.ByteArrayOutputStream;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,6 +42,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
@@ -73,6 +77,8 @@ import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.core.system.StandaloneSession;
 import org.pentaho.platform.engine.core.system.boot.PlatformInitializationException;
 import org.pentaho.platform.engine.services.solution.SolutionEngine;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.ExportManifest;
+import org.pentaho.platform.plugin.services.importexport.exportManifest.bindings.ExportManifestDeletedFile;
 import org.pentaho.test.platform.engine.core.MicroPlatform;
 
 public class ZipExportProcessorTest {
@@ -122,7 +128,8 @@ public class ZipExportProcessorTest {
             .id( "/home/test user/two words/" ).folder( true ).build();
     final RepositoryFile fileX =
         new RepositoryFile.Builder( "eval (+)%.prpt" ).path( "/home/test user/two words/eval (+)%.prpt" ).id(
-            "/home/test user/two words/eval (+)%.prpt" ).folder( false ).build();
+            "/home/test user/two words/eval (+)%.prpt" ).folder( false ).lastModificationDate( new Date( 1000L ) )
+            .build();
     final RepositoryFile[] repoFiles = new RepositoryFile[] {file0, file1, file2, file3, fileX};
     final Map<Serializable, RepositoryFile> repoFilesMap = new HashMap<Serializable, RepositoryFile>();
     for ( RepositoryFile f : repoFiles ) {
@@ -348,6 +355,114 @@ public class ZipExportProcessorTest {
     assertEquals( "entries count", expectedEntries.length, zipEntriesFiles.size() );
   }
 
+  @Test
+  public void testPerformExport_incremental() throws Exception {
+    String expFolderPath = "/home/test user/two words/";
+    RepositoryFile deletedFile =
+        new RepositoryFile.Builder( "old.prpt" ).id( "old" ).originalParentFolderPath( "/home/test user/two words" )
+            .deletedDate( new Date( 3000L ) ).build();
+    RepositoryFile deletedBeforeWatermark =
+        new RepositoryFile.Builder( "older.prpt" ).id( "older" )
+            .originalParentFolderPath( "/home/test user/two words" ).deletedDate( new Date( 1000L ) ).build();
+    doReturn( Arrays.asList( deletedFile, deletedBeforeWatermark ) ).when( repo ).getAllDeletedFiles();
+
+    ZipExportProcessor zipMF = new ZipExportProcessor( expFolderPath, repo, true );
+    exportHandler.setConverters( assignConverterForExt( defaultConverter, "prpt" ) );
+    zipMF.addExportHandler( exportHandler );
+    zipMF.setModifiedSince( new Date( 2000L ) );
+
+    IRepositoryExportLogger exportLogger = new Log4JRepositoryExportLogger();
+    exportLogger.startJob( new ByteArrayOutputStream(), Level.INFO, new RepositoryTextLayout( Level.INFO ) );
+    zipMF.setRepositoryExportLogger( exportLogger );
+    File result = zipMF.performExport( repo.getFile( expFolderPath ) );
+    exportLogger.endJob();
+
+    // the file was last modified before the watermark
+    Set<String> zipEntriesFiles = extractZipEntries( result );
+    assertEquals( new HashSet<>( Arrays.asList( "two+words/index_en.locale", "exportManifest.xml" ) ),
+        zipEntriesFiles );
+
+    ExportManifest manifest;
+    try ( ZipFile zipFile = new ZipFile( result ) ) {
+      manifest = ExportManifest.fromXml( zipFile.getInputStream( zipFile.getEntry( "exportManifest.xml" ) ) );
+    }
+    assertNotNull( manifest );
+    assertTrue( manifest.isIncremental() );
+    assertEquals( Long.valueOf( 2000L ), manifest.getManifestInformation().getModifiedSince() );
+    assertNotNull( manifest.getManifestInformation().getWatermark() );
+    List<ExportManifestDeletedFile> deletedFiles = manifest.getDeletedFiles();
+    assertEquals( 1, deletedFiles.size() );
+    assertEquals( "old.prpt", deletedFiles.get( 0 ).getPath() );
+  }
+
+  @Test
+  public void testPerformExport_incrementalExportsMovedFile() throws Exception {
+    String expFolderPath = "/home/test user/two words/";
+    // the previous export saw the file, unchanged, under its old name
+    ExportManifest previousManifest = new ExportManifest();
+    previousManifest.getManifestInformation().setRootFolder( expFolderPath );
+    previousManifest.getManifestInformation().setModifiedSince( 0L );
+    previousManifest.getManifestInformation().setWatermark( 2000L );
+    previousManifest.addUnchangedFile( "old name.prpt" );
+
+    ZipExportProcessor zipMF = new ZipExportProcessor( expFolderPath, repo, true );
+    exportHandler.setConverters( assignConverterForExt( defaultConverter, "prpt" ) );
+    zipMF.addExportHandler( exportHandler );
+    zipMF.setPreviousManifest( previousManifest );
+    File result = zipMF.performExport( repo.getFile( expFolderPath ) );
+
+    // the file keeps its modification date when it is moved, but its new path is unknown to the previous manifest
+    Set<String> zipEntriesFiles = extractZipEntries( result );
+    assertTrue( zipEntriesFiles.contains( "two+words/eval+%28%2B%29%25.prpt" ) );
+
+    ExportManifest manifest;
+    try ( ZipFile zipFile = new ZipFile( result ) ) {
+      manifest = ExportManifest.fromXml( zipFile.getInputStream( zipFile.getEntry( "exportManifest.xml" ) ) );
+    }
+    assertEquals( Long.valueOf( 2000L ), manifest.getManifestInformation().getModifiedSince() );
+    List<ExportManifestDeletedFile> deletedFiles = manifest.getDeletedFiles();
+    assertEquals( 1, deletedFiles.size() );
+    assertEquals( "old name.prpt", deletedFiles.get( 0 ).getPath() );
+    assertTrue( manifest.getUnchangedFiles().isEmpty() );
+
+    // the next incremental export knows the new path, so the file is unchanged there
+    zipMF = new ZipExportProcessor( expFolderPath, repo, true );
+    exportHandler.setConverters( assignConverterForExt( defaultConverter, "prpt" ) );
+    zipMF.addExportHandler( exportHandler );
+    zipMF.setPreviousManifest( manifest );
+    zipMF.setModifiedSince( new Date( 2000L ) );
+    result = zipMF.performExport( repo.getFile( expFolderPath ) );
+
+    assertFalse( extractZipEntries( result ).contains( "two+words/eval+%28%2B%29%25.prpt" ) );
+    try ( ZipFile zipFile = new ZipFile( result ) ) {
+      manifest = ExportManifest.fromXml( zipFile.getInputStream( zipFile.getEntry( "exportManifest.xml" ) ) );
+    }
+    assertTrue( manifest.getDeletedFiles().isEmpty() );
+    assertEquals( Collections.singletonList( "eval (+)%.prpt" ), manifest.getUnchangedFiles() );
+  }
+
+  @Test
+  public void testPerformExport_manifestListsSpooledEntries() throws Exception {
+    String expFolderPath = "/home/test user/two words/";
+    ZipExportProcessor zipMF = new ZipExportProcessor( expFolderPath, repo, true );
+    exportHandler.setConverters( assignConverterForExt( defaultConverter, "prpt" ) );
+    zipMF.addExportHandler( exportHandler );
+    zipMF.setParallelism( 2 );
+    File result = zipMF.performExport( repo.getFile( expFolderPath ) );
+
+    ExportManifest manifest;
+    try ( ZipFile zipFile = new ZipFile( result ) ) {
+      manifest = ExportManifest.fromXml( zipFile.getInputStream( zipFile.getEntry( "exportManifest.xml" ) ) );
+    }
+    assertNotNull( manifest );
+    assertNotNull( manifest.getManifestInformation().getWatermark() );
+    boolean listed = false;
+    for ( String path : manifest.getExportManifestEntities().keySet() ) {
+      listed |= path.endsWith( "eval (+)%.prpt" );
+    }
+    assertTrue( listed );
+  }
+
   private Map<String, Converter> assignConverterForExt( Converter conv, String... exts ) {
     final Map<String, Converter> converters = new HashMap<String, Converter>();
     for ( String ext : exts ) {
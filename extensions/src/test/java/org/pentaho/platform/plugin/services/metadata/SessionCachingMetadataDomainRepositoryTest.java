@@ -19,7 +19,11 @@ import org.junit.Test;
 
 import org.mockito.Mockito;
 import org.pentaho.metadata.model.Domain;
+import org.pentaho.metadata.model.concept.Concept;
+import org.pentaho.metadata.model.concept.security.Security;
+import org.pentaho.metadata.model.concept.security.SecurityOwner;
 import org.pentaho.metadata.repository.IMetadataDomainRepository;
+import org.pentaho.platform.api.engine.IAclHolder;
 import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IConfiguration;
 import org.pentaho.platform.api.engine.IPentahoSession;
@@ -27,11 +31,15 @@ import org.pentaho.platform.api.engine.ISystemConfig;
 import org.pentaho.platform.config.SystemConfig;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.StandaloneSession;
+import org.pentaho.platform.plugin.services.cache.GuavaCacheManager;
 import org.pentaho.test.platform.plugin.services.metadata.MockSessionAwareMetadataDomainRepository;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -47,8 +55,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -478,4 +489,198 @@ public class SessionCachingMetadataDomainRepositoryTest {
     configs.add( configuration );
     return new SystemConfig( configs );
   }
+
+  @Test
+  public void testSessionsOfTheSameUserShareTheParsedDomain() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    Domain domain1 = getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    Domain domain2 = getDomainAs( repo, new StandaloneSession( "joe", "2" ), "Authenticated" );
+
+    assertNotNull( domain1 );
+    assertSame( domain1, domain2 );
+    verify( delegate, times( 1 ) ).getDomain( "id" );
+
+    SessionCachingMetadataDomainRepository.DomainCacheStatistics statistics = repo.getDomainCacheStatistics();
+    assertEquals( 1, statistics.getLoadCount() );
+    assertEquals( 1, statistics.getSharedHitCount() );
+    assertEquals( 1, statistics.getCreatedViewCount() );
+    assertEquals( 1, statistics.getSharedDomainCount() );
+    assertEquals( 1, statistics.getViewCount() );
+    assertEquals( 2, statistics.getSessionEntryCount() );
+  }
+
+  @Test
+  public void testUsersWithDifferentRolesGetTheirOwnViews() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    Domain domain1 = getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    Domain domain2 = getDomainAs( repo, new StandaloneSession( "joe", "2" ), "Authenticated", "Administrator" );
+    Domain domain3 = getDomainAs( repo, new StandaloneSession( "suzy", "3" ), "Authenticated" );
+
+    assertNotSame( domain1, domain2 );
+    // the domain does not name any user, so users with the same roles share the view
+    assertSame( domain1, domain3 );
+    verify( delegate, times( 1 ) ).getDomain( "id" );
+    assertEquals( 2, repo.getDomainCacheStatistics().getViewCount() );
+  }
+
+  @Test
+  public void testUsersNamedByTheDomainGetTheirOwnViews() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    when( delegate.getDomain( "id" ) ).thenAnswer( invocation -> {
+      Security security = new Security();
+      security.putOwnerRights( new SecurityOwner( SecurityOwner.OwnerType.USER, "joe" ), IAclHolder.ACCESS_TYPE_READ );
+      Domain domain = new Domain();
+      domain.setId( "id" );
+      domain.setProperty( Concept.SECURITY_PROPERTY, security );
+      return domain;
+    } );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    Domain domain1 = getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    Domain domain2 = getDomainAs( repo, new StandaloneSession( "suzy", "2" ), "Authenticated" );
+    Domain domain3 = getDomainAs( repo, new StandaloneSession( "pat", "3" ), "Authenticated" );
+
+    assertNotSame( domain1, domain2 );
+    assertSame( domain2, domain3 );
+    assertEquals( 2, repo.getDomainCacheStatistics().getViewCount() );
+  }
+
+  @Test
+  public void testNewVersionOfDomainIsLoaded() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    when( delegate.getDomainVersion( "id" ) ).thenReturn( "2" );
+    getDomainAs( repo, new StandaloneSession( "joe", "2" ), "Authenticated" );
+
+    verify( delegate, times( 2 ) ).getDomain( "id" );
+
+    // the copies of the previous version are dropped, including the entries of the other sessions
+    SessionCachingMetadataDomainRepository.DomainCacheStatistics statistics = repo.getDomainCacheStatistics();
+    assertEquals( 1, statistics.getSharedDomainCount() );
+    assertEquals( 1, statistics.getViewCount() );
+    assertEquals( 1, statistics.getSessionEntryCount() );
+  }
+
+  @Test
+  public void testSharedViewDoesNotOutliveItsSessions() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+    IPentahoSession session1 = new StandaloneSession( "joe", "1" );
+    IPentahoSession session2 = new StandaloneSession( "joe", "2" );
+
+    Domain domain1 = getDomainAs( repo, session1, "Authenticated" );
+    Domain domain2 = getDomainAs( repo, session2, "Authenticated" );
+    assertSame( domain1, domain2 );
+
+    repo.onLogout( session1 );
+
+    // the remaining session keeps the view through its own entry
+    assertSame( domain2, getDomainAs( repo, session2, "Authenticated" ) );
+    SessionCachingMetadataDomainRepository.DomainCacheStatistics statistics = repo.getDomainCacheStatistics();
+    assertEquals( 0, statistics.getViewCount() );
+    assertEquals( 1, statistics.getSessionEntryCount() );
+    assertEquals( 1, statistics.getSharedDomainCount() );
+  }
+
+  @Test
+  public void testUnknownVersionIsLoadedForTheSession() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( null );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    getDomainAs( repo, new StandaloneSession( "joe", "2" ), "Authenticated" );
+
+    verify( delegate, times( 2 ) ).getDomain( "id" );
+    assertEquals( 0, repo.getDomainCacheStatistics().getSharedDomainCount() );
+  }
+
+  @Test
+  public void testPurgeDomainDropsSharedCopy() throws Exception {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      newCacheManager(), true, 1 );
+
+    getDomainAs( repo, new StandaloneSession( "joe", "1" ), "Authenticated" );
+    repo.removeModel( "id", "model" );
+    getDomainAs( repo, new StandaloneSession( "joe", "2" ), "Authenticated" );
+
+    verify( delegate, times( 2 ) ).getDomain( "id" );
+  }
+
+  @Test
+  public void testLogoutAndReloadInvalidateTaggedEntries() {
+    PentahoMetadataDomainRepository delegate = mockVersionAwareDelegate( "1" );
+    ICacheManager cacheManager = newCacheManager();
+    SessionCachingMetadataDomainRepository repo = new SessionCachingMetadataDomainRepository( delegate,
+      cacheManager, true, 1 );
+    IPentahoSession session1 = new StandaloneSession( "joe", "1" );
+    IPentahoSession session2 = new StandaloneSession( "suzy", "2" );
+    getDomainAs( repo, session1, "Authenticated" );
+    getDomainAs( repo, session2, "Authenticated" );
+    Set<String> ids = Collections.singleton( "id" );
+    repo.getDomainIdsFromCache( session1, repo.generateDomainIdCacheKeyForSession( session1 ), () -> ids );
+    repo.getDomainIdsFromCache( session2, repo.generateDomainIdCacheKeyForSession( session2 ), () -> ids );
+
+    repo.onLogout( session1 );
+
+    String region = SessionCachingMetadataDomainRepository.CACHE_REGION;
+    assertNull( cacheManager.getFromRegionCache( region,
+      new SessionCachingMetadataDomainRepository.CacheKey( "1", "id" ) ) );
+    assertNull( cacheManager.getFromRegionCache( region, repo.generateDomainIdCacheKeyForSession( session1 ) ) );
+    assertNotNull( cacheManager.getFromRegionCache( region,
+      new SessionCachingMetadataDomainRepository.CacheKey( "2", "id" ) ) );
+    assertEquals( ids, cacheManager.getFromRegionCache( region, repo.generateDomainIdCacheKeyForSession( session2 ) ) );
+
+    repo.reloadDomains();
+
+    assertTrue( cacheManager.getAllKeysFromRegionCache( region ).isEmpty() );
+    verify( delegate ).reloadDomains();
+  }
+
+  private static PentahoMetadataDomainRepository mockVersionAwareDelegate( String version ) {
+    PentahoMetadataDomainRepository delegate = mock( PentahoMetadataDomainRepository.class );
+    when( delegate.getDomainVersion( "id" ) ).thenReturn( version );
+    when( delegate.hasAccessFor( "id" ) ).thenReturn( true );
+    when( delegate.hasAccess( anyInt(), any() ) ).thenReturn( true );
+    when( delegate.getDomain( "id" ) ).thenAnswer( invocation -> {
+      Domain domain = new Domain();
+      domain.setId( "id" );
+      return domain;
+    } );
+    return delegate;
+  }
+
+  private static ICacheManager newCacheManager() {
+    GuavaCacheManager cacheManager = new GuavaCacheManager();
+    cacheManager.setJmxEnabled( false );
+    cacheManager.addCacheRegion( SessionCachingMetadataDomainRepository.CACHE_REGION );
+    return cacheManager;
+  }
+
+  private static Domain getDomainAs( SessionCachingMetadataDomainRepository repo, IPentahoSession session,
+                                     String... roles ) {
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    for ( String role : roles ) {
+      authorities.add( new SimpleGrantedAuthority( role ) );
+    }
+    session.setAttribute( IPentahoSession.SESSION_ROLES, authorities );
+    PentahoSessionHolder.setSession( session );
+    try {
+      return repo.getDomain( "id" );
+    } finally {
+      PentahoSessionHolder.removeSession();
+    }
+  }
 }
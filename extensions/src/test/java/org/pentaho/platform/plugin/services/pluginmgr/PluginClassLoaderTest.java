@@ -0,0 +1,123 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.pluginmgr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PluginClassLoaderTest {
+
+  public static class Sample {
+  }
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File pluginDir;
+
+  @Before
+  public void setUp() throws Exception {
+    pluginDir = folder.newFolder( "plugin" );
+    File libDir = new File( pluginDir, "lib" );
+    assertTrue( libDir.mkdir() );
+    String entryName = Sample.class.getName().replace( '.', '/' ) + ".class";
+    try ( JarOutputStream jar = new JarOutputStream( new FileOutputStream( new File( libDir, "sample.jar" ) ) );
+          InputStream in = getClass().getClassLoader().getResourceAsStream( entryName ) ) {
+      jar.putNextEntry( new JarEntry( entryName ) );
+      jar.write( in.readAllBytes() );
+      jar.closeEntry();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty( PluginClassLoader.INDEX_DIR_PROPERTY );
+  }
+
+  @Test
+  public void testConcurrentLoadsDefineTheClassOnceFromTheIndexedJar() throws Exception {
+    try ( PluginClassLoader loader = new PluginClassLoader( pluginDir, getClass().getClassLoader() ) ) {
+      loader.setOverrideLoad( true );
+      ExecutorService executor = Executors.newFixedThreadPool( 4 );
+      try {
+        List<Future<Class<?>>> loads = new ArrayList<>();
+        for ( int i = 0; i < 16; i++ ) {
+          loads.add( executor.submit( () -> loader.loadClass( Sample.class.getName() ) ) );
+        }
+        Class<?> loaded = loads.get( 0 ).get();
+        assertSame( loader, loaded.getClassLoader() );
+        for ( Future<Class<?>> load : loads ) {
+          assertSame( loaded, load.get() );
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testParentIsUsedFirstAndMissesAreReported() throws Exception {
+    try ( PluginClassLoader loader = new PluginClassLoader( pluginDir, getClass().getClassLoader() ) ) {
+      assertSame( Sample.class, loader.loadClass( Sample.class.getName() ) );
+      for ( int i = 0; i < 2; i++ ) {
+        try {
+          loader.loadClass( "org.pentaho.platform.plugin.services.pluginmgr.DoesNotExist" );
+          fail();
+        } catch ( ClassNotFoundException e ) {
+          // expected, from the cached parent miss the second time
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIndexIsSavedWhenConfigured() throws Exception {
+    File indexDir = folder.newFolder( "index" );
+    System.setProperty( PluginClassLoader.INDEX_DIR_PROPERTY, indexDir.getAbsolutePath() );
+
+    new PluginClassLoader( pluginDir, getClass().getClassLoader() ).close();
+
+    File[] indexes = indexDir.listFiles();
+    assertEquals( 1, indexes.length );
+    String index = new String( Files.readAllBytes( indexes[ 0 ].toPath() ), StandardCharsets.ISO_8859_1 );
+    assertTrue( index, index.contains( "org/pentaho/platform/plugin/services/pluginmgr" ) );
+
+    // a second loader reads the saved index and still finds the class
+    try ( PluginClassLoader loader = new PluginClassLoader( pluginDir, getClass().getClassLoader() ) ) {
+      loader.setOverrideLoad( true );
+      assertSame( loader, loader.loadClass( Sample.class.getName() ).getClassLoader() );
+    }
+  }
+}
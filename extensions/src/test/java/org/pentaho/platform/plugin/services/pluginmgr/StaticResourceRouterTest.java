@@ -0,0 +1,171 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.plugin.services.pluginmgr;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.platform.api.engine.IContentGeneratorInfo;
+import org.pentaho.platform.api.engine.IPlatformPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaticResourceRouterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ClassLoader loaderA = mock( ClassLoader.class );
+  private final ClassLoader loaderB = mock( ClassLoader.class );
+
+  private static IPlatformPlugin plugin( String id, Map<String, String> resources, String... contentGenerators ) {
+    IPlatformPlugin plugin = mock( IPlatformPlugin.class );
+    when( plugin.getId() ).thenReturn( id );
+    when( plugin.getStaticResourceMap() ).thenReturn( resources );
+    IContentGeneratorInfo[] infos = new IContentGeneratorInfo[ contentGenerators.length ];
+    for ( int i = 0; i < contentGenerators.length; i++ ) {
+      infos[ i ] = mock( IContentGeneratorInfo.class );
+      when( infos[ i ].getId() ).thenReturn( contentGenerators[ i ] );
+    }
+    when( plugin.getContentGenerators() ).thenReturn( Arrays.asList( infos ) );
+    return plugin;
+  }
+
+  private StaticResourceRouter router() {
+    Map<String, String> resourcesA = new LinkedHashMap<>();
+    resourcesA.put( "/a/resources", "resources" );
+    resourcesA.put( "/shared/js", "js" );
+    Map<String, String> resourcesB = new LinkedHashMap<>();
+    resourcesB.put( "/b", "web" );
+    resourcesB.put( "/shared", "shared" );
+    return StaticResourceRouter.build(
+      Arrays.asList( plugin( "a", resourcesA, "a-generator" ), plugin( "b", resourcesB, "b-generator" ) ),
+      id -> "a".equals( id ) ? loaderA : loaderB );
+  }
+
+  @Test
+  public void testRoutesMatchWholePathElements() {
+    StaticResourceRouter router = router();
+
+    StaticResourceRouter.Route route = router.route( "/a/resources/lib/app.js" );
+    assertEquals( "a", route.getPluginId() );
+    assertSame( loaderA, route.getClassLoader() );
+    assertEquals( "resources/lib/app.js", route.getResourcePath( "/a/resources/lib/app.js" ) );
+
+    assertEquals( "b", router.route( "b/index.html" ).getPluginId() );
+    assertNull( router.route( "/a/resourcesX/app.js" ) );
+    assertNull( router.route( "/a" ) );
+    assertNull( router.route( "/unknown/app.js" ) );
+  }
+
+  @Test
+  public void testFirstPluginWinsWhenRoutesOverlap() {
+    StaticResourceRouter router = router();
+
+    // both "/shared/js" of a and "/shared" of b match; a is listed first
+    assertEquals( "a", router.route( "/shared/js/app.js" ).getPluginId() );
+    assertEquals( "b", router.route( "/shared/css/app.css" ).getPluginId() );
+  }
+
+  @Test
+  public void testPluginIdIncludesContentGenerators() {
+    StaticResourceRouter router = router();
+
+    assertEquals( "a", router.getPluginId( "/a-generator/report" ) );
+    assertEquals( "b", router.getPluginId( "/b-generator" ) );
+    assertEquals( "a", router.getPluginId( "/shared/js/app.js" ) );
+    assertNull( router.getPluginId( "/nothing" ) );
+    assertNull( router.route( "/a-generator/report" ) );
+  }
+
+  @Test
+  public void testEmptyPlugins() {
+    StaticResourceRouter router =
+      StaticResourceRouter.build( Collections.singletonList( plugin( "empty", Collections.emptyMap() ) ), id -> null );
+    assertNull( router.route( "/anything" ) );
+    assertNull( router.getPluginId( "/anything" ) );
+  }
+
+  @Test
+  public void testStaticResourceFromJarKeepsTheEntryTime() throws Exception {
+    long entryTime = 1700000000000L;
+    File jar = folder.newFile( "plugin.jar" );
+    try ( JarOutputStream out = new JarOutputStream( new FileOutputStream( jar ) ) ) {
+      JarEntry entry = new JarEntry( "web/app.js" );
+      entry.setTime( entryTime );
+      out.putNextEntry( entry );
+      out.write( "var a = 1;".getBytes( StandardCharsets.UTF_8 ) );
+      out.closeEntry();
+    }
+
+    URL url = new URL( "jar:" + jar.toURI() + "!/web/app.js" );
+    StaticResource first = StaticResource.fromUrl( url );
+    StaticResource second = StaticResource.fromUrl( url );
+
+    assertEquals( entryTime, first.getLastModified() );
+    assertEquals( first.getLastModified(), second.getLastModified() );
+    assertEquals( first.getETag(), second.getETag() );
+    assertEquals( 10, first.getLength() );
+    assertFalse( first.isStale() );
+    // the jar is not kept open
+    assertTrue( jar.delete() );
+  }
+
+  @Test
+  public void testStaticResourceValidatorsAndContent() throws Exception {
+    File file = folder.newFile( "app.js" );
+    Files.write( file.toPath(), "var a = 1;".getBytes( StandardCharsets.UTF_8 ) );
+
+    StaticResource inMemory = StaticResource.fromFile( file, 1024 );
+    StaticResource streamed = StaticResource.fromFile( file, 4 );
+
+    assertNull( inMemory.getFile() );
+    assertNotNull( streamed.getFile() );
+    assertEquals( 10, streamed.getLength() );
+    for ( StaticResource resource : Arrays.asList( inMemory, streamed ) ) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      resource.writeTo( out );
+      assertEquals( "var a = 1;", out.toString( "UTF-8" ) );
+      assertTrue( resource.isNotModified( resource.getETag(), -1 ) );
+      assertTrue( resource.isNotModified( "\"other\", " + resource.getETag(), -1 ) );
+      assertFalse( resource.isNotModified( "\"other\"", Long.MAX_VALUE ) );
+      assertTrue( resource.isNotModified( null, resource.getLastModified() ) );
+      assertFalse( resource.isNotModified( null, -1 ) );
+      assertFalse( resource.isStale() );
+    }
+
+    assertTrue( file.setLastModified( inMemory.getLastModified() + 5000 ) );
+    assertTrue( inMemory.isStale() );
+  }
+}
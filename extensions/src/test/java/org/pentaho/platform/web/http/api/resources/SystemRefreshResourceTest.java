@@ -16,6 +16,7 @@ package org.pentaho.platform.web.http.api.resources;
 import org.junit.*;
 import org.mockito.MockedStatic;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.platform.api.data.IQueryResultCache;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
@@ -36,6 +37,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -106,4 +108,37 @@ public class SystemRefreshResourceTest {
       verify( olapService, times( 1 ) ).flush( session, "schemaX" );
     }
   }
+
+  @Test
+  public void flushQueryResultCacheNotAdmin() {
+    when( SystemUtils.canAdminister() ).thenReturn( false );
+
+    Response response = resource.flushQueryResultCache( null );
+    assertEquals( UNAUTHORIZED.getStatusCode(), response.getStatus() );
+  }
+
+  @Test
+  public void flushQueryResultCacheAll() {
+    IQueryResultCache queryResultCache = mock( IQueryResultCache.class );
+    pentahoSystemMock.when( () -> PentahoSystem.get( IQueryResultCache.class ) ).thenReturn( queryResultCache );
+    when( SystemUtils.canAdminister() ).thenReturn( true );
+
+    Response response = resource.flushQueryResultCache( null );
+
+    assertEquals( OK.getStatusCode(), response.getStatus() );
+    verify( queryResultCache, times( 1 ) ).invalidateAll();
+  }
+
+  @Test
+  public void flushQueryResultCacheDatasource() {
+    IQueryResultCache queryResultCache = mock( IQueryResultCache.class );
+    pentahoSystemMock.when( () -> PentahoSystem.get( IQueryResultCache.class ) ).thenReturn( queryResultCache );
+    when( SystemUtils.canAdminister() ).thenReturn( true );
+
+    Response response = resource.flushQueryResultCache( "SampleData" );
+
+    assertEquals( OK.getStatusCode(), response.getStatus() );
+    verify( queryResultCache, times( 1 ) ).invalidate( "SampleData" );
+    verify( queryResultCache, never() ).invalidateAll();
+  }
 }
@@ -58,6 +58,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -1077,6 +1078,32 @@ public class FileServiceTest {
     verify( fileService ).clearBowlCache();
   }
 
+  @Test
+  public void testSearchGeneratedContent() throws Exception {
+    org.pentaho.platform.api.repository2.unified.IUnifiedRepository mockRepo =
+      mock( org.pentaho.platform.api.repository2.unified.IUnifiedRepository.class );
+    RepositoryFile homeFolder = new RepositoryFile.Builder( "homeId", "admin" ).folder( true ).build();
+    RepositoryFile output = new RepositoryFile.Builder( "outputId", "report.pdf" ).build();
+    when( mockRepo.getFile( "/home/admin" ) ).thenReturn( homeFolder );
+    when( mockRepo.getChildrenByMetadata( "homeId", "contentCreator", "sourceId", 0, -1 ) )
+      .thenReturn( List.of( output ) );
+    doReturn( mockRepo ).when( fileService ).getRepository();
+    RepositoryFileDto dto = new RepositoryFileDto();
+    doReturn( dto ).when( fileService ).toFileDto( output, null, false );
+
+    List<RepositoryFileDto> content =
+      fileService.searchGeneratedContent( "/home/admin", "sourceId", "contentCreator" );
+
+    assertEquals( List.of( dto ), content );
+    verify( mockRepo, never() ).getFileMetadata( any() );
+  }
+
+  @Test( expected = FileNotFoundException.class )
+  public void testSearchGeneratedContentWithoutWorkspaceFolder() throws Exception {
+    setupRepositoryMock( "/home/admin", null );
+    fileService.searchGeneratedContent( "/home/admin", "sourceId", "contentCreator" );
+  }
+
   private static String encode( String pathControlCharacter ) throws UnsupportedEncodingException {
     return URLEncoder.encode( pathControlCharacter, UTF_8 );
   }
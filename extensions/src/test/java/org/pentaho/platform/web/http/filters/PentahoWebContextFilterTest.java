@@ -17,6 +17,7 @@ import org.apache.commons.lang.StringEscapeUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.pentaho.platform.api.engine.IApplicationContext;
 import org.pentaho.platform.api.engine.ICacheManager;
@@ -25,6 +26,7 @@ import org.pentaho.platform.api.engine.IPentahoObjectReference;
 import org.pentaho.platform.api.engine.IPentahoRequestContext;
 import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.engine.IPluginManager;
+import org.pentaho.platform.api.engine.IPluginManagerListener;
 import org.pentaho.platform.api.engine.ISystemConfig;
 import org.pentaho.platform.api.engine.ISystemSettings;
 import org.pentaho.platform.api.engine.ObjectFactoryException;
@@ -45,6 +47,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -467,6 +470,45 @@ public class PentahoWebContextFilterTest {
     assertTrue( this.requirejsManagerInitIsCalled( response, null ) );
   }
 
+  @Test
+  public void testWebContextRevalidatesWithETag() throws ServletException, IOException {
+    final String response = executeWebContextFilter();
+
+    ArgumentCaptor<String> eTag = ArgumentCaptor.forClass( String.class );
+    verify( this.mockResponse ).setHeader( eq( "ETag" ), eTag.capture() );
+    verify( this.mockResponse ).setHeader( "Cache-Control", "private, no-cache" );
+    assertFalse( response.isEmpty() );
+
+    this.mockResponseOutputStream.reset();
+    when( this.mockRequest.getHeader( "If-None-Match" ) ).thenReturn( eTag.getValue() );
+
+    assertTrue( executeWebContextFilter().isEmpty() );
+    verify( this.mockResponse ).setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+  }
+
+  @Test
+  public void testWebContextCachesPluginResourcesUntilReload() throws ServletException, IOException {
+    IPluginManager pluginManager = this.pentahoWebContextFilter.getPluginManager();
+    when( pluginManager.getExternalResourcesForContext( "global" ) )
+      .thenReturn( Collections.singletonList( "content/plugin/global.js" ) );
+
+    assertTrue( executeWebContextFilter().contains( "content/plugin/global.js'></scr\"+\"ipt>" ) );
+    this.mockResponseOutputStream.reset();
+    assertTrue( executeWebContextFilter().contains( "content/plugin/global.js'></scr\"+\"ipt>" ) );
+    verify( pluginManager, times( 1 ) ).getExternalResourcesForContext( "global" );
+
+    ArgumentCaptor<IPluginManagerListener> listener = ArgumentCaptor.forClass( IPluginManagerListener.class );
+    verify( pluginManager ).addPluginManagerListener( listener.capture() );
+    when( pluginManager.getExternalResourcesForContext( "global" ) )
+      .thenReturn( Collections.singletonList( "content/plugin/global.css" ) );
+    listener.getValue().onReload();
+
+    this.mockResponseOutputStream.reset();
+    final String response = executeWebContextFilter();
+    assertTrue( response.contains( "content/plugin/global.css'/>" ) );
+    assertFalse( response.contains( "content/plugin/global.js" ) );
+  }
+
   // region Auxiliary Methods
   private boolean responseSetsContextPathGlobal( String response, String contextRoot ) {
     return response.contains( getWebContextVarDefinition( "CONTEXT_PATH", contextRoot ) );
@@ -20,6 +20,7 @@ import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.pentaho.platform.api.engine.ICacheManager;
 import org.pentaho.platform.api.engine.IPluginManager;
+import org.pentaho.platform.plugin.services.pluginmgr.PentahoSystemPluginManager;
 
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
@@ -37,6 +38,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.pentaho.platform.web.servlet.GenericServlet.CACHE_FILE;
 
@@ -211,5 +213,20 @@ public class GenericServletTest {
     assertFalse( result );
   }
 
+  @Test
+  @SuppressWarnings( { "deprecation" } )
+  public void testIsStaticResource_ChecksTheResourceOfThePlugin() {
+    PentahoSystemPluginManager systemPluginManager = mock( PentahoSystemPluginManager.class );
+    doReturn( systemPluginManager ).when( genericServlet ).getPluginManager( request );
+    when( request.getServletPath() ).thenReturn( "/content" );
+    when( request.getPathInfo() ).thenReturn( "/my-plugin/resource.js" );
+    when( systemPluginManager.getServicePlugin( "/my-plugin/resource.js" ) ).thenReturn( "my-plugin" );
+    when( systemPluginManager.isStaticResource( "/my-plugin/resource.js" ) ).thenReturn( true );
+    when( systemPluginManager.hasStaticResource( "my-plugin", "/my-plugin/resource.js" ) ).thenReturn( true );
+
+    assertTrue( genericServlet.isStaticResource( request ) );
+    verify( systemPluginManager ).hasStaticResource( "my-plugin", "/my-plugin/resource.js" );
+  }
+
   // endregion
 }
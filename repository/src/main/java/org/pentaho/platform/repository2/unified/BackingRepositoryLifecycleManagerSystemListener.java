@@ -15,18 +15,21 @@ package org.pentaho.platform.repository2.unified;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pentaho.platform.api.engine.IDependentSystemListener;
 import org.pentaho.platform.api.engine.IPentahoSession;
-import org.pentaho.platform.api.engine.IPentahoSystemListener;
 import org.pentaho.platform.api.repository2.unified.IBackingRepositoryLifecycleManager;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 /**
  * Initializes the backing repository.
  * 
  * @author wseyler
  * @author mlowery
  */
-public class BackingRepositoryLifecycleManagerSystemListener implements IPentahoSystemListener {
+public class BackingRepositoryLifecycleManagerSystemListener implements IDependentSystemListener {
 
   // ~ Static fields/initializers
   // ======================================================================================
@@ -46,6 +49,17 @@ public class BackingRepositoryLifecycleManagerSystemListener implements IPentaho
   // ~ Methods
   // =========================================================================================================
 
+  /**
+   * The lifecycle managers may come from plugins, and they create folders as the users and roles known to the
+   * security configuration.
+   */
+  @Override
+  public Collection<String> getStartupDependencies() {
+    return Arrays.asList(
+        "org.pentaho.platform.plugin.services.pluginmgr.PluginAdapter",
+        "org.pentaho.platform.plugin.services.security.userrole.SecuritySystemListener" );
+  }
+
   @Override
   public boolean startup( IPentahoSession session ) {
     try {
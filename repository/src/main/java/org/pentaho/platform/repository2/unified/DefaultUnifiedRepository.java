@@ -23,15 +23,18 @@ import java.util.Properties;
 
 import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAce;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.UnifiedRepositoryAccessDeniedException;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
+import org.pentaho.platform.engine.services.ActionSequenceDocumentCache;
 import org.pentaho.platform.repository2.messages.Messages;
 import org.springframework.util.Assert;
 
@@ -308,6 +311,7 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
     } else {
       repositoryFileDao.deleteFile( fileId, versionMessage );
     }
+    ActionSequenceDocumentCache.fileChanged( fileId );
   }
 
   /**
@@ -447,6 +451,7 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
     Assert.notNull( fileId, "File ID must not be null" );
     Assert.hasText( destAbsPath, "Destination absolute path must not be null or empty" );
     repositoryFileDao.moveFile( fileId, destAbsPath, versionMessage );
+    ActionSequenceDocumentCache.fileChanged( fileId );
   }
 
   /**
@@ -465,6 +470,7 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
     Assert.notNull( fileId, "File ID must not be null" );
     Assert.notNull( versionId, "Version ID must not be null" );
     repositoryFileDao.restoreFileAtVersion( fileId, versionId, versionMessage );
+    ActionSequenceDocumentCache.fileChanged( fileId );
   }
 
   /**
@@ -483,6 +489,15 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
     return repositoryFileDao.getTree( repositoryRequest );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RepositoryFileTreePage walkTree( RepositoryRequest repositoryRequest, IRepositoryFileTreeVisitor visitor ) {
+    Assert.notNull( visitor, "Visitor must not be null" );
+    return repositoryFileDao.walkTree( repositoryRequest, visitor );
+  }
+
   /**
    * @deprecated  Use <code>getTree(RepositoryRequest)</code>
    * 
@@ -517,7 +532,9 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
       final String versionMessage ) {
     Assert.notNull( file, "File must not be null" );
     Assert.notNull( data, "File data must not be null" );
-    return repositoryFileDao.updateFile( file, data, versionMessage );
+    RepositoryFile updatedFile = repositoryFileDao.updateFile( file, data, versionMessage );
+    ActionSequenceDocumentCache.fileChanged( file.getId() );
+    return updatedFile;
   }
 
   public List<RepositoryFile> getReferrers( Serializable fileId ) {
@@ -535,6 +552,18 @@ public class DefaultUnifiedRepository implements IUnifiedRepository {
     return repositoryFileDao.getFileMetadata( fileId );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+      final String metadataValue, final int offset, final int limit ) {
+    Assert.notNull( folderId, "Folder ID must not be null" );
+    Assert.hasText( metadataKey, "Metadata key must not be null or empty" );
+    Assert.notNull( metadataValue, "Metadata value must not be null" );
+    return repositoryFileDao.getChildrenByMetadata( folderId, metadataKey, metadataValue, offset, limit );
+  }
+
   public List<Character> getReservedChars() {
     return repositoryFileDao.getReservedChars();
   }
@@ -30,12 +30,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAce;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.UnifiedRepositoryCreateFileException;
 import org.pentaho.platform.api.repository2.unified.UnifiedRepositoryException;
@@ -465,6 +467,16 @@ public class ExceptionLoggingDecorator implements IUnifiedRepository {
     }, Messages.getInstance().getString( "ExceptionLoggingDecorator.getTree", repositoryRequest.getPath() ) ); //$NON-NLS-1$
   }
 
+  @Override
+  public RepositoryFileTreePage walkTree( final RepositoryRequest repositoryRequest,
+                                         final IRepositoryFileTreeVisitor visitor ) {
+    return callLogThrow( new Callable<RepositoryFileTreePage>() {
+      public RepositoryFileTreePage call() throws Exception {
+        return delegatee.walkTree( repositoryRequest, visitor );
+      }
+    }, Messages.getInstance().getString( "ExceptionLoggingDecorator.getTree", repositoryRequest.getPath() ) ); //$NON-NLS-1$
+  }
+
   @Deprecated
   public RepositoryFileTree getTree( final String path, final int depth,
                                      final String filter, final boolean showHidden ) {
@@ -589,6 +601,17 @@ public class ExceptionLoggingDecorator implements IUnifiedRepository {
     }, Messages.getInstance().getString( "ExceptionLoggingDecorator.getFileMetadata", fileId ) ); //$NON-NLS-1$
   }
 
+  @Override
+  public List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+                                                     final String metadataValue, final int offset,
+                                                     final int limit ) {
+    return callLogThrow( new Callable<List<RepositoryFile>>() {
+      public List<RepositoryFile> call() throws Exception {
+        return delegatee.getChildrenByMetadata( folderId, metadataKey, metadataValue, offset, limit );
+      }
+    }, Messages.getInstance().getString( "ExceptionLoggingDecorator.getChildren", folderId ) ); //$NON-NLS-1$
+  }
+
   public List<Character> getReservedChars() {
     return callLogThrow( new Callable<List<Character>>() {
       public List<Character> call() throws Exception {
@@ -21,9 +21,11 @@ import java.util.Properties;
 
 import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
 
@@ -45,6 +47,8 @@ public interface IRepositoryFileDao {
 
   RepositoryFileTree getTree( RepositoryRequest repositoryRequest );
 
+  RepositoryFileTreePage walkTree( RepositoryRequest repositoryRequest, IRepositoryFileTreeVisitor visitor );
+
   RepositoryFile getFile( final String relPath, final boolean loadLocaleMaps );
 
   RepositoryFile getFileById( final Serializable fileId );
@@ -117,6 +121,9 @@ public interface IRepositoryFileDao {
 
   Map<String, Serializable> getFileMetadata( final Serializable fileId );
 
+  List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+      final String metadataValue, final int offset, final int limit );
+
   List<Character> getReservedChars();
 
   List<Locale> getAvailableLocalesForFileById( final Serializable fileId );
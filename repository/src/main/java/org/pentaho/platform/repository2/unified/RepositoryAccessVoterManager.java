@@ -23,8 +23,10 @@ import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
 import org.pentaho.platform.security.policy.rolebased.actions.AdministerSecurityAction;
 import org.springframework.util.Assert;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class RepositoryAccessVoterManager implements IRepositoryAccessVoterManager {
 
@@ -54,12 +56,40 @@ public class RepositoryAccessVoterManager implements IRepositoryAccessVoterManag
   @Override
   public boolean hasAccess( RepositoryFile file, RepositoryFilePermission operation,
       RepositoryFileAcl repositoryFileAcl, IPentahoSession session ) {
-    if ( voters != null && !authorizationPolicy.isAllowed( AdministerSecurityAction.NAME )
-        && ( session.getName() != null && !session.getName().equals( repositoryAdminUsername ) ) ) {
-      for ( IRepositoryAccessVoter voter : voters ) {
-        if ( !voter.hasAccess( file, operation, repositoryFileAcl, session ) ) {
-          return false;
-        }
+    if ( isVotingRequired( session ) ) {
+      return vote( file, operation, repositoryFileAcl, session );
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isVotingRequired( IPentahoSession session ) {
+    return voters != null && !voters.isEmpty() && !authorizationPolicy.isAllowed( AdministerSecurityAction.NAME )
+        && ( session.getName() != null && !session.getName().equals( repositoryAdminUsername ) );
+  }
+
+  /**
+   * Resolves the caller's privileges once for the whole batch instead of once per file.
+   */
+  @Override
+  public List<RepositoryFile> hasAccess( List<RepositoryFile> files, RepositoryFilePermission operation,
+      Map<Serializable, RepositoryFileAcl> repositoryFileAcls, IPentahoSession session ) {
+    boolean votingRequired = isVotingRequired( session );
+    List<RepositoryFile> granted = new ArrayList<RepositoryFile>( files.size() );
+    for ( RepositoryFile file : files ) {
+      RepositoryFileAcl acl = repositoryFileAcls.get( file.getId() );
+      if ( acl != null && ( !votingRequired || vote( file, operation, acl, session ) ) ) {
+        granted.add( file );
+      }
+    }
+    return granted;
+  }
+
+  private boolean vote( RepositoryFile file, RepositoryFilePermission operation,
+      RepositoryFileAcl repositoryFileAcl, IPentahoSession session ) {
+    for ( IRepositoryAccessVoter voter : voters ) {
+      if ( !voter.hasAccess( file, operation, repositoryFileAcl, session ) ) {
+        return false;
       }
     }
     return true;
@@ -14,6 +14,8 @@
 package org.pentaho.platform.repository2.unified.fileio;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.pentaho.platform.api.repository2.unified.Converter;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
 import org.pentaho.platform.api.repository2.unified.ISourcesStreamEvents;
@@ -25,21 +27,44 @@ import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.repository.RepositoryFilenameUtils;
 import org.pentaho.platform.util.web.MimeHelper;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * Buffers the content written to it and stores it in the repository on {@link #flush()}.
+ * <p>
+ * Content is kept on heap until it grows past the spill threshold, after which it is moved to a temporary file and
+ * handed to the repository as a file stream. The threshold defaults to {@value #DEFAULT_SPILL_THRESHOLD} bytes and can
+ * be changed with the {@value #SPILL_THRESHOLD_PROPERTY} system property or {@link #setSpillThreshold(int)}; a
+ * negative threshold keeps everything on heap.
+ */
 public class RepositoryFileOutputStream extends ByteArrayOutputStream implements ISourcesStreamEvents {
 
+  private static final Log logger = LogFactory.getLog( RepositoryFileOutputStream.class );
+
   private static final String TRANS_EXT = "ktr";
   private static final String JOB_EXT = "kjb";
 
+  public static final String SPILL_THRESHOLD_PROPERTY =
+      "org.pentaho.platform.repository2.unified.fileio.RepositoryFileOutputStream.spillThreshold";
+  public static final int DEFAULT_SPILL_THRESHOLD = 4 * 1024 * 1024;
+
   protected boolean hidden = false;
   protected String path = null;
   protected IUnifiedRepository repository;
@@ -50,6 +75,11 @@ public class RepositoryFileOutputStream extends ByteArrayOutputStream implements
   protected boolean flushed = false;
   protected boolean forceFlush = true;
   protected ArrayList<IStreamListener> listeners = new ArrayList<>();
+  protected int spillThreshold = getDefaultSpillThreshold();
+
+  private File spillFile;
+  private OutputStream spillStream;
+  private long spillCount;
 
   public RepositoryFileOutputStream( final String path, final boolean autoCreateUniqueFileName,
       final boolean autoCreateDirStructure, final IUnifiedRepository repository, final boolean hidden ) {
@@ -149,6 +179,169 @@ public class RepositoryFileOutputStream extends ByteArrayOutputStream implements
     this.forceFlush = forceFlush;
   }
 
+  @Override
+  public synchronized void write( int b ) {
+    if ( spillFile == null && isSpillRequired( 1 ) ) {
+      spill();
+    }
+    if ( spillFile == null ) {
+      super.write( b );
+      return;
+    }
+    try {
+      spillStream.write( b );
+      spillCount++;
+    } catch ( IOException e ) {
+      throw new UncheckedIOException( e );
+    }
+  }
+
+  @Override
+  public synchronized void write( byte[] b, int off, int len ) {
+    if ( spillFile == null && isSpillRequired( len ) ) {
+      spill();
+    }
+    if ( spillFile == null ) {
+      super.write( b, off, len );
+      return;
+    }
+    try {
+      spillStream.write( b, off, len );
+      spillCount += len;
+    } catch ( IOException e ) {
+      throw new UncheckedIOException( e );
+    }
+  }
+
+  @Override
+  public synchronized int size() {
+    return (int) Math.min( spillCount + count, Integer.MAX_VALUE );
+  }
+
+  /**
+   * Copies the buffered content to a new array. Note that this loads spilled content back on heap; use
+   * {@link #writeTo(OutputStream)} where possible.
+   */
+  @Override
+  public synchronized byte[] toByteArray() {
+    if ( spillFile == null ) {
+      return super.toByteArray();
+    }
+    try {
+      spillStream.flush();
+      return Files.readAllBytes( spillFile.toPath() );
+    } catch ( IOException e ) {
+      throw new UncheckedIOException( e );
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return spillFile == null ? super.toString() : new String( toByteArray(), Charset.defaultCharset() );
+  }
+
+  @Override
+  public synchronized String toString( String charsetName ) throws UnsupportedEncodingException {
+    return spillFile == null ? super.toString( charsetName ) : new String( toByteArray(), charsetName );
+  }
+
+  @Override
+  public synchronized void writeTo( OutputStream out ) throws IOException {
+    if ( spillFile == null ) {
+      super.writeTo( out );
+      return;
+    }
+    spillStream.flush();
+    Files.copy( spillFile.toPath(), out );
+  }
+
+  @Override
+  public synchronized void reset() {
+    super.reset();
+    discardSpill();
+  }
+
+  public int getSpillThreshold() {
+    return spillThreshold;
+  }
+
+  public void setSpillThreshold( int spillThreshold ) {
+    this.spillThreshold = spillThreshold;
+  }
+
+  /**
+   * @return true if the content has been moved to a temporary file
+   */
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  File getSpillFile() {
+    return spillFile;
+  }
+
+  private boolean isSpillRequired( int len ) {
+    return spillThreshold >= 0 && (long) count + len > spillThreshold;
+  }
+
+  private void spill() {
+    try {
+      // unlike File.createTempFile, the file is only readable by its owner on POSIX systems
+      spillFile =
+        Files.createTempFile( "repositoryFileOutputStream", ".tmp" ).toFile(); //$NON-NLS-1$ //$NON-NLS-2$
+      spillStream = new BufferedOutputStream( Files.newOutputStream( spillFile.toPath() ) );
+      spillStream.write( buf, 0, count );
+    } catch ( IOException e ) {
+      discardSpill();
+      throw new UncheckedIOException( e );
+    }
+    spillCount = count;
+    count = 0;
+    // release the heap buffer; further content goes to the file
+    buf = new byte[ 32 ];
+  }
+
+  private void discardSpill() {
+    if ( spillStream != null ) {
+      try {
+        spillStream.close();
+      } catch ( IOException e ) {
+        logger.debug( "Unable to close " + spillFile, e ); //$NON-NLS-1$
+      }
+      spillStream = null;
+    }
+    if ( spillFile != null ) {
+      if ( !spillFile.delete() ) {
+        logger.warn( "Unable to delete " + spillFile ); //$NON-NLS-1$
+      }
+      spillFile = null;
+    }
+    spillCount = 0;
+  }
+
+  /**
+   * Opens the buffered content for reading without copying it.
+   */
+  private InputStream openContent() throws IOException {
+    if ( spillFile == null ) {
+      return new ByteArrayInputStream( buf, 0, count );
+    }
+    spillStream.flush();
+    return new BufferedInputStream( Files.newInputStream( spillFile.toPath() ) );
+  }
+
+  private static int getDefaultSpillThreshold() {
+    String value = System.getProperty( SPILL_THRESHOLD_PROPERTY );
+    if ( value != null ) {
+      try {
+        return Integer.parseInt( value.trim() );
+      } catch ( NumberFormatException ex ) {
+        logger.debug( "Parsing system property " + SPILL_THRESHOLD_PROPERTY + " with value: " + value, ex );
+      }
+    }
+    return DEFAULT_SPILL_THRESHOLD;
+  }
+
   @Override
   public void flush() throws IOException {
     if ( closed ) {
@@ -156,16 +349,13 @@ public class RepositoryFileOutputStream extends ByteArrayOutputStream implements
     }
     super.flush();
 
-    byte[] data = toByteArray();
-
-    if ( !forceFlush && data.length == 0 ) {
+    if ( !forceFlush && size() == 0 ) {
       for ( IStreamListener listener : listeners ) {
         listener.streamComplete();
       }
       flushed = true;
       return;
     }
-    ByteArrayInputStream bis = new ByteArrayInputStream( data );
 
     // make an effort to determine the correct mime type, default to application/octet-stream
     String extension = RepositoryFilenameUtils.getExtension( path );
@@ -197,7 +387,14 @@ public class RepositoryFileOutputStream extends ByteArrayOutputStream implements
     } else {
       converter = null;
     }
-    payload = convert( converter, bis, mimeType );
+    try ( InputStream content = openContent() ) {
+      payload = convert( converter, content, mimeType );
+      store( payload, extension );
+    }
+    flushed = true;
+  }
+
+  private void store( final IRepositoryFileData payload, final String extension ) throws IOException {
     if ( !flushed ) {
       RepositoryFile file = repository.getFile( path );
       RepositoryFile parentFolder = getParent( path );
@@ -283,19 +480,22 @@ public class RepositoryFileOutputStream extends ByteArrayOutputStream implements
       RepositoryFile file = repository.getFile( path );
       repository.updateFile( file, payload, "New File" ); //$NON-NLS-1$
     }
-    flushed = true;
   }
 
   @Override
   public void close() throws IOException {
     if ( !closed ) {
-      flush();
-      closed = true;
-      reset();
+      try {
+        flush();
+      } finally {
+        // release the buffer, and any temporary file, even if the content could not be stored
+        closed = true;
+        reset();
+      }
     }
   }
 
-  IRepositoryFileData convert( Converter converter, ByteArrayInputStream bis, String mimeType ) {
+  IRepositoryFileData convert( Converter converter, InputStream bis, String mimeType ) {
     final IRepositoryFileData payload;
     if ( converter != null ) {
       payload = converter.convert( bis, charsetName, mimeType );
@@ -42,9 +42,11 @@ import org.apache.commons.io.filefilter.WildcardFileFilter;
 import org.apache.commons.lang.StringUtils;
 import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.UnifiedRepositoryException;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
@@ -295,6 +297,10 @@ public class FileSystemRepositoryFileDao implements IRepositoryFileDao {
         repositoryRequest.getChildNodeFilter(), repositoryRequest.getTypes() );
   }
 
+  public RepositoryFileTreePage walkTree( RepositoryRequest repositoryRequest, IRepositoryFileTreeVisitor visitor ) {
+    return RepositoryFileTreePage.replay( getTree( repositoryRequest ), visitor );
+  }
+
   @Deprecated
   public RepositoryFileTree getTree( String relPath, int depth, String filter, boolean showHidden ) {
 
@@ -472,6 +478,21 @@ public class FileSystemRepositoryFileDao implements IRepositoryFileDao {
     return metadata;
   }
 
+  public List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+      final String metadataValue, final int offset, final int limit ) {
+    List<RepositoryFile> matches = new ArrayList<RepositoryFile>();
+    for ( RepositoryFile child : getChildren( folderId ) ) {
+      if ( !child.isFolder() && !child.isHidden()
+          && metadataValue.equals( getFileMetadata( child.getId() ).get( metadataKey ) ) ) {
+        matches.add( child );
+      }
+    }
+    Collections.sort( matches );
+    int from = Math.min( Math.max( offset, 0 ), matches.size() );
+    int to = limit < 0 ? matches.size() : (int) Math.min( (long) from + limit, matches.size() );
+    return new ArrayList<RepositoryFile>( matches.subList( from, to ) );
+  }
+
   public void copyFile( Serializable fileId, String destAbsPath, String versionMessage ) {
     throw new UnsupportedOperationException( "This operation is not support by this repository" );
   }
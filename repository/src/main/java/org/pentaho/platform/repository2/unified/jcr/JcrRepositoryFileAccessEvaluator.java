@@ -0,0 +1,180 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.repository2.unified.jcr;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.jcr.AccessDeniedException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
+import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+
+/**
+ * Request-scoped access check used when listing many nodes, e.g. while building a tree. Compared to calling
+ * {@link IRepositoryAccessVoterManager#hasAccess(RepositoryFile, RepositoryFilePermission, RepositoryFileAcl,
+ * IPentahoSession)} once per node it:
+ * <ul>
+ * <li>asks the voter manager only once whether voting is needed for the current session, and when it is not, only
+ * checks that the ACL of the node is readable, so that callers can drop unreadable nodes with {@link #isReadable(Node)}
+ * before turning them into files;</li>
+ * <li>resolves the ACL inherited from each parent folder once per request;</li>
+ * <li>evaluates the children of a folder as a single batch.</li>
+ * </ul>
+ * A node whose ACL cannot be read is never accessible, as with the per-node check. One instance is meant to be shared
+ * by a whole traversal.
+ */
+class JcrRepositoryFileAccessEvaluator {
+
+  private final Session session;
+  private final PentahoJcrConstants pentahoJcrConstants;
+  private final IRepositoryAccessVoterManager accessVoterManager;
+  private final RepositoryFilePermission permission;
+  private final IPentahoSession pentahoSession;
+
+  private Boolean votingRequired;
+  private final Map<String, RepositoryFileAcl> effectiveAcls = new HashMap<String, RepositoryFileAcl>();
+
+  JcrRepositoryFileAccessEvaluator( final Session session, final PentahoJcrConstants pentahoJcrConstants,
+                                    final IRepositoryAccessVoterManager accessVoterManager,
+                                    final RepositoryFilePermission permission ) {
+    this.session = session;
+    this.pentahoJcrConstants = pentahoJcrConstants;
+    this.accessVoterManager = accessVoterManager;
+    this.permission = permission;
+    this.pentahoSession = PentahoSessionHolder.getSession();
+  }
+
+  boolean hasAccess( final Node node, final RepositoryFile file ) throws RepositoryException {
+    return !filter( Collections.singletonMap( node, file ) ).isEmpty();
+  }
+
+  /**
+   * Node-level pre-check that does not need the file. When no voting is required this is the whole access check;
+   * otherwise every node passes and {@link #vote(Map)} decides.
+   */
+  boolean isReadable( final Node node ) throws RepositoryException {
+    return isVotingRequired() || JcrRepositoryFileAclUtils.canReadAcl( session, node );
+  }
+
+  /**
+   * @param candidates
+   *          files keyed by their node
+   * @return the accessible subset of the candidates, in iteration order
+   */
+  Map<Node, RepositoryFile> filter( final Map<Node, RepositoryFile> candidates ) throws RepositoryException {
+    Map<Node, RepositoryFile> readable = new LinkedHashMap<Node, RepositoryFile>();
+    for ( Map.Entry<Node, RepositoryFile> candidate : candidates.entrySet() ) {
+      if ( isReadable( candidate.getKey() ) ) {
+        readable.put( candidate.getKey(), candidate.getValue() );
+      }
+    }
+    return vote( readable );
+  }
+
+  /**
+   * Second step of {@link #filter(Map)}, for candidates that already passed {@link #isReadable(Node)}.
+   *
+   * @param candidates
+   *          files keyed by their node
+   * @return the subset of the candidates granted by the voters, in iteration order
+   */
+  Map<Node, RepositoryFile> vote( final Map<Node, RepositoryFile> candidates ) throws RepositoryException {
+    if ( !isVotingRequired() || candidates.isEmpty() ) {
+      return candidates;
+    }
+
+    Map<Node, RepositoryFile> readable = new LinkedHashMap<Node, RepositoryFile>();
+    Map<Serializable, RepositoryFileAcl> batchAcls = new HashMap<Serializable, RepositoryFileAcl>();
+    for ( Map.Entry<Node, RepositoryFile> candidate : candidates.entrySet() ) {
+      RepositoryFileAcl acl = getAcl( candidate.getValue().getId() );
+      if ( acl != null ) {
+        batchAcls.put( candidate.getValue().getId(), withInheritedAces( candidate.getKey(), acl ) );
+        readable.put( candidate.getKey(), candidate.getValue() );
+      }
+    }
+    if ( readable.isEmpty() ) {
+      return readable;
+    }
+
+    Set<RepositoryFile> granted = Collections.newSetFromMap( new IdentityHashMap<RepositoryFile, Boolean>() );
+    granted.addAll( accessVoterManager.hasAccess( new ArrayList<RepositoryFile>( readable.values() ), permission,
+        batchAcls, pentahoSession ) );
+    readable.values().retainAll( granted );
+    return readable;
+  }
+
+  private boolean isVotingRequired() {
+    if ( votingRequired == null ) {
+      votingRequired = accessVoterManager.isVotingRequired( pentahoSession );
+    }
+    return votingRequired;
+  }
+
+  /**
+   * @return the ACL of the node, or null if the caller is not allowed to read it
+   */
+  private RepositoryFileAcl getAcl( final Serializable id ) throws RepositoryException {
+    try {
+      return JcrRepositoryFileAclUtils.getAcl( session, pentahoJcrConstants, id );
+    } catch ( AccessDeniedException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the given ACL with the entries it inherits from the parent folder of the node, or the ACL itself when it
+   *         does not inherit or the inherited entries cannot be read
+   */
+  private RepositoryFileAcl withInheritedAces( final Node node, final RepositoryFileAcl acl )
+    throws RepositoryException {
+    if ( !acl.isEntriesInheriting() || node.getDepth() == 0 ) {
+      return acl;
+    }
+    RepositoryFileAcl inherited = getEffectiveAcl( node.getParent() );
+    if ( inherited == null ) {
+      return acl;
+    }
+    return new RepositoryFileAcl.Builder( acl ).aces( inherited.getAces() ).entriesInheriting( true ).build();
+  }
+
+  /**
+   * @return the effective ACL of the folder, resolved once per folder, or null if the caller cannot read it
+   */
+  private RepositoryFileAcl getEffectiveAcl( final Node folder ) throws RepositoryException {
+    String id = folder.getIdentifier();
+    if ( effectiveAcls.containsKey( id ) ) {
+      return effectiveAcls.get( id );
+    }
+    RepositoryFileAcl acl = getAcl( id );
+    if ( acl != null ) {
+      acl = withInheritedAces( folder, acl );
+    }
+    effectiveAcls.put( id, acl );
+    return acl;
+  }
+}
@@ -284,6 +284,16 @@ public class JcrRepositoryFileAclUtils {
 
   }
 
+  /**
+   * Tells whether {@link #getAcl} would succeed for the given node, without building the ACL. Reading an ACL requires
+   * the {@code jcr:readAccessControl} privilege on the node.
+   */
+  public static boolean canReadAcl( final Session session, final Node node ) throws RepositoryException {
+    AccessControlManager acMgr = session.getAccessControlManager();
+    return acMgr.hasPrivileges( node.getPath(), new Privilege[] {
+      acMgr.privilegeFromName( Privilege.JCR_READ_ACCESS_CONTROL ) } );
+  }
+
   private static AccessControlList getAccessControlList( final AccessControlManager acMgr, final String path )
     throws RepositoryException {
     AccessControlPolicyIterator applicablePolicies = acMgr.getApplicablePolicies( path );
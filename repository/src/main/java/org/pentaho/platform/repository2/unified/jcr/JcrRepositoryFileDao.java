@@ -43,10 +43,12 @@ import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
 import org.pentaho.platform.api.repository2.unified.IRepositoryDefaultAclHandler;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.UnifiedRepositoryException;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
@@ -1059,6 +1061,24 @@ public class JcrRepositoryFileDao implements IRepositoryFileDao {
     } );
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RepositoryFileTreePage walkTree( final RepositoryRequest repositoryRequest,
+                                         final IRepositoryFileTreeVisitor visitor ) {
+    Assert.hasText( repositoryRequest.getPath(), "Repository request path must not be null or empty" );
+    return (RepositoryFileTreePage) jcrTemplate.execute( new JcrCallback() {
+      @Override
+      public Object doInJcr( final Session session ) throws RepositoryException, IOException {
+        PentahoJcrConstants pentahoJcrConstants = new PentahoJcrConstants( session );
+        String absPath = pathConversionHelper.relToAbs( repositoryRequest.getPath() );
+        return JcrRepositoryFileUtils.walkTree( session, pentahoJcrConstants, pathConversionHelper, lockHelper,
+            absPath, repositoryRequest, accessVoterManager, visitor );
+      }
+    } );
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1156,6 +1176,21 @@ public class JcrRepositoryFileDao implements IRepositoryFileDao {
     } );
   }
 
+  @Override
+  @SuppressWarnings( "unchecked" )
+  public List<RepositoryFile> getChildrenByMetadata( final Serializable folderId, final String metadataKey,
+      final String metadataValue, final int offset, final int limit ) {
+    Assert.notNull( folderId, "Folder ID must not be null" );
+    return (List<RepositoryFile>) jcrTemplate.execute( new JcrCallback() {
+      @Override
+      public Object doInJcr( final Session session ) throws RepositoryException, IOException {
+        PentahoJcrConstants pentahoJcrConstants = new PentahoJcrConstants( session );
+        return JcrRepositoryFileUtils.getChildrenByMetadata( session, pentahoJcrConstants, pathConversionHelper,
+            lockHelper, folderId, metadataKey, metadataValue, offset, limit );
+      }
+    } );
+  }
+
   @Override
   public List<Character> getReservedChars() {
     return JcrRepositoryFileUtils.getReservedChars();
@@ -0,0 +1,285 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.repository2.unified.jcr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.jcr.Item;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
+import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
+import org.springframework.util.Assert;
+
+/**
+ * Incremental counterpart of {@link JcrRepositoryFileUtils#getTree}. Applies the same filtering rules but reports
+ * nodes to an {@link IRepositoryFileTreeVisitor} as they are found instead of building a
+ * {@code RepositoryFileTree}, so memory use is bounded by the depth of the tree and the size of a single folder.
+ * <p>
+ * A folder that does not itself satisfy the child node filter is only reported once a descendant that does is
+ * found. To do that without lookahead, the chain of ancestors of the current node is kept as a stack of pending
+ * frames which are flushed to the visitor right before the first reported descendant.
+ * <p>
+ * Siblings are visited in (decoded) name order, which makes a traversal resumable: the page token is the path of the
+ * last reported node, and resuming skips every node that precedes it in pre-order.
+ */
+class JcrRepositoryFileTreeWalker {
+
+  private final Session session;
+  private final PentahoJcrConstants pentahoJcrConstants;
+  private final IPathConversionHelper pathConversionHelper;
+  private final ILockHelper lockHelper;
+  private final JcrRepositoryFileAccessEvaluator accessEvaluator;
+  private final IRepositoryFileTreeVisitor visitor;
+
+  private final String childNodeFilter;
+  private final boolean showHidden;
+  private final boolean includeSystemFolders;
+  private final RepositoryRequest.FILES_TYPE_FILTER types;
+  private final int maxNodes;
+
+  private final List<Frame> frames = new ArrayList<Frame>();
+  private int nodeCount;
+  private String lastPath;
+  private String nextPageToken;
+
+  JcrRepositoryFileTreeWalker( final Session session, final PentahoJcrConstants pentahoJcrConstants,
+                               final IPathConversionHelper pathConversionHelper, final ILockHelper lockHelper,
+                               final RepositoryRequest repositoryRequest,
+                               final IRepositoryAccessVoterManager accessVoterManager,
+                               final IRepositoryFileTreeVisitor visitor ) {
+    this.session = session;
+    this.pentahoJcrConstants = pentahoJcrConstants;
+    this.pathConversionHelper = pathConversionHelper;
+    this.lockHelper = lockHelper;
+    this.accessEvaluator =
+        new JcrRepositoryFileAccessEvaluator( session, pentahoJcrConstants, accessVoterManager,
+            RepositoryFilePermission.READ );
+    this.visitor = visitor;
+    this.childNodeFilter = repositoryRequest.getChildNodeFilter();
+    this.showHidden = repositoryRequest.isShowHidden();
+    this.includeSystemFolders = repositoryRequest.isIncludeSystemFolders();
+    this.types = repositoryRequest.getTypes();
+    this.maxNodes = repositoryRequest.getMaxNodes();
+  }
+
+  RepositoryFileTreePage walk( final String absPath, final int depth, final String pageToken )
+    throws RepositoryException {
+    Item fileItem = session.getItem( JcrStringHelper.pathEncode( absPath ) );
+    // items are nodes or properties; this must be a node
+    Assert.isTrue( fileItem.isNode(), "The specified item must be a node. Ensure the provided path corresponds to a valid node in the repository." );
+    Node rootNode = (Node) fileItem;
+
+    RepositoryFile rootFile =
+        JcrRepositoryFileUtils.nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, rootNode,
+            false, null );
+    if ( !isVisible( rootFile ) || !accessEvaluator.hasAccess( rootNode, rootFile ) ) {
+      return new RepositoryFileTreePage( 0, null );
+    }
+
+    List<String> resume = toResumeSegments( rootFile.getPath(), pageToken );
+    Frame rootFrame = new Frame( rootFile, 0, resume != null );
+    frames.add( rootFrame );
+    boolean more = resume != null || flush();
+    if ( more && depth != 0 ) {
+      walkChildren( rootNode, 1, depth, resume );
+    }
+    pop();
+    return new RepositoryFileTreePage( nodeCount, nextPageToken );
+  }
+
+  /**
+   * @return false if the node budget was exhausted and the traversal must stop
+   */
+  private boolean walkChildren( final Node folderNode, final int level, final int depth, final List<String> resume )
+    throws RepositoryException {
+    Map<String, Candidate> candidates = new TreeMap<String, Candidate>();
+
+    NodeIterator childNodes = folderNode.getNodes( childNodeFilter );
+    while ( childNodes.hasNext() ) {
+      Node childNode = childNodes.nextNode();
+      boolean pentahoFolder = JcrRepositoryFileUtils.isPentahoFolder( pentahoJcrConstants, childNode );
+      if ( !pentahoFolder && types == RepositoryRequest.FILES_TYPE_FILTER.FOLDERS
+          || pentahoFolder && types == RepositoryRequest.FILES_TYPE_FILTER.FILES ) {
+        continue;
+      }
+      // do not include system_folder children that are at root level if includeSystemFolders is false
+      if ( !includeSystemFolders && level == 1 && JcrRepositoryFileUtils.isSystemFolder( session, childNode ) ) {
+        continue;
+      }
+      candidates.put( JcrStringHelper.fileNameDecode( childNode.getName() ), new Candidate( childNode, true ) );
+    }
+
+    // folders that do not satisfy the filter are still traversed; they are reported if a match is found below them
+    if ( childNodeFilter != null && !childNodeFilter.equals( "*" )
+        && JcrRepositoryFileUtils.isPentahoFolder( pentahoJcrConstants, folderNode ) ) {
+      childNodes = folderNode.getNodes();
+      while ( childNodes.hasNext() ) {
+        Node childNode = childNodes.nextNode();
+        if ( JcrRepositoryFileUtils.isPentahoFolder( pentahoJcrConstants, childNode ) ) {
+          String name = JcrStringHelper.fileNameDecode( childNode.getName() );
+          if ( !candidates.containsKey( name ) ) {
+            candidates.put( name, new Candidate( childNode, false ) );
+          }
+        }
+      }
+    }
+
+    // skip what was reported by previous pages, then resolve the readable nodes of the rest of the folder and
+    // let the voters check them in one batch
+    String resumeName = resume != null && !resume.isEmpty() ? resume.get( 0 ) : null;
+    Node resumedNode = null;
+    Map<Node, RepositoryFile> files = new LinkedHashMap<Node, RepositoryFile>();
+    for ( Map.Entry<String, Candidate> entry : candidates.entrySet() ) {
+      Node childNode = entry.getValue().node;
+      if ( resumeName != null ) {
+        int cmp = entry.getKey().compareTo( resumeName );
+        if ( cmp < 0 ) {
+          continue;
+        }
+        if ( cmp == 0 ) {
+          resumedNode = childNode;
+        }
+        resumeName = null;
+      }
+      if ( JcrRepositoryFileUtils.isSupportedNodeType( pentahoJcrConstants, childNode )
+          && accessEvaluator.isReadable( childNode ) ) {
+        RepositoryFile file =
+            JcrRepositoryFileUtils.nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper,
+                childNode );
+        if ( isVisible( file ) ) {
+          files.put( childNode, file );
+        }
+      }
+    }
+    Map<Node, RepositoryFile> readable = accessEvaluator.vote( files );
+
+    for ( Candidate candidate : candidates.values() ) {
+      RepositoryFile file = readable.get( candidate.node );
+      if ( file == null ) {
+        continue;
+      }
+      boolean alreadyReported = candidate.node == resumedNode;
+      List<String> childResume = alreadyReported && resume.size() > 1 ? resume.subList( 1, resume.size() ) : null;
+      if ( !walkChild( candidate, file, level, depth, childResume, alreadyReported ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean walkChild( final Candidate candidate, final RepositoryFile file, final int level, final int depth,
+                             final List<String> resume, final boolean alreadyReported ) throws RepositoryException {
+    Node childNode = candidate.node;
+    boolean folder = JcrRepositoryFileUtils.isPentahoFolder( pentahoJcrConstants, childNode );
+    frames.add( new Frame( file, level, alreadyReported ) );
+    boolean more = true;
+    if ( !alreadyReported && ( !folder || candidate.matched ) ) {
+      more = flush();
+    }
+    if ( more && folder && depth - 1 != 0 ) {
+      more = walkChildren( childNode, level + 1, depth - 1, resume );
+    }
+    pop();
+    return more;
+  }
+
+  /**
+   * Reports every pending frame on the stack, outermost first.
+   *
+   * @return false if the node budget was exhausted before all frames could be reported
+   */
+  private boolean flush() {
+    for ( Frame frame : frames ) {
+      if ( frame.reported ) {
+        continue;
+      }
+      if ( maxNodes > 0 && nodeCount >= maxNodes ) {
+        nextPageToken = lastPath;
+        return false;
+      }
+      visitor.startNode( frame.file, frame.level );
+      frame.reported = true;
+      frame.open = true;
+      nodeCount++;
+      lastPath = frame.file.getPath();
+    }
+    return true;
+  }
+
+  private void pop() {
+    Frame frame = frames.remove( frames.size() - 1 );
+    if ( frame.open ) {
+      visitor.endNode( frame.file, frame.level );
+    }
+  }
+
+  private boolean isVisible( final RepositoryFile file ) {
+    return ( showHidden || !file.isHidden() ) && !file.isAclNode();
+  }
+
+  /**
+   * Splits a page token into the names leading from the root of the traversal to the last reported node.
+   *
+   * @return null if there is nothing to resume; an empty list if only the root has been reported
+   */
+  static List<String> toResumeSegments( final String rootPath, final String pageToken ) {
+    if ( pageToken == null || pageToken.isEmpty() ) {
+      return null;
+    }
+    if ( pageToken.equals( rootPath ) ) {
+      return Collections.emptyList();
+    }
+    String prefix = rootPath.endsWith( RepositoryFile.SEPARATOR ) ? rootPath : rootPath + RepositoryFile.SEPARATOR;
+    Assert.isTrue( pageToken.startsWith( prefix ), "Page token does not belong to the tree rooted at " + rootPath );
+    String relative = pageToken.substring( prefix.length() );
+    return Collections.unmodifiableList( Arrays.asList( relative.split( RepositoryFile.SEPARATOR ) ) );
+  }
+
+  private static class Candidate {
+    private final Node node;
+    private final boolean matched;
+
+    Candidate( final Node node, final boolean matched ) {
+      this.node = node;
+      this.matched = matched;
+    }
+  }
+
+  private static class Frame {
+    private final RepositoryFile file;
+    private final int level;
+    private boolean reported;
+    private boolean open;
+
+    Frame( final RepositoryFile file, final int level, final boolean reported ) {
+      this.file = file;
+      this.level = level;
+      this.reported = reported;
+    }
+  }
+}
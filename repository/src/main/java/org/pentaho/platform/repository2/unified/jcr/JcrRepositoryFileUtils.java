@@ -21,11 +21,13 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.jcr.AccessDeniedException;
@@ -41,6 +43,12 @@ import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.UnsupportedRepositoryOperationException;
 import javax.jcr.lock.Lock;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.qom.Constraint;
+import javax.jcr.query.qom.QueryObjectModelConstants;
+import javax.jcr.query.qom.QueryObjectModelFactory;
+import javax.jcr.query.qom.Selector;
 import javax.jcr.version.Version;
 import javax.jcr.version.VersionHistory;
 import javax.jcr.version.VersionManager;
@@ -56,6 +64,7 @@ import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.locale.IPentahoLocale;
 import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
 import org.pentaho.platform.api.repository2.unified.IRepositoryFileData;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.IRepositoryVersionManager;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
@@ -63,6 +72,7 @@ import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
 import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileSid;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
@@ -1143,6 +1153,19 @@ public class JcrRepositoryFileUtils {
 
   }
 
+  /**
+   * Traverses the tree rooted at <code>absPath</code> and reports each node to the visitor as it is reached, using
+   * the same filtering rules as {@link #getTree}. See {@link JcrRepositoryFileTreeWalker}.
+   */
+  public static RepositoryFileTreePage walkTree( final Session session, final PentahoJcrConstants pentahoJcrConstants,
+      final IPathConversionHelper pathConversionHelper, final ILockHelper lockHelper, final String absPath,
+      final RepositoryRequest repositoryRequest, IRepositoryAccessVoterManager accessVoterManager,
+      final IRepositoryFileTreeVisitor visitor ) throws RepositoryException {
+    return new JcrRepositoryFileTreeWalker( session, pentahoJcrConstants, pathConversionHelper, lockHelper,
+        repositoryRequest, accessVoterManager, visitor ).walk( absPath, repositoryRequest.getDepth(),
+        repositoryRequest.getPageToken() );
+  }
+
   /**
    * Returns a RepositoryFileTree for a given node. This method will be called recursively for each folder it processes.
    * The childNodeFilter is a filter used directly by the JCR jar to filter node names. Since JCR does not know a folder
@@ -1188,13 +1211,32 @@ public class JcrRepositoryFileUtils {
       IRepositoryAccessVoterManager accessVoterManager, RepositoryRequest.FILES_TYPE_FILTER types,
       MutableBoolean foundFiltered, final boolean includeSystemFolders, final String rootPath )
       throws RepositoryException {
+    return getTreeByNode( session, pentahoJcrConstants, pathConversionHelper, lockHelper, fileNode, null, depth,
+        childNodeFilter, showHidden, new JcrRepositoryFileAccessEvaluator( session, pentahoJcrConstants,
+            accessVoterManager, RepositoryFilePermission.READ ), types, foundFiltered, includeSystemFolders,
+        rootPath );
+  }
+
+  /**
+   * @param checkedFile
+   *          the file for <code>fileNode</code> if the caller already verified that it is visible and readable, or
+   *          null to have it resolved and checked here
+   * @param accessEvaluator
+   *          request-scoped access check shared by the whole traversal
+   */
+  private static RepositoryFileTree getTreeByNode( final Session session, final PentahoJcrConstants pentahoJcrConstants,
+      final IPathConversionHelper pathConversionHelper, final ILockHelper lockHelper, final Node fileNode,
+      final RepositoryFile checkedFile, final int depth, final String childNodeFilter, final boolean showHidden,
+      final JcrRepositoryFileAccessEvaluator accessEvaluator, RepositoryRequest.FILES_TYPE_FILTER types,
+      MutableBoolean foundFiltered, final boolean includeSystemFolders, final String rootPath )
+      throws RepositoryException {
 
-    RepositoryFile rootFile =
-        nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, fileNode, false, null );
-    if ( ( !showHidden && rootFile.isHidden() ) || rootFile.isAclNode() || ( !accessVoterManager.hasAccess( rootFile,
-        RepositoryFilePermission.READ, JcrRepositoryFileAclUtils.getAcl( session, pentahoJcrConstants, rootFile
-            .getId() ), PentahoSessionHolder.getSession() ) ) ) {
-      return null;
+    RepositoryFile rootFile = checkedFile;
+    if ( rootFile == null ) {
+      rootFile = nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, fileNode, false, null );
+      if ( !isVisibleInTree( rootFile, showHidden ) || !accessEvaluator.hasAccess( fileNode, rootFile ) ) {
+        return null;
+      }
     }
     List<RepositoryFileTree> children;
     HashSet<Node> childrenFolderSet;
@@ -1237,18 +1279,29 @@ public class JcrRepositoryFileUtils {
         }
       }
 
+      // check access for all the children of this node in one batch; only nodes that pass the node-level check are
+      // turned into files, and hidden and ACL nodes are dropped before the voters see them
+      Map<Node, RepositoryFile> candidates = new LinkedHashMap<Node, RepositoryFile>();
+      addTreeCandidates( candidates, childrenFolderSet, session, pentahoJcrConstants, pathConversionHelper,
+          lockHelper, showHidden, accessEvaluator );
+      addTreeCandidates( candidates, filteredChildrenSet, session, pentahoJcrConstants, pathConversionHelper,
+          lockHelper, showHidden, accessEvaluator );
+      Map<Node, RepositoryFile> readableChildren = accessEvaluator.vote( candidates );
+
       // Now work on the unfiltered set of folders, if any, add them only if file have been found somewhere down the
       // tree
       for ( Node childNode : childrenFolderSet ) {
-        checkNodeForTree( childNode, children, session, pentahoJcrConstants, pathConversionHelper, childNodeFilter,
-            lockHelper, depth, showHidden, accessVoterManager, types, foundFiltered, false, includeSystemFolders, rootPath );
+        addChildTree( childNode, readableChildren.get( childNode ), children, session, pentahoJcrConstants,
+            pathConversionHelper, childNodeFilter, lockHelper, depth, showHidden, accessEvaluator, types,
+            foundFiltered, false, includeSystemFolders, rootPath );
       }
 
       // And finally, add Children in filtered
       for ( Node childNode : filteredChildrenSet ) {
         foundFiltered.setValue( true );
-        checkNodeForTree( childNode, children, session, pentahoJcrConstants, pathConversionHelper, childNodeFilter,
-            lockHelper, depth, showHidden, accessVoterManager, types, foundFiltered, true, includeSystemFolders, rootPath );
+        addChildTree( childNode, readableChildren.get( childNode ), children, session, pentahoJcrConstants,
+            pathConversionHelper, childNodeFilter, lockHelper, depth, showHidden, accessEvaluator, types,
+            foundFiltered, true, includeSystemFolders, rootPath );
       }
 
       children.removeIf( Objects::isNull );
@@ -1259,7 +1312,26 @@ public class JcrRepositoryFileUtils {
     return new RepositoryFileTree( rootFile, children );
   }
 
-  private static boolean isSystemFolder( Session session, Node childNode ) throws RepositoryException {
+  private static boolean isVisibleInTree( final RepositoryFile file, final boolean showHidden ) {
+    return ( showHidden || !file.isHidden() ) && !file.isAclNode();
+  }
+
+  private static void addTreeCandidates( final Map<Node, RepositoryFile> candidates, final Set<Node> childNodes,
+      final Session session, final PentahoJcrConstants pentahoJcrConstants,
+      final IPathConversionHelper pathConversionHelper, final ILockHelper lockHelper, final boolean showHidden,
+      final JcrRepositoryFileAccessEvaluator accessEvaluator ) throws RepositoryException {
+    for ( Node childNode : childNodes ) {
+      if ( !candidates.containsKey( childNode ) && isSupportedNodeType( pentahoJcrConstants, childNode )
+          && accessEvaluator.isReadable( childNode ) ) {
+        RepositoryFile file = nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, childNode );
+        if ( isVisibleInTree( file, showHidden ) ) {
+          candidates.put( childNode, file );
+        }
+      }
+    }
+  }
+
+  static boolean isSystemFolder( Session session, Node childNode ) throws RepositoryException {
     Map<String, Serializable> fileMeta = getFileMetadata( session, ( (NodeImpl) childNode ).getNodeId() );
     boolean isSystemFolder = fileMeta.containsKey( IUnifiedRepository.SYSTEM_FOLDER ) ? (Boolean) fileMeta
         .get( IUnifiedRepository.SYSTEM_FOLDER ) : false;
@@ -1280,25 +1352,56 @@ public class JcrRepositoryFileUtils {
       final IRepositoryAccessVoterManager accessVoterManager, RepositoryRequest.FILES_TYPE_FILTER types,
       MutableBoolean foundFiltered, boolean isRootFiltered, final boolean includeSystemFolders,
       final String rootPath ) throws RepositoryException {
+    checkNodeForTree( childNode, children, session, pentahoJcrConstants, pathConversionHelper, childNodeFilter,
+        lockHelper, depth, showHidden, new JcrRepositoryFileAccessEvaluator( session, pentahoJcrConstants,
+            accessVoterManager, RepositoryFilePermission.READ ), types, foundFiltered, isRootFiltered,
+        includeSystemFolders, rootPath );
+  }
 
+  /**
+   * Same as above, with the access check of the traversal the node belongs to.
+   */
+  static void checkNodeForTree( final Node childNode, List<RepositoryFileTree> children, final Session session,
+      final PentahoJcrConstants pentahoJcrConstants, final IPathConversionHelper pathConversionHelper,
+      final String childNodeFilter, final ILockHelper lockHelper, final int depth, final boolean showHidden,
+      final JcrRepositoryFileAccessEvaluator accessEvaluator, RepositoryRequest.FILES_TYPE_FILTER types,
+      MutableBoolean foundFiltered, boolean isRootFiltered, final boolean includeSystemFolders,
+      final String rootPath ) throws RepositoryException {
+    if ( !isSupportedNodeType( pentahoJcrConstants, childNode ) || !accessEvaluator.isReadable( childNode ) ) {
+      return;
+    }
     RepositoryFile file = nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, childNode );
-    if ( isSupportedNodeType( pentahoJcrConstants, childNode ) ) {
-      RepositoryFileAcl fileAcl;
-      try {
-        fileAcl = JcrRepositoryFileAclUtils.getAcl( session, pentahoJcrConstants, file.getId() );
-      } catch ( AccessDeniedException e ) {
-        return;
-      }
-      if ( accessVoterManager.hasAccess( file, RepositoryFilePermission.READ, fileAcl, PentahoSessionHolder.getSession() ) ) {
-        MutableBoolean foundFilteredAtomic = new MutableBoolean( !isPentahoFolder( pentahoJcrConstants, childNode ) );
-        RepositoryFileTree repositoryFileTree =
-            getTreeByNode( session, pentahoJcrConstants, pathConversionHelper, lockHelper, childNode, depth - 1,
-                childNodeFilter, showHidden, accessVoterManager, types, foundFilteredAtomic, includeSystemFolders, rootPath );
-        if ( repositoryFileTree != null && ( foundFilteredAtomic.booleanValue() || isRootFiltered ) ) {
-          foundFiltered.setValue( true );
-          children.add( repositoryFileTree );
-        }
-      }
+    if ( isVisibleInTree( file, showHidden ) && !accessEvaluator.vote( Collections.singletonMap( childNode, file ) )
+        .isEmpty() ) {
+      addChildTree( childNode, file, children, session, pentahoJcrConstants, pathConversionHelper, childNodeFilter,
+          lockHelper, depth, showHidden, accessEvaluator, types, foundFiltered, isRootFiltered,
+          includeSystemFolders, rootPath );
+    }
+  }
+
+  /**
+   * Adds the subtree of an already checked child node.
+   *
+   * @param file
+   *          the visible, readable file for <code>childNode</code>, or null if the child must be skipped
+   */
+  private static void addChildTree( final Node childNode, final RepositoryFile file,
+      List<RepositoryFileTree> children, final Session session, final PentahoJcrConstants pentahoJcrConstants,
+      final IPathConversionHelper pathConversionHelper, final String childNodeFilter, final ILockHelper lockHelper,
+      final int depth, final boolean showHidden, final JcrRepositoryFileAccessEvaluator accessEvaluator,
+      RepositoryRequest.FILES_TYPE_FILTER types, MutableBoolean foundFiltered, boolean isRootFiltered,
+      final boolean includeSystemFolders, final String rootPath ) throws RepositoryException {
+    if ( file == null ) {
+      return;
+    }
+    MutableBoolean foundFilteredAtomic = new MutableBoolean( !isPentahoFolder( pentahoJcrConstants, childNode ) );
+    RepositoryFileTree repositoryFileTree =
+        getTreeByNode( session, pentahoJcrConstants, pathConversionHelper, lockHelper, childNode, file, depth - 1,
+            childNodeFilter, showHidden, accessEvaluator, types, foundFilteredAtomic, includeSystemFolders,
+            rootPath );
+    if ( repositoryFileTree != null && ( foundFilteredAtomic.booleanValue() || isRootFiltered ) ) {
+      foundFiltered.setValue( true );
+      children.add( repositoryFileTree );
     }
   }
 
@@ -1439,6 +1542,59 @@ public class JcrRepositoryFileUtils {
     return values;
   }
 
+  /**
+   * Finds the files directly under a folder by the value of one of their metadata entries. The metadata nodes are
+   * looked up with a single query instead of reading the metadata of every child of the folder.
+   *
+   * @see org.pentaho.platform.api.repository2.unified.IUnifiedRepository#getChildrenByMetadata
+   */
+  public static List<RepositoryFile> getChildrenByMetadata( final Session session,
+      final PentahoJcrConstants pentahoJcrConstants, final IPathConversionHelper pathConversionHelper,
+      final ILockHelper lockHelper, final Serializable folderId, final String metadataKey,
+      final String metadataValue, final int offset, final int limit ) throws RepositoryException {
+    checkName( metadataKey );
+    Node folderNode = session.getNodeByIdentifier( folderId.toString() );
+    Assert.isTrue( isPentahoFolder( pentahoJcrConstants, folderNode ), "The specified node must be a Pentaho folder. Ensure the node represents a valid folder in the repository." );
+    String prefix = session.getNamespacePrefix( PentahoJcrConstants.PHO_NS );
+    String metadataNodeName = pentahoJcrConstants.getPHO_METADATA();
+
+    QueryObjectModelFactory fac = session.getWorkspace().getQueryManager().getQOMFactory();
+    final String selectorName = "selector"; //$NON-NLS-1$
+    final Selector selector = fac.selector( "nt:base", selectorName ); //$NON-NLS-1$
+    Constraint metadataConstraint =
+        fac.comparison( fac.propertyValue( selectorName, prefix + ":" + metadataKey ), //$NON-NLS-1$
+            QueryObjectModelConstants.JCR_OPERATOR_EQUAL_TO, fac.literal( session.getValueFactory().createValue(
+                metadataValue ) ) );
+    Constraint descendantNodeConstraint = fac.descendantNode( selectorName, folderNode.getPath() );
+    Query query = fac.createQuery( selector, fac.and( descendantNodeConstraint, metadataConstraint ), null, null );
+    QueryResult result =
+        session.getWorkspace().getQueryManager().createQuery( query.getStatement(), Query.JCR_JQOM ).execute();
+
+    List<RepositoryFile> matches = new ArrayList<RepositoryFile>();
+    NodeIterator nodeIter = result.getNodes();
+    while ( nodeIter.hasNext() ) {
+      Node metadataNode = nodeIter.nextNode();
+      if ( !metadataNode.getName().equals( metadataNodeName ) ) {
+        continue;
+      }
+      // only files that are immediate children of the folder
+      Node fileNode = metadataNode.getParent();
+      if ( !fileNode.getParent().isSame( folderNode ) || !isSupportedNodeType( pentahoJcrConstants, fileNode )
+          || isPentahoFolder( pentahoJcrConstants, fileNode ) ) {
+        continue;
+      }
+      RepositoryFile file = nodeToFile( session, pentahoJcrConstants, pathConversionHelper, lockHelper, fileNode );
+      if ( !file.isAclNode() && !file.isHidden() ) {
+        matches.add( file );
+      }
+    }
+
+    Collections.sort( matches );
+    int from = Math.min( Math.max( offset, 0 ), matches.size() );
+    int to = limit < 0 ? matches.size() : (int) Math.min( (long) from + limit, matches.size() );
+    return new ArrayList<RepositoryFile>( matches.subList( from, to ) );
+  }
+
   /**
    * Use override list from PentahoSystem if it exists
    * 
@@ -25,10 +25,12 @@ import jakarta.jws.WebService;
 
 import org.pentaho.platform.api.engine.IAuthorizationPolicy;
 import org.pentaho.platform.api.mimetype.IPlatformMimeResolver;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
 import org.pentaho.platform.api.repository2.unified.IUnifiedRepository;
 import org.pentaho.platform.api.repository2.unified.RepositoryFile;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileAce;
 import org.pentaho.platform.api.repository2.unified.RepositoryFileTree;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
 import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
 import org.pentaho.platform.api.repository2.unified.VersionSummary;
 import org.pentaho.platform.api.repository2.unified.data.node.NodeRepositoryFileData;
@@ -176,6 +178,27 @@ public class DefaultUnifiedRepositoryWebService implements IUnifiedRepositoryWeb
 
   public RepositoryFileTreeDto getTreeFromRequest( final RepositoryRequest repositoryRequest ) {
     // RepositoryFileTree tree = repo.getTree( path, depth, filter, showHidden );
+    restrictSystemFolders( repositoryRequest );
+    RepositoryFileTree tree = repo.getTree( repositoryRequest );
+
+    if ( tree != null ) {
+      return new RepositoryFileTreeAdapter( repositoryRequest ).marshal( tree );
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Streaming variant of {@link #getTreeFromRequest(RepositoryRequest)}: the nodes of the tree are handed to the
+   * visitor as they are read from the repository, one page at a time.
+   */
+  public RepositoryFileTreePage walkTreeFromRequest( final RepositoryRequest repositoryRequest,
+                                                     final IRepositoryFileTreeVisitor visitor ) {
+    restrictSystemFolders( repositoryRequest );
+    return repo.walkTree( repositoryRequest, visitor );
+  }
+
+  private void restrictSystemFolders( final RepositoryRequest repositoryRequest ) {
     IAuthorizationPolicy policy = PentahoSystem.get( IAuthorizationPolicy.class );
     boolean isAdmin = policy.isAllowed( AdministerSecurityAction.NAME );
     // Filter system folders from non-admin users.
@@ -184,13 +207,6 @@ public class DefaultUnifiedRepositoryWebService implements IUnifiedRepositoryWeb
       repositoryRequest.setIncludeSystemFolders( false ); //Non Admin users can never get system folders
       getLogger().warn( "User does not have administrator privileges; setting includeSystemFolders to false." );
     }
-    RepositoryFileTree tree = repo.getTree( repositoryRequest );
-
-    if ( tree != null ) {
-      return new RepositoryFileTreeAdapter( repositoryRequest ).marshal( tree );
-    } else {
-      return null;
-    }
   }
 
   protected List<RepositoryFileDto> marshalFiles( List<RepositoryFile> files ) {
@@ -22,6 +22,7 @@ import org.pentaho.platform.api.engine.security.authorization.resources.IResourc
 import org.pentaho.platform.engine.security.authorization.core.rules.AbstractAuthorizationRule;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -77,7 +78,7 @@ public abstract class AbstractActionRoleBindingAuthorizationRule
     Set<IAuthorizationRole> rolesWithBinding = new LinkedHashSet<>();
 
     for ( IAuthorizationRole role : request.getAllRoles() ) {
-      if ( hasRoleActionBinding( role, actionName ) ) {
+      if ( hasRoleActionBinding( role, actionName, context ) ) {
         rolesWithBinding.add( role );
 
         if ( decisionReportingMode == AuthorizationDecisionReportingMode.SETTLED ) {
@@ -91,5 +92,24 @@ public abstract class AbstractActionRoleBindingAuthorizationRule
     return Optional.of( new ActionRoleBindingAuthorizationDecision( request, rolesWithBinding ) );
   }
 
+  /**
+   * Determines if a given role is bound to a given action, in the scope of an authorization context.
+   * <p>
+   * The default implementation shares the result of {@link #hasRoleActionBinding(IAuthorizationRole, String)} among
+   * the requests evaluated in the context, such as those of a batch authorization.
+   *
+   * @param role       The role.
+   * @param actionName The name of the action.
+   * @param context    The authorization context.
+   * @return {@code true}, if the role is bound to the action; {@code false}, otherwise.
+   */
+  protected boolean hasRoleActionBinding( @NonNull IAuthorizationRole role,
+                                          @NonNull String actionName,
+                                          @NonNull IAuthorizationContext context ) {
+    return context.getOrCompute(
+      List.of( this, role.getName(), actionName ),
+      () -> hasRoleActionBinding( role, actionName ) );
+  }
+
   protected abstract boolean hasRoleActionBinding( @NonNull IAuthorizationRole role, @NonNull String actionName );
 }
@@ -13,10 +13,13 @@
 package org.pentaho.platform.security.policy.rolebased;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.engine.security.authorization.IAuthorizationContext;
 import org.pentaho.platform.api.engine.security.authorization.IAuthorizationRole;
 import org.springframework.util.Assert;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /***
  * An implementation of the {@link AbstractActionRoleBindingAuthorizationRule} that retrieves role bindings from a
@@ -34,6 +37,21 @@ public class ActionRoleBindingAuthorizationRule extends AbstractActionRoleBindin
     this.roleBindingDao = roleBindingDao;
   }
 
+  /**
+   * Determines if a given role is bound to a given action, loading the bound action names of the role only once per
+   * authorization context.
+   */
+  @Override
+  protected boolean hasRoleActionBinding( @NonNull IAuthorizationRole role,
+                                          @NonNull String actionName,
+                                          @NonNull IAuthorizationContext context ) {
+    Set<String> boundActionNames = context.getOrCompute(
+      List.of( this, role.getName() ),
+      () -> new HashSet<>( roleBindingDao.getBoundLogicalRoleNames( List.of( role.getName() ) ) ) );
+
+    return boundActionNames.contains( actionName );
+  }
+
   @Override
   protected boolean hasRoleActionBinding( @NonNull IAuthorizationRole role, @NonNull String actionName ) {
     return roleBindingDao.getBoundLogicalRoleNames( List.of( role.getName() ) ).contains( actionName );
@@ -20,6 +20,7 @@ import org.pentaho.platform.api.mt.ITenant;
 import org.pentaho.platform.api.mt.ITenantedPrincipleNameResolver;
 import org.pentaho.platform.engine.core.system.TenantUtils;
 import org.pentaho.platform.engine.security.authorization.core.AuthorizationRole;
+import org.pentaho.platform.engine.security.authorization.core.caching.AuthorizationDecisionCacheTag;
 import org.pentaho.platform.repository2.unified.jcr.JcrTenantUtils;
 import org.springframework.extensions.jcr.JcrCallback;
 import org.springframework.extensions.jcr.JcrTemplate;
@@ -171,9 +172,7 @@ public class JcrRoleAuthorizationPolicyRoleBindingDao extends AbstractJcrBackedR
       // invalidating more requests than strictly necessary.
       var role = new AuthorizationRole( runtimeRoleName );
 
-      decisionCache.invalidateAll( key ->
-        key.getRequest().getAllRoles().contains( role )
-      );
+      decisionCache.invalidateAll( AuthorizationDecisionCacheTag.forRole( role ) );
     }
   }
 
@@ -45,6 +45,7 @@ import org.pentaho.platform.api.repository2.unified.RepositoryFileSid.Type;
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.engine.core.system.TenantUtils;
+import org.pentaho.platform.engine.security.authorization.core.caching.AuthorizationDecisionCacheTag;
 import org.pentaho.platform.repository2.unified.IRepositoryFileAclDao;
 import org.pentaho.platform.repository2.unified.IRepositoryFileDao;
 import org.pentaho.platform.repository2.unified.ServerRepositoryPaths;
@@ -267,13 +268,7 @@ public abstract class AbstractJcrBackedUserRoleDao implements IUserRoleDao {
 
   private void invalidateDecisionCacheForUser( String userName ) {
     if ( decisionCache != null ) {
-      decisionCache.invalidateAll( key ->
-        key
-          .getRequest()
-          .getPrincipalAsUser()
-          .map( user -> user.getName().equals( userName ) )
-          .orElse( false )
-      );
+      decisionCache.invalidateAll( AuthorizationDecisionCacheTag.forUser( userName ) );
     }
   }
 
@@ -0,0 +1,130 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.repository2.unified;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.platform.api.engine.IAuthorizationPolicy;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoter;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
+import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
+import org.pentaho.platform.security.policy.rolebased.actions.AdministerSecurityAction;
+
+public class RepositoryAccessVoterManagerTest {
+
+  private static final String REPOSITORY_ADMIN = "pentahoRepoAdmin";
+
+  private IAuthorizationPolicy authorizationPolicy;
+  private IPentahoSession session;
+  private IRepositoryAccessVoter voter;
+
+  private RepositoryFile allowed;
+  private RepositoryFile denied;
+  private RepositoryFile noAcl;
+  private Map<Serializable, RepositoryFileAcl> acls;
+
+  @Before
+  public void setUp() {
+    authorizationPolicy = mock( IAuthorizationPolicy.class );
+    session = mock( IPentahoSession.class );
+    when( session.getName() ).thenReturn( "suzy" );
+    voter = mock( IRepositoryAccessVoter.class );
+
+    allowed = new RepositoryFile.Builder( "allowed", "allowed.prpt" ).build();
+    denied = new RepositoryFile.Builder( "denied", "denied.prpt" ).build();
+    noAcl = new RepositoryFile.Builder( "noAcl", "noAcl.prpt" ).build();
+    acls = new HashMap<Serializable, RepositoryFileAcl>();
+    acls.put( allowed.getId(), mock( RepositoryFileAcl.class ) );
+    acls.put( denied.getId(), mock( RepositoryFileAcl.class ) );
+
+    when( voter.hasAccess( eq( allowed ), any(), any(), any() ) ).thenReturn( true );
+    when( voter.hasAccess( eq( denied ), any(), any(), any() ) ).thenReturn( false );
+  }
+
+  @Test
+  public void testVotingNotRequiredWithoutVoters() {
+    assertFalse( new RepositoryAccessVoterManager( authorizationPolicy, REPOSITORY_ADMIN )
+        .isVotingRequired( session ) );
+    assertFalse( new RepositoryAccessVoterManager( Collections.<IRepositoryAccessVoter>emptyList(),
+        authorizationPolicy, REPOSITORY_ADMIN ).isVotingRequired( session ) );
+  }
+
+  @Test
+  public void testVotingNotRequiredForAdministrators() {
+    when( authorizationPolicy.isAllowed( AdministerSecurityAction.NAME ) ).thenReturn( true );
+    assertFalse( newManager().isVotingRequired( session ) );
+
+    when( authorizationPolicy.isAllowed( AdministerSecurityAction.NAME ) ).thenReturn( false );
+    when( session.getName() ).thenReturn( REPOSITORY_ADMIN );
+    assertFalse( newManager().isVotingRequired( session ) );
+  }
+
+  @Test
+  public void testVotingRequired() {
+    assertTrue( newManager().isVotingRequired( session ) );
+  }
+
+  @Test
+  public void testBatchHasAccess() {
+    List<RepositoryFile> granted = newManager().hasAccess( Arrays.asList( allowed, denied, noAcl ),
+        RepositoryFilePermission.READ, acls, session );
+
+    assertEquals( Collections.singletonList( allowed ), granted );
+    verify( voter, never() ).hasAccess( eq( noAcl ), any(), any(), any() );
+    verify( authorizationPolicy, times( 1 ) ).isAllowed( AdministerSecurityAction.NAME );
+  }
+
+  @Test
+  public void testBatchHasAccessWithoutVoting() {
+    when( authorizationPolicy.isAllowed( AdministerSecurityAction.NAME ) ).thenReturn( true );
+
+    List<RepositoryFile> granted = newManager().hasAccess( Arrays.asList( allowed, denied, noAcl ),
+        RepositoryFilePermission.READ, acls, session );
+
+    assertEquals( Arrays.asList( allowed, denied ), granted );
+    verify( voter, never() ).hasAccess( any(), any(), any(), any() );
+  }
+
+  @Test
+  public void testSingleHasAccessMatchesBatch() {
+    RepositoryAccessVoterManager manager = newManager();
+    assertTrue( manager.hasAccess( allowed, RepositoryFilePermission.READ, acls.get( allowed.getId() ), session ) );
+    assertFalse( manager.hasAccess( denied, RepositoryFilePermission.READ, acls.get( denied.getId() ), session ) );
+  }
+
+  private RepositoryAccessVoterManager newManager() {
+    return new RepositoryAccessVoterManager( Collections.singletonList( voter ), authorizationPolicy,
+        REPOSITORY_ADMIN );
+  }
+}
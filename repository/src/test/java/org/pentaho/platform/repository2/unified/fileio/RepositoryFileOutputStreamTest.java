@@ -24,13 +24,26 @@ import org.pentaho.platform.api.repository2.unified.data.node.NodeRepositoryFile
 import org.pentaho.platform.api.repository2.unified.data.simple.SimpleRepositoryFileData;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -114,4 +127,72 @@ public class RepositoryFileOutputStreamTest {
     verify( streamListener, times( 1 ) ).streamComplete();
     verify( streamListener, times( 0 ) ).fileCreated( any() );
   }
+
+  @Test
+  public void testSpillToTemporaryFile() throws IOException {
+    IUnifiedRepository repository = mock( IUnifiedRepository.class );
+    RepositoryFile parent = new RepositoryFile.Builder( "parentId", "public" ).folder( true ).build();
+    when( repository.getFile( "/public" ) ).thenReturn( parent );
+    AtomicReference<byte[]> stored = new AtomicReference<>();
+    doAnswer( invocation -> {
+      SimpleRepositoryFileData data = invocation.getArgument( 2 );
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      data.getInputStream().transferTo( content );
+      stored.set( content.toByteArray() );
+      return null;
+    } ).when( repository ).createFile( any(), any(), any(), any() );
+
+    RepositoryFileOutputStream outputStream = new RepositoryFileOutputStream( "/public/report.bin", false, false,
+      repository, false );
+    outputStream.setSpillThreshold( 8 );
+    byte[] expected = "content larger than the spill threshold".getBytes( StandardCharsets.UTF_8 );
+    outputStream.write( expected, 0, 4 );
+    assertFalse( outputStream.isSpilled() );
+    outputStream.write( expected, 4, expected.length - 4 );
+    assertTrue( outputStream.isSpilled() );
+    assertEquals( expected.length, outputStream.size() );
+    assertArrayEquals( expected, outputStream.toByteArray() );
+
+    outputStream.close();
+    assertArrayEquals( expected, stored.get() );
+    assertFalse( outputStream.isSpilled() );
+    assertEquals( 0, outputStream.size() );
+  }
+
+  @Test
+  public void testSpillFileIsPrivateAndDeletedWhenStoreFails() throws IOException {
+    IUnifiedRepository repository = mock( IUnifiedRepository.class );
+    when( repository.getFile( anyString() ) ).thenThrow( new IllegalStateException( "repository unavailable" ) );
+    RepositoryFileOutputStream outputStream = new RepositoryFileOutputStream( "/public/report.bin", false, false,
+      repository, false );
+    outputStream.setSpillThreshold( 8 );
+    outputStream.write( new byte[ 64 ] );
+    File spillFile = outputStream.getSpillFile();
+    assertTrue( spillFile.exists() );
+    if ( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) ) {
+      assertEquals( EnumSet.of( PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE ),
+        Files.getPosixFilePermissions( spillFile.toPath() ) );
+    }
+
+    try {
+      outputStream.close();
+      fail();
+    } catch ( IllegalStateException e ) {
+      // expected
+    }
+    assertFalse( spillFile.exists() );
+  }
+
+  @Test
+  public void testNoSpillBelowThreshold() throws IOException {
+    RepositoryFileOutputStream outputStream = new RepositoryFileOutputStream( "/public/report.bin", false, false,
+      mock( IUnifiedRepository.class ), false );
+    outputStream.setSpillThreshold( 8 );
+    outputStream.write( new byte[ 8 ] );
+    assertFalse( outputStream.isSpilled() );
+    outputStream.setSpillThreshold( -1 );
+    outputStream.write( new byte[ 64 ] );
+    assertFalse( outputStream.isSpilled() );
+    assertEquals( 72, outputStream.size() );
+  }
 }
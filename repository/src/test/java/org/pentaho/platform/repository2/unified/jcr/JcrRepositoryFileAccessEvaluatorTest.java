@@ -0,0 +1,187 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.repository2.unified.jcr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jcr.AccessDeniedException;
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileAcl;
+import org.pentaho.platform.api.repository2.unified.RepositoryFilePermission;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileSid;
+
+public class JcrRepositoryFileAccessEvaluatorTest {
+
+  private Session session;
+  private IRepositoryAccessVoterManager accessVoterManager;
+  private MockedStatic<JcrRepositoryFileAclUtils> aclUtils;
+  private JcrRepositoryFileAccessEvaluator evaluator;
+
+  @Before
+  public void setUp() throws Exception {
+    session = mock( Session.class );
+    accessVoterManager = mock( IRepositoryAccessVoterManager.class );
+    when( accessVoterManager.hasAccess( anyList(), any( RepositoryFilePermission.class ), anyMap(),
+      nullable( IPentahoSession.class ) ) ).thenCallRealMethod();
+    aclUtils = mockStatic( JcrRepositoryFileAclUtils.class );
+    evaluator = new JcrRepositoryFileAccessEvaluator( session, null, accessVoterManager,
+      RepositoryFilePermission.READ );
+  }
+
+  @After
+  public void tearDown() {
+    aclUtils.close();
+  }
+
+  @Test
+  public void testReadableAclGrantsWithoutVoting() throws Exception {
+    Node node = mock( Node.class );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.canReadAcl( session, node ) ).thenReturn( true );
+
+    assertTrue( evaluator.hasAccess( node, file( "a" ) ) );
+    aclUtils.verify( () -> JcrRepositoryFileAclUtils.getAcl( any( Session.class ),
+      nullable( PentahoJcrConstants.class ), any( Serializable.class ) ), never() );
+  }
+
+  @Test
+  public void testUnreadableAclDeniesWithoutVoting() throws Exception {
+    Node node = mock( Node.class );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.canReadAcl( session, node ) ).thenReturn( false );
+
+    assertFalse( evaluator.hasAccess( node, file( "a" ) ) );
+  }
+
+  @Test
+  public void testUnreadableAclDeniesWithVoting() throws Exception {
+    when( accessVoterManager.isVotingRequired( nullable( IPentahoSession.class ) ) ).thenReturn( true );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "a" ) )
+      .thenThrow( new AccessDeniedException() );
+
+    assertFalse( evaluator.hasAccess( mock( Node.class ), file( "a" ) ) );
+    verify( accessVoterManager, never() ).hasAccess( any( RepositoryFile.class ),
+      any( RepositoryFilePermission.class ), any( RepositoryFileAcl.class ), nullable( IPentahoSession.class ) );
+  }
+
+  @Test
+  public void testVotersDecideWhenVotingIsRequired() throws Exception {
+    when( accessVoterManager.isVotingRequired( nullable( IPentahoSession.class ) ) ).thenReturn( true );
+    RepositoryFile granted = file( "granted" );
+    RepositoryFile denied = file( "denied" );
+    RepositoryFileAcl grantedAcl = acl( "granted", false );
+    RepositoryFileAcl deniedAcl = acl( "denied", false );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "granted" ) ).thenReturn( grantedAcl );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "denied" ) ).thenReturn( deniedAcl );
+    when( accessVoterManager.hasAccess( eq( granted ), eq( RepositoryFilePermission.READ ), eq( grantedAcl ),
+      nullable( IPentahoSession.class ) ) ).thenReturn( true );
+    when( accessVoterManager.hasAccess( eq( denied ), eq( RepositoryFilePermission.READ ), eq( deniedAcl ),
+      nullable( IPentahoSession.class ) ) ).thenReturn( false );
+
+    Node grantedNode = mock( Node.class );
+    Node deniedNode = mock( Node.class );
+    Map<Node, RepositoryFile> candidates = new LinkedHashMap<Node, RepositoryFile>();
+    candidates.put( deniedNode, denied );
+    candidates.put( grantedNode, granted );
+
+    Map<Node, RepositoryFile> readable = evaluator.filter( candidates );
+    assertEquals( 1, readable.size() );
+    assertEquals( granted, readable.get( grantedNode ) );
+  }
+
+  @Test
+  public void testInheritedAclIsPassedToVoters() throws Exception {
+    when( accessVoterManager.isVotingRequired( nullable( IPentahoSession.class ) ) ).thenReturn( true );
+    RepositoryFile child = file( "child" );
+    RepositoryFileAcl inherited = acl( "child", true );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "child" ) ).thenReturn( inherited );
+    when( accessVoterManager.hasAccess( eq( child ), eq( RepositoryFilePermission.READ ), eq( inherited ),
+      nullable( IPentahoSession.class ) ) ).thenReturn( true );
+
+    assertTrue( evaluator.hasAccess( mock( Node.class ), child ) );
+    verify( accessVoterManager ).hasAccess( eq( Arrays.asList( child ) ), eq( RepositoryFilePermission.READ ),
+      eq( Collections.<Serializable, RepositoryFileAcl>singletonMap( "child", inherited ) ),
+      nullable( IPentahoSession.class ) );
+  }
+
+  @Test
+  public void testNodesAreNotPreFilteredWhenVoting() throws Exception {
+    when( accessVoterManager.isVotingRequired( nullable( IPentahoSession.class ) ) ).thenReturn( true );
+
+    assertTrue( evaluator.isReadable( mock( Node.class ) ) );
+    aclUtils.verify( () -> JcrRepositoryFileAclUtils.canReadAcl( any( Session.class ), any( Node.class ) ), never() );
+  }
+
+  @Test
+  public void testInheritedAcesAreResolvedOncePerFolder() throws Exception {
+    when( accessVoterManager.isVotingRequired( nullable( IPentahoSession.class ) ) ).thenReturn( true );
+    Node folder = mock( Node.class );
+    when( folder.getIdentifier() ).thenReturn( "folder" );
+    RepositoryFileAcl folderAcl = new RepositoryFileAcl.Builder( "folder", new RepositoryFileSid( "admin" ) )
+      .ace( new RepositoryFileSid( "suzy" ), RepositoryFilePermission.READ ).build();
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "folder" ) ).thenReturn( folderAcl );
+
+    Map<Node, RepositoryFile> candidates = new LinkedHashMap<Node, RepositoryFile>();
+    for ( String id : Arrays.asList( "a", "b" ) ) {
+      Node node = mock( Node.class );
+      when( node.getDepth() ).thenReturn( 2 );
+      when( node.getParent() ).thenReturn( folder );
+      aclUtils.when( () -> JcrRepositoryFileAclUtils.getAcl( session, null, id ) ).thenReturn( acl( id, true ) );
+      candidates.put( node, file( id ) );
+    }
+    when( accessVoterManager.hasAccess( any( RepositoryFile.class ), eq( RepositoryFilePermission.READ ),
+      any( RepositoryFileAcl.class ), nullable( IPentahoSession.class ) ) ).thenAnswer( invocation -> {
+        RepositoryFileAcl acl = invocation.getArgument( 2 );
+        return acl.isEntriesInheriting() && acl.getAces().equals( folderAcl.getAces() );
+      } );
+
+    assertEquals( 2, evaluator.vote( candidates ).size() );
+    aclUtils.verify( () -> JcrRepositoryFileAclUtils.getAcl( session, null, "folder" ), times( 1 ) );
+  }
+
+  private static RepositoryFile file( final String id ) {
+    return new RepositoryFile.Builder( id, id ).path( "/public/" + id ).build();
+  }
+
+  private static RepositoryFileAcl acl( final String id, final boolean inheriting ) {
+    return new RepositoryFileAcl.Builder( id, new RepositoryFileSid( "admin" ) ).entriesInheriting( inheriting )
+      .build();
+  }
+}
@@ -0,0 +1,225 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.repository2.unified.jcr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.commons.iterator.NodeIteratorAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.pentaho.platform.api.locale.IPentahoLocale;
+import org.pentaho.platform.api.repository2.unified.IRepositoryAccessVoterManager;
+import org.pentaho.platform.api.repository2.unified.IRepositoryFileTreeVisitor;
+import org.pentaho.platform.api.repository2.unified.RepositoryFile;
+import org.pentaho.platform.api.repository2.unified.RepositoryFileTreePage;
+import org.pentaho.platform.api.repository2.unified.RepositoryRequest;
+
+public class JcrRepositoryFileTreeWalkerTest {
+
+  private Session session;
+  private IRepositoryAccessVoterManager accessVoterManager;
+  private final Map<Node, RepositoryFile> files = new HashMap<Node, RepositoryFile>();
+  private MockedStatic<JcrRepositoryFileUtils> fileUtils;
+  private MockedStatic<JcrRepositoryFileAclUtils> aclUtils;
+
+  @Before
+  public void setUp() throws Exception {
+    session = mock( Session.class );
+    accessVoterManager = mock( IRepositoryAccessVoterManager.class );
+
+    // children are deliberately listed out of name order
+    Node root = folder( "/public",
+      folder( "/public/c", file( "/public/c/c1.xanalyzer", false ) ),
+      file( "/public/a.prpt", false ),
+      file( "/public/hidden.prpt", true ),
+      folder( "/public/b", file( "/public/b/b2.prpt", false ), file( "/public/b/b1.prpt", false ) ) );
+    when( session.getItem( "/public" ) ).thenReturn( root );
+
+    fileUtils = mockStatic( JcrRepositoryFileUtils.class );
+    fileUtils.when( () -> JcrRepositoryFileUtils.nodeToFile( any( Session.class ), nullable( PentahoJcrConstants.class ),
+      nullable( IPathConversionHelper.class ), nullable( ILockHelper.class ), any( Node.class ), anyBoolean(),
+      nullable( IPentahoLocale.class ) ) ).thenAnswer( invocation -> files.get( invocation.getArgument( 4 ) ) );
+    fileUtils.when( () -> JcrRepositoryFileUtils.nodeToFile( any( Session.class ), nullable( PentahoJcrConstants.class ),
+      nullable( IPathConversionHelper.class ), nullable( ILockHelper.class ), any( Node.class ) ) )
+      .thenAnswer( invocation -> files.get( invocation.getArgument( 4 ) ) );
+    fileUtils.when( () -> JcrRepositoryFileUtils.isPentahoFolder( nullable( PentahoJcrConstants.class ),
+      any( Node.class ) ) ).thenAnswer( invocation -> files.get( invocation.getArgument( 1 ) ).isFolder() );
+    fileUtils.when( () -> JcrRepositoryFileUtils.isSupportedNodeType( nullable( PentahoJcrConstants.class ),
+      any( Node.class ) ) ).thenReturn( true );
+
+    aclUtils = mockStatic( JcrRepositoryFileAclUtils.class );
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.canReadAcl( any( Session.class ), any( Node.class ) ) )
+      .thenReturn( true );
+  }
+
+  @After
+  public void tearDown() {
+    fileUtils.close();
+    aclUtils.close();
+  }
+
+  @Test
+  public void testWalkVisitsInNameOrderAndSkipsHidden() throws Exception {
+    RecordingVisitor visitor = new RecordingVisitor();
+    RepositoryFileTreePage page = walk( new RepositoryRequest(), visitor, null );
+
+    assertEquals( Arrays.asList( "0:/public", "1:/public/a.prpt", "1:/public/b", "2:/public/b/b1.prpt",
+      "2:/public/b/b2.prpt", "1:/public/c", "2:/public/c/c1.xanalyzer" ), visitor.started );
+    assertEquals( 7, page.getNodeCount() );
+    assertTrue( page.isComplete() );
+    assertEquals( 0, visitor.open );
+  }
+
+  @Test
+  public void testWalkReportsFoldersOnlyAboveMatches() throws Exception {
+    RepositoryRequest request = new RepositoryRequest();
+    request.setChildNodeFilter( "*.prpt" );
+    RecordingVisitor visitor = new RecordingVisitor();
+    walk( request, visitor, null );
+
+    assertEquals( Arrays.asList( "0:/public", "1:/public/a.prpt", "1:/public/b", "2:/public/b/b1.prpt",
+      "2:/public/b/b2.prpt" ), visitor.started );
+    assertEquals( 0, visitor.open );
+  }
+
+  @Test
+  public void testWalkStopsAtBudgetAndResumes() throws Exception {
+    RepositoryRequest request = new RepositoryRequest();
+    request.setMaxNodes( 3 );
+
+    RecordingVisitor first = new RecordingVisitor();
+    RepositoryFileTreePage page = walk( request, first, null );
+    assertEquals( Arrays.asList( "0:/public", "1:/public/a.prpt", "1:/public/b" ), first.started );
+    assertEquals( "/public/b", page.getNextPageToken() );
+    assertEquals( 0, first.open );
+
+    RecordingVisitor second = new RecordingVisitor();
+    page = walk( request, second, page.getNextPageToken() );
+    assertEquals( Arrays.asList( "2:/public/b/b1.prpt", "2:/public/b/b2.prpt", "1:/public/c" ), second.started );
+    assertEquals( "/public/c", page.getNextPageToken() );
+    assertEquals( 0, second.open );
+
+    RecordingVisitor third = new RecordingVisitor();
+    page = walk( request, third, page.getNextPageToken() );
+    assertEquals( Arrays.asList( "2:/public/c/c1.xanalyzer" ), third.started );
+    assertEquals( 1, page.getNodeCount() );
+    assertNull( page.getNextPageToken() );
+  }
+
+  @Test
+  public void testWalkSkipsUnreadableChildren() throws Exception {
+    aclUtils.when( () -> JcrRepositoryFileAclUtils.canReadAcl( any( Session.class ), any( Node.class ) ) )
+      .thenAnswer( invocation -> !files.get( invocation.getArgument( 1 ) ).getPath().startsWith( "/public/b" ) );
+    RecordingVisitor visitor = new RecordingVisitor();
+    walk( new RepositoryRequest(), visitor, null );
+
+    assertEquals( Arrays.asList( "0:/public", "1:/public/a.prpt", "1:/public/c", "2:/public/c/c1.xanalyzer" ),
+      visitor.started );
+  }
+
+  private RepositoryFileTreePage walk( final RepositoryRequest request, final IRepositoryFileTreeVisitor visitor,
+                                       final String pageToken ) throws Exception {
+    return new JcrRepositoryFileTreeWalker( session, null, null, null, request, accessVoterManager, visitor )
+      .walk( "/public", -1, pageToken );
+  }
+
+  private Node file( final String path, final boolean hidden ) {
+    Node node = mock( Node.class );
+    files.put( node, new RepositoryFile.Builder( path, path.substring( path.lastIndexOf( '/' ) + 1 ) ).path( path )
+      .hidden( hidden ).build() );
+    return node;
+  }
+
+  private Node folder( final String path, final Node... children ) throws Exception {
+    final Node node = mock( Node.class );
+    files.put( node, new RepositoryFile.Builder( path, path.substring( path.lastIndexOf( '/' ) + 1 ) ).path( path )
+      .folder( true ).build() );
+    when( node.isNode() ).thenReturn( true );
+    when( node.getNodes() ).thenAnswer( invocation -> new NodeIteratorAdapter( Arrays.asList( children ) ) );
+    when( node.getNodes( nullable( String.class ) ) ).thenAnswer( invocation -> {
+      String filter = invocation.getArgument( 0 );
+      List<Node> matches = new ArrayList<Node>();
+      for ( Node child : children ) {
+        if ( filter == null || files.get( child ).getName().matches( filter.replace( ".", "\\." )
+          .replace( "*", ".*" ) ) ) {
+          matches.add( child );
+        }
+      }
+      return new NodeIteratorAdapter( matches );
+    } );
+    for ( Node child : children ) {
+      when( child.getName() ).thenAnswer( invocation -> files.get( child ).getName() );
+    }
+    return node;
+  }
+
+  private static class RecordingVisitor implements IRepositoryFileTreeVisitor {
+    private final List<String> started = new ArrayList<String>();
+    private int open;
+
+    @Override
+    public void startNode( final RepositoryFile file, final int level ) {
+      started.add( level + ":" + file.getPath() );
+      open++;
+    }
+
+    @Override
+    public void endNode( final RepositoryFile file, final int level ) {
+      open--;
+    }
+  }
+
+  @Test
+  public void testNoPageToken() {
+    assertNull( JcrRepositoryFileTreeWalker.toResumeSegments( "/public", null ) );
+    assertNull( JcrRepositoryFileTreeWalker.toResumeSegments( "/public", "" ) );
+  }
+
+  @Test
+  public void testPageTokenAtRoot() {
+    assertTrue( JcrRepositoryFileTreeWalker.toResumeSegments( "/public", "/public" ).isEmpty() );
+    assertTrue( JcrRepositoryFileTreeWalker.toResumeSegments( "/", "/" ).isEmpty() );
+  }
+
+  @Test
+  public void testPageTokenBelowRoot() {
+    assertEquals( Arrays.asList( "Steel Wheels", "Reports", "a.prpt" ),
+      JcrRepositoryFileTreeWalker.toResumeSegments( "/public", "/public/Steel Wheels/Reports/a.prpt" ) );
+    assertEquals( Arrays.asList( "public", "a" ), JcrRepositoryFileTreeWalker.toResumeSegments( "/", "/public/a" ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testPageTokenFromAnotherTree() {
+    JcrRepositoryFileTreeWalker.toResumeSegments( "/public", "/home/admin" );
+  }
+}
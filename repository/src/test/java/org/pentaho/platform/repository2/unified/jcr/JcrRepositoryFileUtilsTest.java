@@ -13,10 +13,12 @@
 
 package org.pentaho.platform.repository2.unified.jcr;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -24,21 +26,35 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.jcr.AccessDeniedException;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.UnsupportedRepositoryOperationException;
+import javax.jcr.ValueFactory;
 import javax.jcr.Workspace;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.qom.Column;
+import javax.jcr.query.qom.Constraint;
+import javax.jcr.query.qom.Ordering;
+import javax.jcr.query.qom.QueryObjectModel;
+import javax.jcr.query.qom.QueryObjectModelFactory;
+import javax.jcr.query.qom.Source;
 import javax.jcr.version.Version;
 import javax.jcr.version.VersionHistory;
 import javax.jcr.version.VersionManager;
 
 import org.apache.commons.lang.mutable.MutableBoolean;
+import org.apache.jackrabbit.commons.iterator.NodeIteratorAdapter;
 import org.apache.jackrabbit.core.VersionManagerImpl;
 import org.junit.Before;
 import org.junit.Rule;
@@ -293,4 +309,74 @@ public class JcrRepositoryFileUtilsTest {
       }
     }
   }
+
+  @Test
+  public void testGetChildrenByMetadataKeepsVisibleFilesDirectlyUnderFolder() throws Exception {
+    Node folderNode = mock( Node.class );
+    when( sessionMock.getNodeByIdentifier( "folderId" ) ).thenReturn( folderNode );
+    when( folderNode.getPath() ).thenReturn( "/home/admin" );
+    when( folderNode.isSame( folderNode ) ).thenReturn( true );
+    when( sessionMock.getNamespacePrefix( PentahoJcrConstants.PHO_NS ) ).thenReturn( "pho" );
+    when( sessionMock.getValueFactory() ).thenReturn( mock( ValueFactory.class ) );
+    when( pJcrConstMock.getPHO_METADATA() ).thenReturn( "pho:metadata" );
+
+    final Map<Node, RepositoryFile> files = new HashMap<>();
+    Node fileB = fileNode( files, folderNode, "b.prpt", false );
+    Node fileA = fileNode( files, folderNode, "a.prpt", false );
+    Node hiddenFile = fileNode( files, folderNode, "hidden.prpt", true );
+    Node nestedFile = fileNode( files, mock( Node.class ), "nested.prpt", false );
+    Node subfolder = fileNode( files, folderNode, "subfolder", false );
+    Node otherNode = mock( Node.class );
+    when( otherNode.getName() ).thenReturn( "pho:locales" );
+    final List<Node> hits = Arrays.asList( metadataNode( fileB ), otherNode, metadataNode( nestedFile ),
+      metadataNode( hiddenFile ), metadataNode( subfolder ), metadataNode( fileA ) );
+
+    QueryManager queryManager = mock( QueryManager.class );
+    QueryObjectModelFactory qomFactory = mock( QueryObjectModelFactory.class );
+    QueryObjectModel queryObjectModel = mock( QueryObjectModel.class );
+    Query query = mock( Query.class );
+    QueryResult queryResult = mock( QueryResult.class );
+    when( workspaceMock.getQueryManager() ).thenReturn( queryManager );
+    when( queryManager.getQOMFactory() ).thenReturn( qomFactory );
+    when( qomFactory.createQuery( nullable( Source.class ), nullable( Constraint.class ), nullable( Ordering[].class ),
+      nullable( Column[].class ) ) ).thenReturn( queryObjectModel );
+    when( queryObjectModel.getStatement() ).thenReturn( "statement" );
+    when( queryManager.createQuery( "statement", Query.JCR_JQOM ) ).thenReturn( query );
+    when( query.execute() ).thenReturn( queryResult );
+    when( queryResult.getNodes() ).thenAnswer( invocation -> new NodeIteratorAdapter( hits ) );
+
+    try ( MockedStatic<JcrRepositoryFileUtils> jcrRepositoryFileUtils = mockStatic( JcrRepositoryFileUtils.class ) ) {
+      jcrRepositoryFileUtils.when( () -> JcrRepositoryFileUtils.getChildrenByMetadata( eq( sessionMock ),
+        eq( pJcrConstMock ), nullable( IPathConversionHelper.class ), nullable( ILockHelper.class ), eq( "folderId" ),
+        eq( "creator" ), eq( "report" ), any( Integer.class ), any( Integer.class ) ) ).thenCallRealMethod();
+      jcrRepositoryFileUtils.when( () -> JcrRepositoryFileUtils.isPentahoFolder( eq( pJcrConstMock ),
+        any( Node.class ) ) ).thenAnswer( invocation -> invocation.getArgument( 1 ) == folderNode
+          || invocation.getArgument( 1 ) == subfolder );
+      jcrRepositoryFileUtils.when( () -> JcrRepositoryFileUtils.isSupportedNodeType( eq( pJcrConstMock ),
+        any( Node.class ) ) ).thenReturn( true );
+      jcrRepositoryFileUtils.when( () -> JcrRepositoryFileUtils.nodeToFile( eq( sessionMock ), eq( pJcrConstMock ),
+        nullable( IPathConversionHelper.class ), nullable( ILockHelper.class ), any( Node.class ) ) )
+        .thenAnswer( invocation -> files.get( invocation.getArgument( 4 ) ) );
+
+      assertEquals( Arrays.asList( files.get( fileA ), files.get( fileB ) ), JcrRepositoryFileUtils
+        .getChildrenByMetadata( sessionMock, pJcrConstMock, null, null, "folderId", "creator", "report", 0, -1 ) );
+      assertEquals( Arrays.asList( files.get( fileB ) ), JcrRepositoryFileUtils
+        .getChildrenByMetadata( sessionMock, pJcrConstMock, null, null, "folderId", "creator", "report", 1, 5 ) );
+    }
+  }
+
+  private static Node fileNode( final Map<Node, RepositoryFile> files, final Node parent, final String name,
+                                final boolean hidden ) throws RepositoryException {
+    Node node = mock( Node.class );
+    when( node.getParent() ).thenReturn( parent );
+    files.put( node, new RepositoryFile.Builder( name, name ).hidden( hidden ).build() );
+    return node;
+  }
+
+  private static Node metadataNode( final Node fileNode ) throws RepositoryException {
+    Node node = mock( Node.class );
+    when( node.getName() ).thenReturn( "pho:metadata" );
+    when( node.getParent() ).thenReturn( fileNode );
+    return node;
+  }
 }
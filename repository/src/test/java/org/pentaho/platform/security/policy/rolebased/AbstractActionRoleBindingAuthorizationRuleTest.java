@@ -31,10 +31,12 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.pentaho.platform.engine.security.authorization.core.AuthorizationTestHelpers.createTestAction;
@@ -82,6 +84,9 @@ public class AbstractActionRoleBindingAuthorizationRuleTest {
   @Before
   public void setUp() {
     mockContext = mock( IAuthorizationContext.class );
+    // Evaluate shared values of the context on demand
+    when( mockContext.getOrCompute( any(), any() ) )
+      .thenAnswer( invocation -> invocation.<Supplier<?>>getArgument( 1 ).get() );
     mockOptions = mock( IAuthorizationOptions.class );
     mockPrincipal = mock( IAuthorizationPrincipal.class );
 
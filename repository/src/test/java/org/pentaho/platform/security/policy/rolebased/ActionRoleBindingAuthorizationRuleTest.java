@@ -25,13 +25,17 @@ import org.pentaho.platform.engine.security.authorization.core.AuthorizationRole
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -67,6 +71,13 @@ public class ActionRoleBindingAuthorizationRuleTest {
   public void setUp() {
     mockRoleBindingDao = mock( IRoleAuthorizationPolicyRoleBindingDao.class );
     mockContext = mock( IAuthorizationContext.class );
+
+    // Share values of the context, like AuthorizationService does
+    Map<Object, Object> contextValues = new HashMap<>();
+    when( mockContext.getOrCompute( any(), any() ) )
+      .thenAnswer( invocation -> contextValues.computeIfAbsent(
+        invocation.getArgument( 0 ),
+        key -> invocation.<Supplier<?>>getArgument( 1 ).get() ) );
     mockOptions = mock( IAuthorizationOptions.class );
     var mockPrincipal = mock( IAuthorizationPrincipal.class );
 
@@ -217,5 +228,27 @@ public class ActionRoleBindingAuthorizationRuleTest {
     assertEquals( 1, decision.getBoundRoles().size() );
     assertTrue( decision.getBoundRoles().contains( roleUser ) );
   }
+
+  @Test
+  public void testDaoIsCalledOncePerRoleForRequestsOfTheSameContext() {
+    when( mockRequest.getAllRoles() ).thenReturn( orderedSetOf( roleUser ) );
+    when( mockRoleBindingDao.getBoundLogicalRoleNames( List.of( "ROLE_USER" ) ) )
+      .thenReturn( Arrays.asList( "read", "write" ) );
+
+    var writeAction = createTestAction( "write" );
+    var deleteAction = createTestAction( "delete" );
+    var writeRequest = mock( AuthorizationRequest.class );
+    when( writeRequest.getAction() ).thenReturn( writeAction );
+    when( writeRequest.getAllRoles() ).thenReturn( orderedSetOf( roleUser ) );
+    var deleteRequest = mock( AuthorizationRequest.class );
+    when( deleteRequest.getAction() ).thenReturn( deleteAction );
+    when( deleteRequest.getAllRoles() ).thenReturn( orderedSetOf( roleUser ) );
+
+    assertTrue( rule.authorize( mockRequest, mockContext ).orElseThrow().isGranted() );
+    assertTrue( rule.authorize( writeRequest, mockContext ).orElseThrow().isGranted() );
+    assertFalse( rule.authorize( deleteRequest, mockContext ).orElseThrow().isGranted() );
+
+    verify( mockRoleBindingDao, times( 1 ) ).getBoundLogicalRoleNames( List.of( "ROLE_USER" ) );
+  }
   // endregion
 }
@@ -28,10 +28,12 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.pentaho.platform.engine.security.authorization.core.AuthorizationTestHelpers.createTestAction;
@@ -60,6 +62,9 @@ public class MemoryActionRoleBindingAuthorizationRuleTest {
   @Before
   public void setUp() {
     mockContext = mock( IAuthorizationContext.class );
+    // Evaluate shared values of the context on demand
+    when( mockContext.getOrCompute( any(), any() ) )
+      .thenAnswer( invocation -> invocation.<Supplier<?>>getArgument( 1 ).get() );
     var mockOptions = mock( IAuthorizationOptions.class );
     var mockPrincipal = mock( IAuthorizationPrincipal.class );
 